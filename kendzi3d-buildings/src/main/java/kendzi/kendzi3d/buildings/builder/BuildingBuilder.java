@@ -11,6 +11,7 @@ import static kendzi.kendzi3d.buildings.builder.util.BuildingTextureUtil.*;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +28,7 @@ import kendzi.jogl.model.factory.MeshFactory;
 import kendzi.jogl.model.factory.MeshFactoryUtil;
 import kendzi.jogl.model.factory.ModelFactory;
 import kendzi.jogl.model.geometry.TextCoord;
+import kendzi.jogl.model.geometry.material.AmbientDiffuseComponent;
 import kendzi.jogl.model.geometry.material.Material;
 import kendzi.jogl.texture.dto.TextureData;
 import kendzi.jogl.texture.library.BuildingElementsTextureManager;
@@ -72,6 +74,16 @@ public class BuildingBuilder {
 
     private static final double EPSILON = 1e-10;
 
+    /**
+     * Facade color of simplified models when building don't have facade color.
+     */
+    private static final Color DEFAULT_FACADE_COLOR = new Color(0xd9, 0xd2, 0xc5);
+
+    /**
+     * Roof color of simplified models when building don't have roof color.
+     */
+    private static final Color DEFAULT_ROOF_COLOR = new Color(0x8e, 0x5b, 0x4b);
+
     /**
      * Build 3d Model of building.
      *
@@ -82,6 +94,26 @@ public class BuildingBuilder {
      * @return building model and debug informations
      */
     public static BuildingOutput buildModel(BuildingModel buildingModel, BuildingElementsTextureManager tm) {
+        return buildModel(buildingModel, tm, BuildingDetail.FULL);
+    }
+
+    /**
+     * Build 3d Model of building with given level of detail.
+     *
+     * @param buildingModel
+     *            building model
+     * @param tm
+     *            texture manager
+     * @param detail
+     *            level of detail
+     * @return building model and debug informations
+     */
+    public static BuildingOutput buildModel(BuildingModel buildingModel, BuildingElementsTextureManager tm,
+            BuildingDetail detail) {
+
+        if (BuildingDetail.BOX.equals(detail)) {
+            return buildBoxModel(buildingModel, tm);
+        }
 
         List<BuildingPartOutput> partsOut = new ArrayList<BuildingPartOutput>();
 
@@ -91,7 +123,11 @@ public class BuildingBuilder {
 
             for (BuildingPart bp : buildingModel.getParts()) {
 
-                partsOut.add(buildPart(bp, buildingModel, mf, tm));
+                if (BuildingDetail.EXTRUDED.equals(detail)) {
+                    partsOut.add(buildExtrudedPart(bp, buildingModel, mf, tm));
+                } else {
+                    partsOut.add(buildPart(bp, buildingModel, mf, tm, BuildingDetail.FULL.equals(detail)));
+                }
             }
         }
 
@@ -155,7 +191,7 @@ public class BuildingBuilder {
     }
 
     private static BuildingPartOutput buildPart(BuildingPart bp, BuildingModel buildingModel, ModelFactory mf,
-            BuildingElementsTextureManager tm) {
+            BuildingElementsTextureManager tm, boolean elements) {
 
         BuildingPartOutput partOutput = new BuildingPartOutput();
 
@@ -173,18 +209,20 @@ public class BuildingBuilder {
         // XXX
         TextureData facadeTextureData = takeFacadeTextureData(buildingModel, bp, w, firstWallPart, tm, facadeColor != null);
 
-        RoofOutput roofOutput = buildRoof(bp, mf, maxHeight, facadeColor, roofColor, facadeTextureData, roofTextureData);
+        RoofOutput roofOutput = buildRoof(bp, mf, maxHeight, facadeColor, roofColor, facadeTextureData, roofTextureData,
+                elements);
 
         double wallHeight = maxHeight - roofOutput.getHeight();
 
-        buildWall(w, minHeight, wallHeight, bp, buildingModel, mf, catchFaceFactory, tm, roofOutput.getHeightCalculator());
+        buildWall(w, minHeight, wallHeight, bp, buildingModel, mf, catchFaceFactory, tm, roofOutput.getHeightCalculator(),
+                elements);
 
         buildFloor(bp, buildingModel, mf, tm, roofTextureData, facadeColor, minHeight);
 
         if (bp.getInlineWalls() != null) {
             for (Wall in : bp.getInlineWalls()) {
                 buildWall(in, minHeight, wallHeight, bp, buildingModel, mf, catchFaceFactory, tm,
-                        roofOutput.getHeightCalculator());
+                        roofOutput.getHeightCalculator(), elements);
             }
         }
 
@@ -202,10 +240,11 @@ public class BuildingBuilder {
      * @param roofColor
      * @param facadeTextureData
      * @param roofTextureData
+     * @param dormers
      * @return
      */
     private static RoofOutput buildRoof(BuildingPart bp, ModelFactory mf, double maxHeight, Color facadeColor, Color roofColor,
-            TextureData facadeTextureData, TextureData roofTextureData) {
+            TextureData facadeTextureData, TextureData roofTextureData, boolean dormers) {
         RoofTextureData rtd = new RoofTextureData();
         // XXX fix, currently roof builder support only one texture, fix before
         // roof builder is changed.
@@ -216,7 +255,7 @@ public class BuildingBuilder {
         rtd.setRoofTexture(roofTextureData);
         RoofOutput roofOutput = null;
         if (bp.getRoof() instanceof DormerRoofModel) {
-            roofOutput = ShapeRoofBuilder.build(bp, maxHeight, mf, rtd);
+            roofOutput = ShapeRoofBuilder.build(bp, maxHeight, mf, rtd, dormers);
 
         } else if (bp.getRoof() instanceof RoofLinesModel) {
             roofOutput = RoofLinesBuildier.build(bp, maxHeight, mf, roofTextureData, roofColor);
@@ -258,7 +297,7 @@ public class BuildingBuilder {
 
     private static void buildWall(Wall w, double minHeight, double wallHeight, BuildingPart bp, BuildingModel buildingModel,
             ModelFactory mf, CatchFaceFactory catchFaceFactory, BuildingElementsTextureManager tm,
-            HeightCalculator roofHeightCalculator) {
+            HeightCalculator roofHeightCalculator, boolean elements) {
 
         boolean counterClockwise = isWallCounterClockwise(w);
 
@@ -281,8 +320,11 @@ public class BuildingBuilder {
             Color facadeColor = takeFacadeColor(buildingModel, bp, w, wp, tm);
             TextureData facadeTextureData = takeFacadeTextureData(buildingModel, bp, w, wp, tm, facadeColor != null);
 
-            TextureData adjustedWindowsTextureData = generateWindowsOverlayTextureData(w, minHeight, wallHeight, bp,
-                    buildingModel, tm, wp, wallLength);
+            TextureData adjustedWindowsTextureData = null;
+            if (elements) {
+                adjustedWindowsTextureData = generateWindowsOverlayTextureData(w, minHeight, wallHeight, bp, buildingModel,
+                        tm, wp, wallLength);
+            }
 
             Material mat = createWallMaterial(facadeColor, facadeTextureData, adjustedWindowsTextureData);
 
@@ -338,10 +380,12 @@ public class BuildingBuilder {
                 }
 
                 // build mesh
-                mPoly = applyWindows(mPoly, n1.getBuildingNodeElements(), startPoint, direction, 0, false, catchFaceFactory, tm,
-                        counterClockwise);
-                mPoly = applyWindows(mPoly, n2.getBuildingNodeElements(), startPoint, direction, segmentDistance, true,
-                        catchFaceFactory, tm, counterClockwise);
+                if (elements) {
+                    mPoly = applyWindows(mPoly, n1.getBuildingNodeElements(), startPoint, direction, 0, false,
+                            catchFaceFactory, tm, counterClockwise);
+                    mPoly = applyWindows(mPoly, n2.getBuildingNodeElements(), startPoint, direction, segmentDistance, true,
+                            catchFaceFactory, tm, counterClockwise);
+                }
 
                 for (PolygonList2d polygon : mPoly.getPolygons()) {
 
@@ -381,6 +425,181 @@ public class BuildingBuilder {
         }
     }
 
+    /**
+     * Builds building part as its footprint extruded from minimal to maximal
+     * height, with flat roof. Roof shape, windows and textures are skipped.
+     */
+    private static BuildingPartOutput buildExtrudedPart(BuildingPart bp, BuildingModel buildingModel, ModelFactory mf,
+            BuildingElementsTextureManager tm) {
+
+        Wall w = bp.getWall();
+        WallPart firstWallPart = getFirstWallPart(w);
+
+        Color facadeColor = takeFacadeColor(buildingModel, bp, w, firstWallPart, tm);
+        Color roofColor = takeRoofColor(buildingModel, bp, w, firstWallPart, tm);
+
+        double minHeight = bp.getDefaultMinHeight();
+        double maxHeight = bp.getDefaultMaxHeight();
+
+        MeshFactory wallMesh = createColorMesh(mf, "ExtrudedWall", facadeColor != null ? facadeColor : DEFAULT_FACADE_COLOR);
+        FaceFactory face = wallMesh.addFace(FaceType.TRIANGLES, 0);
+
+        addExtrudedWall(BuildingUtil.wallToOuterPolygon(w).getPoints(), true, minHeight, maxHeight, wallMesh, face);
+        if (bp.getInlineWalls() != null) {
+            for (Wall in : bp.getInlineWalls()) {
+                addExtrudedWall(BuildingUtil.wallToOuterPolygon(in).getPoints(), false, minHeight, maxHeight, wallMesh,
+                        face);
+            }
+        }
+
+        MeshFactory roofMesh = createColorMesh(mf, "ExtrudedRoof", roofColor != null ? roofColor : DEFAULT_ROOF_COLOR);
+        MeshFactoryUtil.addPolygonWithHolesInY(BuildingUtil.buildingPartToPolygonWithHoles(bp), maxHeight, roofMesh,
+                new TextureData(null, 1, 1), 0, 0, new Vector3d(1, 0, 0));
+
+        return new BuildingPartOutput();
+    }
+
+    /**
+     * Builds whole building as single box with flat roof.
+     */
+    private static BuildingOutput buildBoxModel(BuildingModel buildingModel, BuildingElementsTextureManager tm) {
+
+        ModelFactory mf = ModelFactory.modelBuilder();
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double minHeight = Double.POSITIVE_INFINITY;
+        double maxHeight = Double.NEGATIVE_INFINITY;
+
+        Color facadeColor = buildingModel.getFacadeColor();
+        Color roofColor = buildingModel.getRoofColor();
+
+        if (buildingModel.getParts() != null) {
+            for (BuildingPart bp : buildingModel.getParts()) {
+                Wall w = bp.getWall();
+                WallPart firstWallPart = getFirstWallPart(w);
+                if (facadeColor == null) {
+                    facadeColor = takeFacadeColor(buildingModel, bp, w, firstWallPart, tm);
+                }
+                if (roofColor == null) {
+                    roofColor = takeRoofColor(buildingModel, bp, w, firstWallPart, tm);
+                }
+
+                for (Point2d p : BuildingUtil.wallToOuterPolygon(w).getPoints()) {
+                    minX = Math.min(minX, p.x);
+                    minY = Math.min(minY, p.y);
+                    maxX = Math.max(maxX, p.x);
+                    maxY = Math.max(maxY, p.y);
+                }
+                minHeight = Math.min(minHeight, bp.getDefaultMinHeight());
+                maxHeight = Math.max(maxHeight, bp.getDefaultMaxHeight());
+            }
+        }
+
+        if (buildingModel.getNodeParts() != null) {
+            for (NodeBuildingPart bp : buildingModel.getNodeParts()) {
+                double radius = 0;
+                if (bp instanceof SphereNodeBuildingPart) {
+                    radius = ((SphereNodeBuildingPart) bp).getRadius();
+                }
+                Point2d p = bp.getPoint();
+                minX = Math.min(minX, p.x - radius);
+                minY = Math.min(minY, p.y - radius);
+                maxX = Math.max(maxX, p.x + radius);
+                maxY = Math.max(maxY, p.y + radius);
+                minHeight = Math.min(minHeight, bp.getHeight() - radius);
+                maxHeight = Math.max(maxHeight, bp.getHeight() + radius);
+            }
+        }
+
+        if (minX <= maxX && minHeight <= maxHeight) {
+            List<Point2d> box = new ArrayList<Point2d>();
+            box.add(new Point2d(minX, minY));
+            box.add(new Point2d(maxX, minY));
+            box.add(new Point2d(maxX, maxY));
+            box.add(new Point2d(minX, maxY));
+
+            MeshFactory wallMesh = createColorMesh(mf, "BoxWall", facadeColor != null ? facadeColor : DEFAULT_FACADE_COLOR);
+            addExtrudedWall(box, true, minHeight, maxHeight, wallMesh, wallMesh.addFace(FaceType.TRIANGLES, 0));
+
+            MeshFactory roofMesh = createColorMesh(mf, "BoxRoof", roofColor != null ? roofColor : DEFAULT_ROOF_COLOR);
+            MeshFactoryUtil.addPolygonWithHolesInY(new PolygonWithHolesList2d(new PolygonList2d(box), null), maxHeight,
+                    roofMesh, new TextureData(null, 1, 1), 0, 0, new Vector3d(1, 0, 0));
+        }
+
+        BuildingOutput out = new BuildingOutput();
+        out.setModel(mf.toModel());
+        out.setBuildingPartOutput(new ArrayList<BuildingPartOutput>());
+        return out;
+    }
+
+    /**
+     * Adds walls extruded from polygon. Walls of outer polygon are facing
+     * outside, walls of inner polygon are facing inside of it.
+     *
+     * @param points
+     *            points of polygon
+     * @param outer
+     *            if polygon is outer
+     * @param minHeight
+     *            wall minimal height
+     * @param maxHeight
+     *            wall maximal height
+     * @param mesh
+     *            mesh
+     * @param face
+     *            face without texture layers
+     */
+    private static void addExtrudedWall(List<Point2d> points, boolean outer, double minHeight, double maxHeight,
+            MeshFactory mesh, FaceFactory face) {
+
+        List<Point2d> polygon = new ArrayList<Point2d>(points);
+        boolean counterClockwise = 0.0f < Triangulate.area(polygon);
+        if (counterClockwise != outer) {
+            Collections.reverse(polygon);
+        }
+
+        int size = polygon.size();
+        for (int i = 0; i < size; i++) {
+            Point2d begin = polygon.get(i);
+            Point2d end = polygon.get((i + 1) % size);
+
+            Vector2d direction = new Vector2d(end);
+            direction.sub(begin);
+            if (direction.length() < EPSILON) {
+                continue;
+            }
+            direction.normalize();
+
+            int n = mesh.addNormal(new Vector3d(direction.y, 0, direction.x));
+
+            int bottomBegin = mesh.addVertex(new Point3d(begin.x, minHeight, -begin.y));
+            int bottomEnd = mesh.addVertex(new Point3d(end.x, minHeight, -end.y));
+            int topEnd = mesh.addVertex(new Point3d(end.x, maxHeight, -end.y));
+            int topBegin = mesh.addVertex(new Point3d(begin.x, maxHeight, -begin.y));
+
+            face.addVert(bottomBegin, n);
+            face.addVert(bottomEnd, n);
+            face.addVert(topEnd, n);
+
+            face.addVert(bottomBegin, n);
+            face.addVert(topEnd, n);
+            face.addVert(topBegin, n);
+        }
+    }
+
+    private static MeshFactory createColorMesh(ModelFactory mf, String name, Color color) {
+        Material mat = MaterialFactory.getDefaultMaterial();
+        mat.setAmbientDiffuse(new AmbientDiffuseComponent(color, color));
+
+        MeshFactory mesh = mf.addMesh(name);
+        mesh.hasTexture = false;
+        mesh.materialID = mf.cacheMaterial(mat);
+        return mesh;
+    }
+
     private static Collection<? extends PolygonList2d> createUnderRoofPolygons(Point2d startPoint, Point2d endPoint,
             double wallHeight2, HeightCalculator roofHeightCalculator) {
 
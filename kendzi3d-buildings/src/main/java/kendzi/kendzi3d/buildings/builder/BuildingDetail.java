@@ -0,0 +1,35 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.kendzi3d.buildings.builder;
+
+/**
+ * Level of detail of generated building model.
+ */
+public enum BuildingDetail {
+
+    /**
+     * Full model with windows, entrances, dormers and all texture layers.
+     */
+    FULL,
+
+    /**
+     * Model without windows, entrances and dormers. Walls have only facade
+     * texture.
+     */
+    SIMPLE,
+
+    /**
+     * Footprint of each building part extruded to its height, with flat roof.
+     * Walls and roof have only color.
+     */
+    EXTRUDED,
+
+    /**
+     * Single box covering whole building. Walls and roof have only color.
+     */
+    BOX;
+}
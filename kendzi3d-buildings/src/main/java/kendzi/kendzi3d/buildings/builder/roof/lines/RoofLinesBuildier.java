@@ -41,6 +41,7 @@ import kendzi.math.geometry.polygon.MultiPolygonList2d;
 import kendzi.math.geometry.polygon.PolygonList2d;
 import kendzi.math.geometry.polygon.PolygonWithHolesList2d;
 import kendzi.math.geometry.triangulate.Poly2TriUtil;
+import kendzi.math.geometry.triangulate.Poly2TriUtil.InteriorFilter;
 
 import org.apache.log4j.Logger;
 
@@ -89,7 +90,10 @@ public class RoofLinesBuildier {
         // XXX
         MeshFactory outlineMesh = createRoofMesh(mf, roofTextureData, roofColor);
 
-        List<Triangle2d> triangles = Poly2TriUtil.triangulate(outer, holes, segments, Collections.<Point2d> emptyList());
+        // courtyards are holes, flood fill don't test each triangle against
+        // every courtyard
+        List<Triangle2d> triangles = Poly2TriUtil.triangulate(outer, holes, segments, Collections.<Point2d> emptyList(),
+                InteriorFilter.FLOOD_FILL);
 
         Vector3d up = new Vector3d(0d, 1d, 0d);
         for (Triangle2d triangle : triangles) {
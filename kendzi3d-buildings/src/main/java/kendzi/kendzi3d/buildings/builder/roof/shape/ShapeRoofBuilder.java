@@ -64,6 +64,26 @@ public class ShapeRoofBuilder {
      */
     public static RoofOutput build(BuildingPart buildingPart, double height, ModelFactory mf,
             RoofTextureData roofTextureData) {
+        return build(buildingPart, height, mf, roofTextureData, true);
+    }
+
+    /**
+     * Shape roof builder.
+     *
+     * @param buildingPart
+     *            building part
+     * @param height
+     *            roof maximal height. Taken from building
+     * @param mf
+     *            model factory
+     * @param roofTextureData
+     *            texture data
+     * @param dormers
+     *            if dormers should be build
+     * @return roof model
+     */
+    public static RoofOutput build(BuildingPart buildingPart, double height, ModelFactory mf,
+            RoofTextureData roofTextureData, boolean dormers) {
 
         RoofMaterials roofMaterials = addMaterials(roofTextureData, mf);
 
@@ -97,8 +117,11 @@ public class ShapeRoofBuilder {
 
         RoofTypeOutput rto = roofType.buildRoof(startPoint, buildingPolygon, dormerRoof, height, roofMaterials);
 
-        List<RoofDormerTypeOutput> roofExtensionsList = DormerBuilder.build(rto.getRoofHooksSpaces(), dormerRoof,
-                dormerRoof.getMeasurements(), roofMaterials);
+        List<RoofDormerTypeOutput> roofExtensionsList = new ArrayList<RoofDormerTypeOutput>();
+        if (dormers) {
+            roofExtensionsList = DormerBuilder.build(rto.getRoofHooksSpaces(), dormerRoof,
+                    dormerRoof.getMeasurements(), roofMaterials);
+        }
 
         double minHeight = height - rto.getHeight();
 
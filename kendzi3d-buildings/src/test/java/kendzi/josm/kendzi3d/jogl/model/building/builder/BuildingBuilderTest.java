@@ -21,6 +21,7 @@ import kendzi.jogl.texture.dto.TextureData;
 import kendzi.jogl.texture.library.BuildingElementsTextureManager;
 import kendzi.jogl.texture.library.TextureFindCriteria;
 import kendzi.kendzi3d.buildings.builder.BuildingBuilder;
+import kendzi.kendzi3d.buildings.builder.BuildingDetail;
 import kendzi.kendzi3d.buildings.builder.roof.shape.measurement.Measurement;
 import kendzi.kendzi3d.buildings.builder.roof.shape.measurement.MeasurementKey;
 import kendzi.kendzi3d.buildings.model.BuildingModel;
@@ -42,6 +43,10 @@ public class BuildingBuilderTest {
     private static final String ROOF_TOP = "roof_top";
     private static final String ROOF_FACADE = "roof_facade";
     private static final String WALL_PART_0 = "WallPart: 0";
+    private static final String EXTRUDED_WALL = "ExtrudedWall";
+    private static final String EXTRUDED_ROOF = "ExtrudedRoof";
+    private static final String BOX_WALL = "BoxWall";
+    private static final String BOX_ROOF = "BoxRoof";
     private static final double EPSILON = 1e-10;
 
     @SuppressWarnings("javadoc")
@@ -74,6 +79,61 @@ public class BuildingBuilderTest {
         assertEquals(1, sumAreaForName(model, FLOOR_PART), EPSILON);
     }
 
+    @SuppressWarnings("javadoc")
+    @Test
+    public void buildSimpleSquareBuilding() {
+
+        BuildingModel buildingModel = createBuildingModel(createSquareWall());
+
+        BuildingOutput model = BuildingBuilder.buildModel(buildingModel, createMockTextureManager(),
+                BuildingDetail.SIMPLE);
+
+        assertEquals(set(WALL_PART_0, ROOF_FACADE, ROOF_TOP, FLOOR_PART), colectNames(model));
+        assertEquals(32, sumAreaForName(model, WALL_PART_0), EPSILON);
+        assertEquals(1, sumAreaForName(model, ROOF_TOP), EPSILON);
+    }
+
+    @SuppressWarnings("javadoc")
+    @Test
+    public void buildExtrudedSquareBuilding() {
+
+        BuildingModel buildingModel = createBuildingModel(createSquareWall());
+
+        BuildingOutput model = BuildingBuilder.buildModel(buildingModel, createMockTextureManager(),
+                BuildingDetail.EXTRUDED);
+
+        assertEquals(set(EXTRUDED_WALL, EXTRUDED_ROOF), colectNames(model));
+        assertEquals(32, sumAreaForName(model, EXTRUDED_WALL), EPSILON);
+        assertEquals(1, sumAreaForName(model, EXTRUDED_ROOF), EPSILON);
+    }
+
+    @SuppressWarnings("javadoc")
+    @Test
+    public void buildBoxRecBuilding() {
+
+        BuildingModel buildingModel = createBuildingModel(createRectWall());
+
+        BuildingOutput model = BuildingBuilder.buildModel(buildingModel, createMockTextureManager(), BuildingDetail.BOX);
+
+        assertEquals(set(BOX_WALL, BOX_ROOF), colectNames(model));
+        assertEquals(48, sumAreaForName(model, BOX_WALL), EPSILON);
+        assertEquals(2, sumAreaForName(model, BOX_ROOF), EPSILON);
+    }
+
+    private BuildingModel createBuildingModel(Wall wall) {
+        DormerRoofModel roof = new DormerRoofModel();
+        roof.setRoofType(RoofTypeAliasEnum.FLAT);
+        roof.setMeasurements(new HashMap<MeasurementKey, Measurement>());
+
+        BuildingPart part = new BuildingPart();
+        part.setWall(wall);
+        part.setRoof(roof);
+
+        BuildingModel buildingModel = new BuildingModel();
+        buildingModel.setParts(Arrays.asList(part));
+        return buildingModel;
+    }
+
     private Wall createSquareWall() {
         WallNode n1 = new WallNode(new Point2d(1, 1), null);
         WallNode n2 = new WallNode(new Point2d(2, 1), null);
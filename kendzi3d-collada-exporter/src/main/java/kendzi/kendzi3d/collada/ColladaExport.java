@@ -175,14 +175,16 @@ public class ColladaExport extends TextExport {
             Material faceMaterial
             ) {
 
+        TextCoord[] texCoords = mesh.getTexCoordArray();
+
         SimplifyIndexArray<Point3d> simpVertex =
-                SimplifyIndexArray.simple(mesh.vertices, face.vertIndex, Point3d.class);
+                SimplifyIndexArray.simple(mesh.getVertexArray(), face.vertIndex, Point3d.class);
 
         SimplifyIndexArray<Vector3d> simpNormal =
-                SimplifyIndexArray.simple(mesh.normals, face.normalIndex, Vector3d.class);
+                SimplifyIndexArray.simple(mesh.getNormalArray(), face.normalIndex, Vector3d.class);
 
         SimplifyIndexArray<TextCoord> simpTex0 =
-                SimplifyIndexArray.simple(mesh.texCoords, face.coordIndexLayers[0], TextCoord.class);
+                SimplifyIndexArray.simple(texCoords, face.coordIndexLayers[0], TextCoord.class);
 
         Source vertexSource = createVertexSource(simpVertex.getSdata());
         Source normalsSource = createNormalSource(simpNormal.getSdata());
@@ -215,7 +217,7 @@ public class ColladaExport extends TextExport {
         for (int l = 1; l < numOfLayers; l++) {
 
             SimplifyIndexArray<TextCoord> simpTexN =
-                    SimplifyIndexArray.simple(mesh.texCoords, face.coordIndexLayers[l], TextCoord.class);
+                    SimplifyIndexArray.simple(texCoords, face.coordIndexLayers[l], TextCoord.class);
 
             Source layerUVSource = createTexSource(simpTexN.getSdata());
             layerUVSource.setId(layerUVSource.getId() + "_" + l);
@@ -2,6 +2,9 @@ package kendzi.kendzi3d.editor;
 
 import java.util.List;
 
+import kendzi.jogl.camera.Frustum;
+import kendzi.math.geometry.ray.Ray3d;
+
 /**
  * Data source for editable objects.
  *
@@ -14,4 +17,33 @@ public interface EditableObjectProvider {
      * @return list of editable object
      */
     List<EditableObject> getEditableObjects();
+
+    /**
+     * Gets number of editable objects. It should be cheap, it is called for
+     * every frame.
+     *
+     * @return number of editable objects
+     */
+    int getEditableObjectsCount();
+
+    /**
+     * Gets list of editable object which are at least partly inside of view
+     * frustum. Objects which bounds are unknown are always returned.
+     *
+     * @param frustum
+     *            view frustum
+     * @return list of visible editable object
+     */
+    List<EditableObject> getEditableObjects(Frustum frustum);
+
+    /**
+     * Gets list of editable object which bounds are crossed by ray. They are
+     * candidates for selection. Objects which bounds are unknown are always
+     * returned.
+     *
+     * @param ray
+     *            selection ray
+     * @return list of editable object candidates
+     */
+    List<EditableObject> getEditableObjects(Ray3d ray);
 }
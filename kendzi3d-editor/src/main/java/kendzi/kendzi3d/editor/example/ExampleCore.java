@@ -4,10 +4,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 import kendzi.jogl.camera.Camera;
+import kendzi.jogl.camera.Frustum;
 import kendzi.kendzi3d.editor.EditableObject;
 import kendzi.kendzi3d.editor.EditorCore;
 import kendzi.kendzi3d.editor.example.objects.Box;
 import kendzi.kendzi3d.editor.example.objects.Roof;
+import kendzi.math.geometry.ray.Ray3d;
 
 public class ExampleCore implements EditorCore {
 
@@ -29,4 +31,20 @@ public class ExampleCore implements EditorCore {
         return objects;
     }
 
+    @Override
+    public int getEditableObjectsCount() {
+        return objects.size();
+    }
+
+    @Override
+    public List<EditableObject> getEditableObjects(Frustum frustum) {
+        // only few objects, no need to cull them
+        return objects;
+    }
+
+    @Override
+    public List<EditableObject> getEditableObjects(Ray3d ray) {
+        return objects;
+    }
+
 }
@@ -14,6 +14,7 @@ import kendzi.kendzi3d.editor.example.ui.ExampleFrame;
 import kendzi.kendzi3d.editor.selection.ObjectSelectionManager;
 import kendzi.kendzi3d.editor.selection.ViewportProvider;
 import kendzi.kendzi3d.editor.ui.BaseEditorGLEventListener;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 import kendzi.kendzi3d.resource.inter.LocalResourceReciver;
 import kendzi.kendzi3d.resource.inter.ResourceService;
 
@@ -38,6 +39,8 @@ public class ExampleModule extends AbstractModule {
         bind(ViewportPicker.class).to(Viewport.class).in(Singleton.class);
 
         bind(EditorCore.class).to(ExampleCore.class).in(Singleton.class);
+
+        bind(RedrawScheduler.class).in(Singleton.class);
     }
 
     @Provides
@@ -62,7 +62,8 @@ public class ObjectSelectionManager extends ObjectSelectionListener {
 
     @Override
     protected Selection select(Ray3d selectRay) {
-        List<EditableObject> editableObjects = editableObjectProvider.getEditableObjects();
+        // only objects which bounds are crossed by ray
+        List<EditableObject> editableObjects = editableObjectProvider.getEditableObjects(selectRay);
 
         List<EditableObject> selectCandidates = new ArrayList<>();
 
@@ -2,6 +2,11 @@ package kendzi.kendzi3d.editor.ui;
 
 import java.awt.Canvas;
 import java.awt.Frame;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
@@ -12,12 +17,16 @@ import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.awt.GLCanvas;
 
 import kendzi.jogl.camera.CameraMoveListener;
+import kendzi.jogl.camera.SimpleMoveAnimator;
+import kendzi.jogl.texture.TextureCacheService;
+import kendzi.jogl.texture.TextureCacheService.TextureLoadListener;
 import kendzi.kendzi3d.editor.selection.ObjectSelectionManager;
+import kendzi.kendzi3d.editor.selection.event.SelectionChangeEvent;
 import kendzi.kendzi3d.editor.selection.listener.ObjectSelectionListener;
+import kendzi.kendzi3d.editor.selection.listener.ObjectSelectionListener.SelectionChangeListener;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler.RedrawCondition;
 import kendzi.kendzi3d.editor.ui.event.CloseWindowListener;
 
-import com.jogamp.opengl.util.Animator;
-
 /**
  * Example frame with 3d editor.
  * 
@@ -41,6 +50,58 @@ public abstract class BaseEditorFrame extends Frame {
     @Inject
     private ObjectSelectionManager objectSelectionManager;
 
+    /**
+     * Draws canvas when view is changed.
+     */
+    @Inject
+    private RedrawScheduler redrawScheduler;
+
+    /**
+     * Camera, view is redrawn while it is moving.
+     */
+    @Inject
+    private SimpleMoveAnimator camera;
+
+    /**
+     * Texture cache, view is redrawn when textures loaded in background are
+     * ready for upload.
+     */
+    @Inject
+    private TextureCacheService textureCacheService;
+
+    /**
+     * Requests redraw after selection change.
+     */
+    private final SelectionChangeListener selectionRedrawListener = new SelectionChangeListener() {
+
+        @Override
+        public void onSelectionChange(SelectionChangeEvent args) {
+            redrawScheduler.requestRedraw();
+        }
+    };
+
+    /**
+     * Requests redraw when texture loaded in background is ready for upload.
+     */
+    private final TextureLoadListener textureRedrawListener = new TextureLoadListener() {
+
+        @Override
+        public void onTextureLoaded(String pFileName) {
+            redrawScheduler.requestRedraw();
+        }
+    };
+
+    /**
+     * Keeps drawing while camera is moving or textures wait for upload.
+     */
+    private final RedrawCondition moveRedrawCondition = new RedrawCondition() {
+
+        @Override
+        public boolean isRedrawNeeded() {
+            return camera.isMoving() || textureCacheService.hasPendingUploads();
+        }
+    };
+
     /**
      * Constructor.
      */
@@ -83,8 +144,8 @@ public abstract class BaseEditorFrame extends Frame {
         frame.add(canvas);
         frame.setSize(640, 480);
 
-        // Setup animator for canvas.
-        final Animator animator = new Animator(canvas);
+        // Setup redraw conditions for canvas.
+        addRedrawListeners(canvas);
 
         if (listener instanceof CloseWindowEventSource) {
             // if listener could be source of window close event
@@ -92,17 +153,17 @@ public abstract class BaseEditorFrame extends Frame {
 
                 @Override
                 public void closeWindow() {
-                    closeWindowRequest(frame, animator);
+                    closeWindowRequest(frame);
                 }
             });
         }
 
-        // Listener to close correctly application and stop animator.
+        // Listener to close correctly application and stop drawing.
         frame.addWindowListener(new WindowAdapter() {
 
             @Override
             public void windowClosing(WindowEvent e) {
-                closeWindowRequest(frame, animator);
+                closeWindowRequest(frame);
             }
 
         });
@@ -116,8 +177,8 @@ public abstract class BaseEditorFrame extends Frame {
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
 
-        // Start animate.
-        animator.start();
+        // Start drawing, frames are drawn only when view is changed.
+        redrawScheduler.start(canvas);
 
         // Request focus to enable keyboard input.
         canvas.setFocusable(true);
@@ -134,20 +195,19 @@ public abstract class BaseEditorFrame extends Frame {
         //
     }
 
-    private void closeWindowRequest(final Frame frame, final Animator animator) {
+    private void closeWindowRequest(final Frame frame) {
         /*
          * Run this on another thread than the AWT event queue to make sure the
-         * call to Animator.stop() completes before exiting.
+         * call to RedrawScheduler.stop() completes before exiting.
          */
         new Thread(new Runnable() {
 
             @Override
             public void run() {
 
-                // If need stop animator before dispose frame.
-                if (animator.isStarted()) {
-                    animator.stop();
-                }
+                // If need stop drawing before dispose frame.
+                redrawScheduler.stop();
+                removeRedrawListeners();
 
                 // Dispose frame.
                 frame.setVisible(false);
@@ -181,6 +241,81 @@ public abstract class BaseEditorFrame extends Frame {
         return new GLCanvas(capabilities);
     }
 
+    /**
+     * Register listeners which request redraw of canvas after input events,
+     * selection change, camera move and texture load.
+     *
+     * @param canvas
+     *            canvas
+     */
+    private void addRedrawListeners(Canvas canvas) {
+
+        InputRedrawListener inputListener = new InputRedrawListener();
+        canvas.addKeyListener(inputListener);
+        canvas.addMouseListener(inputListener);
+        canvas.addMouseMotionListener(inputListener);
+        canvas.addMouseWheelListener(inputListener);
+
+        objectSelectionManager.addSelectionChangeListener(selectionRedrawListener);
+        textureCacheService.setTextureLoadListener(textureRedrawListener);
+        redrawScheduler.addRedrawCondition(moveRedrawCondition);
+    }
+
+    /**
+     * Unregister listeners from shared services when window is closed.
+     */
+    private void removeRedrawListeners() {
+        objectSelectionManager.removeSelectionChangeListener(selectionRedrawListener);
+        textureCacheService.setTextureLoadListener(null);
+        redrawScheduler.removeRedrawCondition(moveRedrawCondition);
+    }
+
+    /**
+     * Requests redraw after any keyboard or mouse event on canvas.
+     */
+    private class InputRedrawListener extends MouseAdapter implements KeyListener {
+
+        @Override
+        public void keyTyped(KeyEvent e) {
+            redrawScheduler.requestRedraw();
+        }
+
+        @Override
+        public void keyPressed(KeyEvent e) {
+            redrawScheduler.requestRedraw();
+        }
+
+        @Override
+        public void keyReleased(KeyEvent e) {
+            redrawScheduler.requestRedraw();
+        }
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            redrawScheduler.requestRedraw();
+        }
+
+        @Override
+        public void mouseReleased(MouseEvent e) {
+            redrawScheduler.requestRedraw();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            redrawScheduler.requestRedraw();
+        }
+
+        @Override
+        public void mouseMoved(MouseEvent e) {
+            redrawScheduler.requestRedraw();
+        }
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            redrawScheduler.requestRedraw();
+        }
+    }
+
     private static void addCameraMoveListener(GLCanvas canvas, final CameraMoveListener cameraMoveListener) {
 
         canvas.addKeyListener(cameraMoveListener);
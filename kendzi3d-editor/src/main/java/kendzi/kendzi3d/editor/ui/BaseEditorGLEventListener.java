@@ -12,6 +12,7 @@ import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.fixedfunc.GLLightingFunc;
 import com.jogamp.opengl.fixedfunc.GLMatrixFunc;
 
+import kendzi.jogl.camera.Frustum;
 import kendzi.jogl.camera.SimpleMoveAnimator;
 import kendzi.jogl.camera.Viewport;
 import kendzi.jogl.camera.ViewportUtil;
@@ -51,6 +52,17 @@ public class BaseEditorGLEventListener implements GLEventListener, ViewportProvi
 
     private boolean windowClosed = false;
 
+    /**
+     * Number of objects drawn in last frame.
+     */
+    private int drawnObjectsCount;
+
+    /**
+     * Number of objects skipped in last frame because they were outside of
+     * view frustum.
+     */
+    private int culledObjectsCount;
+
     @Override
     public void init(GLAutoDrawable drawable) {
 
@@ -226,16 +238,48 @@ public class BaseEditorGLEventListener implements GLEventListener, ViewportProvi
     protected void drawEditorObjects(GL2 gl, Viewport viewport) {
 
         try {
-            List<EditableObject> editableObjects = core.getEditableObjects();
+            List<EditableObject> visibleObjects;
+            Frustum frustum = viewport.getFrustum();
+            if (frustum != null) {
+                visibleObjects = core.getEditableObjects(frustum);
+            } else {
+                visibleObjects = core.getEditableObjects();
+            }
 
-            for (EditableObject editableObject : editableObjects) {
+            for (EditableObject editableObject : visibleObjects) {
                 drawEditorObject(gl, editableObject, viewport);
             }
+
+            // total count is maintained by core, objects are not listed again
+            updateDrawStatistics(visibleObjects.size(), core.getEditableObjectsCount() - visibleObjects.size());
         } catch (Exception e) {
             LOG.error("can't draw editor objects", e);
         }
     }
 
+    private void updateDrawStatistics(int drawn, int culled) {
+        if (LOG.isDebugEnabled() && (drawn != drawnObjectsCount || culled != culledObjectsCount)) {
+            LOG.debug("drawn objects: " + drawn + " culled objects: " + culled);
+        }
+        drawnObjectsCount = drawn;
+        culledObjectsCount = Math.max(0, culled);
+    }
+
+    /**
+     * @return number of objects drawn in last frame
+     */
+    public int getDrawnObjectsCount() {
+        return drawnObjectsCount;
+    }
+
+    /**
+     * @return number of objects skipped in last frame because they were
+     *         outside of view frustum
+     */
+    public int getCulledObjectsCount() {
+        return culledObjectsCount;
+    }
+
     protected void drawEditorObject(GL2 gl, EditableObject editableObject, Viewport viewport) {
         throw new IllegalStateException("unsupported editor object: " + editableObject);
     }
@@ -0,0 +1,292 @@
+package kendzi.kendzi3d.editor.ui;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLException;
+
+/**
+ * Draws canvas only when view is dirty, instead of drawing it continuously.
+ * View is marked dirty by requestRedraw, e.g. after input event, data or
+ * selection change. After each frame registered redraw conditions are tested,
+ * when any of them is still active (camera is moving, textures wait for
+ * upload) next frame is drawn too. Frame rate can be limited.
+ *
+ * Once per second statistics of active (drawn) and idle frames are sent to
+ * listeners. Idle frames are frame slots in which nothing was drawn, slot
+ * length is given by frame rate limit or by default refresh rate when frame
+ * rate is not limited.
+ */
+public class RedrawScheduler {
+
+    /** Log. */
+    private static final Logger LOG = Logger.getLogger(RedrawScheduler.class);
+
+    /**
+     * Refresh rate used to count idle frames when frame rate is not limited.
+     */
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    private static final long STATISTICS_PERIOD = TimeUnit.SECONDS.toNanos(1);
+
+    private final Object lock = new Object();
+
+    private final List<RedrawCondition> redrawConditions = new CopyOnWriteArrayList<RedrawCondition>();
+
+    private final List<StatisticsListener> statisticsListeners = new CopyOnWriteArrayList<StatisticsListener>();
+
+    private GLAutoDrawable drawable;
+
+    private Thread thread;
+
+    private boolean running;
+
+    private boolean dirty;
+
+    private volatile int maxFps;
+
+    private int activeFrames;
+
+    private long statisticsStart;
+
+    /**
+     * Starts drawing of drawable. First frame is drawn immediately.
+     *
+     * @param drawable
+     *            drawable
+     */
+    public void start(GLAutoDrawable drawable) {
+        synchronized (lock) {
+            if (running) {
+                throw new IllegalStateException("scheduler is already started");
+            }
+            this.drawable = drawable;
+            running = true;
+            dirty = true;
+
+            thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    loop();
+                }
+            }, "kendzi3d-redraw");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops drawing and waits until last frame is finished. Should not be
+     * called from drawing thread.
+     */
+    public void stop() {
+        Thread stopped;
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            stopped = thread;
+            thread = null;
+            lock.notifyAll();
+        }
+
+        try {
+            stopped.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return if scheduler is started
+     */
+    public boolean isStarted() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * Marks view dirty, so it is drawn in next frame. Can be called from any
+     * thread.
+     */
+    public void requestRedraw() {
+        synchronized (lock) {
+            if (!dirty) {
+                dirty = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void loop() {
+
+        statisticsStart = System.nanoTime();
+
+        while (true) {
+            synchronized (lock) {
+                while (running && !dirty) {
+                    long wait = statisticsStart + STATISTICS_PERIOD - System.nanoTime();
+                    if (wait <= 0) {
+                        fireStatistics();
+                        continue;
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, wait);
+                    } catch (InterruptedException e) {
+                        running = false;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                dirty = false;
+            }
+
+            long frameStart = System.nanoTime();
+
+            try {
+                drawable.display();
+            } catch (GLException e) {
+                LOG.error("error while drawing frame", e);
+            }
+            activeFrames++;
+
+            if (isRedrawNeeded()) {
+                requestRedraw();
+            }
+
+            waitForNextFrame(frameStart);
+
+            if (System.nanoTime() - statisticsStart >= STATISTICS_PERIOD) {
+                fireStatistics();
+            }
+        }
+    }
+
+    private boolean isRedrawNeeded() {
+        for (RedrawCondition condition : redrawConditions) {
+            if (condition.isRedrawNeeded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void waitForNextFrame(long frameStart) {
+        int fps = maxFps;
+        if (fps <= 0) {
+            return;
+        }
+        long sleep = frameStart + TimeUnit.SECONDS.toNanos(1) / fps - System.nanoTime();
+        if (sleep > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void fireStatistics() {
+        long now = System.nanoTime();
+        long period = now - statisticsStart;
+
+        int fps = maxFps > 0 ? maxFps : DEFAULT_REFRESH_RATE;
+        int frameSlots = (int) (period * fps / TimeUnit.SECONDS.toNanos(1));
+        int idleFrames = Math.max(0, frameSlots - activeFrames);
+
+        int active = activeFrames;
+        activeFrames = 0;
+        statisticsStart = now;
+
+        for (StatisticsListener listener : statisticsListeners) {
+            listener.onFrameStatistics(active, idleFrames, period);
+        }
+    }
+
+    /**
+     * @param condition
+     *            condition tested after each frame, when it is active next
+     *            frame is drawn too
+     */
+    public void addRedrawCondition(RedrawCondition condition) {
+        redrawConditions.add(condition);
+    }
+
+    /**
+     * @param condition
+     *            condition to remove
+     */
+    public void removeRedrawCondition(RedrawCondition condition) {
+        redrawConditions.remove(condition);
+    }
+
+    /**
+     * @param listener
+     *            listener of frame statistics
+     */
+    public void addStatisticsListener(StatisticsListener listener) {
+        statisticsListeners.add(listener);
+    }
+
+    /**
+     * @param listener
+     *            listener to remove
+     */
+    public void removeStatisticsListener(StatisticsListener listener) {
+        statisticsListeners.remove(listener);
+    }
+
+    /**
+     * @return maximal number of frames per second, 0 when frame rate is not
+     *         limited
+     */
+    public int getMaxFps() {
+        return maxFps;
+    }
+
+    /**
+     * @param maxFps
+     *            maximal number of frames per second, 0 to not limit frame
+     *            rate
+     */
+    public void setMaxFps(int maxFps) {
+        this.maxFps = Math.max(0, maxFps);
+    }
+
+    /**
+     * Condition which requires continuous drawing while it is active.
+     */
+    public interface RedrawCondition {
+
+        /**
+         * @return if next frame should be drawn
+         */
+        boolean isRedrawNeeded();
+    }
+
+    /**
+     * Listener of frame statistics.
+     */
+    public interface StatisticsListener {
+
+        /**
+         * Called once per second from drawing thread.
+         *
+         * @param activeFrames
+         *            number of drawn frames
+         * @param idleFrames
+         *            number of frame slots in which nothing was drawn
+         * @param period
+         *            length of measured period in nanoseconds
+         */
+        void onFrameStatistics(int activeFrames, int idleFrames, long period);
+    }
+}
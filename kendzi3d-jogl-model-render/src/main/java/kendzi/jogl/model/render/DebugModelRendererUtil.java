@@ -35,19 +35,19 @@ public class DebugModelRendererUtil {
                     for (int i = 0; i < vertLength; i++) {
 
                         int normalIndex = face.normalIndex[i];
-                        if (mesh.normals.length > normalIndex) {
+                        if (mesh.getNormalCount() > normalIndex) {
 
                             int vetexIndex = face.vertIndex[i];
                             pGl.glVertex3d(
-                                    mesh.vertices[vetexIndex].x,
-                                    mesh.vertices[vetexIndex].y,
-                                    mesh.vertices[vetexIndex].z);
+                                    mesh.vertices[3 * vetexIndex],
+                                    mesh.vertices[3 * vetexIndex + 1],
+                                    mesh.vertices[3 * vetexIndex + 2]);
 
                             double normScale = 0.5;
                             pGl.glVertex3d(
-                            mesh.vertices[vetexIndex].x + normScale * mesh.normals[normalIndex].x,
-                            mesh.vertices[vetexIndex].y + normScale * mesh.normals[normalIndex].y,
-                            mesh.vertices[vetexIndex].z + normScale * mesh.normals[normalIndex].z);
+                            mesh.vertices[3 * vetexIndex] + normScale * mesh.normals[3 * normalIndex],
+                            mesh.vertices[3 * vetexIndex + 1] + normScale * mesh.normals[3 * normalIndex + 1],
+                            mesh.vertices[3 * vetexIndex + 2] + normScale * mesh.normals[3 * normalIndex + 2]);
                         }
 
                     }
@@ -82,9 +82,9 @@ public class DebugModelRendererUtil {
 
                         int vetexIndex = face.vertIndex[i];
                         pGl.glVertex3d(
-                                mesh.vertices[vetexIndex].x,
-                                mesh.vertices[vetexIndex].y,
-                                mesh.vertices[vetexIndex].z);
+                                mesh.vertices[3 * vetexIndex],
+                                mesh.vertices[3 * vetexIndex + 1],
+                                mesh.vertices[3 * vetexIndex + 2]);
                     }
                     pGl.glEnd();
                     if (face.vertIndex.length > 2) {
@@ -93,9 +93,9 @@ public class DebugModelRendererUtil {
 
                             int vetexIndex = face.vertIndex[i];
                             pGl.glVertex3d(
-                                    mesh.vertices[vetexIndex].x,
-                                    mesh.vertices[vetexIndex].y,
-                                    mesh.vertices[vetexIndex].z);
+                                    mesh.vertices[3 * vetexIndex],
+                                    mesh.vertices[3 * vetexIndex + 1],
+                                    mesh.vertices[3 * vetexIndex + 2]);
                         }
                         pGl.glEnd();
                         pGl.glBegin(GL2.GL_LINE_STRIP);
@@ -103,9 +103,9 @@ public class DebugModelRendererUtil {
 
                             int vetexIndex = face.vertIndex[i];
                             pGl.glVertex3d(
-                                    mesh.vertices[vetexIndex].x,
-                                    mesh.vertices[vetexIndex].y,
-                                    mesh.vertices[vetexIndex].z);
+                                    mesh.vertices[3 * vetexIndex],
+                                    mesh.vertices[3 * vetexIndex + 1],
+                                    mesh.vertices[3 * vetexIndex + 2]);
                         }
                         pGl.glEnd();
                     }
@@ -118,9 +118,9 @@ public class DebugModelRendererUtil {
 
                             int vetexIndex = face.vertIndex[i + triangleCount];
                             pGl.glVertex3d(
-                                    mesh.vertices[vetexIndex].x,
-                                    mesh.vertices[vetexIndex].y,
-                                    mesh.vertices[vetexIndex].z);
+                                    mesh.vertices[3 * vetexIndex],
+                                    mesh.vertices[3 * vetexIndex + 1],
+                                    mesh.vertices[3 * vetexIndex + 2]);
                             triangleCount++;
                         }
                         i = i + 3;
@@ -132,15 +132,15 @@ public class DebugModelRendererUtil {
 
                         int vetexIndex = face.vertIndex[i];
                         pGl.glVertex3d(
-                                mesh.vertices[vetexIndex].x,
-                                mesh.vertices[vetexIndex].y,
-                                mesh.vertices[vetexIndex].z);
+                                mesh.vertices[3 * vetexIndex],
+                                mesh.vertices[3 * vetexIndex + 1],
+                                mesh.vertices[3 * vetexIndex + 2]);
                     }
                     pGl.glEnd();
 
                     if (vertLength > 1) {
 
-                        Point3d begin = mesh.vertices[face.vertIndex[0]];
+                        Point3d begin = mesh.getVertex(face.vertIndex[0]);
 
                         pGl.glBegin(GL2.GL_LINES);
                         for (int i = 2; i < vertLength; i++) {
@@ -149,9 +149,9 @@ public class DebugModelRendererUtil {
 
                             int endIndex = face.vertIndex[i];
                             pGl.glVertex3d(
-                                    mesh.vertices[endIndex].x,
-                                    mesh.vertices[endIndex].y,
-                                    mesh.vertices[endIndex].z);
+                                    mesh.vertices[3 * endIndex],
+                                    mesh.vertices[3 * endIndex + 1],
+                                    mesh.vertices[3 * endIndex + 2]);
                         }
                         pGl.glEnd();
                     }
@@ -167,9 +167,9 @@ public class DebugModelRendererUtil {
 
                             int vetexIndex = face.vertIndex[i + q];
                             pGl.glVertex3d(
-                                    mesh.vertices[vetexIndex].x,
-                                    mesh.vertices[vetexIndex].y,
-                                    mesh.vertices[vetexIndex].z);
+                                    mesh.vertices[3 * vetexIndex],
+                                    mesh.vertices[3 * vetexIndex + 1],
+                                    mesh.vertices[3 * vetexIndex + 2]);
 
                             i++;
                         }
@@ -182,9 +182,9 @@ public class DebugModelRendererUtil {
 
                         int vetexIndex = face.vertIndex[i];
                         pGl.glVertex3d(
-                                mesh.vertices[vetexIndex].x,
-                                mesh.vertices[vetexIndex].y,
-                                mesh.vertices[vetexIndex].z);
+                                mesh.vertices[3 * vetexIndex],
+                                mesh.vertices[3 * vetexIndex + 1],
+                                mesh.vertices[3 * vetexIndex + 2]);
                     }
                     pGl.glEnd();
 
@@ -193,9 +193,9 @@ public class DebugModelRendererUtil {
 
                         int vetexIndex = face.vertIndex[i];
                         pGl.glVertex3d(
-                                mesh.vertices[vetexIndex].x,
-                                mesh.vertices[vetexIndex].y,
-                                mesh.vertices[vetexIndex].z);
+                                mesh.vertices[3 * vetexIndex],
+                                mesh.vertices[3 * vetexIndex + 1],
+                                mesh.vertices[3 * vetexIndex + 2]);
                     }
                     pGl.glEnd();
 
@@ -204,9 +204,9 @@ public class DebugModelRendererUtil {
 
                         int vetexIndex = face.vertIndex[i];
                         pGl.glVertex3d(
-                                mesh.vertices[vetexIndex].x,
-                                mesh.vertices[vetexIndex].y,
-                                mesh.vertices[vetexIndex].z);
+                                mesh.vertices[3 * vetexIndex],
+                                mesh.vertices[3 * vetexIndex + 1],
+                                mesh.vertices[3 * vetexIndex + 2]);
                     }
                     pGl.glEnd();
                 }
@@ -0,0 +1,188 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.model.render;
+
+import kendzi.jogl.model.geometry.Face;
+import kendzi.jogl.model.geometry.Mesh;
+import kendzi.jogl.model.geometry.Model;
+
+/**
+ * Bakes instances of model into one model. Vertices and normals of each
+ * instance are transformed by instance matrix, so all instances can be drawn
+ * by one draw call for each mesh without changing model view matrix.
+ * Materials and texture coordinates are shared with source model.
+ */
+final class InstanceBaker {
+
+    private InstanceBaker() {
+        //
+    }
+
+    /**
+     * Number of vertices in model after baking.
+     *
+     * @param model
+     *            model
+     * @param instances
+     *            instances
+     * @return number of vertices
+     */
+    static long bakedVertexCount(Model model, InstanceBuffer instances) {
+        long count = 0;
+        for (Mesh mesh : model.mesh) {
+            count += mesh.getVertexCount();
+        }
+        return count * instances.size();
+    }
+
+    /**
+     * Bakes instances of model.
+     *
+     * @param model
+     *            model
+     * @param instances
+     *            instances
+     * @return model with all instances
+     */
+    static Model bake(Model model, InstanceBuffer instances) {
+        Model baked = new Model(model.getSource());
+        baked.materials = model.materials;
+        baked.useTexture = model.useTexture;
+        baked.useTextureAlpha = model.useTextureAlpha;
+        baked.useCullFaces = model.useCullFaces;
+        baked.useTwoSided = model.useTwoSided;
+        baked.useLight = model.useLight;
+
+        baked.mesh = new Mesh[model.mesh.length];
+        for (int mi = 0; mi < model.mesh.length; mi++) {
+            baked.mesh[mi] = bake(model.mesh[mi], instances);
+        }
+        return baked;
+    }
+
+    private static Mesh bake(Mesh mesh, InstanceBuffer instances) {
+        int count = instances.size();
+        double[] matrices = instances.getMatrices();
+
+        int vertexCount = mesh.getVertexCount();
+        int normalCount = mesh.getNormalCount();
+
+        Mesh baked = new Mesh();
+        baked.name = mesh.name;
+        baked.materialID = mesh.materialID;
+        baked.hasTexture = mesh.hasTexture;
+        baked.texCoords = mesh.texCoords;
+
+        if (mesh.vertices != null) {
+            baked.vertices = new float[3 * vertexCount * count];
+        }
+        if (mesh.normals != null) {
+            baked.normals = new float[3 * normalCount * count];
+        }
+
+        for (int i = 0; i < count; i++) {
+            int o = InstanceBuffer.offset(i);
+            if (mesh.vertices != null) {
+                transformVertices(matrices, o, mesh.vertices, vertexCount, baked.vertices, 3 * vertexCount * i);
+            }
+            if (mesh.normals != null) {
+                transformNormals(matrices, o, mesh.normals, normalCount, baked.normals, 3 * normalCount * i);
+            }
+        }
+
+        Face[] faces = mesh.face != null ? mesh.face : new Face[0];
+        baked.face = new Face[faces.length * count];
+        for (int i = 0; i < count; i++) {
+            for (int fi = 0; fi < faces.length; fi++) {
+                baked.face[i * faces.length + fi] = offset(faces[fi], vertexCount * i, normalCount * i);
+            }
+        }
+        return baked;
+    }
+
+    /**
+     * Copy of face with indexes of vertices and normals moved to instance.
+     * Texture coordinates are the same for all instances.
+     */
+    private static Face offset(Face face, int vertexOffset, int normalOffset) {
+        Face ret = new Face();
+        ret.type = face.type;
+        ret.coordIndexLayers = face.coordIndexLayers;
+        ret.vertIndex = offset(face.vertIndex, vertexOffset);
+        ret.normalIndex = offset(face.normalIndex, normalOffset);
+        return ret;
+    }
+
+    private static int[] offset(int[] indexes, int offset) {
+        if (indexes == null) {
+            return null;
+        }
+        int[] ret = new int[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            ret[i] = indexes[i] + offset;
+        }
+        return ret;
+    }
+
+    /**
+     * Transforms points by column major matrix.
+     */
+    private static void transformVertices(double[] m, int o, float[] src, int count, float[] dest, int destOffset) {
+        for (int i = 0; i < count; i++) {
+            double x = src[3 * i];
+            double y = src[3 * i + 1];
+            double z = src[3 * i + 2];
+
+            int d = destOffset + 3 * i;
+            dest[d] = (float) (m[o] * x + m[o + 4] * y + m[o + 8] * z + m[o + 12]);
+            dest[d + 1] = (float) (m[o + 1] * x + m[o + 5] * y + m[o + 9] * z + m[o + 13]);
+            dest[d + 2] = (float) (m[o + 2] * x + m[o + 6] * y + m[o + 10] * z + m[o + 14]);
+        }
+    }
+
+    /**
+     * Transforms normals by inverse transpose of column major matrix and
+     * normalizes them, the same as GL_NORMALIZE does for scaled instances.
+     * Inverse transpose is replaced by cofactor matrix which differs only by
+     * determinant.
+     */
+    private static void transformNormals(double[] m, int o, float[] src, int count, float[] dest, int destOffset) {
+        double a00 = m[o], a10 = m[o + 1], a20 = m[o + 2];
+        double a01 = m[o + 4], a11 = m[o + 5], a21 = m[o + 6];
+        double a02 = m[o + 8], a12 = m[o + 9], a22 = m[o + 10];
+
+        double c00 = a11 * a22 - a12 * a21;
+        double c01 = a12 * a20 - a10 * a22;
+        double c02 = a10 * a21 - a11 * a20;
+        double c10 = a02 * a21 - a01 * a22;
+        double c11 = a00 * a22 - a02 * a20;
+        double c12 = a01 * a20 - a00 * a21;
+        double c20 = a01 * a12 - a02 * a11;
+        double c21 = a02 * a10 - a00 * a12;
+        double c22 = a00 * a11 - a01 * a10;
+
+        double sign = a00 * c00 + a01 * c01 + a02 * c02 < 0 ? -1 : 1;
+
+        for (int i = 0; i < count; i++) {
+            double x = src[3 * i];
+            double y = src[3 * i + 1];
+            double z = src[3 * i + 2];
+
+            double nx = c00 * x + c01 * y + c02 * z;
+            double ny = c10 * x + c11 * y + c12 * z;
+            double nz = c20 * x + c21 * y + c22 * z;
+
+            double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            double scale = length > 0 ? sign / length : 0;
+
+            int d = destOffset + 3 * i;
+            dest[d] = (float) (nx * scale);
+            dest[d + 1] = (float) (ny * scale);
+            dest[d + 2] = (float) (nz * scale);
+        }
+    }
+}
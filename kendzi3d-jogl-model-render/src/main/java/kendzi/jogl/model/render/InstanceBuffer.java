@@ -0,0 +1,198 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.model.render;
+
+import java.util.Arrays;
+
+import javax.vecmath.Matrix4d;
+
+/**
+ * Transformations of model instances. Each instance is stored as 4x4 matrix in
+ * column major order, ready to use with glMultMatrixd.
+ */
+public class InstanceBuffer {
+
+    private static final int MATRIX_SIZE = 16;
+
+    private double[] matrices;
+
+    private int size;
+
+    /**
+     * Number of changes of buffer.
+     */
+    private int modCount;
+
+    /**
+     * Constructor.
+     */
+    public InstanceBuffer() {
+        this(16);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity
+     *            initial number of instances
+     */
+    public InstanceBuffer(int capacity) {
+        matrices = new double[Math.max(1, capacity) * MATRIX_SIZE];
+    }
+
+    /**
+     * Adds instance translated, scaled and rotated around y axis. Matrix is
+     * the same as result of glTranslated, glScaled and glRotated calls.
+     *
+     * @param x
+     *            translation x
+     * @param y
+     *            translation y
+     * @param z
+     *            translation z
+     * @param scaleX
+     *            scale x
+     * @param scaleY
+     *            scale y
+     * @param scaleZ
+     *            scale z
+     * @param rotateY
+     *            rotation around y axis in degrees
+     */
+    public void add(double x, double y, double z, double scaleX, double scaleY, double scaleZ, double rotateY) {
+
+        double angle = Math.toRadians(rotateY);
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+
+        int o = allocate();
+
+        matrices[o] = cos * scaleX;
+        matrices[o + 1] = 0;
+        matrices[o + 2] = -sin * scaleZ;
+        matrices[o + 3] = 0;
+
+        matrices[o + 4] = 0;
+        matrices[o + 5] = scaleY;
+        matrices[o + 6] = 0;
+        matrices[o + 7] = 0;
+
+        matrices[o + 8] = sin * scaleX;
+        matrices[o + 9] = 0;
+        matrices[o + 10] = cos * scaleZ;
+        matrices[o + 11] = 0;
+
+        matrices[o + 12] = x;
+        matrices[o + 13] = y;
+        matrices[o + 14] = z;
+        matrices[o + 15] = 1;
+    }
+
+    /**
+     * Adds instance translated and scaled.
+     *
+     * @param x
+     *            translation x
+     * @param y
+     *            translation y
+     * @param z
+     *            translation z
+     * @param scaleX
+     *            scale x
+     * @param scaleY
+     *            scale y
+     * @param scaleZ
+     *            scale z
+     */
+    public void add(double x, double y, double z, double scaleX, double scaleY, double scaleZ) {
+        add(x, y, z, scaleX, scaleY, scaleZ, 0);
+    }
+
+    /**
+     * Adds instance with transformation matrix.
+     *
+     * @param matrix
+     *            transformation matrix
+     */
+    public void add(Matrix4d matrix) {
+        int o = allocate();
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 4; row++) {
+                matrices[o + column * 4 + row] = matrix.getElement(row, column);
+            }
+        }
+    }
+
+    /**
+     * Adds all instances from other buffer.
+     *
+     * @param instances
+     *            instances to add
+     */
+    public void addAll(InstanceBuffer instances) {
+        int offset = size * MATRIX_SIZE;
+        int length = instances.size * MATRIX_SIZE;
+        if (offset + length > matrices.length) {
+            matrices = Arrays.copyOf(matrices, Math.max(matrices.length * 2, offset + length));
+        }
+        System.arraycopy(instances.matrices, 0, matrices, offset, length);
+        size += instances.size;
+        modCount++;
+    }
+
+    private int allocate() {
+        int offset = size * MATRIX_SIZE;
+        if (offset + MATRIX_SIZE > matrices.length) {
+            matrices = Arrays.copyOf(matrices, Math.max(matrices.length * 2, offset + MATRIX_SIZE));
+        }
+        size++;
+        modCount++;
+        return offset;
+    }
+
+    /**
+     * Removes all instances.
+     */
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * @return number of instances
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of changes of buffer, used to detect that buffer was
+     *         changed after it was drawn
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * @return matrices of instances in column major order, array can be
+     *         longer than required for instances
+     */
+    public double[] getMatrices() {
+        return matrices;
+    }
+
+    /**
+     * Offset of instance matrix.
+     *
+     * @param instance
+     *            instance index
+     * @return offset of matrix in array
+     */
+    public static int offset(int instance) {
+        return instance * MATRIX_SIZE;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.model.render;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+
+/**
+ * Mesh uploaded into graphic card memory. Vertex data are stored in one
+ * interleaved vertex buffer, triangles are stored in index buffer. Mesh is
+ * drawn with single draw call.
+ */
+public class MeshBuffer {
+
+    /**
+     * Vertex buffer and index buffer ids.
+     */
+    private final int[] buffers;
+
+    private final int indexCount;
+
+    private final int textureLayers;
+
+    private MeshBuffer(int[] buffers, int indexCount, int textureLayers) {
+        this.buffers = buffers;
+        this.indexCount = indexCount;
+        this.textureLayers = textureLayers;
+    }
+
+    /**
+     * Uploads mesh data into graphic card memory.
+     *
+     * @param gl
+     *            gl context
+     * @param data
+     *            mesh data
+     * @return uploaded mesh
+     */
+    public static MeshBuffer upload(GL2 gl, MeshBufferData data) {
+
+        int[] buffers = new int[2];
+        gl.glGenBuffers(2, buffers, 0);
+
+        float[] vertices = data.getVertices();
+        int[] indices = data.getIndices();
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffers[0]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) vertices.length * Buffers.SIZEOF_FLOAT,
+                Buffers.newDirectFloatBuffer(vertices), GL.GL_STATIC_DRAW);
+
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, buffers[1]);
+        gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, (long) indices.length * Buffers.SIZEOF_INT,
+                Buffers.newDirectIntBuffer(indices), GL.GL_STATIC_DRAW);
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+
+        return new MeshBuffer(buffers, indices.length, data.getTextureLayers());
+    }
+
+    /**
+     * Draws mesh. Material and textures should be already set up.
+     *
+     * @param gl
+     *            gl context
+     * @param textureUnits
+     *            texture units for texture layers
+     * @param numOfTextureLayers
+     *            number of texture layers to use
+     */
+    public void draw(GL2 gl, int[] textureUnits, int numOfTextureLayers) {
+        bind(gl, textureUnits, numOfTextureLayers);
+        drawElements(gl);
+        unbind(gl, textureUnits, numOfTextureLayers);
+    }
+
+    /**
+     * Binds buffers and sets up vertex arrays. After that mesh can be drawn
+     * many times using drawElements.
+     *
+     * @param gl
+     *            gl context
+     * @param textureUnits
+     *            texture units for texture layers
+     * @param numOfTextureLayers
+     *            number of texture layers to use
+     */
+    public void bind(GL2 gl, int[] textureUnits, int numOfTextureLayers) {
+
+        int layers = Math.min(numOfTextureLayers, textureLayers);
+        int stride = MeshBufferData.stride(textureLayers) * Buffers.SIZEOF_FLOAT;
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffers[0]);
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, buffers[1]);
+
+        gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+        gl.glVertexPointer(3, GL.GL_FLOAT, stride, 0);
+
+        gl.glEnableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+        gl.glNormalPointer(GL.GL_FLOAT, stride, 3 * Buffers.SIZEOF_FLOAT);
+
+        for (int tl = 0; tl < layers; tl++) {
+            gl.glClientActiveTexture(textureUnits[tl]);
+            gl.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+            gl.glTexCoordPointer(2, GL.GL_FLOAT, stride, (6 + 2 * tl) * Buffers.SIZEOF_FLOAT);
+        }
+    }
+
+    /**
+     * Draws mesh triangles. Mesh should be bound.
+     *
+     * @param gl
+     *            gl context
+     */
+    public void drawElements(GL2 gl) {
+        gl.glDrawElements(GL.GL_TRIANGLES, indexCount, GL.GL_UNSIGNED_INT, 0);
+    }
+
+    /**
+     * Unbinds buffers and disables vertex arrays.
+     *
+     * @param gl
+     *            gl context
+     * @param textureUnits
+     *            texture units for texture layers
+     * @param numOfTextureLayers
+     *            number of texture layers used in bind
+     */
+    public void unbind(GL2 gl, int[] textureUnits, int numOfTextureLayers) {
+
+        int layers = Math.min(numOfTextureLayers, textureLayers);
+
+        for (int tl = layers - 1; tl >= 0; tl--) {
+            gl.glClientActiveTexture(textureUnits[tl]);
+            gl.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+        }
+
+        gl.glDisableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+        gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Releases graphic card memory.
+     *
+     * @param gl
+     *            gl context
+     */
+    public void delete(GL2 gl) {
+        gl.glDeleteBuffers(2, buffers, 0);
+    }
+}
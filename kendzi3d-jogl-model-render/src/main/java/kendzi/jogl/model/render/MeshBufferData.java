@@ -0,0 +1,226 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.model.render;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+
+import kendzi.jogl.model.geometry.Face;
+import kendzi.jogl.model.geometry.Mesh;
+
+/**
+ * Mesh data converted into interleaved vertex array and triangle index array.
+ * Each vertex contains position, normal and texture coordinates for each
+ * texture layer.
+ */
+public class MeshBufferData {
+
+    /**
+     * Interleaved vertex data.
+     */
+    private final float[] vertices;
+
+    /**
+     * Indexes of triangles vertices.
+     */
+    private final int[] indices;
+
+    /**
+     * Number of texture layers stored in vertex.
+     */
+    private final int textureLayers;
+
+    private MeshBufferData(float[] vertices, int[] indices, int textureLayers) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.textureLayers = textureLayers;
+    }
+
+    /**
+     * Converts mesh into vertex and index arrays. All faces are converted into
+     * triangles.
+     *
+     * @param mesh
+     *            mesh
+     * @param maxTextureLayers
+     *            maximal number of texture layers
+     * @return data of mesh or null if mesh contains faces which can't be
+     *         converted into triangles
+     */
+    public static MeshBufferData create(Mesh mesh, int maxTextureLayers) {
+
+        if (mesh.face == null) {
+            return null;
+        }
+
+        int textureLayers = 0;
+        int vertexCount = 0;
+        int indexCount = 0;
+
+        for (Face face : mesh.face) {
+            int n = face.vertIndex.length;
+            int triangles = triangleCount(face.type, n);
+            if (triangles < 0 || face.normalIndex == null || face.normalIndex.length < n) {
+                return null;
+            }
+
+            if (mesh.hasTexture && face.coordIndexLayers != null) {
+                textureLayers = Math.max(textureLayers, Math.min(maxTextureLayers, face.coordIndexLayers.length));
+            }
+
+            vertexCount += n;
+            indexCount += triangles * 3;
+        }
+
+        int stride = stride(textureLayers);
+
+        float[] vertices = new float[vertexCount * stride];
+        int[] indices = new int[indexCount];
+
+        int v = 0;
+        int i = 0;
+
+        for (Face face : mesh.face) {
+
+            int first = v / stride;
+            int n = face.vertIndex.length;
+
+            for (int fv = 0; fv < n; fv++) {
+                int p = 3 * face.vertIndex[fv];
+                int normal = 3 * face.normalIndex[fv];
+
+                vertices[v] = mesh.vertices[p];
+                vertices[v + 1] = mesh.vertices[p + 1];
+                vertices[v + 2] = mesh.vertices[p + 2];
+                vertices[v + 3] = mesh.normals[normal];
+                vertices[v + 4] = mesh.normals[normal + 1];
+                vertices[v + 5] = mesh.normals[normal + 2];
+                v += 6;
+
+                for (int tl = 0; tl < textureLayers; tl++) {
+                    if (face.coordIndexLayers != null && tl < face.coordIndexLayers.length
+                            && face.coordIndexLayers[tl] != null) {
+                        int tc = 2 * face.coordIndexLayers[tl][fv];
+                        vertices[v] = mesh.texCoords[tc];
+                        vertices[v + 1] = mesh.texCoords[tc + 1];
+                    }
+                    v += 2;
+                }
+            }
+
+            i = triangulate(face.type, n, first, indices, i);
+        }
+
+        return new MeshBufferData(vertices, indices, textureLayers);
+    }
+
+    /**
+     * Number of floats used by one vertex.
+     *
+     * @param textureLayers
+     *            number of texture layers
+     * @return number of floats
+     */
+    public static int stride(int textureLayers) {
+        return 6 + 2 * textureLayers;
+    }
+
+    /**
+     * Calculates number of triangles required to draw face.
+     *
+     * @param type
+     *            type of face
+     * @param n
+     *            number of face vertex
+     * @return number of triangles or -1 if face type is not supported
+     */
+    static int triangleCount(int type, int n) {
+        switch (type) {
+        case GL.GL_TRIANGLES:
+            return n / 3;
+        case GL.GL_TRIANGLE_STRIP:
+        case GL.GL_TRIANGLE_FAN:
+        case GL2.GL_POLYGON:
+            return Math.max(0, n - 2);
+        case GL2.GL_QUADS:
+            return n / 4 * 2;
+        case GL2.GL_QUAD_STRIP:
+            return Math.max(0, n / 2 - 1) * 2;
+        default:
+            return -1;
+        }
+    }
+
+    private static int triangulate(int type, int n, int first, int[] indices, int offset) {
+        int i = offset;
+        switch (type) {
+        case GL.GL_TRIANGLES:
+            for (int t = 0; t + 2 < n; t += 3) {
+                i = triangle(indices, i, first + t, first + t + 1, first + t + 2);
+            }
+            break;
+        case GL.GL_TRIANGLE_STRIP:
+            for (int t = 0; t + 2 < n; t++) {
+                if (t % 2 == 0) {
+                    i = triangle(indices, i, first + t, first + t + 1, first + t + 2);
+                } else {
+                    i = triangle(indices, i, first + t + 1, first + t, first + t + 2);
+                }
+            }
+            break;
+        case GL.GL_TRIANGLE_FAN:
+        case GL2.GL_POLYGON:
+            for (int t = 1; t + 1 < n; t++) {
+                i = triangle(indices, i, first, first + t, first + t + 1);
+            }
+            break;
+        case GL2.GL_QUADS:
+            for (int t = 0; t + 3 < n; t += 4) {
+                i = triangle(indices, i, first + t, first + t + 1, first + t + 2);
+                i = triangle(indices, i, first + t, first + t + 2, first + t + 3);
+            }
+            break;
+        case GL2.GL_QUAD_STRIP:
+            for (int t = 0; t + 3 < n; t += 2) {
+                i = triangle(indices, i, first + t, first + t + 1, first + t + 3);
+                i = triangle(indices, i, first + t, first + t + 3, first + t + 2);
+            }
+            break;
+        default:
+            break;
+        }
+        return i;
+    }
+
+    private static int triangle(int[] indices, int offset, int v1, int v2, int v3) {
+        indices[offset] = v1;
+        indices[offset + 1] = v2;
+        indices[offset + 2] = v3;
+        return offset + 3;
+    }
+
+    /**
+     * @return interleaved vertex data
+     */
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * @return indexes of triangles vertices
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * @return number of texture layers stored in vertex
+     */
+    public int getTextureLayers() {
+        return textureLayers;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.model.render;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.log4j.Logger;
+
+import com.jogamp.opengl.GL2;
+
+import kendzi.jogl.model.geometry.Mesh;
+import kendzi.jogl.model.geometry.Model;
+
+/**
+ * Cache of models uploaded into graphic card memory. Model is uploaded when it
+ * is drawn first time. Models are not modified after they are built, when
+ * world object is rebuilt new model is created and uploaded. Buffers of models
+ * which are no longer used are released when model is garbage collected.
+ *
+ * Cache should be used only from opengl thread.
+ */
+public class ModelBufferCache {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(ModelBufferCache.class);
+
+    /**
+     * Uploaded models. Model don't override equals so models are compared by
+     * identity.
+     */
+    private final Map<Model, ModelBuffers> models = new WeakHashMap<Model, ModelBuffers>();
+
+    /**
+     * Strong references to buffers of all uploaded models. Required to receive
+     * notification when model is garbage collected.
+     */
+    private final Set<ModelBuffers> buffers = Collections
+            .newSetFromMap(new IdentityHashMap<ModelBuffers, Boolean>());
+
+    private final ReferenceQueue<Model> queue = new ReferenceQueue<Model>();
+
+    /**
+     * Buffers of model meshes.
+     */
+    private static class ModelBuffers extends WeakReference<Model> {
+
+        private final MeshBuffer[] meshes;
+
+        ModelBuffers(Model model, MeshBuffer[] meshes, ReferenceQueue<Model> queue) {
+            super(model, queue);
+            this.meshes = meshes;
+        }
+
+        void delete(GL2 gl) {
+            for (MeshBuffer mesh : meshes) {
+                if (mesh != null) {
+                    mesh.delete(gl);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets model meshes uploaded into graphic card memory. If model wasn't
+     * uploaded yet it is uploaded.
+     *
+     * @param gl
+     *            gl context
+     * @param model
+     *            model
+     * @return buffers for each model mesh, null value for mesh which can't be
+     *         drawn from buffers
+     */
+    public MeshBuffer[] getMeshBuffers(GL2 gl, Model model) {
+
+        releaseUnused(gl);
+
+        ModelBuffers modelBuffers = models.get(model);
+        if (modelBuffers == null) {
+            modelBuffers = new ModelBuffers(model, upload(gl, model), queue);
+            models.put(model, modelBuffers);
+            buffers.add(modelBuffers);
+        }
+
+        return modelBuffers.meshes;
+    }
+
+    private MeshBuffer[] upload(GL2 gl, Model model) {
+
+        MeshBuffer[] meshes = new MeshBuffer[model.mesh.length];
+
+        for (int mi = 0; mi < model.mesh.length; mi++) {
+            Mesh mesh = model.mesh[mi];
+
+            MeshBufferData data = MeshBufferData.create(mesh, ModelRender.MAX_TEXTURES_LAYERS);
+            if (data == null) {
+                log.debug("mesh: " + mesh.name + " of model: " + model.getSource()
+                        + " can't be stored in buffers, immediate mode will be used");
+                continue;
+            }
+
+            meshes[mi] = MeshBuffer.upload(gl, data);
+        }
+        return meshes;
+    }
+
+    /**
+     * Releases buffers of models which were garbage collected.
+     *
+     * @param gl
+     *            gl context
+     */
+    public void releaseUnused(GL2 gl) {
+        ModelBuffers modelBuffers;
+        while ((modelBuffers = (ModelBuffers) queue.poll()) != null) {
+            if (buffers.remove(modelBuffers)) {
+                modelBuffers.delete(gl);
+            }
+        }
+    }
+
+    /**
+     * Releases buffers of all models.
+     *
+     * @param gl
+     *            gl context
+     */
+    public void dispose(GL2 gl) {
+        for (ModelBuffers modelBuffers : buffers) {
+            modelBuffers.delete(gl);
+        }
+        reset();
+    }
+
+    /**
+     * Forgets all uploaded models without releasing buffers. Should be used
+     * when opengl context was recreated and old buffers no longer exist.
+     */
+    public void reset() {
+        models.clear();
+        buffers.clear();
+        while (queue.poll() != null) {
+            // drop stale references
+        }
+    }
+
+    /**
+     * @return number of uploaded models
+     */
+    public int size() {
+        return buffers.size();
+    }
+}
@@ -6,7 +6,13 @@
 
 package kendzi.jogl.model.render;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.vecmath.Point3d;
 
 import org.apache.log4j.Logger;
 
@@ -23,6 +29,7 @@ import kendzi.jogl.model.geometry.Model;
 import kendzi.jogl.model.geometry.material.AmbientDiffuseComponent;
 import kendzi.jogl.model.geometry.material.Material;
 import kendzi.jogl.model.geometry.material.OtherComponent;
+import kendzi.jogl.model.render.RenderQueue.RenderItem;
 import kendzi.jogl.texture.TextureCacheService;
 
 /**
@@ -35,7 +42,18 @@ public class ModelRender {
 
     private static final int[] GL_TEXTURE = { GL2.GL_TEXTURE0, GL2.GL_TEXTURE1, GL2.GL_TEXTURE2, GL2.GL_TEXTURE3 };
 
-    private static final int MAX_TEXTURES_LAYERS = GL_TEXTURE.length;
+    static final int MAX_TEXTURES_LAYERS = GL_TEXTURE.length;
+
+    /**
+     * Minimal number of instances baked into one model.
+     */
+    private static final int MIN_BAKED_INSTANCES = 2;
+
+    /**
+     * Maximal number of vertices of baked model. Instances of bigger models are
+     * drawn separately to limit memory usage.
+     */
+    private static final long MAX_BAKED_VERTICES = 1L << 20;
 
     private boolean debugging = true;
 
@@ -62,6 +80,57 @@ public class ModelRender {
 
     private Material defaultMaterial = new Material();
 
+    /**
+     * Use vertex buffers when they are supported. Otherwise models are drawn
+     * in immediate mode.
+     */
+    private boolean useVertexBuffers = true;
+
+    /**
+     * If vertex buffers are supported by current context, null when not
+     * checked yet.
+     */
+    private Boolean vertexBuffersSupported;
+
+    /**
+     * Models uploaded into graphic card memory.
+     */
+    private final ModelBufferCache modelBufferCache = new ModelBufferCache();
+
+    /**
+     * Queue of models drawn in current frame.
+     */
+    private final RenderQueue renderQueue = new RenderQueue();
+
+    /**
+     * If models rendered with translation are collected in render queue.
+     */
+    private boolean queueOpen;
+
+    /**
+     * Instances of models collected in render queue. Instances of the same
+     * model are drawn together.
+     */
+    private final Map<Model, InstanceBuffer> queuedInstances = new LinkedHashMap<Model, InstanceBuffer>();
+
+    /**
+     * Instances baked into one model. Instance buffers of static objects like
+     * forests are not changed after they are created, baked model is released
+     * with instance buffer.
+     */
+    private final Map<InstanceBuffer, BakedInstances> bakedInstances = new WeakHashMap<InstanceBuffer, BakedInstances>();
+
+    /**
+     * Number of render state changes in last flushed queue.
+     */
+    private int stateChanges;
+
+    /**
+     * Number of render state changes saved in last flushed queue comparing to
+     * drawing each model separately.
+     */
+    private int savedStateChanges;
+
     /**
      *
      */
@@ -69,6 +138,28 @@ public class ModelRender {
 
     }
 
+    /**
+     * Initializes renderer for new opengl context. Buffers uploaded to
+     * previous context are forgotten.
+     *
+     * @param gl
+     *            gl context
+     */
+    public void init(GL2 gl) {
+        modelBufferCache.reset();
+        vertexBuffersSupported = null;
+    }
+
+    /**
+     * Releases buffers of all uploaded models.
+     *
+     * @param gl
+     *            gl context
+     */
+    public void dispose(GL2 gl) {
+        modelBufferCache.dispose(gl);
+    }
+
     /**
      * Face counter.
      *
@@ -117,16 +208,197 @@ public class ModelRender {
         gl.glColor3f(1.0f, 1.0f, 1.0f);
     }
 
-    public void renderRaw(GL2 gl, Model model) {
-        draw(gl, model);
+    /**
+     * Renders model moved by translation. When render queue is open model is
+     * only added to queue and it is drawn when queue is flushed.
+     *
+     * @param gl
+     *            gl context
+     * @param model
+     *            model to render
+     * @param translation
+     *            translation of model, can be null
+     */
+    public void render(GL2 gl, Model model, Point3d translation) {
+
+        if (queueOpen && !drawEdges && !model.drawEdges && !drawNormals && !model.drawNormals) {
+            renderQueue.add(model, translation, drawTextures, drawTwoSided);
+            return;
+        }
+
+        gl.glPushMatrix();
+        try {
+            if (translation != null) {
+                gl.glTranslated(translation.x, translation.y, translation.z);
+            }
+            render(gl, model);
+        } finally {
+            gl.glPopMatrix();
+        }
     }
 
-    private void draw(GL2 gl, Model model) {
+    /**
+     * Opens render queue. Models rendered with translation are collected until
+     * queue is flushed.
+     */
+    public void beginQueue() {
+        renderQueue.clear();
+        queueOpen = true;
+    }
+
+    /**
+     * Draws all models collected in render queue and closes queue. Meshes are
+     * sorted so each render state is set up once for group of meshes. Opaque
+     * meshes and opaque instances are drawn first, meshes with texture alpha
+     * are drawn after them from back to front and instances with texture alpha
+     * are drawn last.
+     *
+     * @param gl
+     *            gl context
+     * @param cameraPosition
+     *            camera position
+     */
+    public void flushQueue(GL2 gl, Point3d cameraPosition) {
+        queueOpen = false;
+        try {
+            List<RenderItem> items = renderQueue.sort(cameraPosition);
+            int opaque = renderQueue.opaqueSize();
+
+            int changes = drawQueue(gl, items.subList(0, opaque));
+
+            drawQueuedInstances(gl, false);
+
+            changes += drawQueue(gl, items.subList(opaque, items.size()));
+
+            drawQueuedInstances(gl, true);
+
+            updateQueueStatistics(items.size(), changes);
+        } finally {
+            renderQueue.clear();
+            clearQueuedInstances();
+        }
+    }
+
+    private void drawQueuedInstances(GL2 gl, boolean textureAlpha) {
+        for (Map.Entry<Model, InstanceBuffer> entry : queuedInstances.entrySet()) {
+            if (entry.getKey().useTextureAlpha == textureAlpha) {
+                drawInstances(gl, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void clearQueuedInstances() {
+        Iterator<InstanceBuffer> iterator = queuedInstances.values().iterator();
+        while (iterator.hasNext()) {
+            InstanceBuffer instances = iterator.next();
+            if (instances.size() == 0) {
+                // model was not drawn in last frame
+                iterator.remove();
+            } else {
+                instances.clear();
+            }
+        }
+    }
+
+    /**
+     * Renders many instances of model. When vertex buffers are used instances
+     * are baked into one model which is uploaded once and rendered like any
+     * other model, buffer changed after it was drawn is baked again.
+     * Otherwise render state is set up once for each model mesh and mesh is
+     * drawn for each instance transformation. When render queue is open these
+     * instances are collected and instances of the same model from all calls
+     * are drawn together when queue is flushed.
+     *
+     * @param gl
+     *            gl context
+     * @param model
+     *            model to render
+     * @param instances
+     *            transformations of instances
+     */
+    public void renderInstances(GL2 gl, Model model, InstanceBuffer instances) {
+
+        Model baked = getBakedInstances(gl, model, instances);
+        if (baked != null) {
+            render(gl, baked, null);
+            return;
+        }
+
+        if (queueOpen) {
+            InstanceBuffer queued = queuedInstances.get(model);
+            if (queued == null) {
+                queued = new InstanceBuffer(instances.size());
+                queuedInstances.put(model, queued);
+            }
+            queued.addAll(instances);
+            return;
+        }
+
+        drawInstances(gl, model, instances);
+    }
+
+    /**
+     * Gets instances of model baked into one model. Baked model is uploaded
+     * into vertex buffers like any other model and all instances are drawn by
+     * one draw call for each mesh.
+     *
+     * @return baked model or null if instances should be drawn separately
+     */
+    private Model getBakedInstances(GL2 gl, Model model, InstanceBuffer instances) {
+
+        if (instances.size() < MIN_BAKED_INSTANCES || drawEdges || model.drawEdges || drawNormals
+                || model.drawNormals || !isVertexBuffersEnabled(gl)) {
+            return null;
+        }
+
+        BakedInstances baked = bakedInstances.get(instances);
+        if (baked != null && baked.source == model && baked.modCount == instances.getModCount()) {
+            return baked.model;
+        }
+
+        if (InstanceBaker.bakedVertexCount(model, instances) > MAX_BAKED_VERTICES) {
+            bakedInstances.remove(instances);
+            return null;
+        }
+
+        baked = new BakedInstances(model, instances.getModCount(), InstanceBaker.bake(model, instances));
+        bakedInstances.put(instances, baked);
+        return baked.model;
+    }
+
+    /**
+     * Model with baked instances and state of source used to build it.
+     */
+    private static class BakedInstances {
+
+        private final Model source;
+
+        private final int modCount;
+
+        private final Model model;
+
+        BakedInstances(Model source, int modCount, Model model) {
+            this.source = source;
+            this.modCount = modCount;
+            this.model = model;
+        }
+    }
+
+    private void drawInstances(GL2 gl, Model model, InstanceBuffer instances) {
+
+        if (instances.size() == 0) {
+            return;
+        }
 
         int mi = 0;
-        int fi = 0;
 
         try {
+            if (model.useLight) {
+                gl.glEnable(GLLightingFunc.GL_LIGHTING);
+            }
+
+            // instances are usually scaled
+            gl.glEnable(GLLightingFunc.GL_NORMALIZE);
 
             if (model.useCullFaces) {
                 gl.glEnable(GL.GL_CULL_FACE);
@@ -134,6 +406,13 @@ public class ModelRender {
 
             gl.glLightModeli(GL2ES1.GL_LIGHT_MODEL_TWO_SIDE, model.useTwoSided || drawTwoSided ? GL.GL_TRUE : GL.GL_FALSE);
 
+            MeshBuffer[] meshBuffers = null;
+            if (isVertexBuffersEnabled(gl)) {
+                meshBuffers = modelBufferCache.getMeshBuffers(gl, model);
+            }
+
+            double[] matrices = instances.getMatrices();
+
             for (mi = 0; mi < model.mesh.length; mi++) {
                 Mesh mesh = model.mesh[mi];
 
@@ -148,38 +427,235 @@ public class ModelRender {
                     setupTextures(gl, material, mesh.hasTexture);
                 }
 
-                faceCount += mesh.face.length;
+                faceCount += mesh.face.length * instances.size();
+
+                MeshBuffer meshBuffer = meshBuffers != null ? meshBuffers[mi] : null;
+                if (meshBuffer != null) {
+                    meshBuffer.bind(gl, GL_TEXTURE, textureLayers(mesh));
+                }
 
-                for (fi = 0; fi < mesh.face.length; fi++) {
-                    Face face = mesh.face[fi];
+                for (int i = 0; i < instances.size(); i++) {
+                    gl.glPushMatrix();
+                    gl.glMultMatrixd(matrices, InstanceBuffer.offset(i));
+
+                    if (meshBuffer != null) {
+                        meshBuffer.drawElements(gl);
+                    } else {
+                        drawMeshImmediate(gl, mesh);
+                    }
+
+                    gl.glPopMatrix();
+                }
+
+                if (meshBuffer != null) {
+                    meshBuffer.unbind(gl, GL_TEXTURE, textureLayers(mesh));
+                }
 
-                    int numOfTextureLayers = Math.min(MAX_TEXTURES_LAYERS, face.coordIndexLayers.length);
-                    if (!drawTextures || !mesh.hasTexture) {
-                        numOfTextureLayers = 0;
+                if (drawTextures) {
+                    if (model.useTextureAlpha) {
+                        disableTransparentText(gl);
                     }
+                    unsetupTextures(gl, material, mesh.hasTexture);
+                }
+            }
 
-                    gl.glBegin(face.type);
+            gl.glColor3f(1.0f, 1.0f, 1.0f);
 
-                    for (int i = 0; i < face.vertIndex.length; i++) {
-                        int vetexIndex = face.vertIndex[i];
-                        // if (face.normalIndex != null &&
-                        // face.normalIndex.length > i) {
-                        int normalIndex = face.normalIndex[i];
+        } catch (RuntimeException e) {
+            throw new RuntimeException("error model: " + model.getSource() + " mesh: " + mi + " ("
+                    + (model.mesh[mi] != null ? model.mesh[mi].name : "") + ")", e);
+        } finally {
 
-                        gl.glNormal3d(mesh.normals[normalIndex].x, mesh.normals[normalIndex].y, mesh.normals[normalIndex].z);
-                        // }
+            gl.glLightModeli(GL2ES1.GL_LIGHT_MODEL_TWO_SIDE, GL.GL_FALSE);
+
+            gl.glDisable(GL.GL_CULL_FACE);
 
-                        for (int tl = 0; tl < numOfTextureLayers; tl++) {
-                            int textureIndex = face.coordIndexLayers[tl][i];
-                            gl.glMultiTexCoord2d(GL_TEXTURE[tl], mesh.texCoords[textureIndex].u, mesh.texCoords[textureIndex].v);
-                        }
+            gl.glDisable(GLLightingFunc.GL_NORMALIZE);
 
-                        gl.glVertex3d(mesh.vertices[vetexIndex].x, mesh.vertices[vetexIndex].y, mesh.vertices[vetexIndex].z);
+            if (model.useLight) {
+                gl.glDisable(GLLightingFunc.GL_LIGHTING);
+            }
+        }
+    }
+
+    /**
+     * @return number of render state changes
+     */
+    private int drawQueue(GL2 gl, List<RenderItem> items) {
+
+        int changes = 0;
+        int mode = -1;
+        int colorId = -1;
+        int textureId = -1;
+        Material textureMaterial = null;
+        boolean textureMaterialHasTexture = false;
+
+        RenderItem item = null;
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                item = items.get(i);
+
+                Mesh mesh = item.getMesh();
+                Material material = item.getMaterial();
+
+                boolean modeChanged = item.mode != mode;
+
+                if (modeChanged || item.textureId != textureId) {
+                    if (textureMaterial != null) {
+                        unsetupTextures(gl, textureMaterial, textureMaterialHasTexture);
+                        textureMaterial = null;
+                    }
+
+                    if (modeChanged) {
+                        setupMode(gl, item.mode, mode);
+                        changes++;
+                    }
+
+                    if (drawTextures) {
+                        setupTextures(gl, material, mesh.hasTexture);
+                        textureMaterial = material;
+                        textureMaterialHasTexture = mesh.hasTexture;
+                        changes++;
                     }
+                }
+
+                if (modeChanged || item.colorId != colorId) {
+                    setupMaterial2(gl, material,
+                            (item.mode & RenderQueue.MODE_TWO_SIDED) != 0 ? GL.GL_FRONT_AND_BACK : GL.GL_FRONT);
+                    changes++;
+                }
+
+                mode = item.mode;
+                colorId = item.colorId;
+                textureId = item.textureId;
 
-                    gl.glEnd();
+                MeshBuffer meshBuffer = null;
+                if (isVertexBuffersEnabled(gl)) {
+                    meshBuffer = modelBufferCache.getMeshBuffers(gl, item.model)[item.meshIndex];
                 }
 
+                gl.glPushMatrix();
+                gl.glTranslated(item.x, item.y, item.z);
+                drawMesh(gl, mesh, meshBuffer);
+                gl.glPopMatrix();
+            }
+
+        } catch (RuntimeException e) {
+            throw new RuntimeException("error model: " + item.model.getSource() + " mesh: " + item.meshIndex + " ("
+                    + item.getMesh().name + ")", e);
+        } finally {
+            if (textureMaterial != null) {
+                unsetupTextures(gl, textureMaterial, textureMaterialHasTexture);
+            }
+            if (mode != -1) {
+                setupMode(gl, 0, mode);
+            }
+            gl.glColor3f(1.0f, 1.0f, 1.0f);
+        }
+
+        return changes;
+    }
+
+    private void setupMode(GL2 gl, int mode, int lastMode) {
+
+        if (isModeChanged(RenderQueue.MODE_LIGHT, mode, lastMode)) {
+            if ((mode & RenderQueue.MODE_LIGHT) != 0) {
+                gl.glEnable(GLLightingFunc.GL_LIGHTING);
+            } else {
+                gl.glDisable(GLLightingFunc.GL_LIGHTING);
+            }
+        }
+
+        if (isModeChanged(RenderQueue.MODE_CULL_FACES, mode, lastMode)) {
+            if ((mode & RenderQueue.MODE_CULL_FACES) != 0) {
+                gl.glEnable(GL.GL_CULL_FACE);
+            } else {
+                gl.glDisable(GL.GL_CULL_FACE);
+            }
+        }
+
+        if (isModeChanged(RenderQueue.MODE_TWO_SIDED, mode, lastMode)) {
+            gl.glLightModeli(GL2ES1.GL_LIGHT_MODEL_TWO_SIDE,
+                    (mode & RenderQueue.MODE_TWO_SIDED) != 0 ? GL.GL_TRUE : GL.GL_FALSE);
+        }
+
+        if (isModeChanged(RenderQueue.MODE_TEXTURE_ALPHA, mode, lastMode)) {
+            if ((mode & RenderQueue.MODE_TEXTURE_ALPHA) != 0) {
+                enableTransparentText(gl);
+            } else {
+                disableTransparentText(gl);
+            }
+        }
+    }
+
+    private static boolean isModeChanged(int flag, int mode, int lastMode) {
+        return lastMode == -1 || (mode & flag) != (lastMode & flag);
+    }
+
+    private void updateQueueStatistics(int items, int changes) {
+        // Each separately drawn mesh sets up mode, material and textures.
+        int separately = items * (drawTextures ? 3 : 2);
+        int saved = Math.max(0, separately - changes);
+
+        if (log.isDebugEnabled() && (changes != stateChanges || saved != savedStateChanges)) {
+            log.debug("queued meshes: " + items + " state changes: " + changes + " saved state changes: " + saved);
+        }
+        stateChanges = changes;
+        savedStateChanges = saved;
+    }
+
+    /**
+     * @return number of render state changes in last flushed queue
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * @return number of render state changes saved in last flushed queue
+     *         comparing to drawing each mesh separately
+     */
+    public int getSavedStateChanges() {
+        return savedStateChanges;
+    }
+
+    public void renderRaw(GL2 gl, Model model) {
+        draw(gl, model);
+    }
+
+    private void draw(GL2 gl, Model model) {
+
+        int mi = 0;
+
+        try {
+
+            if (model.useCullFaces) {
+                gl.glEnable(GL.GL_CULL_FACE);
+            }
+
+            gl.glLightModeli(GL2ES1.GL_LIGHT_MODEL_TWO_SIDE, model.useTwoSided || drawTwoSided ? GL.GL_TRUE : GL.GL_FALSE);
+
+            MeshBuffer[] meshBuffers = null;
+            if (isVertexBuffersEnabled(gl)) {
+                meshBuffers = modelBufferCache.getMeshBuffers(gl, model);
+            }
+
+            for (mi = 0; mi < model.mesh.length; mi++) {
+                Mesh mesh = model.mesh[mi];
+
+                Material material = model.getMaterial(mesh.materialID);
+
+                setupMaterial2(gl, material, model.useTwoSided || drawTwoSided ? GL.GL_FRONT_AND_BACK : GL.GL_FRONT);
+
+                if (drawTextures) {
+                    if (model.useTextureAlpha) {
+                        enableTransparentText(gl);
+                    }
+                    setupTextures(gl, material, mesh.hasTexture);
+                }
+
+                drawMesh(gl, mesh, meshBuffers != null ? meshBuffers[mi] : null);
+
                 if (drawTextures) {
                     if (model.useTextureAlpha) {
                         disableTransparentText(gl);
@@ -192,7 +668,7 @@ public class ModelRender {
 
         } catch (RuntimeException e) {
             throw new RuntimeException("error model: " + model.getSource() + " mesh: " + mi + " ("
-                    + (model.mesh[mi] != null ? model.mesh[mi].name : "") + ")" + " face: " + fi, e);
+                    + (model.mesh[mi] != null ? model.mesh[mi].name : "") + ")", e);
         } finally {
 
             gl.glLightModeli(GL2ES1.GL_LIGHT_MODEL_TWO_SIDE, GL.GL_FALSE);
@@ -202,6 +678,74 @@ public class ModelRender {
 
     }
 
+    private void drawMesh(GL2 gl, Mesh mesh, MeshBuffer meshBuffer) {
+
+        faceCount += mesh.face.length;
+
+        if (meshBuffer != null) {
+            meshBuffer.draw(gl, GL_TEXTURE, textureLayers(mesh));
+        } else {
+            drawMeshImmediate(gl, mesh);
+        }
+    }
+
+    private int textureLayers(Mesh mesh) {
+        return drawTextures && mesh.hasTexture ? MAX_TEXTURES_LAYERS : 0;
+    }
+
+    private void drawMeshImmediate(GL2 gl, Mesh mesh) {
+
+        float[] vertices = mesh.vertices;
+        float[] normals = mesh.normals;
+        float[] texCoords = mesh.texCoords;
+
+        for (int fi = 0; fi < mesh.face.length; fi++) {
+            Face face = mesh.face[fi];
+
+            int numOfTextureLayers = Math.min(MAX_TEXTURES_LAYERS, face.coordIndexLayers.length);
+            if (!drawTextures || !mesh.hasTexture) {
+                numOfTextureLayers = 0;
+            }
+
+            gl.glBegin(face.type);
+
+            for (int i = 0; i < face.vertIndex.length; i++) {
+                int vetexIndex = face.vertIndex[i];
+                // if (face.normalIndex != null &&
+                // face.normalIndex.length > i) {
+                int normalIndex = face.normalIndex[i];
+
+                gl.glNormal3f(normals[3 * normalIndex], normals[3 * normalIndex + 1], normals[3 * normalIndex + 2]);
+                // }
+
+                for (int tl = 0; tl < numOfTextureLayers; tl++) {
+                    int textureIndex = face.coordIndexLayers[tl][i];
+                    gl.glMultiTexCoord2f(GL_TEXTURE[tl], texCoords[2 * textureIndex], texCoords[2 * textureIndex + 1]);
+                }
+
+                gl.glVertex3f(vertices[3 * vetexIndex], vertices[3 * vetexIndex + 1], vertices[3 * vetexIndex + 2]);
+            }
+
+            gl.glEnd();
+        }
+    }
+
+    private boolean isVertexBuffersEnabled(GL2 gl) {
+        if (!useVertexBuffers) {
+            return false;
+        }
+
+        if (vertexBuffersSupported == null) {
+            vertexBuffersSupported = gl.isFunctionAvailable("glGenBuffers") && gl.isFunctionAvailable("glBindBuffer")
+                    && gl.isFunctionAvailable("glBufferData") && gl.isFunctionAvailable("glDeleteBuffers");
+
+            if (!vertexBuffersSupported) {
+                log.info("vertex buffers are not supported, models will be drawn in immediate mode");
+            }
+        }
+        return vertexBuffersSupported;
+    }
+
     private void unsetupTextures(GL2 gl, Material material, boolean useTextures) {
 
         List<String> texturesComponent = material.getTexturesComponent();
@@ -563,6 +1107,22 @@ public class ModelRender {
         this.debugging = debugging;
     }
 
+    /**
+     * @return if vertex buffers are used to draw models
+     */
+    public boolean isUseVertexBuffers() {
+        return useVertexBuffers;
+    }
+
+    /**
+     * @param useVertexBuffers
+     *            if vertex buffers should be used to draw models, when false
+     *            models are drawn in immediate mode
+     */
+    public void setUseVertexBuffers(boolean useVertexBuffers) {
+        this.useVertexBuffers = useVertexBuffers;
+    }
+
     /**
      * @return the textureCacheService
      */
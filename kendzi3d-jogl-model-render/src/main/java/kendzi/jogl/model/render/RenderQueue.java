@@ -0,0 +1,302 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.model.render;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.vecmath.Point3d;
+
+import kendzi.jogl.model.geometry.Mesh;
+import kendzi.jogl.model.geometry.Model;
+import kendzi.jogl.model.geometry.material.Material;
+
+/**
+ * Queue of meshes drawn in one frame. Meshes are sorted by render state so
+ * each state is set up only once for group of meshes. Opaque meshes are drawn
+ * first sorted by state, meshes with texture alpha are drawn after them from
+ * back to front.
+ */
+class RenderQueue {
+
+    /**
+     * Bit flags of render mode.
+     */
+    static final int MODE_LIGHT = 1;
+    static final int MODE_CULL_FACES = 2;
+    static final int MODE_TWO_SIDED = 4;
+    static final int MODE_TEXTURE_ALPHA = 8;
+    static final int MODE_TEXTURE = 16;
+
+    private static final Comparator<RenderItem> OPAQUE_ORDER = new Comparator<RenderItem>() {
+        @Override
+        public int compare(RenderItem o1, RenderItem o2) {
+            if (o1.mode != o2.mode) {
+                return o1.mode < o2.mode ? -1 : 1;
+            }
+            if (o1.textureId != o2.textureId) {
+                return o1.textureId < o2.textureId ? -1 : 1;
+            }
+            if (o1.colorId != o2.colorId) {
+                return o1.colorId < o2.colorId ? -1 : 1;
+            }
+            return 0;
+        }
+    };
+
+    private static final Comparator<RenderItem> BACK_TO_FRONT_ORDER = new Comparator<RenderItem>() {
+        @Override
+        public int compare(RenderItem o1, RenderItem o2) {
+            return Double.compare(o2.distance, o1.distance);
+        }
+    };
+
+    /**
+     * Mesh queued to draw.
+     */
+    static class RenderItem {
+        Model model;
+        int meshIndex;
+        double x;
+        double y;
+        double z;
+        int mode;
+        int textureId;
+        int colorId;
+        double distance;
+
+        Mesh getMesh() {
+            return model.mesh[meshIndex];
+        }
+
+        Material getMaterial() {
+            return model.getMaterial(getMesh().materialID);
+        }
+    }
+
+    private final List<RenderItem> opaque = new ArrayList<RenderItem>();
+
+    private final List<RenderItem> transparent = new ArrayList<RenderItem>();
+
+    /**
+     * Items reused between frames to avoid allocations.
+     */
+    private final List<RenderItem> pool = new ArrayList<RenderItem>();
+
+    /**
+     * Ids of textures set up in current frame, texture is described by list of
+     * texture layers and texture color.
+     */
+    private final Map<List<Object>, Integer> textureIds = new HashMap<List<Object>, Integer>();
+
+    /**
+     * Ids of material colors in current frame.
+     */
+    private final Map<List<Object>, Integer> colorIds = new HashMap<List<Object>, Integer>();
+
+    /**
+     * Centers of models in model coordinates.
+     */
+    private final Map<Model, Point3d> modelCenters = new WeakHashMap<Model, Point3d>();
+
+    /**
+     * Adds model to queue.
+     *
+     * @param model
+     *            model
+     * @param translation
+     *            translation of model, can be null
+     * @param drawTextures
+     *            if textures are drawn
+     * @param drawTwoSided
+     *            if two sided lighting is forced
+     */
+    void add(Model model, Point3d translation, boolean drawTextures, boolean drawTwoSided) {
+
+        for (int mi = 0; mi < model.mesh.length; mi++) {
+            Mesh mesh = model.mesh[mi];
+            Material material = model.getMaterial(mesh.materialID);
+
+            RenderItem item = newItem();
+            item.model = model;
+            item.meshIndex = mi;
+            if (translation != null) {
+                item.x = translation.x;
+                item.y = translation.y;
+                item.z = translation.z;
+            } else {
+                item.x = 0;
+                item.y = 0;
+                item.z = 0;
+            }
+
+            item.mode = mode(model, mesh, drawTextures, drawTwoSided);
+            item.textureId = textureId(material);
+            item.colorId = colorId(material);
+
+            if ((item.mode & MODE_TEXTURE_ALPHA) != 0) {
+                transparent.add(item);
+            } else {
+                opaque.add(item);
+            }
+        }
+    }
+
+    private static int mode(Model model, Mesh mesh, boolean drawTextures, boolean drawTwoSided) {
+        int mode = 0;
+        if (model.useLight) {
+            mode |= MODE_LIGHT;
+        }
+        if (model.useCullFaces) {
+            mode |= MODE_CULL_FACES;
+        }
+        if (model.useTwoSided || drawTwoSided) {
+            mode |= MODE_TWO_SIDED;
+        }
+        if (drawTextures && model.useTextureAlpha) {
+            mode |= MODE_TEXTURE_ALPHA;
+        }
+        if (drawTextures && mesh.hasTexture) {
+            mode |= MODE_TEXTURE;
+        }
+        return mode;
+    }
+
+    private int textureId(Material material) {
+        List<String> textures = material.getTexturesComponent();
+        Color color = material.getTexture0Color();
+        return id(textureIds, textures, color);
+    }
+
+    private int colorId(Material material) {
+        return id(colorIds, material.getAmbientDiffuse(), material.getOther());
+    }
+
+    private static int id(Map<List<Object>, Integer> ids, Object first, Object second) {
+        List<Object> key = new ArrayList<Object>(2);
+        key.add(first);
+        key.add(second);
+
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = ids.size();
+            ids.put(key, id);
+        }
+        return id;
+    }
+
+    private RenderItem newItem() {
+        if (pool.isEmpty()) {
+            return new RenderItem();
+        }
+        return pool.remove(pool.size() - 1);
+    }
+
+    /**
+     * Sorts queued items. Opaque items are sorted by render state, transparent
+     * items from back to front.
+     *
+     * @param cameraPosition
+     *            camera position
+     * @return sorted items
+     */
+    List<RenderItem> sort(Point3d cameraPosition) {
+
+        Collections.sort(opaque, OPAQUE_ORDER);
+
+        for (RenderItem item : transparent) {
+            Point3d center = getModelCenter(item.model);
+            double dx = item.x + center.x - cameraPosition.x;
+            double dy = item.y + center.y - cameraPosition.y;
+            double dz = item.z + center.z - cameraPosition.z;
+            item.distance = dx * dx + dy * dy + dz * dz;
+        }
+        Collections.sort(transparent, BACK_TO_FRONT_ORDER);
+
+        List<RenderItem> ret = new ArrayList<RenderItem>(opaque.size() + transparent.size());
+        ret.addAll(opaque);
+        ret.addAll(transparent);
+        return ret;
+    }
+
+    private Point3d getModelCenter(Model model) {
+        Point3d center = modelCenters.get(model);
+        if (center == null) {
+            center = calculateCenter(model);
+            modelCenters.put(model, center);
+        }
+        return center;
+    }
+
+    private static Point3d calculateCenter(Model model) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+
+        for (Mesh mesh : model.mesh) {
+            if (mesh.vertices == null) {
+                continue;
+            }
+            float[] vertices = mesh.vertices;
+            for (int i = 0; i + 2 < vertices.length; i += 3) {
+                minX = Math.min(minX, vertices[i]);
+                minY = Math.min(minY, vertices[i + 1]);
+                minZ = Math.min(minZ, vertices[i + 2]);
+                maxX = Math.max(maxX, vertices[i]);
+                maxY = Math.max(maxY, vertices[i + 1]);
+                maxZ = Math.max(maxZ, vertices[i + 2]);
+            }
+        }
+
+        if (minX > maxX) {
+            return new Point3d();
+        }
+        return new Point3d((minX + maxX) / 2d, (minY + maxY) / 2d, (minZ + maxZ) / 2d);
+    }
+
+    /**
+     * Removes all items from queue.
+     */
+    void clear() {
+        for (RenderItem item : opaque) {
+            item.model = null;
+            pool.add(item);
+        }
+        for (RenderItem item : transparent) {
+            item.model = null;
+            pool.add(item);
+        }
+        opaque.clear();
+        transparent.clear();
+        textureIds.clear();
+        colorIds.clear();
+    }
+
+    /**
+     * @return number of queued opaque items, they are at the beginning of
+     *         sorted items
+     */
+    int opaqueSize() {
+        return opaque.size();
+    }
+
+    /**
+     * @return number of queued items
+     */
+    int size() {
+        return opaque.size() + transparent.size();
+    }
+}
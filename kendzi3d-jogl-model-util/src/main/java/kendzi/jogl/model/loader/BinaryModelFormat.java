@@ -0,0 +1,323 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.model.loader;
+
+import java.awt.Color;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Tuple3d;
+
+import kendzi.jogl.model.factory.BoundsFactory;
+import kendzi.jogl.model.geometry.Face;
+import kendzi.jogl.model.geometry.Mesh;
+import kendzi.jogl.model.geometry.Model;
+import kendzi.jogl.model.geometry.material.AmbientDiffuseComponent;
+import kendzi.jogl.model.geometry.material.Material;
+import kendzi.jogl.model.geometry.material.OtherComponent;
+
+/**
+ * Compact binary format of model. Stores materials, model flags and meshes
+ * with packed vertex data and face indexes. Bounds are calculated again when
+ * model is read.
+ */
+public final class BinaryModelFormat {
+
+    /**
+     * Marks model data and its version.
+     */
+    private static final int MAGIC = 0x4b334d31;
+
+    private BinaryModelFormat() {
+        //
+    }
+
+    /**
+     * Writes model.
+     *
+     * @param model
+     *            model
+     * @param out
+     *            output stream
+     * @throws IOException
+     *             when write fails
+     */
+    public static void write(Model model, DataOutputStream out) throws IOException {
+        write(model, null, out);
+    }
+
+    /**
+     * Writes model with vertices moved by offset. Offset is subtracted from
+     * vertices, so model is stored relative to offset point.
+     *
+     * @param model
+     *            model
+     * @param offset
+     *            offset subtracted from vertices, null for none
+     * @param out
+     *            output stream
+     * @throws IOException
+     *             when write fails
+     */
+    public static void write(Model model, Tuple3d offset, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+
+        out.writeBoolean(model.useTexture);
+        out.writeBoolean(model.useTextureAlpha);
+        out.writeBoolean(model.useCullFaces);
+        out.writeBoolean(model.useTwoSided);
+        out.writeBoolean(model.useLight);
+
+        out.writeInt(model.getNumberOfMaterials());
+        for (int i = 0; i < model.getNumberOfMaterials(); i++) {
+            writeMaterial(model.getMaterial(i), out);
+        }
+
+        Mesh[] meshes = model.mesh == null ? new Mesh[0] : model.mesh;
+        out.writeInt(meshes.length);
+        for (Mesh mesh : meshes) {
+            writeMesh(mesh, offset, out);
+        }
+    }
+
+    /**
+     * Reads model.
+     *
+     * @param in
+     *            input stream
+     * @return model
+     * @throws IOException
+     *             when read fails or data are not valid
+     */
+    public static Model read(DataInputStream in) throws IOException {
+        return read(in, null);
+    }
+
+    /**
+     * Reads model and moves its vertices by offset. Offset is added to
+     * vertices, it reverts offset used when model was written.
+     *
+     * @param in
+     *            input stream
+     * @param offset
+     *            offset added to vertices, null for none
+     * @return model
+     * @throws IOException
+     *             when read fails or data are not valid
+     */
+    public static Model read(DataInputStream in, Tuple3d offset) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a binary model data");
+        }
+
+        Model model = new Model();
+        model.useTexture = in.readBoolean();
+        model.useTextureAlpha = in.readBoolean();
+        model.useCullFaces = in.readBoolean();
+        model.useTwoSided = in.readBoolean();
+        model.useLight = in.readBoolean();
+
+        int materials = in.readInt();
+        for (int i = 0; i < materials; i++) {
+            model.addMaterial(readMaterial(in));
+        }
+
+        BoundsFactory bf = new BoundsFactory();
+
+        model.mesh = new Mesh[in.readInt()];
+        for (int i = 0; i < model.mesh.length; i++) {
+            Mesh mesh = readMesh(in);
+
+            float[] vertices = mesh.vertices;
+            if (vertices != null) {
+                for (int j = 0; j + 2 < vertices.length; j += 3) {
+                    if (offset != null) {
+                        vertices[j] += offset.x;
+                        vertices[j + 1] += offset.y;
+                        vertices[j + 2] += offset.z;
+                    }
+                    bf.addPoint(vertices[j], vertices[j + 1], vertices[j + 2]);
+                }
+            }
+            model.mesh[i] = mesh;
+        }
+        model.setBounds(bf.toBounds());
+
+        return model;
+    }
+
+    private static void writeMaterial(Material material, DataOutputStream out) throws IOException {
+        AmbientDiffuseComponent ad = material.getAmbientDiffuse();
+        writeColor(ad.getAmbientColor(), out);
+        writeColor(ad.getDiffuseColor(), out);
+
+        OtherComponent other = material.getOther();
+        writeColor(other.getSpecularColor(), out);
+        writeColor(other.getEmissive(), out);
+        out.writeFloat(other.getShininess());
+
+        List<String> textures = material.getTexturesComponent();
+        out.writeInt(textures.size());
+        for (String texture : textures) {
+            writeString(texture, out);
+        }
+        writeColor(material.getTexture0Color(), out);
+    }
+
+    private static Material readMaterial(DataInputStream in) throws IOException {
+        Material material = new Material(new AmbientDiffuseComponent(readColor(in), readColor(in)));
+        material.setOther(new OtherComponent(readColor(in), readColor(in), in.readFloat()));
+
+        int textures = in.readInt();
+        List<String> texturesComponent = new ArrayList<String>(textures);
+        for (int i = 0; i < textures; i++) {
+            texturesComponent.add(readString(in));
+        }
+        material.setTexturesComponent(texturesComponent);
+        material.setTexture0Color(readColor(in));
+        return material;
+    }
+
+    private static void writeMesh(Mesh mesh, Tuple3d offset, DataOutputStream out) throws IOException {
+        writeString(mesh.name, out);
+        out.writeInt(mesh.materialID);
+        out.writeBoolean(mesh.hasTexture);
+
+        writeVertices(mesh.vertices, offset, out);
+        writeFloats(mesh.normals, out);
+        writeFloats(mesh.texCoords, out);
+
+        Face[] faces = mesh.face == null ? new Face[0] : mesh.face;
+        out.writeInt(faces.length);
+        for (Face face : faces) {
+            out.writeInt(face.type);
+            writeInts(face.vertIndex, out);
+            writeInts(face.normalIndex, out);
+
+            int[][] layers = face.coordIndexLayers == null ? new int[0][] : face.coordIndexLayers;
+            out.writeInt(layers.length);
+            for (int[] layer : layers) {
+                writeInts(layer, out);
+            }
+        }
+    }
+
+    private static Mesh readMesh(DataInputStream in) throws IOException {
+        Mesh mesh = new Mesh();
+        mesh.name = readString(in);
+        mesh.materialID = in.readInt();
+        mesh.hasTexture = in.readBoolean();
+
+        mesh.vertices = readFloats(in);
+        mesh.normals = readFloats(in);
+        mesh.texCoords = readFloats(in);
+
+        mesh.face = new Face[in.readInt()];
+        for (int i = 0; i < mesh.face.length; i++) {
+            Face face = new Face();
+            face.type = in.readInt();
+            face.vertIndex = readInts(in);
+            face.normalIndex = readInts(in);
+
+            face.coordIndexLayers = new int[in.readInt()][];
+            for (int l = 0; l < face.coordIndexLayers.length; l++) {
+                face.coordIndexLayers[l] = readInts(in);
+            }
+            mesh.face[i] = face;
+        }
+        return mesh;
+    }
+
+    private static void writeColor(Color color, DataOutputStream out) throws IOException {
+        out.writeBoolean(color != null);
+        if (color != null) {
+            out.writeInt(color.getRGB());
+        }
+    }
+
+    private static Color readColor(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new Color(in.readInt(), true);
+    }
+
+    private static void writeString(String str, DataOutputStream out) throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null) {
+            out.writeUTF(str);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return in.readUTF();
+    }
+
+    private static void writeFloats(float[] values, DataOutputStream out) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.length);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    private static void writeVertices(float[] vertices, Tuple3d offset, DataOutputStream out) throws IOException {
+        if (vertices == null || offset == null) {
+            writeFloats(vertices, out);
+            return;
+        }
+        out.writeInt(vertices.length);
+        for (int i = 0; i < vertices.length; i++) {
+            double o = i % 3 == 0 ? offset.x : i % 3 == 1 ? offset.y : offset.z;
+            out.writeFloat((float) (vertices[i] - o));
+        }
+    }
+
+    private static float[] readFloats(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readFloat();
+        }
+        return values;
+    }
+
+    private static void writeInts(int[] values, DataOutputStream out) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
@@ -23,7 +23,7 @@ public class ObjLoader {
 
             if (mesh.face != null && mesh.face.length > 0) {
 
-                mesh.normals = addMissingNormals(mesh.normals, mesh.vertices, mesh.face);
+                mesh.setNormalArray(addMissingNormals(mesh.getNormalArray(), mesh.getVertexArray(), mesh.face));
 
             }
 
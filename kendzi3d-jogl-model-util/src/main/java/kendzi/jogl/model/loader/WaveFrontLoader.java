@@ -21,6 +21,7 @@ import javax.vecmath.Vector3d;
 
 import kendzi.jogl.model.factory.BoundsFactory;
 import kendzi.jogl.model.factory.FaceFactory.FaceType;
+import kendzi.jogl.model.factory.PackedTupleList;
 import kendzi.jogl.model.geometry.Bounds;
 import kendzi.jogl.model.geometry.Face;
 import kendzi.jogl.model.geometry.Mesh;
@@ -248,9 +249,9 @@ public class WaveFrontLoader implements iLoader {
 
         mesh = null;
 
-        Point3d[] vertexArray = this.vertexList.toArray(new Point3d [0]);
-        TextCoord[] texCoordsArray = this.texCoordsList.toArray(new TextCoord [0]);
-        Vector3d[] vectorArray = this.vectorList.toArray(new Vector3d [0]);
+        float[] vertexArray = PackedTupleList.toFloatArray(this.vertexList);
+        float[] texCoordsArray = PackedTupleList.toFloatArrayTextCoords(this.texCoordsList);
+        float[] vectorArray = PackedTupleList.toFloatArrayVectors(this.vectorList);
 
         for (Mesh m : this.model.mesh) {
             m.vertices = vertexArray;
@@ -30,12 +30,11 @@ public class MeshTriangleUtil {
 
         List<Point3d> points = new ArrayList<Point3d>();
 
-        Point3d[] vertices = mesh.vertices;
         for (Face f : mesh.face) {
             List<Integer> ti = convertToTriangles(f.vertIndex, f.type);
 
             for (Integer i : ti) {
-                points.add(vertices[i]);
+                points.add(mesh.getVertex(i));
             }
         }
         return points;
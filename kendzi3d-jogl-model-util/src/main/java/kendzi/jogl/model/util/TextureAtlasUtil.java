@@ -0,0 +1,112 @@
+package kendzi.jogl.model.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import kendzi.jogl.model.geometry.Face;
+import kendzi.jogl.model.geometry.Mesh;
+import kendzi.jogl.model.geometry.Model;
+import kendzi.jogl.model.geometry.material.Material;
+import kendzi.jogl.texture.atlas.TextureAtlas;
+import kendzi.jogl.texture.atlas.TextureAtlasRegion;
+
+/**
+ * Util for moving model textures into texture atlas.
+ *
+ * @author Tomasz Kedziora (Kendzi)
+ *
+ */
+public class TextureAtlasUtil {
+
+    /**
+     * Tolerance of texture coordinates range.
+     */
+    private static final double EPSILON = 0.001;
+
+    /**
+     * Moves textures of model meshes into texture atlas. Texture coordinates
+     * of meshes are converted into atlas coordinates and meshes materials are
+     * replaced with materials using atlas texture. Only meshes with single
+     * texture layer which don't repeat texture are converted, other meshes are
+     * not changed.
+     *
+     * @param model
+     *            model
+     * @param atlas
+     *            texture atlas
+     * @return number of converted meshes
+     */
+    public static int applyAtlas(Model model, TextureAtlas atlas) {
+
+        int converted = 0;
+
+        Map<Integer, Integer> atlasMaterials = new HashMap<Integer, Integer>();
+
+        for (Mesh mesh : model.mesh) {
+            if (!mesh.hasTexture || mesh.face == null || mesh.texCoords == null) {
+                continue;
+            }
+
+            Material material = model.getMaterial(mesh.materialID);
+            if (material == null || material.getNumOfTextures() != 1 || !isInUnitSquare(mesh)) {
+                continue;
+            }
+
+            TextureAtlasRegion region = atlas.getRegion(material.getTexture0());
+            if (region == null) {
+                continue;
+            }
+
+            float[] texCoords = new float[mesh.texCoords.length];
+            for (int i = 0; i + 1 < texCoords.length; i += 2) {
+                texCoords[i] = (float) region.u(mesh.texCoords[i]);
+                texCoords[i + 1] = (float) region.v(mesh.texCoords[i + 1]);
+            }
+            mesh.texCoords = texCoords;
+
+            Integer atlasMaterial = atlasMaterials.get(mesh.materialID);
+            if (atlasMaterial == null) {
+                model.addMaterial(atlasMaterial(material, atlas));
+                atlasMaterial = model.getNumberOfMaterials() - 1;
+                atlasMaterials.put(mesh.materialID, atlasMaterial);
+            }
+            mesh.materialID = atlasMaterial;
+
+            converted++;
+        }
+        return converted;
+    }
+
+    private static Material atlasMaterial(Material material, TextureAtlas atlas) {
+        Material ret = new Material(material.getAmbientDiffuse());
+        ret.setOther(material.getOther());
+        ret.setTexture0Color(material.getTexture0Color());
+        ret.setTexture0(atlas.getTextureKey());
+        return ret;
+    }
+
+    /**
+     * Checks if texture coordinates of first texture layer are in range 0 - 1,
+     * so texture is not repeated.
+     *
+     * @param mesh
+     *            mesh
+     * @return if texture is not repeated
+     */
+    private static boolean isInUnitSquare(Mesh mesh) {
+        for (Face face : mesh.face) {
+            if (face.coordIndexLayers == null || face.coordIndexLayers.length == 0
+                    || face.coordIndexLayers[0] == null) {
+                return false;
+            }
+            for (int index : face.coordIndexLayers[0]) {
+                float u = mesh.texCoords[2 * index];
+                float v = mesh.texCoords[2 * index + 1];
+                if (u < -EPSILON || u > 1 + EPSILON || v < -EPSILON || v > 1 + EPSILON) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,215 @@
+package kendzi.jogl.model.loader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.vecmath.Point3d;
+
+import kendzi.jogl.model.geometry.Face;
+import kendzi.jogl.model.geometry.Mesh;
+import kendzi.jogl.model.geometry.Model;
+import kendzi.jogl.model.geometry.material.AmbientDiffuseComponent;
+import kendzi.jogl.model.geometry.material.Material;
+import kendzi.jogl.model.geometry.material.OtherComponent;
+
+import org.junit.Test;
+
+public class BinaryModelFormatTest {
+
+    private static final float DELTA = 0.0001f;
+
+    /**
+     * Model with two materials and two meshes, second material has default
+     * components and null texture color, second mesh has null arrays.
+     */
+    private static Model model() {
+        Model model = new Model();
+        model.useTexture = true;
+        model.useTextureAlpha = false;
+        model.useCullFaces = true;
+        model.useTwoSided = false;
+        model.useLight = true;
+
+        Material material = new Material(new AmbientDiffuseComponent(Color.RED, new Color(10, 20, 30, 40)));
+        material.setOther(new OtherComponent(Color.WHITE, Color.BLACK, 12.5f));
+        material.setTexturesComponent(Arrays.asList("#c=#ff0000", "/textures/wall.png"));
+        material.setTexture0Color(Color.GREEN);
+        model.addMaterial(material);
+
+        Material empty = new Material(new AmbientDiffuseComponent());
+        empty.setOther(new OtherComponent());
+        model.addMaterial(empty);
+
+        Mesh mesh = new Mesh();
+        mesh.name = "wall";
+        mesh.materialID = 0;
+        mesh.hasTexture = true;
+        mesh.vertices = new float[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+        mesh.normals = new float[] { 0, 1, 0 };
+        mesh.texCoords = new float[] { 0, 0, 1, 0, 1, 1, 0.5f, 0.5f };
+
+        Face face = new Face();
+        face.type = 4;
+        face.vertIndex = new int[] { 0, 1, 2 };
+        face.normalIndex = new int[] { 0, 0, 0 };
+        face.coordIndexLayers = new int[][] { { 0, 1, 2 }, { 3, 3, 3 } };
+        mesh.face = new Face[] { face };
+
+        Mesh bare = new Mesh();
+        bare.materialID = 1;
+        bare.vertices = new float[] { -1, -2, -3 };
+        Face bareFace = new Face();
+        bareFace.vertIndex = new int[] { 0 };
+        bare.face = new Face[] { bareFace };
+
+        model.mesh = new Mesh[] { mesh, bare };
+        return model;
+    }
+
+    private static byte[] write(Model model, Point3d offset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryModelFormat.write(model, offset, out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Model read(byte[] data, Point3d offset) throws IOException {
+        return BinaryModelFormat.read(new DataInputStream(new ByteArrayInputStream(data)), offset);
+    }
+
+    @Test
+    public void flags() throws IOException {
+        Model model = read(write(model(), null), null);
+
+        assertTrue(model.useTexture);
+        assertFalse(model.useTextureAlpha);
+        assertTrue(model.useCullFaces);
+        assertFalse(model.useTwoSided);
+        assertTrue(model.useLight);
+    }
+
+    @Test
+    public void materials() throws IOException {
+        Model model = read(write(model(), null), null);
+
+        assertEquals(2, model.getNumberOfMaterials());
+
+        Material material = model.getMaterial(0);
+        assertEquals(Color.RED, material.getAmbientDiffuse().getAmbientColor());
+        assertEquals(new Color(10, 20, 30, 40), material.getAmbientDiffuse().getDiffuseColor());
+        assertEquals(40, material.getAmbientDiffuse().getDiffuseColor().getAlpha());
+        assertEquals(Color.WHITE, material.getOther().getSpecularColor());
+        assertEquals(Color.BLACK, material.getOther().getEmissive());
+        assertEquals(12.5f, material.getOther().getShininess(), DELTA);
+        assertEquals(Arrays.asList("#c=#ff0000", "/textures/wall.png"), material.getTexturesComponent());
+        assertEquals(Color.GREEN, material.getTexture0Color());
+    }
+
+    @Test
+    public void nullColors() throws IOException {
+        Model model = read(write(model(), null), null);
+
+        Material material = model.getMaterial(1);
+        assertNull(material.getTexture0Color());
+        assertTrue(material.getTexturesComponent().isEmpty());
+
+        Material expected = new Material(new AmbientDiffuseComponent());
+        expected.setOther(new OtherComponent());
+        assertEquals(expected.getAmbientDiffuse().getAmbientColor(), material.getAmbientDiffuse().getAmbientColor());
+        assertEquals(expected.getAmbientDiffuse().getDiffuseColor(), material.getAmbientDiffuse().getDiffuseColor());
+        assertEquals(expected.getOther().getSpecularColor(), material.getOther().getSpecularColor());
+        assertEquals(expected.getOther().getEmissive(), material.getOther().getEmissive());
+    }
+
+    @Test
+    public void meshes() throws IOException {
+        Model model = read(write(model(), null), null);
+
+        assertEquals(2, model.mesh.length);
+
+        Mesh mesh = model.mesh[0];
+        assertEquals("wall", mesh.name);
+        assertEquals(0, mesh.materialID);
+        assertTrue(mesh.hasTexture);
+        assertArrayEquals(new float[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 }, mesh.vertices, DELTA);
+        assertArrayEquals(new float[] { 0, 1, 0 }, mesh.normals, DELTA);
+        assertArrayEquals(new float[] { 0, 0, 1, 0, 1, 1, 0.5f, 0.5f }, mesh.texCoords, DELTA);
+
+        Mesh bare = model.mesh[1];
+        assertNull(bare.name);
+        assertEquals(1, bare.materialID);
+        assertFalse(bare.hasTexture);
+        assertNull(bare.normals);
+        assertNull(bare.texCoords);
+    }
+
+    @Test
+    public void faces() throws IOException {
+        Model model = read(write(model(), null), null);
+
+        Face face = model.mesh[0].face[0];
+        assertEquals(4, face.type);
+        assertArrayEquals(new int[] { 0, 1, 2 }, face.vertIndex);
+        assertArrayEquals(new int[] { 0, 0, 0 }, face.normalIndex);
+
+        // texture layers
+        assertEquals(2, face.coordIndexLayers.length);
+        assertArrayEquals(new int[] { 0, 1, 2 }, face.coordIndexLayers[0]);
+        assertArrayEquals(new int[] { 3, 3, 3 }, face.coordIndexLayers[1]);
+
+        Face bareFace = model.mesh[1].face[0];
+        assertArrayEquals(new int[] { 0 }, bareFace.vertIndex);
+        assertNull(bareFace.normalIndex);
+        assertEquals(0, bareFace.coordIndexLayers.length);
+    }
+
+    @Test
+    public void offset() throws IOException {
+        Point3d offset = new Point3d(100, 10, -200);
+
+        byte[] data = write(model(), offset);
+
+        // stored relative to offset
+        Model relative = read(data, null);
+        assertArrayEquals(new float[] { -99, -8, 203, -96, -5, 206, -93, -2, 209 }, relative.mesh[0].vertices, DELTA);
+
+        // offset is reverted when model is read
+        Model model = read(data, offset);
+        assertArrayEquals(new float[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 }, model.mesh[0].vertices, DELTA);
+        assertArrayEquals(new float[] { -1, -2, -3 }, model.mesh[1].vertices, DELTA);
+
+        // normals are not moved
+        assertArrayEquals(new float[] { 0, 1, 0 }, model.mesh[0].normals, DELTA);
+    }
+
+    @Test
+    public void bounds() throws IOException {
+        Point3d offset = new Point3d(100, 10, -200);
+
+        Model model = read(write(model(), offset), offset);
+
+        assertEquals(-1, model.getBounds().min.x, DELTA);
+        assertEquals(-2, model.getBounds().min.y, DELTA);
+        assertEquals(-3, model.getBounds().min.z, DELTA);
+        assertEquals(7, model.getBounds().max.x, DELTA);
+        assertEquals(8, model.getBounds().max.y, DELTA);
+        assertEquals(9, model.getBounds().max.z, DELTA);
+    }
+
+    @Test(expected = IOException.class)
+    public void notModelData() throws IOException {
+        read(new byte[] { 1, 2, 3, 4 }, null);
+    }
+}
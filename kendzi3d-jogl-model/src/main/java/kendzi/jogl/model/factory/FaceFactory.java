@@ -16,13 +16,13 @@ import com.jogamp.opengl.GL2;
 
 public class FaceFactory {
 
-	public List<Integer> vertIndex = new ArrayList<Integer>();
+	public IntArrayList vertIndex = new IntArrayList();
 
-	public List<List<Integer>> coordIndexLayers = new ArrayList<List<Integer>>();
+	public List<IntArrayList> coordIndexLayers = new ArrayList<IntArrayList>();
 //	public List<Integer> coordIndex = new ArrayList<Integer>();
 //	public List<Integer> coordIndex1 = new ArrayList<Integer>();
 //	public List<Integer> coordIndex2 = new ArrayList<Integer>();
-	public List<Integer> normalIndex = new ArrayList<Integer>();
+	public IntArrayList normalIndex = new IntArrayList();
 
 	public int count;
 
@@ -42,10 +42,10 @@ public class FaceFactory {
 
     protected FaceFactory(FaceType pFaceType, int numOfLayers) {
 	    this.type = pFaceType;
-	    this.coordIndexLayers = new ArrayList<List<Integer>>();
+	    this.coordIndexLayers = new ArrayList<IntArrayList>(numOfLayers);
 
 	    for (int i = 0; i < numOfLayers; i++) {
-	        coordIndexLayers.add(new ArrayList<Integer>());
+	        coordIndexLayers.add(new IntArrayList());
 	    }
 	}
 
@@ -86,26 +86,26 @@ public class FaceFactory {
 
 
 	public void addVertIndex(int i) {
-		this.vertIndex.add(i);
+		this.vertIndex.addInt(i);
 	}
 
 	public void addCoordIndex(int i) {
-		this.coordIndexLayers.get(0).add(i);
+		this.coordIndexLayers.get(0).addInt(i);
 	}
 
 	public void addNormalIndex(int i) {
-		this.normalIndex.add(i);
+		this.normalIndex.addInt(i);
 	}
 
 	public void addVert(int vertIndex, int coordIndex, int normalIndex) {
 
-		this.vertIndex.add(vertIndex);
+		this.vertIndex.addInt(vertIndex);
 
 		validateAddedTextureCoordinates(1);
 
-		this.coordIndexLayers.get(0).add(coordIndex);
+		this.coordIndexLayers.get(0).addInt(coordIndex);
 
-		this.normalIndex.add(normalIndex);
+		this.normalIndex.addInt(normalIndex);
 
 		this.count++;
 	}
@@ -118,29 +118,29 @@ public class FaceFactory {
 
 	public void addVert(int vertIndex, int coordIndex0, int coordIndex1, int normalIndex) {
 
-	    this.vertIndex.add(vertIndex);
+	    this.vertIndex.addInt(vertIndex);
 
 	    validateAddedTextureCoordinates(2);
 
-	    this.coordIndexLayers.get(0).add(coordIndex0);
-	    this.coordIndexLayers.get(1).add(coordIndex1);
+	    this.coordIndexLayers.get(0).addInt(coordIndex0);
+	    this.coordIndexLayers.get(1).addInt(coordIndex1);
 
-	    this.normalIndex.add(normalIndex);
+	    this.normalIndex.addInt(normalIndex);
 
 	    this.count++;
 	}
 
 	public void addVert(int vertIndex, int normalIndex, int...cords) {
 
-	    this.vertIndex.add(vertIndex);
+	    this.vertIndex.addInt(vertIndex);
 
 	    validateAddedTextureCoordinates(cords.length);
 
 	    for (int i = 0; i < cords.length; i++) {
-	        this.coordIndexLayers.get(i).add(cords[i]);
+	        this.coordIndexLayers.get(i).addInt(cords[i]);
 	    }
 
-	    this.normalIndex.add(normalIndex);
+	    this.normalIndex.addInt(normalIndex);
 
 	    this.count++;
 	}
@@ -0,0 +1,115 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind.
+ * You use it on your own risk and responsibility!!!
+ *
+ * This file is shared under BSD v3 license.
+ * See readme.txt and BSD3 file for details.
+ *
+ */
+
+package kendzi.jogl.model.factory;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Growing list of int values stored in primitive array. Implements list of
+ * integers for compatibility, methods addInt and getInt don't box values.
+ */
+public class IntArrayList extends AbstractList<Integer> implements RandomAccess {
+
+    private int[] data;
+
+    private int size;
+
+    /**
+     * Constructor.
+     */
+    public IntArrayList() {
+        this(8);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity
+     *            initial capacity
+     */
+    public IntArrayList(int capacity) {
+        data = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Adds value.
+     *
+     * @param value
+     *            value
+     */
+    public void addInt(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = value;
+    }
+
+    /**
+     * Gets value.
+     *
+     * @param index
+     *            index
+     * @return value
+     */
+    public int getInt(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + " size: " + size);
+        }
+        return data[index];
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        return true;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer value) {
+        int old = getInt(index);
+        data[index] = value;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return copy of values
+     */
+    public int[] toIntArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    /**
+     * @param length
+     *            length of returned array
+     * @return copy of values, truncated or padded with zeros to given length
+     */
+    public int[] toIntArray(int length) {
+        int[] ret = new int[length];
+        System.arraycopy(data, 0, ret, 0, Math.min(size, length));
+        return ret;
+    }
+}
@@ -18,12 +18,16 @@ import javax.vecmath.Vector3d;
 import kendzi.jogl.model.factory.FaceFactory.FaceType;
 import kendzi.jogl.model.geometry.TextCoord;
 
+/**
+ * Mesh builder. Vertices, normals and texture coordinates are stored in packed
+ * lists, added objects are copied and can be reused by caller.
+ */
 public class MeshFactory {
 
     public List<FaceFactory> faceFactory = new ArrayList<FaceFactory>();
-    public List<Point3d> vertices = new ArrayList<Point3d>();
-    public List<Vector3d> normals = new ArrayList<Vector3d>();
-    public List<TextCoord> textCoords = new ArrayList<TextCoord>();
+    public List<Point3d> vertices = PackedTupleList.points();
+    public List<Vector3d> normals = PackedTupleList.vectors();
+    public List<TextCoord> textCoords = PackedTupleList.textCoords();
 
     public int materialID;
 
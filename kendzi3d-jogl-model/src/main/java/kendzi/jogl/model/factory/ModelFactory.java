@@ -12,13 +12,9 @@ package kendzi.jogl.model.factory;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.vecmath.Point3d;
-import javax.vecmath.Vector3d;
-
 import kendzi.jogl.model.geometry.Face;
 import kendzi.jogl.model.geometry.Mesh;
 import kendzi.jogl.model.geometry.Model;
-import kendzi.jogl.model.geometry.TextCoord;
 import kendzi.jogl.model.geometry.material.Material;
 
 public class ModelFactory {
@@ -96,61 +92,31 @@ public class ModelFactory {
             mesh.hasTexture = mf.hasTexture;
             mesh.name = mf.name;
 
-            mesh.vertices = mf.vertices.toArray(new Point3d[0]);
-            mesh.normals = mf.normals.toArray(new Vector3d[0]);
-            mesh.texCoords = mf.textCoords.toArray(new TextCoord[0]);
-            //            mesh.texture = mf.getTexture();
-            //            //XXX
-            //            mesh.hasTexture = mf.getTexture() != null;
+            mesh.vertices = PackedTupleList.toFloatArray(mf.vertices);
+            mesh.normals = PackedTupleList.toFloatArrayVectors(mf.normals);
+            mesh.texCoords = PackedTupleList.toFloatArrayTextCoords(mf.textCoords);
 
-            for (Point3d v : mesh.vertices) {
-                bf.addPoint(v);
+            float[] vertices = mesh.vertices;
+            for (int i = 0; i + 2 < vertices.length; i += 3) {
+                bf.addPoint(vertices[i], vertices[i + 1], vertices[i + 2]);
             }
 
-
             List<FaceFactory> faceFactory = mf.faceFactory;
 
-
             m.mesh[meshCount] = mesh;
 
             Face [] faces = new Face[faceFactory.size()];
             int j = 0;
             for (FaceFactory ff : faceFactory) {
-                Face f = new Face(ff.type.getType(), ff.vertIndex.size(), ff.numOfTexturesLayers());
-//                f.type = ff.type.getType();
-//                f.coordIndex = new int[ff.coordIndex.size()];
+                Face f = new Face();
+                f.type = ff.type.getType();
+                f.vertIndex = ff.vertIndex.toIntArray();
+                // missing indexes are filled with zero
+                f.normalIndex = ff.normalIndex.toIntArray(f.vertIndex.length);
+                f.coordIndexLayers = new int[ff.numOfTexturesLayers()][];
                 for (int l = 0; l < ff.numOfTexturesLayers(); l++) {
-                    List<Integer> coordIndex = ff.coordIndexLayers.get(l);
-
-                    for (int i = 0; i < coordIndex.size(); i++) {
-                        f.coordIndexLayers[l][i] = coordIndex.get(i);
-                    }
-                }
-
-//                if (ff.coordIndex1 != null) {
-//                    f.coordIndex1 = new int[ff.coordIndex1.size()];
-//                    for (int i = 0; i < ff.coordIndex1.size(); i++) {
-//                        f.coordIndex1[i] = ff.coordIndex1.get(i);
-//                    }
-//                }
-//
-//                if (ff.coordIndex2 != null) {
-//                    f.coordIndex2 = new int[ff.coordIndex2.size()];
-//                    for (int i = 0; i < ff.coordIndex2.size(); i++) {
-//                        f.coordIndex2[i] = ff.coordIndex2.get(i);
-//                    }
-//                }
-
-//                f.normalIndex = new int[ff.normalIndex.size()];
-                for (int i = 0; i < ff.normalIndex.size(); i++) {
-                    f.normalIndex[i] = ff.normalIndex.get(i);
-                }
-//                f.vertIndex = new int[ff.vertIndex.size()];
-                for (int i = 0; i < ff.vertIndex.size(); i++) {
-                    f.vertIndex[i] = ff.vertIndex.get(i);
+                    f.coordIndexLayers[l] = ff.coordIndexLayers.get(l).toIntArray(f.vertIndex.length);
                 }
-//                if (no face material)
-//                f.materialID = mesh.materialID;
 
                 faces[j] = f;
 
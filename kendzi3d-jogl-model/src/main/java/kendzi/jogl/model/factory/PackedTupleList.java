@@ -0,0 +1,241 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind.
+ * You use it on your own risk and responsibility!!!
+ *
+ * This file is shared under BSD v3 license.
+ * See readme.txt and BSD3 file for details.
+ *
+ */
+
+package kendzi.jogl.model.factory;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import kendzi.jogl.model.geometry.TextCoord;
+
+/**
+ * Growing list of tuples (points, vectors, texture coordinates) stored in
+ * primitive array. Added objects are copied, get returns new object with copy
+ * of stored values, so changes of objects after they were added or got from
+ * list don't change list.
+ *
+ * @param <T>
+ *            type of tuple
+ */
+public abstract class PackedTupleList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final int tupleSize;
+
+    private double[] data;
+
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param tupleSize
+     *            number of values in tuple
+     */
+    protected PackedTupleList(int tupleSize) {
+        this.tupleSize = tupleSize;
+        this.data = new double[8 * tupleSize];
+    }
+
+    /**
+     * Creates tuple from stored values.
+     *
+     * @param data
+     *            values
+     * @param offset
+     *            offset of tuple values
+     * @return tuple
+     */
+    protected abstract T read(double[] data, int offset);
+
+    /**
+     * Stores tuple values.
+     *
+     * @param tuple
+     *            tuple
+     * @param data
+     *            values
+     * @param offset
+     *            offset of tuple values
+     */
+    protected abstract void write(T tuple, double[] data, int offset);
+
+    @Override
+    public boolean add(T tuple) {
+        if ((size + 1) * tupleSize > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        write(tuple, data, size * tupleSize);
+        size++;
+        return true;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return read(data, index * tupleSize);
+    }
+
+    @Override
+    public T set(int index, T tuple) {
+        T old = get(index);
+        write(tuple, data, index * tupleSize);
+        return old;
+    }
+
+    private void checkIndex(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + " size: " + size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return values of all tuples
+     */
+    public float[] toFloatArray() {
+        int length = size * tupleSize;
+        float[] ret = new float[length];
+        for (int i = 0; i < length; i++) {
+            ret[i] = (float) data[i];
+        }
+        return ret;
+    }
+
+    /**
+     * Converts list of points into packed float array.
+     *
+     * @param points
+     *            points
+     * @return values of points
+     */
+    public static float[] toFloatArray(List<Point3d> points) {
+        if (points instanceof PackedTupleList) {
+            return ((PackedTupleList<Point3d>) points).toFloatArray();
+        }
+        float[] ret = new float[3 * points.size()];
+        int i = 0;
+        for (Point3d p : points) {
+            ret[i++] = (float) p.x;
+            ret[i++] = (float) p.y;
+            ret[i++] = (float) p.z;
+        }
+        return ret;
+    }
+
+    /**
+     * Converts list of vectors into packed float array.
+     *
+     * @param vectors
+     *            vectors
+     * @return values of vectors
+     */
+    public static float[] toFloatArrayVectors(List<Vector3d> vectors) {
+        if (vectors instanceof PackedTupleList) {
+            return ((PackedTupleList<Vector3d>) vectors).toFloatArray();
+        }
+        float[] ret = new float[3 * vectors.size()];
+        int i = 0;
+        for (Vector3d v : vectors) {
+            ret[i++] = (float) v.x;
+            ret[i++] = (float) v.y;
+            ret[i++] = (float) v.z;
+        }
+        return ret;
+    }
+
+    /**
+     * Converts list of texture coordinates into packed float array.
+     *
+     * @param coords
+     *            texture coordinates
+     * @return values of texture coordinates
+     */
+    public static float[] toFloatArrayTextCoords(List<TextCoord> coords) {
+        if (coords instanceof PackedTupleList) {
+            return ((PackedTupleList<TextCoord>) coords).toFloatArray();
+        }
+        float[] ret = new float[2 * coords.size()];
+        int i = 0;
+        for (TextCoord tc : coords) {
+            ret[i++] = (float) tc.u;
+            ret[i++] = (float) tc.v;
+        }
+        return ret;
+    }
+
+    /**
+     * @return list of points
+     */
+    public static PackedTupleList<Point3d> points() {
+        return new PackedTupleList<Point3d>(3) {
+            @Override
+            protected Point3d read(double[] data, int offset) {
+                return new Point3d(data[offset], data[offset + 1], data[offset + 2]);
+            }
+
+            @Override
+            protected void write(Point3d p, double[] data, int offset) {
+                data[offset] = p.x;
+                data[offset + 1] = p.y;
+                data[offset + 2] = p.z;
+            }
+        };
+    }
+
+    /**
+     * @return list of vectors
+     */
+    public static PackedTupleList<Vector3d> vectors() {
+        return new PackedTupleList<Vector3d>(3) {
+            @Override
+            protected Vector3d read(double[] data, int offset) {
+                return new Vector3d(data[offset], data[offset + 1], data[offset + 2]);
+            }
+
+            @Override
+            protected void write(Vector3d v, double[] data, int offset) {
+                data[offset] = v.x;
+                data[offset + 1] = v.y;
+                data[offset + 2] = v.z;
+            }
+        };
+    }
+
+    /**
+     * @return list of texture coordinates
+     */
+    public static PackedTupleList<TextCoord> textCoords() {
+        return new PackedTupleList<TextCoord>(2) {
+            @Override
+            protected TextCoord read(double[] data, int offset) {
+                return new TextCoord(data[offset], data[offset + 1]);
+            }
+
+            @Override
+            protected void write(TextCoord tc, double[] data, int offset) {
+                data[offset] = tc.u;
+                data[offset + 1] = tc.v;
+            }
+        };
+    }
+}
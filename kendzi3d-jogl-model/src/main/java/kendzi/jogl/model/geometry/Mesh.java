@@ -12,15 +12,28 @@ package kendzi.jogl.model.geometry;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector3d;
 
+/**
+ * Mesh. Vertices, normals and texture coordinates are stored packed in float
+ * arrays, faces refer to them by index.
+ */
 public class Mesh {
 
 	public Face [] face;
 
-	public Point3d [] vertices;
+    /**
+     * Vertices, three values (x, y, z) for each vertex.
+     */
+    public float[] vertices;
 
-	public Vector3d [] normals;
+    /**
+     * Normals, three values (x, y, z) for each normal.
+     */
+    public float[] normals;
 
-	public TextCoord[] texCoords;
+    /**
+     * Texture coordinates, two values (u, v) for each coordinate.
+     */
+    public float[] texCoords;
 
     public String name;
 
@@ -28,4 +41,166 @@ public class Mesh {
 
     public boolean hasTexture;
 
+    /**
+     * @return number of vertices
+     */
+    public int getVertexCount() {
+        return vertices == null ? 0 : vertices.length / 3;
+    }
+
+    /**
+     * @return number of normals
+     */
+    public int getNormalCount() {
+        return normals == null ? 0 : normals.length / 3;
+    }
+
+    /**
+     * @return number of texture coordinates
+     */
+    public int getTexCoordCount() {
+        return texCoords == null ? 0 : texCoords.length / 2;
+    }
+
+    /**
+     * Gets copy of vertex.
+     *
+     * @param index
+     *            index of vertex
+     * @return vertex
+     */
+    public Point3d getVertex(int index) {
+        int i = 3 * index;
+        return new Point3d(vertices[i], vertices[i + 1], vertices[i + 2]);
+    }
+
+    /**
+     * Gets copy of normal.
+     *
+     * @param index
+     *            index of normal
+     * @return normal
+     */
+    public Vector3d getNormal(int index) {
+        int i = 3 * index;
+        return new Vector3d(normals[i], normals[i + 1], normals[i + 2]);
+    }
+
+    /**
+     * Gets copy of texture coordinate.
+     *
+     * @param index
+     *            index of texture coordinate
+     * @return texture coordinate
+     */
+    public TextCoord getTexCoord(int index) {
+        int i = 2 * index;
+        return new TextCoord(texCoords[i], texCoords[i + 1]);
+    }
+
+    /**
+     * @return copy of vertices as array of points, null if mesh don't have
+     *         vertices
+     */
+    public Point3d[] getVertexArray() {
+        if (vertices == null) {
+            return null;
+        }
+        Point3d[] ret = new Point3d[getVertexCount()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = getVertex(i);
+        }
+        return ret;
+    }
+
+    /**
+     * @return copy of normals as array of vectors, null if mesh don't have
+     *         normals
+     */
+    public Vector3d[] getNormalArray() {
+        if (normals == null) {
+            return null;
+        }
+        Vector3d[] ret = new Vector3d[getNormalCount()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = getNormal(i);
+        }
+        return ret;
+    }
+
+    /**
+     * @return copy of texture coordinates as array, null if mesh don't have
+     *         texture coordinates
+     */
+    public TextCoord[] getTexCoordArray() {
+        if (texCoords == null) {
+            return null;
+        }
+        TextCoord[] ret = new TextCoord[getTexCoordCount()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = getTexCoord(i);
+        }
+        return ret;
+    }
+
+    /**
+     * Sets vertices from array of points.
+     *
+     * @param points
+     *            vertices, can be null
+     */
+    public void setVertexArray(Point3d[] points) {
+        if (points == null) {
+            vertices = null;
+            return;
+        }
+        vertices = new float[3 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            Point3d p = points[i];
+            vertices[3 * i] = (float) p.x;
+            vertices[3 * i + 1] = (float) p.y;
+            vertices[3 * i + 2] = (float) p.z;
+        }
+    }
+
+    /**
+     * Sets normals from array of vectors.
+     *
+     * @param vectors
+     *            normals, can be null
+     */
+    public void setNormalArray(Vector3d[] vectors) {
+        if (vectors == null) {
+            normals = null;
+            return;
+        }
+        normals = new float[3 * vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            Vector3d v = vectors[i];
+            normals[3 * i] = (float) v.x;
+            normals[3 * i + 1] = (float) v.y;
+            normals[3 * i + 2] = (float) v.z;
+        }
+    }
+
+    /**
+     * Sets texture coordinates from array.
+     *
+     * @param coords
+     *            texture coordinates, can be null
+     */
+    public void setTexCoordArray(TextCoord[] coords) {
+        if (coords == null) {
+            texCoords = null;
+            return;
+        }
+        texCoords = new float[2 * coords.length];
+        for (int i = 0; i < coords.length; i++) {
+            TextCoord tc = coords[i];
+            if (tc != null) {
+                texCoords[2 * i] = (float) tc.u;
+                texCoords[2 * i + 1] = (float) tc.v;
+            }
+        }
+    }
 }
@@ -116,9 +116,9 @@ public final class ValidationUtil {
 
                 for (int vi = 0; vi < face.vertIndex.length; vi++) {
                     int vetexIndex = face.vertIndex[vi];
-                    if (mesh.vertices.length < vetexIndex) {
+                    if (mesh.getVertexCount() < vetexIndex) {
                         ret.add(faceVertexDescription("vertex index biger then size of vertex array in model: "
-                                + mesh.vertices.length, pModel, mi, fi, vi));
+                                + mesh.getVertexCount(), pModel, mi, fi, vi));
                         if (pRepair) {
                             ret.add(faceVertexDescription("turning off face vertexs indexes", pModel, mi, fi, vi));
                             face.vertIndex = new int [0];
@@ -130,13 +130,13 @@ public final class ValidationUtil {
 
                     if (face.normalIndex != null) {
                         int normalIndex = face.normalIndex[vi];
-                        if (mesh.normals.length < normalIndex) {
+                        if (mesh.getNormalCount() < normalIndex) {
                             ret.add(faceVertexDescription("normal index biger then size of normals array in model: "
-                                    + mesh.normals.length, pModel, mi, fi, vi));
+                                    + mesh.getNormalCount(), pModel, mi, fi, vi));
                             if (pRepair) {
                                 ret.add(faceVertexDescription("trim normal index to normals array size", pModel, mi,
                                         fi, vi));
-                                face.normalIndex[vi] = normalIndex % mesh.normals.length;
+                                face.normalIndex[vi] = normalIndex % mesh.getNormalCount();
                                 break;
                             } else {
                                 continue;
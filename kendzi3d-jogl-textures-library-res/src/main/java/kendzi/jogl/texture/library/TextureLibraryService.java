@@ -11,12 +11,16 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -49,6 +53,11 @@ public class TextureLibraryService implements TextureLibraryStorageService {
 
     private UrlTextureLibrary userTextureLibraryUrl = null;
 
+    /**
+     * Version of library content, calculated when required.
+     */
+    private volatile String version;
+
     /**
      * Constructor.
      * 
@@ -171,6 +180,7 @@ public class TextureLibraryService implements TextureLibraryStorageService {
     private void init() {
 
         this.textureMap.clear();
+        this.version = null;
 
         try {
             // load internal
@@ -233,6 +243,7 @@ public class TextureLibraryService implements TextureLibraryStorageService {
 
         loadUrl(pUrlTextureLibrary.getUrl());
         this.userTextureLibraryUrl = pUrlTextureLibrary;
+        this.version = null;
     }
 
     private TextureData convert(org.kendzi3d.TextureData td) {
@@ -242,6 +253,53 @@ public class TextureLibraryService implements TextureLibraryStorageService {
         return textureData;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Version is a digest of all texture data stored in library.
+     */
+    @Override
+    public synchronized String getVersion() {
+        if (this.version == null) {
+            this.version = calculateVersion();
+        }
+        return this.version;
+    }
+
+    private String calculateVersion() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+
+            // sorted to not depend on hash map order
+            for (Map.Entry<String, ArrayList<TextureData>> entry : new TreeMap<String, ArrayList<TextureData>>(
+                    this.textureMap).entrySet()) {
+                update(digest, entry.getKey());
+                for (TextureData td : entry.getValue()) {
+                    update(digest, td.getTex0());
+                    update(digest, td.getTex1());
+                    update(digest, Double.toString(td.getWidth()));
+                    update(digest, Double.toString(td.getHeight()));
+                    update(digest, String.valueOf(td.isColorable()));
+                }
+            }
+
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit(b >> 4 & 0xf, 16));
+                sb.append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
     private void addTexture(String key, TextureData data) {
         ArrayList<TextureData> set = this.textureMap.get(key);
 
@@ -41,4 +41,13 @@ public interface TextureLibraryStorageService {
 
     public void loadUserFile(UrlTextureLibrary pUrlTextureLibrary) throws FileNotFoundException, JAXBException, MalformedURLException;
 
+    /**
+     * Version of library content. Version changes when library is loaded with
+     * different texture data, so it can be used as a part of cache keys of
+     * objects build with library textures.
+     *
+     * @return version of library content
+     */
+    public String getVersion();
+
 }
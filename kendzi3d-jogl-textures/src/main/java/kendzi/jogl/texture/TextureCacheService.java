@@ -59,4 +59,48 @@ public interface TextureCacheService {
      */
     public BufferedImage getImage(String pFileName);
 
+    /**
+     * Uploads textures loaded in background. Should be called on each frame
+     * from OpenGl thread.
+     *
+     * @param pGl OpenGl context
+     */
+    public void uploadLoaded(GL pGl);
+
+    /**
+     * Reloads texture when its image was changed. Until new texture is loaded
+     * old one can be used.
+     *
+     * @param pFileName name of texture
+     */
+    public void reload(String pFileName);
+
+    /**
+     * Test if there are textures loaded in background which still wait for
+     * upload.
+     *
+     * @return if uploadLoaded should be called on next frame
+     */
+    public boolean hasPendingUploads();
+
+    /**
+     * Sets listener notified when texture was loaded in background and is
+     * ready for upload.
+     *
+     * @param pListener listener, null to remove it
+     */
+    public void setTextureLoadListener(TextureLoadListener pListener);
+
+    /**
+     * Listener of textures loaded in background.
+     */
+    public interface TextureLoadListener {
+
+        /**
+         * Called from loader thread when texture is ready for upload.
+         *
+         * @param pFileName name of texture
+         */
+        public void onTextureLoaded(String pFileName);
+    }
 }
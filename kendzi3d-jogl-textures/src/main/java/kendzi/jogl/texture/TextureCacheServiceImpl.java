@@ -10,36 +10,136 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.imageio.ImageIO;
 import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2GL3;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.glu.GLU;
 
+import kendzi.jogl.texture.atlas.TextureAtlas;
 import kendzi.jogl.texture.builder.TextureBuilder;
 import kendzi.kendzi3d.resource.inter.ResourceService;
 
 import org.apache.log4j.Logger;
 
 import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureData;
 import com.jogamp.opengl.util.texture.TextureIO;
 import com.jogamp.opengl.util.texture.awt.AWTTextureIO;
 
+/**
+ * Cache of textures. Size of cache is limited by memory budget, when budget is
+ * exceeded least recently used textures are removed from cache. Removed
+ * textures are released from graphic card memory on opengl thread, during next
+ * call of get method.
+ *
+ * When asynchronous loading is enabled, textures are decoded by background
+ * threads. Until texture is loaded undefined texture is returned. Decoded
+ * textures are uploaded into graphic card memory on opengl thread in
+ * uploadLoaded method, which uploads only as many textures as fits in upload
+ * time budget.
+ */
 public class TextureCacheServiceImpl implements kendzi.jogl.texture.TextureCacheService {
 
     /** Log. */
     private static final Logger log = Logger.getLogger(TextureCacheServiceImpl.class);
 
+    /**
+     * Default memory budget of cache in bytes.
+     */
+    public static final long DEFAULT_MAX_MEMORY_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * Default time budget for uploading textures in one frame in milliseconds.
+     */
+    public static final long DEFAULT_UPLOAD_TIME_BUDGET = 4;
+
     /**
      * File url reciver service.
      */
     ResourceService resourceService;
 
-    private Map<String, Texture> cache = new HashMap<String, Texture>();
+    /**
+     * Cached textures in access order, first entry is least recently used.
+     */
+    private final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<String, CacheEntry>(64, 0.75f, true);
+
+    /**
+     * Textures removed from cache waiting for release on opengl thread.
+     */
+    private final List<Texture> pendingRelease = new ArrayList<Texture>();
+
+    /**
+     * Texture used when texture can't be loaded. It is never evicted.
+     */
+    private Texture undefinedTexture;
+
+    private long maxMemorySize = DEFAULT_MAX_MEMORY_SIZE;
+
+    private long memorySize;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    private boolean asyncLoading;
+
+    private long uploadTimeBudget = TimeUnit.MILLISECONDS.toNanos(DEFAULT_UPLOAD_TIME_BUDGET);
+
+    /**
+     * Measured upload speed, used to estimate if texture fits in upload time
+     * budget.
+     */
+    private double uploadNanosPerByte;
+
+    /**
+     * Names of textures loaded in background.
+     */
+    private final Set<String> loading = new HashSet<String>();
+
+    /**
+     * Names of cached textures which need to be reloaded in background.
+     */
+    private final Set<String> stale = new HashSet<String>();
+
+    /**
+     * Textures decoded in background waiting for upload on opengl thread.
+     */
+    private final Queue<LoadedTexture> loaded = new ConcurrentLinkedQueue<LoadedTexture>();
+
+    /**
+     * Incremented when cache is cleared, textures loaded before are dropped.
+     */
+    private int generation;
+
+    private ExecutorService loader;
+
+    /**
+     * Notified when texture is loaded in background, can be null.
+     */
+    private volatile TextureLoadListener textureLoadListener;
+
+    /**
+     * Disk cache of decoded textures, can be null.
+     */
+    private TextureDiskCache diskCache;
 
     private boolean filter;
 
@@ -169,16 +269,32 @@ public class TextureCacheServiceImpl implements kendzi.jogl.texture.TextureCache
      * @return if texture exist
      */
     @Override
-    public boolean isTexture(String pName) {
-        return null != this.cache.get(pName);
+    public synchronized boolean isTexture(String pName) {
+        CacheEntry entry = this.cache.get(pName);
+        return entry != null && entry.texture != null;
     }
 
     /**
-     * Clean up all textures from cache.
+     * Clean up all textures from cache. Textures are released from graphic card
+     * memory during next call of get method.
      */
     @Override
-    public void clear() {
+    public synchronized void clear() {
+        for (CacheEntry entry : this.cache.values()) {
+            release(entry);
+        }
         this.cache.clear();
+        this.memorySize = 0;
+
+        this.generation++;
+        this.loading.clear();
+        this.loaded.clear();
+        this.stale.clear();
+
+        if (this.undefinedTexture != null) {
+            this.pendingRelease.add(this.undefinedTexture);
+            this.undefinedTexture = null;
+        }
     }
 
     /**
@@ -189,26 +305,417 @@ public class TextureCacheServiceImpl implements kendzi.jogl.texture.TextureCache
      * @param pName
      * @return
      */
-    public Texture get(GL gl, String pName) {
-        Texture texture = this.cache.get(pName);
-        if (texture == null) {
+    public synchronized Texture get(GL gl, String pName) {
 
-            texture = loadTexture(gl, pName);
+        releasePending(gl);
 
-            if (texture == null) {
-                texture = loadTexture(gl, TEXTURES_UNDEFINED_PNG);
+        if (!this.stale.isEmpty() && this.stale.contains(pName) && this.loading.add(pName)) {
+            // old texture is used until new one is loaded
+            this.stale.remove(pName);
+            loadAsync(gl, pName);
+        }
+
+        CacheEntry entry = this.cache.get(pName);
+        if (entry != null) {
+            this.hitCount++;
+            return entry.texture;
+        }
+
+        if (TEXTURES_UNDEFINED_PNG.equals(pName)) {
+            return getUndefinedTexture(gl);
+        }
+
+        if (this.asyncLoading && pName != null) {
+            if (this.loading.add(pName)) {
+                this.missCount++;
+                loadAsync(gl, pName);
             }
+            return getUndefinedTexture(gl);
+        }
+        this.missCount++;
 
+        Texture texture = loadTexture(gl, pName);
+
+        if (texture == null) {
+            texture = getUndefinedTexture(gl);
             if (texture == null) {
                 log.error("no texture to load!!" + " texture url: " + pName);
+            }
+            // remember missing texture so it is not loaded again
+            put(pName, new CacheEntry(texture, 0, false));
+
+        } else {
+            setupTexture(gl, pName, texture);
+            put(pName, new CacheEntry(texture, estimateMemorySize(texture), true));
+        }
+
+        releasePending(gl);
+
+        return texture;
+    }
+
+    @Override
+    public synchronized void reload(String pName) {
+        if (this.asyncLoading) {
+            if (this.cache.containsKey(pName) || this.loading.contains(pName)) {
+                this.stale.add(pName);
+            }
+            return;
+        }
+
+        CacheEntry entry = this.cache.remove(pName);
+        if (entry != null) {
+            this.memorySize -= entry.size;
+            release(entry);
+        }
+    }
+
+    private void loadAsync(GL gl, final String pName) {
+
+        final GLProfile profile = gl.getGLProfile();
+        final boolean mipmap = this.filter;
+        final int loadGeneration = this.generation;
+
+        getLoader().execute(new Runnable() {
+            @Override
+            public void run() {
+                TextureData data = null;
+                try {
+                    data = loadTextureData(profile, pName, mipmap);
+                } catch (Exception e) {
+                    log.error("can't load texture: " + pName, e);
+                }
+                TextureCacheServiceImpl.this.loaded.add(new LoadedTexture(pName, data, loadGeneration));
+
+                TextureLoadListener listener = TextureCacheServiceImpl.this.textureLoadListener;
+                if (listener != null) {
+                    listener.onTextureLoaded(pName);
+                }
+            }
+        });
+    }
+
+    private synchronized ExecutorService getLoader() {
+        if (this.loader == null) {
+            this.loader = Executors.newFixedThreadPool(2, new ThreadFactory() {
+
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "kendzi3d-texture-loader-" + this.count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return this.loader;
+    }
+
+    /**
+     * Decodes texture data. Don't require opengl context so it can be called
+     * from any thread.
+     *
+     * @param profile
+     *            gl profile
+     * @param pName
+     *            name of texture
+     * @param mipmap
+     *            if mipmaps should be generated
+     * @return texture data or null if texture can't be loaded
+     * @throws IOException
+     *             when texture file can't be read
+     */
+    private TextureData loadTextureData(GLProfile profile, String pName, boolean mipmap) throws IOException {
+
+        if (this.textureBuilderList != null) {
+            for (TextureBuilder tb : this.textureBuilderList) {
+                if (pName.startsWith(tb.getBuilderPrefix())) {
+                    // builders create mipmapped textures
+                    String diskKey = diskCacheKey(pName, pName.substring(tb.getBuilderPrefix().length()), true);
+                    TextureData data = loadFromDiskCache(profile, diskKey);
+                    if (data != null) {
+                        return data;
+                    }
+
+                    BufferedImage image = tb.buildImage(pName);
+                    if (image != null) {
+                        return textureData(profile, diskKey, image, true);
+                    }
+                }
+            }
+        }
+
+        URL textUrl = this.resourceService.resourceToUrl(pName);
+        if (textUrl == null) {
+            log.info("No file to load: " + pName);
+            return null;
+        }
+
+        if (this.diskCache != null) {
+            String diskKey = TextureDiskCache.key(pName, textUrl, mipmap);
+            TextureData data = this.diskCache.load(profile, diskKey);
+            if (data != null) {
+                return data;
+            }
+
+            BufferedImage image = ImageIO.read(textUrl);
+            if (image != null) {
+                return this.diskCache.store(profile, diskKey, image, mipmap);
+            }
+        }
+
+        return TextureIO.newTextureData(profile, textUrl, mipmap, null);
+    }
+
+    /**
+     * Creates disk cache key for texture created by builder.
+     *
+     * @param pName
+     *            name of texture
+     * @param source
+     *            name of source image used by builder
+     * @param mipmap
+     *            if texture have mipmaps
+     * @return key or null if texture can't be stored in disk cache
+     */
+    private String diskCacheKey(String pName, String source, boolean mipmap) {
+        if (this.diskCache == null) {
+            return null;
+        }
+        // only textures build from image files are stored
+        URL sourceUrl = this.resourceService.resourceToUrl(source);
+        if (sourceUrl == null) {
+            return null;
+        }
+        return TextureDiskCache.key(pName, sourceUrl, mipmap);
+    }
+
+    private TextureData loadFromDiskCache(GLProfile profile, String diskKey) {
+        if (diskKey == null) {
+            return null;
+        }
+        return this.diskCache.load(profile, diskKey);
+    }
+
+    private TextureData textureData(GLProfile profile, String diskKey, BufferedImage image, boolean mipmap) {
+        if (diskKey == null) {
+            return AWTTextureIO.newTextureData(profile, image, mipmap);
+        }
+        return this.diskCache.store(profile, diskKey, image, mipmap);
+    }
+
+    /**
+     * Uploads textures decoded in background into graphic card memory. Before
+     * each upload its time is estimated from measured upload speed, texture
+     * which would exceed upload time budget is left for next calls. At least
+     * one texture is uploaded in each call, so large textures are uploaded
+     * too. Should be called once per frame from opengl thread.
+     *
+     * @param gl
+     *            gl context
+     */
+    @Override
+    public synchronized void uploadLoaded(GL gl) {
+
+        releasePending(gl);
+
+        long start = System.nanoTime();
+        boolean uploaded = false;
+
+        LoadedTexture loadedTexture;
+        while ((loadedTexture = this.loaded.peek()) != null) {
+
+            if (uploaded && loadedTexture.generation == this.generation
+                    && System.nanoTime() - start + estimateUploadTime(loadedTexture.data) > this.uploadTimeBudget) {
+                // don't fit into remaining budget
+                break;
+            }
+            // only opengl thread takes from queue, peeked texture is polled
+            this.loaded.poll();
+
+            if (loadedTexture.generation != this.generation) {
+                // cache was cleared after texture was requested
+                loadedTexture.flush();
+                continue;
+            }
+            this.loading.remove(loadedTexture.name);
+
+            Texture texture = null;
+            if (loadedTexture.data != null) {
+                long uploadStart = System.nanoTime();
+                try {
+                    texture = new Texture(gl, loadedTexture.data);
+                } catch (GLException e) {
+                    log.error("can't upload texture: " + loadedTexture.name, e);
+                }
+                measureUploadTime(loadedTexture.data, System.nanoTime() - uploadStart);
+                loadedTexture.flush();
+                uploaded = true;
+            }
+
+            if (texture == null) {
+                // remember missing texture so it is not loaded again
+                put(loadedTexture.name, new CacheEntry(getUndefinedTexture(gl), 0, false));
             } else {
-                setupFilter(gl, texture);
+                setupTexture(gl, loadedTexture.name, texture);
+                put(loadedTexture.name, new CacheEntry(texture, estimateMemorySize(texture), true));
             }
 
-            this.cache.put(pName, texture);
+            if (System.nanoTime() - start > this.uploadTimeBudget) {
+                break;
+            }
+        }
 
+        releasePending(gl);
+    }
+
+    /**
+     * Estimates time of texture upload.
+     *
+     * @param data
+     *            texture data
+     * @return upload time in nanoseconds
+     */
+    private long estimateUploadTime(TextureData data) {
+        if (data == null) {
+            return 0;
+        }
+        return (long) (data.getEstimatedMemorySize() * this.uploadNanosPerByte);
+    }
+
+    private void measureUploadTime(TextureData data, long time) {
+        int bytes = data.getEstimatedMemorySize();
+        if (bytes <= 0) {
+            return;
+        }
+        double nanosPerByte = time / (double) bytes;
+        // moving average, single slow upload don't stop uploads for long
+        this.uploadNanosPerByte = this.uploadNanosPerByte == 0 ? nanosPerByte
+                : 0.8 * this.uploadNanosPerByte + 0.2 * nanosPerByte;
+    }
+
+    @Override
+    public boolean hasPendingUploads() {
+        return !this.loaded.isEmpty();
+    }
+
+    @Override
+    public void setTextureLoadListener(TextureLoadListener pListener) {
+        this.textureLoadListener = pListener;
+    }
+
+    private Texture getUndefinedTexture(GL gl) {
+        if (this.undefinedTexture == null) {
+            this.undefinedTexture = loadTexture(gl, TEXTURES_UNDEFINED_PNG);
+            if (this.undefinedTexture != null) {
+                setupFilter(gl, this.undefinedTexture);
+            }
+        }
+        return this.undefinedTexture;
+    }
+
+    /**
+     * Puts entry into cache and evicts least recently used textures if memory
+     * budget is exceeded. Entry which was put is never evicted.
+     *
+     * @param pName
+     *            name of texture
+     * @param entry
+     *            cache entry
+     */
+    private void put(String pName, CacheEntry entry) {
+
+        CacheEntry old = this.cache.put(pName, entry);
+        if (old != null) {
+            this.memorySize -= old.size;
+            if (old.texture != entry.texture) {
+                release(old);
+            }
+        }
+        this.memorySize += entry.size;
+
+        Iterator<Map.Entry<String, CacheEntry>> it = this.cache.entrySet().iterator();
+        while (this.memorySize > this.maxMemorySize && it.hasNext()) {
+            Map.Entry<String, CacheEntry> e = it.next();
+            CacheEntry evicted = e.getValue();
+            if (evicted == entry || evicted.size == 0) {
+                continue;
+            }
+            it.remove();
+            this.memorySize -= evicted.size;
+            this.evictionCount++;
+            release(evicted);
+
+            if (log.isDebugEnabled()) {
+                log.debug("evicted texture: " + e.getKey() + " size: " + evicted.size + " cache size: "
+                        + this.memorySize + " hits: " + this.hitCount + " misses: " + this.missCount + " evictions: "
+                        + this.evictionCount);
+            }
+        }
+    }
+
+    private void release(CacheEntry entry) {
+        if (entry.owned && entry.texture != null && entry.texture != this.undefinedTexture) {
+            this.pendingRelease.add(entry.texture);
+        }
+    }
+
+    /**
+     * Releases graphic card memory of textures removed from cache. Have to be
+     * called from opengl thread.
+     *
+     * @param gl
+     *            gl context
+     */
+    public synchronized void releasePending(GL gl) {
+        if (this.pendingRelease.isEmpty()) {
+            return;
+        }
+        for (Texture texture : this.pendingRelease) {
+            try {
+                texture.destroy(gl);
+            } catch (GLException e) {
+                log.error("can't release texture", e);
+            }
+        }
+        this.pendingRelease.clear();
+    }
+
+    /**
+     * Estimates size of texture in graphic card memory.
+     *
+     * @param texture
+     *            texture
+     * @return size in bytes
+     */
+    private static long estimateMemorySize(Texture texture) {
+        long size = texture.getEstimatedMemorySize();
+        if (size <= 0) {
+            // RGBA
+            size = (long) texture.getWidth() * texture.getHeight() * 4;
+        }
+        return size;
+    }
+
+    /**
+     * Sets up parameters of loaded texture. Mipmaps of atlas textures are
+     * limited to levels which don't mix textures packed in atlas.
+     *
+     * @param gl
+     *            gl context
+     * @param pName
+     *            name of texture
+     * @param texture
+     *            texture
+     */
+    private void setupTexture(GL gl, String pName, Texture texture) {
+        setupFilter(gl, texture);
+
+        if (pName.startsWith(TextureAtlas.PREFIX)) {
+            texture.setTexParameteri(gl, GL2GL3.GL_TEXTURE_MAX_LEVEL, TextureAtlas.MAX_MIPMAP_LEVEL);
         }
-        return texture;
     }
 
     /**
@@ -287,12 +794,12 @@ public class TextureCacheServiceImpl implements kendzi.jogl.texture.TextureCache
         return TextureIO.newTexture(textUrl, filter, null);
     }
 
-    public void addTexture(String pName, Texture img, boolean filter) {
+    public synchronized void addTexture(String pName, Texture img, boolean filter) {
 
-        cache.put(pName, img);
+        put(pName, new CacheEntry(img, img == null ? 0 : estimateMemorySize(img), true));
     }
 
-    public void addTexture(GL gl, String pName, BufferedImage img, boolean filter) throws IOException {
+    public synchronized void addTexture(GL gl, String pName, BufferedImage img, boolean filter) throws IOException {
 
         // ByteArrayOutputStream baos = new ByteArrayOutputStream();
         //
@@ -326,8 +833,86 @@ public class TextureCacheServiceImpl implements kendzi.jogl.texture.TextureCache
 
         }
 
-        this.cache.put(pName, tex);
+        put(pName, new CacheEntry(tex, tex == null ? 0 : estimateMemorySize(tex), true));
+
+        releasePending(gl);
+    }
 
+    /**
+     * @return maximal size of cached textures in bytes
+     */
+    public synchronized long getMaxMemorySize() {
+        return this.maxMemorySize;
+    }
+
+    /**
+     * @param maxMemorySize
+     *            maximal size of cached textures in bytes
+     */
+    public synchronized void setMaxMemorySize(long maxMemorySize) {
+        this.maxMemorySize = maxMemorySize;
+    }
+
+    /**
+     * @return if textures are loaded in background
+     */
+    public synchronized boolean isAsyncLoading() {
+        return this.asyncLoading;
+    }
+
+    /**
+     * @param asyncLoading
+     *            if textures should be loaded in background, uploadLoaded
+     *            have to be called on each frame
+     */
+    public synchronized void setAsyncLoading(boolean asyncLoading) {
+        this.asyncLoading = asyncLoading;
+    }
+
+    /**
+     * @param diskCache
+     *            disk cache of decoded textures used by asynchronous loading,
+     *            can be null
+     */
+    public synchronized void setDiskCache(TextureDiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * @param uploadTimeBudget
+     *            time budget for uploading textures in one call of
+     *            uploadLoaded in milliseconds
+     */
+    public synchronized void setUploadTimeBudget(long uploadTimeBudget) {
+        this.uploadTimeBudget = TimeUnit.MILLISECONDS.toNanos(uploadTimeBudget);
+    }
+
+    /**
+     * @return estimated size of cached textures in bytes
+     */
+    public synchronized long getMemorySize() {
+        return this.memorySize;
+    }
+
+    /**
+     * @return number of textures found in cache
+     */
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * @return number of textures not found in cache
+     */
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * @return number of textures evicted from cache
+     */
+    public synchronized long getEvictionCount() {
+        return this.evictionCount;
     }
 
     /**
@@ -374,4 +959,52 @@ public class TextureCacheServiceImpl implements kendzi.jogl.texture.TextureCache
     public void setFileUrlReciverService(ResourceService resourceService) {
         this.resourceService = resourceService;
     }
+
+    /**
+     * Cached texture.
+     */
+    private static class CacheEntry {
+
+        private final Texture texture;
+
+        /**
+         * Estimated size in bytes, entries with zero size are never evicted.
+         */
+        private final long size;
+
+        /**
+         * If texture is owned by entry and should be released with it.
+         */
+        private final boolean owned;
+
+        CacheEntry(Texture texture, long size, boolean owned) {
+            this.texture = texture;
+            this.size = size;
+            this.owned = owned;
+        }
+    }
+
+    /**
+     * Texture decoded in background.
+     */
+    private static class LoadedTexture {
+
+        private final String name;
+
+        private final TextureData data;
+
+        private final int generation;
+
+        LoadedTexture(String name, TextureData data, int generation) {
+            this.name = name;
+            this.data = data;
+            this.generation = generation;
+        }
+
+        void flush() {
+            if (this.data != null) {
+                this.data.flush();
+            }
+        }
+    }
 }
@@ -0,0 +1,421 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.texture;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.util.texture.TextureData;
+
+/**
+ * Disk cache of decoded textures. Texture is stored as RGBA pixels with all
+ * mipmap levels already generated, so loading it requires only mapping file
+ * into memory. Cache is keyed by texture key, which should contain source url,
+ * source modification time and all settings used to create texture.
+ *
+ * Size of cache is limited, least recently used files are removed when cache
+ * grows over maximal size.
+ *
+ * Cache can be used from any thread.
+ */
+public class TextureDiskCache {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(TextureDiskCache.class);
+
+    /**
+     * Marks cache file and its version.
+     */
+    private static final int MAGIC = 0x4b335431;
+
+    /**
+     * Header size, magic, width, height, number of levels.
+     */
+    private static final int HEADER_SIZE = 4 * 4;
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * Default maximal size of disk cache in bytes.
+     */
+    public static final long DEFAULT_MAX_DISK_SIZE = 512L * 1024 * 1024;
+
+    /**
+     * Number of files stored after which disk cache size is checked.
+     */
+    private static final int DISK_CHECK_INTERVAL = 50;
+
+    private final File directory;
+
+    private volatile long maxDiskSize = DEFAULT_MAX_DISK_SIZE;
+
+    /**
+     * Number of files stored since last check of disk cache size.
+     */
+    private final AtomicInteger storedSinceCheck = new AtomicInteger(DISK_CHECK_INTERVAL);
+
+    private final AtomicBoolean cleaningDisk = new AtomicBoolean();
+
+    /**
+     * Constructor.
+     *
+     * @param directory
+     *            directory of cache files
+     */
+    public TextureDiskCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates key of texture.
+     *
+     * @param name
+     *            name of texture
+     * @param source
+     *            url of source image
+     * @param mipmap
+     *            if texture have mipmaps
+     * @return key of texture
+     */
+    public static String key(String name, URL source, boolean mipmap) {
+        return name + "|" + source + "|" + lastModified(source) + "|" + mipmap;
+    }
+
+    private static long lastModified(URL url) {
+        try {
+            URLConnection connection = url.openConnection();
+            try {
+                return connection.getLastModified();
+            } finally {
+                connection.getInputStream().close();
+            }
+        } catch (IOException e) {
+            log.debug("can't read modification time of: " + url, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Loads texture from cache.
+     *
+     * @param profile
+     *            gl profile
+     * @param key
+     *            key of texture
+     * @return texture data or null if texture is not stored in cache
+     */
+    public TextureData load(GLProfile profile, String key) {
+
+        File file = file(key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.order(ByteOrder.BIG_ENDIAN);
+
+                if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                    log.warn("invalid texture cache file: " + file);
+                    return null;
+                }
+
+                int width = buffer.getInt();
+                int height = buffer.getInt();
+                int levels = buffer.getInt();
+
+                ByteBuffer[] mipmaps = new ByteBuffer[levels];
+                int offset = HEADER_SIZE;
+                for (int level = 0; level < levels; level++) {
+                    int size = levelWidth(width, level) * levelWidth(height, level) * BYTES_PER_PIXEL;
+                    if (offset + size > buffer.capacity()) {
+                        log.warn("truncated texture cache file: " + file);
+                        return null;
+                    }
+                    buffer.limit(offset + size);
+                    buffer.position(offset);
+                    mipmaps[level] = buffer.slice();
+                    offset += size;
+                }
+
+                // modification time is used as last access time by clean up
+                file.setLastModified(System.currentTimeMillis());
+
+                return createTextureData(profile, width, height, mipmaps);
+
+            } finally {
+                // mapped buffer stays valid after channel is closed
+                raf.close();
+            }
+        } catch (IOException e) {
+            log.warn("can't read texture cache file: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates texture from image and stores it in cache.
+     *
+     * @param profile
+     *            gl profile
+     * @param key
+     *            key of texture
+     * @param image
+     *            decoded image
+     * @param mipmap
+     *            if mipmaps should be generated
+     * @return texture data
+     */
+    public TextureData store(GLProfile profile, String key, BufferedImage image, boolean mipmap) {
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        ByteBuffer[] levels = createLevels(image, mipmap);
+
+        write(key, width, height, levels);
+
+        return createTextureData(profile, width, height, levels);
+    }
+
+    private void write(String key, int width, int height, ByteBuffer[] levels) {
+        File file = file(key);
+        File tmp = new File(file.getPath() + ".tmp");
+
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                log.warn("can't create texture cache directory: " + directory);
+                return;
+            }
+
+            RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+            try {
+                raf.setLength(0);
+                FileChannel channel = raf.getChannel();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+                header.putInt(MAGIC).putInt(width).putInt(height).putInt(levels.length);
+                header.flip();
+                writeFully(channel, header);
+
+                for (ByteBuffer level : levels) {
+                    writeFully(channel, level.duplicate());
+                }
+            } finally {
+                raf.close();
+            }
+
+            if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+                log.warn("can't store texture cache file: " + file);
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            log.warn("can't write texture cache file: " + file, e);
+            tmp.delete();
+        }
+
+        if (storedSinceCheck.incrementAndGet() > DISK_CHECK_INTERVAL) {
+            storedSinceCheck.set(0);
+            cleanDisk();
+        }
+    }
+
+    /**
+     * Removes least recently used files from disk cache when it is bigger
+     * than maximal size. Only one thread cleans cache at time, other threads
+     * don't wait for it.
+     */
+    public void cleanDisk() {
+        if (!cleaningDisk.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            File[] dirFiles = directory.listFiles();
+            if (dirFiles == null) {
+                return;
+            }
+
+            List<File> files = new ArrayList<File>();
+            long size = 0;
+            for (File file : dirFiles) {
+                files.add(file);
+                size += file.length();
+            }
+
+            if (size <= maxDiskSize) {
+                return;
+            }
+
+            // remove to 3/4 of limit, so clean up is not run after each store
+            long target = maxDiskSize / 4 * 3;
+
+            Collections.sort(files, (f1, f2) -> Long.compare(f1.lastModified(), f2.lastModified()));
+            for (File file : files) {
+                if (size <= target) {
+                    break;
+                }
+                long length = file.length();
+                if (file.delete()) {
+                    size -= length;
+                }
+            }
+            log.info("texture cache cleaned up, size: " + size);
+        } finally {
+            cleaningDisk.set(false);
+        }
+    }
+
+    /**
+     * @param maxDiskSize
+     *            maximal size of disk cache in bytes
+     */
+    public void setMaxDiskSize(long maxDiskSize) {
+        this.maxDiskSize = maxDiskSize;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private File file(String key) {
+        return new File(directory, hash(key) + ".tex");
+    }
+
+    private static String hash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit(b >> 4 & 0xf, 16));
+                sb.append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates texture data from mipmap levels. Rows of image are stored from
+     * top to bottom, same as in images loaded by AWT.
+     */
+    private static TextureData createTextureData(GLProfile profile, int width, int height, ByteBuffer[] levels) {
+        return new TextureData(profile, GL.GL_RGBA, width, height, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, false, true,
+                levels, null);
+    }
+
+    /**
+     * Converts image into RGBA pixels and generates mipmap levels with box
+     * filter.
+     *
+     * @param image
+     *            image
+     * @param mipmap
+     *            if mipmap levels should be generated
+     * @return pixels of each level
+     */
+    static ByteBuffer[] createLevels(BufferedImage image, boolean mipmap) {
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        int levels = mipmap ? levelCount(width, height) : 1;
+        ByteBuffer[] ret = new ByteBuffer[levels];
+
+        int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+
+        for (int level = 0; level < levels; level++) {
+            if (level > 0) {
+                argb = downsample(argb, width, height);
+                width = levelWidth(width, 1);
+                height = levelWidth(height, 1);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(width * height * BYTES_PER_PIXEL);
+            for (int pixel : argb) {
+                buffer.put((byte) (pixel >> 16));
+                buffer.put((byte) (pixel >> 8));
+                buffer.put((byte) pixel);
+                buffer.put((byte) (pixel >>> 24));
+            }
+            buffer.flip();
+            ret[level] = buffer;
+        }
+        return ret;
+    }
+
+    private static int[] downsample(int[] argb, int width, int height) {
+        int w = levelWidth(width, 1);
+        int h = levelWidth(height, 1);
+        int[] ret = new int[w * h];
+
+        for (int y = 0; y < h; y++) {
+            int y0 = Math.min(2 * y, height - 1);
+            int y1 = Math.min(2 * y + 1, height - 1);
+            for (int x = 0; x < w; x++) {
+                int x0 = Math.min(2 * x, width - 1);
+                int x1 = Math.min(2 * x + 1, width - 1);
+
+                int p00 = argb[y0 * width + x0];
+                int p01 = argb[y0 * width + x1];
+                int p10 = argb[y1 * width + x0];
+                int p11 = argb[y1 * width + x1];
+
+                ret[y * w + x] = average(p00, p01, p10, p11, 24) << 24 //
+                        | average(p00, p01, p10, p11, 16) << 16 //
+                        | average(p00, p01, p10, p11, 8) << 8 //
+                        | average(p00, p01, p10, p11, 0);
+            }
+        }
+        return ret;
+    }
+
+    private static int average(int p00, int p01, int p10, int p11, int shift) {
+        return ((p00 >>> shift & 0xff) + (p01 >>> shift & 0xff) + (p10 >>> shift & 0xff) + (p11 >>> shift & 0xff)
+                + 2) / 4;
+    }
+
+    private static int levelCount(int width, int height) {
+        int levels = 1;
+        int size = Math.max(width, height);
+        while (size > 1) {
+            size /= 2;
+            levels++;
+        }
+        return levels;
+    }
+
+    private static int levelWidth(int width, int level) {
+        return Math.max(1, width >> level);
+    }
+}
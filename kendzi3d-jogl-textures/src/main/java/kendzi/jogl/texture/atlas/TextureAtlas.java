@@ -0,0 +1,267 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.texture.atlas;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.awt.AWTTextureIO;
+
+import kendzi.jogl.texture.TextureCacheService;
+import kendzi.jogl.texture.builder.TextureBuilder;
+
+/**
+ * Texture atlas. Small textures are packed into one large texture, so meshes
+ * with different textures can be drawn with single texture bind. Textures are
+ * added into atlas when they are requested first time and they are never
+ * removed, so regions of already added textures don't change. Atlas texture
+ * is reloaded in texture cache by {@link #flush()}, it should be called once
+ * after batch of changes, so the whole atlas is not uploaded for each added
+ * texture.
+ *
+ * Atlas texture can't repeat textures packed inside it, only meshes with
+ * texture coordinates in range 0 - 1 can use it.
+ *
+ * Atlas is texture builder for textures with key returned by getTextureKey,
+ * it have to be registered in texture cache.
+ */
+public class TextureAtlas implements TextureBuilder {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(TextureAtlas.class);
+
+    /**
+     * Prefix of atlas texture keys.
+     */
+    public static final String PREFIX = "#atlas=";
+
+    /**
+     * Number of pixels copied from texture edges around texture. Prevents
+     * bleeding of neighbor textures when texture is filtered. Textures are
+     * aligned to padding, so it has to be power of two.
+     */
+    private static final int PADDING = 4;
+
+    /**
+     * Maximal mipmap level of atlas texture. Texel of mipmap level n covers
+     * 2^n aligned pixels, up to this level texels around texture contain only
+     * its padding. Higher levels would mix neighbor textures.
+     */
+    public static final int MAX_MIPMAP_LEVEL = Integer.numberOfTrailingZeros(PADDING);
+
+    private final String name;
+
+    private final int size;
+
+    private final int maxTextureSize;
+
+    private final TextureCacheService textureCacheService;
+
+    private BufferedImage image;
+
+    private final Map<String, TextureAtlasRegion> regions = new HashMap<String, TextureAtlasRegion>();
+
+    /**
+     * Textures which don't fit into atlas.
+     */
+    private final Set<String> rejected = new HashSet<String>();
+
+    private int shelfX;
+
+    private int shelfY;
+
+    private int shelfHeight;
+
+    /**
+     * If textures were added since last flush.
+     */
+    private boolean changed;
+
+    /**
+     * Constructor.
+     *
+     * @param name
+     *            name of atlas
+     * @param size
+     *            width and height of atlas in pixels
+     * @param maxTextureSize
+     *            maximal width and height of texture packed into atlas
+     * @param textureCacheService
+     *            texture cache used to load images of textures and reload atlas
+     *            texture
+     */
+    public TextureAtlas(String name, int size, int maxTextureSize, TextureCacheService textureCacheService) {
+        this.name = name;
+        this.size = size;
+        this.maxTextureSize = maxTextureSize;
+        this.textureCacheService = textureCacheService;
+    }
+
+    /**
+     * @return key of atlas texture
+     */
+    public String getTextureKey() {
+        return PREFIX + name;
+    }
+
+    /**
+     * Gets region of texture in atlas. If texture isn't in atlas yet it is
+     * added, it is visible in atlas texture after next {@link #flush()}.
+     *
+     * @param textureKey
+     *            key of texture
+     * @return region of texture or null if texture can't be packed into atlas
+     */
+    public synchronized TextureAtlasRegion getRegion(String textureKey) {
+        TextureAtlasRegion region = regions.get(textureKey);
+        if (region != null || rejected.contains(textureKey)) {
+            return region;
+        }
+
+        BufferedImage textureImage = textureKey == null ? null : textureCacheService.getImage(textureKey);
+
+        region = add(textureImage);
+        if (region == null) {
+            rejected.add(textureKey);
+            return null;
+        }
+        regions.put(textureKey, region);
+        changed = true;
+
+        if (log.isDebugEnabled()) {
+            log.debug("texture: " + textureKey + " added to atlas: " + name + " textures in atlas: " + regions.size());
+        }
+
+        return region;
+    }
+
+    /**
+     * Reloads atlas texture in texture cache if textures were added since last
+     * flush.
+     */
+    public void flush() {
+        synchronized (this) {
+            if (!changed) {
+                return;
+            }
+            changed = false;
+        }
+        textureCacheService.reload(getTextureKey());
+    }
+
+    private TextureAtlasRegion add(BufferedImage textureImage) {
+        if (textureImage == null) {
+            return null;
+        }
+
+        int width = textureImage.getWidth();
+        int height = textureImage.getHeight();
+
+        if (width > maxTextureSize || height > maxTextureSize) {
+            return null;
+        }
+
+        int paddedWidth = align(width + 2 * PADDING);
+        int paddedHeight = align(height + 2 * PADDING);
+
+        if (shelfX + paddedWidth > size) {
+            // next shelf
+            shelfY += shelfHeight;
+            shelfX = 0;
+            shelfHeight = 0;
+        }
+        if (shelfY + paddedHeight > size) {
+            return null;
+        }
+
+        int x = shelfX + PADDING;
+        int y = shelfY + PADDING;
+
+        shelfX += paddedWidth;
+        shelfHeight = Math.max(shelfHeight, paddedHeight);
+
+        draw(textureImage, x, y, paddedWidth - width - PADDING, paddedHeight - height - PADDING);
+
+        /*
+         * Images are flipped vertically when they are uploaded, texture
+         * coordinate v = 0 is at the bottom of image.
+         */
+        return new TextureAtlasRegion(//
+                x / (double) size, //
+                (size - y - height) / (double) size, //
+                width / (double) size, //
+                height / (double) size);
+    }
+
+    /**
+     * Rounds size up to multiple of padding, so all textures start at aligned
+     * position.
+     */
+    private static int align(int size) {
+        return (size + PADDING - 1) / PADDING * PADDING;
+    }
+
+    /**
+     * Draws texture into atlas. Texture edges are repeated in padding, right
+     * and bottom padding fill rest of aligned cell.
+     */
+    private void draw(BufferedImage textureImage, int x, int y, int rightPadding, int bottomPadding) {
+        if (image == null) {
+            image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        int width = textureImage.getWidth();
+        int height = textureImage.getHeight();
+
+        int[] pixels = textureImage.getRGB(0, 0, width, height, null, 0, width);
+
+        for (int dy = -PADDING; dy < height + bottomPadding; dy++) {
+            int sy = Math.min(height - 1, Math.max(0, dy));
+            for (int dx = -PADDING; dx < width + rightPadding; dx++) {
+                int sx = Math.min(width - 1, Math.max(0, dx));
+                image.setRGB(x + dx, y + dy, pixels[sy * width + sx]);
+            }
+        }
+    }
+
+    @Override
+    public String getBuilderPrefix() {
+        return getTextureKey();
+    }
+
+    @Override
+    public Texture buildTexture(String pKey) throws Exception {
+        BufferedImage img = buildImage(pKey);
+        if (img == null) {
+            return null;
+        }
+        return AWTTextureIO.newTexture(GLProfile.get(GLProfile.GL2), img, true);
+    }
+
+    @Override
+    public synchronized BufferedImage buildImage(String pKey) {
+        if (image == null) {
+            return null;
+        }
+        // copy, atlas image can be changed when copy is uploaded
+        return new BufferedImage(image.getColorModel(), image.copyData(null), image.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * @return number of textures in atlas
+     */
+    public synchronized int size() {
+        return regions.size();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.jogl.texture.atlas;
+
+/**
+ * Region of texture atlas occupied by one texture. Converts texture
+ * coordinates of texture into texture coordinates of atlas.
+ */
+public class TextureAtlasRegion {
+
+    private final double u0;
+
+    private final double v0;
+
+    private final double width;
+
+    private final double height;
+
+    /**
+     * Constructor.
+     *
+     * @param u0
+     *            atlas u coordinate of region left edge
+     * @param v0
+     *            atlas v coordinate of region bottom edge
+     * @param width
+     *            width of region in atlas texture coordinates
+     * @param height
+     *            height of region in atlas texture coordinates
+     */
+    public TextureAtlasRegion(double u0, double v0, double width, double height) {
+        this.u0 = u0;
+        this.v0 = v0;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Converts texture u coordinate into atlas u coordinate.
+     *
+     * @param u
+     *            texture u coordinate, in range 0 - 1
+     * @return atlas u coordinate
+     */
+    public double u(double u) {
+        return u0 + u * width;
+    }
+
+    /**
+     * Converts texture v coordinate into atlas v coordinate.
+     *
+     * @param v
+     *            texture v coordinate, in range 0 - 1
+     * @return atlas v coordinate
+     */
+    public double v(double v) {
+        return v0 + v * height;
+    }
+}
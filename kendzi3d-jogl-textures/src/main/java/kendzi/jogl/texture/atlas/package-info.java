@@ -0,0 +1,13 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind.
+ * You use it on your own risk and responsibility!!!
+ *
+ * This file is shared under BSD v3 license.
+ * See readme.txt and BSD3 file for details.
+ *
+ */
+
+/**
+ * Texture atlases, many small textures packed into one large texture.
+ */
+package kendzi.jogl.texture.atlas;
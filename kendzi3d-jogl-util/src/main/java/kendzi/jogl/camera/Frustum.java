@@ -0,0 +1,171 @@
+package kendzi.jogl.camera;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+/**
+ * View frustum of perspective camera. Frustum is described by six planes with
+ * normals directed inside of frustum. Used to test if objects are visible.
+ */
+public class Frustum {
+
+    /**
+     * Planes coefficients a, b, c, d for equation: ax + by + cz + d = 0. Normal
+     * (a, b, c) is normalized and directed to inside of frustum.
+     */
+    private final double[][] planes;
+
+    /**
+     * Constructor.
+     *
+     * @param planes
+     *            six planes coefficients a, b, c, d with normalized normals
+     *            directed inside of frustum
+     */
+    public Frustum(double[][] planes) {
+        this.planes = planes;
+    }
+
+    /**
+     * Creates frustum for perspective camera.
+     *
+     * @param position
+     *            camera position
+     * @param view
+     *            look direction
+     * @param up
+     *            look up vector
+     * @param fovy
+     *            field of view angle, in degrees, in the y direction
+     * @param aspectRatio
+     *            viewport aspect ratio
+     * @param zNear
+     *            distance to the near clipping plane
+     * @param zFar
+     *            distance to the far clipping plane
+     * @return frustum
+     */
+    public static Frustum fromPerspective(Point3d position, Vector3d view, Vector3d up, double fovy,
+            double aspectRatio, double zNear, double zFar) {
+
+        Vector3d v = new Vector3d(view);
+        v.normalize();
+
+        Vector3d right = new Vector3d();
+        right.cross(v, up);
+        right.normalize();
+
+        Vector3d u = new Vector3d();
+        u.cross(right, v);
+        u.normalize();
+
+        double tanY = Math.tan(Math.toRadians(fovy) / 2d);
+        double tanX = tanY * aspectRatio;
+
+        Vector3d negativeV = new Vector3d(v);
+        negativeV.negate();
+
+        Point3d nearPoint = new Point3d(v);
+        nearPoint.scaleAdd(zNear, position);
+
+        Point3d farPoint = new Point3d(v);
+        farPoint.scaleAdd(zFar, position);
+
+        double[][] planes = new double[6][];
+
+        planes[0] = plane(v, nearPoint);
+        planes[1] = plane(negativeV, farPoint);
+
+        // left and right planes
+        planes[2] = plane(cross(edge(v, right, -tanX), u), position);
+        planes[3] = plane(cross(u, edge(v, right, tanX)), position);
+
+        // bottom and top planes
+        planes[4] = plane(cross(right, edge(v, u, -tanY)), position);
+        planes[5] = plane(cross(edge(v, u, tanY), right), position);
+
+        return new Frustum(planes);
+    }
+
+    private static Vector3d edge(Vector3d view, Vector3d side, double scale) {
+        Vector3d edge = new Vector3d(side);
+        edge.scaleAdd(scale, view);
+        return edge;
+    }
+
+    private static Vector3d cross(Vector3d v1, Vector3d v2) {
+        Vector3d ret = new Vector3d();
+        ret.cross(v1, v2);
+        return ret;
+    }
+
+    private static double[] plane(Vector3d normal, Point3d point) {
+        Vector3d n = new Vector3d(normal);
+        n.normalize();
+        return new double[] { n.x, n.y, n.z, -(n.x * point.x + n.y * point.y + n.z * point.z) };
+    }
+
+    /**
+     * Tests if sphere is at least partly inside of frustum.
+     *
+     * @param center
+     *            sphere center
+     * @param radius
+     *            sphere radius
+     * @return if sphere intersects frustum
+     */
+    public boolean intersectsSphere(Point3d center, double radius) {
+        for (double[] p : planes) {
+            if (p[0] * center.x + p[1] * center.y + p[2] * center.z + p[3] < -radius) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests if axis aligned box is at least partly inside of frustum. Test is
+     * conservative, some boxes near frustum corners can be reported as
+     * visible.
+     *
+     * @param minX
+     *            minimal x
+     * @param minY
+     *            minimal y
+     * @param minZ
+     *            minimal z
+     * @param maxX
+     *            maximal x
+     * @param maxY
+     *            maximal y
+     * @param maxZ
+     *            maximal z
+     * @return if box intersects frustum
+     */
+    public boolean intersectsBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        for (double[] p : planes) {
+            // box vertex most far in direction of plane normal
+            double x = p[0] >= 0 ? maxX : minX;
+            double y = p[1] >= 0 ? maxY : minY;
+            double z = p[2] >= 0 ? maxZ : minZ;
+
+            if (p[0] * x + p[1] * y + p[2] * z + p[3] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests if axis aligned box is at least partly inside of frustum.
+     *
+     * @param min
+     *            minimal point of box
+     * @param max
+     *            maximal point of box
+     * @return if box intersects frustum
+     */
+    public boolean intersectsBox(Point3d min, Point3d max) {
+        return intersectsBox(min.x, min.y, min.z, max.x, max.y, max.z);
+    }
+}
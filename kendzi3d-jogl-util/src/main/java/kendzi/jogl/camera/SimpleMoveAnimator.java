@@ -95,6 +95,12 @@ public class SimpleMoveAnimator implements Camera {
      */
     private static final double ROTATE_SPEED = Math.toRadians(180);
 
+    /**
+     * Maximal time step of one update in seconds. When view is not redrawn
+     * for long time, move after it starts again don't jump.
+     */
+    private static final double MAX_TIME_STEP = 0.2;
+
     private static double toKmph(double mps) {
         return 3.6 * mps;
     }
@@ -188,7 +194,7 @@ public class SimpleMoveAnimator implements Camera {
 
     public void updateState() {
         double time = System.currentTimeMillis() / 1000d;
-        double dt = time - lastTime;
+        double dt = Math.min(time - lastTime, MAX_TIME_STEP);
         lastTime = time;
 
         vf = calcForwardSpeed(vf, dt, time);
@@ -214,6 +220,26 @@ public class SimpleMoveAnimator implements Camera {
         angle.add(dOmega);
     }
 
+    /**
+     * Test if camera is moving or any move key is active, then view needs to
+     * be redrawn on next frames.
+     *
+     * @return if camera is moving
+     */
+    public boolean isMoving() {
+        if (vf != 0 || vs != 0 || vu != 0 || wh != 0) {
+            return true;
+        }
+
+        double time = System.currentTimeMillis() / 1000d;
+        for (SpeedData speedData : speeds.values()) {
+            if (speedData.isActive(time)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Calculate forward speed.
      *
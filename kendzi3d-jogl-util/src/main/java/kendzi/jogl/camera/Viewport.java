@@ -66,6 +66,11 @@ public class Viewport implements ViewportPicker {
 
     private transient Vector3d screenVertically = new Vector3d();
 
+    /**
+     * View frustum of last camera position.
+     */
+    private transient Frustum frustum;
+
     /**
      * Creates example viewport.
      */
@@ -110,7 +115,7 @@ public class Viewport implements ViewportPicker {
     /**
      * Update viewport position using current camera position and angle.
      * Calculates parameters of viewport required to back trace click of mouse
-     * in 3d space.
+     * in 3d space and view frustum used to skip objects which are not visible.
      *
      * @param camera
      *            camera position and angle
@@ -162,6 +167,8 @@ public class Viewport implements ViewportPicker {
         this.screenHorizontally = screenHorizontally;
         this.screenVertically = screenVertically;
 
+        frustum = Frustum.fromPerspective(position, view, lookUp, getFovy(), viewportAspectRatio(), getZNear(),
+                getZFar());
     }
 
     /**
@@ -321,6 +328,15 @@ public class Viewport implements ViewportPicker {
         return Viewport.PERSP_FAR_CLIPPING_PLANE_DISTANCE;
     }
 
+    /**
+     * Gets view frustum for last camera position.
+     *
+     * @return the view frustum
+     */
+    public Frustum getFrustum() {
+        return frustum;
+    }
+
     /**
      * @return the screenHorizontally
      */
@@ -0,0 +1,46 @@
+package kendzi.jogl.camera;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.junit.Test;
+
+public class FrustumTest {
+
+    private Frustum frustum() {
+        Viewport viewport = new Viewport(800, 600);
+        // camera in center looking along x axis
+        viewport.updateViewport(new CameraTest(new Point3d(0, 0, 0), new Vector3d(0, 0, 0)));
+        return viewport.getFrustum();
+    }
+
+    @Test
+    public void sphere() {
+        Frustum frustum = frustum();
+
+        assertTrue(frustum.intersectsSphere(new Point3d(100, 0, 0), 1));
+        assertFalse(frustum.intersectsSphere(new Point3d(-100, 0, 0), 1));
+        assertFalse(frustum.intersectsSphere(new Point3d(100, 0, 100), 1));
+        assertFalse(frustum.intersectsSphere(new Point3d(100, 0, -100), 1));
+        assertFalse(frustum.intersectsSphere(new Point3d(100, 100, 0), 1));
+        assertFalse(frustum.intersectsSphere(new Point3d(100, -100, 0), 1));
+        assertFalse(frustum.intersectsSphere(new Point3d(Viewport.PERSP_FAR_CLIPPING_PLANE_DISTANCE + 10, 0, 0), 1));
+
+        // big sphere partly visible
+        assertTrue(frustum.intersectsSphere(new Point3d(100, 0, 100), 70));
+    }
+
+    @Test
+    public void box() {
+        Frustum frustum = frustum();
+
+        assertTrue(frustum.intersectsBox(90, -10, -10, 110, 10, 10));
+        assertFalse(frustum.intersectsBox(-110, -10, -10, -90, 10, 10));
+
+        // box around camera
+        assertTrue(frustum.intersectsBox(-10, -10, -10, 10, 10, 10));
+    }
+}
@@ -1,9 +1,14 @@
 package kendzi.math.geometry.triangulate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import javax.vecmath.Point2d;
 
@@ -22,17 +27,76 @@ import org.poly2tri.triangulation.delaunay.DelaunayTriangle;
 import org.poly2tri.triangulation.point.TPoint;
 
 /**
+ * Constrained triangulation of polygon with holes and additional segments and
+ * points.
+ *
  * @author Hannes Janetzek
  */
 public class Poly2TriUtil {
+
+    /**
+     * Method of choosing triangles which are inside of polygon. Triangulation
+     * covers convex hull of all points, triangles outside of outer ring and
+     * inside of holes are removed.
+     */
+    public enum InteriorFilter {
+        /**
+         * Centroid of each triangle is tested against outer ring and every
+         * hole. Cost grows with number of triangles times number of ring
+         * vertices.
+         */
+        CENTROID,
+
+        /**
+         * Triangles are flood filled from convex hull, side is switched when
+         * ring edge is crossed. Cost is linear to number of triangles. When
+         * rings share edges, side can't be found by crossing and centroid test
+         * is used instead.
+         */
+        FLOOD_FILL
+    }
+
+    private static final double COLLINEAR_EPSILON = 1E-9;
+
+    /**
+     * Triangulation point with index of its coordinates.
+     */
+    static class IndexedPoint extends TPoint {
+        final int index;
+
+        IndexedPoint(double x, double y, int index) {
+            super(x, y);
+            this.index = index;
+        }
+    }
+
     static class CDTSet implements Triangulatable {
         List<TriangulationPoint> points = new ArrayList<TriangulationPoint>(20);
         List<DelaunayTriangle> triangles = new ArrayList<DelaunayTriangle>(20);
         ArrayList<LineSegment2d> segmentSet = new ArrayList<LineSegment2d>();
 
+        // segments which are part of outer ring or holes
+        Set<LineSegment2d> ringSegments = Collections.newSetFromMap(new IdentityHashMap<LineSegment2d, Boolean>());
+
         // it seems poly2tri requires points to be unique objects
         HashMap<Point2d, TriangulationPoint> pointSet = new HashMap<Point2d, TriangulationPoint>();
 
+        // coordinates of points by point index
+        double[] xs = new double[20];
+        double[] ys = new double[20];
+
+        // constraint edges as pairs of point indexes
+        Set<Long> ringEdges = new HashSet<Long>();
+        Set<Long> extraEdges = new HashSet<Long>();
+
+        // ring constraints as pairs of point indexes, used when poly2tri
+        // splits constraint at collinear point
+        int[] ringEdgeIndexes = new int[0];
+
+        // two ring segments were merged into one constraint, crossing it
+        // don't switch side
+        boolean mergedRingEdges;
+
         public CDTSet(PolygonList2d polygon, Collection<PolygonList2d> holes, Collection<LineSegment2d> cSegments,
                 Collection<Point2d> cPoints) {
 
@@ -41,22 +105,13 @@ public class Poly2TriUtil {
             segmentSet.addAll(cSegments);
 
             for (Point2d p : cPoints) {
-                if (!pointSet.containsKey(p)) {
-                    TPoint tp = new TPoint(p.x, p.y);
-                    pointSet.put(p, tp);
-                    points.add(tp);
-                }
+                point(p);
             }
 
-            for (int i = 0, n = vertices.size() - 1; i < n; i++) {
-                segmentSet.add(new LineSegment2d(vertices.get(i), vertices.get(i + 1)));
-            }
+            addRing(vertices);
 
             for (PolygonList2d hole : holes) {
-                vertices = hole.getPoints();
-                for (int i = 0, n = vertices.size() - 1; i < n; i++) {
-                    segmentSet.add(new LineSegment2d(vertices.get(i), vertices.get(i + 1)));
-                }
+                addRing(hole.getPoints());
             }
 
             removeDuplicateSegments();
@@ -81,10 +136,14 @@ public class Poly2TriUtil {
                         segmentSet.remove(l1);
                         segmentSet.remove(l2);
 
-                        segmentSet.add(new LineSegment2d(crossing, l1.getBegin()));
-                        segmentSet.add(new LineSegment2d(crossing, l1.getEnd()));
-                        segmentSet.add(new LineSegment2d(crossing, l2.getBegin()));
-                        segmentSet.add(new LineSegment2d(crossing, l2.getEnd()));
+                        // parts of ring segment are still ring segments
+                        boolean ring1 = ringSegments.remove(l1);
+                        boolean ring2 = ringSegments.remove(l2);
+
+                        addSegment(new LineSegment2d(crossing, l1.getBegin()), ring1);
+                        addSegment(new LineSegment2d(crossing, l1.getEnd()), ring1);
+                        addSegment(new LineSegment2d(crossing, l2.getBegin()), ring2);
+                        addSegment(new LineSegment2d(crossing, l2.getEnd()), ring2);
 
                         size += 2;
 
@@ -100,6 +159,43 @@ public class Poly2TriUtil {
             }
         }
 
+        private void addRing(List<Point2d> vertices) {
+            // rings are not closed, last point is connected to first one
+            for (int i = 0, n = vertices.size(); i < n; i++) {
+                Point2d begin = vertices.get(i);
+                Point2d end = vertices.get((i + 1) % n);
+                if (begin.equals(end)) {
+                    continue;
+                }
+                addSegment(new LineSegment2d(begin, end), true);
+            }
+        }
+
+        private void addSegment(LineSegment2d segment, boolean ring) {
+            segmentSet.add(segment);
+            if (ring) {
+                ringSegments.add(segment);
+            }
+        }
+
+        private TriangulationPoint point(Point2d p) {
+            TriangulationPoint tp = pointSet.get(p);
+            if (tp == null) {
+                int index = points.size();
+                if (index == xs.length) {
+                    xs = Arrays.copyOf(xs, index * 2);
+                    ys = Arrays.copyOf(ys, index * 2);
+                }
+                xs[index] = p.x;
+                ys[index] = p.y;
+
+                tp = new IndexedPoint(p.x, p.y, index);
+                pointSet.put(p, tp);
+                points.add(tp);
+            }
+            return tp;
+        }
+
         private void removeDuplicateSegments() {
             for (int i = 0, size = segmentSet.size(); i < size - 1; i++) {
                 LineSegment2d l1 = segmentSet.get(i);
@@ -110,8 +206,13 @@ public class Poly2TriUtil {
                     if (l1.getBegin().equals(l2.getBegin()) && l1.getEnd().equals(l2.getEnd())
                             || l1.getBegin().equals(l2.getEnd()) && l1.getEnd().equals(l2.getBegin())) {
                         // System.out.println("remove dup " + l1 + " " + l2);
+                        // ring flag of duplicate is kept
+                        if (ringSegments.remove(l2) && !ringSegments.add(l1)) {
+                            mergedRingEdges = true;
+                        }
                         segmentSet.remove(j);
                         size--;
+                        j--;
                     }
                 }
             }
@@ -151,36 +252,167 @@ public class Poly2TriUtil {
         public void prepareTriangulation(TriangulationContext<?> tcx) {
             triangles.clear();
 
+            int[] ringIndexes = new int[ringSegments.size() * 2];
+            int ringCount = 0;
+
             for (LineSegment2d l : segmentSet) {
-                TriangulationPoint tp1, tp2;
+                TriangulationPoint tp1 = point(l.getBegin());
+                TriangulationPoint tp2 = point(l.getEnd());
 
-                if (!pointSet.containsKey(l.getBegin())) {
-                    tp1 = new TPoint(l.getBegin().x, l.getBegin().y);
-                    pointSet.put(l.getBegin(), tp1);
-                    points.add(tp1);
-                } else {
-                    tp1 = pointSet.get(l.getBegin());
-                }
-                if (!pointSet.containsKey(l.getEnd())) {
-                    tp2 = new TPoint(l.getEnd().x, l.getEnd().y);
-                    pointSet.put(l.getEnd(), tp2);
-                    points.add(tp2);
+                int i1 = ((IndexedPoint) tp1).index;
+                int i2 = ((IndexedPoint) tp2).index;
+
+                if (ringSegments.contains(l)) {
+                    ringEdges.add(edgeKey(i1, i2));
+                    ringIndexes[ringCount++] = i1;
+                    ringIndexes[ringCount++] = i2;
                 } else {
-                    tp2 = pointSet.get(l.getEnd());
+                    extraEdges.add(edgeKey(i1, i2));
                 }
 
                 tcx.newConstraint(tp1, tp2);
             }
+            ringEdgeIndexes = Arrays.copyOf(ringIndexes, ringCount);
 
             segmentSet.clear();
+            ringSegments.clear();
             pointSet.clear();
 
             tcx.addPoints(points);
         }
+
+        /**
+         * Tests if edge is part of outer ring or hole.
+         *
+         * @param t
+         *            triangle
+         * @param edge
+         *            index of edge, opposite to point with the same index
+         * @return if edge is part of ring
+         */
+        boolean isRingEdge(DelaunayTriangle t, int edge) {
+            TriangulationPoint p1 = t.points[(edge + 1) % 3];
+            TriangulationPoint p2 = t.points[(edge + 2) % 3];
+
+            if (!isConstrained(t, edge, p1, p2)) {
+                return false;
+            }
+            if (extraEdges.isEmpty()) {
+                return true;
+            }
+            if (!(p1 instanceof IndexedPoint) || !(p2 instanceof IndexedPoint)) {
+                return false;
+            }
+
+            int i1 = ((IndexedPoint) p1).index;
+            int i2 = ((IndexedPoint) p2).index;
+
+            long key = edgeKey(i1, i2);
+            if (ringEdges.contains(key)) {
+                return true;
+            }
+            if (extraEdges.contains(key)) {
+                return false;
+            }
+            // constraint was split by poly2tri at collinear point
+            return isOnRingEdge(i1) && isOnRingEdge(i2) && isOnSameRingEdge(i1, i2);
+        }
+
+        private static boolean isConstrained(DelaunayTriangle t, int edge, TriangulationPoint p1,
+                TriangulationPoint p2) {
+            if (t.cEdge[edge]) {
+                return true;
+            }
+            DelaunayTriangle n = t.neighbors[edge];
+            if (n == null) {
+                return false;
+            }
+            int index = n.edgeIndex(p1, p2);
+            return index >= 0 && n.cEdge[index];
+        }
+
+        private boolean isOnRingEdge(int point) {
+            for (int i = 0; i < ringEdgeIndexes.length; i += 2) {
+                if (isOnSegment(point, ringEdgeIndexes[i], ringEdgeIndexes[i + 1])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isOnSameRingEdge(int p1, int p2) {
+            for (int i = 0; i < ringEdgeIndexes.length; i += 2) {
+                int b = ringEdgeIndexes[i];
+                int e = ringEdgeIndexes[i + 1];
+                if (isOnSegment(p1, b, e) && isOnSegment(p2, b, e)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isOnSegment(int point, int begin, int end) {
+            if (point == begin || point == end) {
+                return true;
+            }
+            double dx = xs[end] - xs[begin];
+            double dy = ys[end] - ys[begin];
+            double px = xs[point] - xs[begin];
+            double py = ys[point] - ys[begin];
+
+            double length2 = dx * dx + dy * dy;
+            double cross = dx * py - dy * px;
+            if (Math.abs(cross) > COLLINEAR_EPSILON * length2) {
+                return false;
+            }
+            double dot = dx * px + dy * py;
+            return dot >= 0 && dot <= length2;
+        }
+    }
+
+    private static long edgeKey(int i1, int i2) {
+        if (i1 > i2) {
+            return (long) i2 << 32 | i1;
+        }
+        return (long) i1 << 32 | i2;
     }
 
+    /**
+     * Triangulates polygon with holes. Inside triangles are chosen by centroid
+     * test.
+     *
+     * @param polygon
+     *            outer ring
+     * @param holes
+     *            holes
+     * @param segments
+     *            additional segments, they are edges of triangles
+     * @param points
+     *            additional points, they are vertexes of triangles
+     * @return triangles inside of polygon
+     */
     public static final List<Triangle2d> triangulate(PolygonList2d polygon, Collection<PolygonList2d> holes,
             Collection<LineSegment2d> segments, Collection<Point2d> points) {
+        return triangulate(polygon, holes, segments, points, InteriorFilter.CENTROID);
+    }
+
+    /**
+     * Triangulates polygon with holes.
+     *
+     * @param polygon
+     *            outer ring
+     * @param holes
+     *            holes
+     * @param segments
+     *            additional segments, they are edges of triangles
+     * @param points
+     *            additional points, they are vertexes of triangles
+     * @param filter
+     *            method of choosing triangles inside of polygon
+     * @return triangles inside of polygon
+     */
+    public static final List<Triangle2d> triangulate(PolygonList2d polygon, Collection<PolygonList2d> holes,
+            Collection<LineSegment2d> segments, Collection<Point2d> points, InteriorFilter filter) {
 
         CDTSet cdt = new CDTSet(polygon, holes, segments, points);
         TriangulationContext<?> tcx = Poly2Tri.createContext(TriangulationAlgorithm.DTSweep);
@@ -196,24 +428,21 @@ public class Poly2TriUtil {
             return triangles;
         }
 
-        for (DelaunayTriangle t : result) {
-
-            TriangulationPoint tCenter = t.centroid();
-            Point2d center = new Point2d(tCenter.getX(), tCenter.getY());
-
-            boolean triangleInHole = false;
-            for (PolygonList2d hole : holes) {
-                if (PolygonUtil.isPointInsidePolygon(center, hole)) {
-                    // if (hole.contains(center)) {
-                    triangleInHole = true;
-                    break;
-                }
+        boolean[] inside;
+        if (filter == InteriorFilter.FLOOD_FILL && !cdt.mergedRingEdges) {
+            inside = floodFill(cdt, result, polygon, holes);
+        } else {
+            inside = new boolean[result.size()];
+            for (int i = 0; i < inside.length; i++) {
+                inside[i] = isCentroidInside(result.get(i), polygon, holes);
             }
+        }
 
-            if (triangleInHole || !PolygonUtil.isPointInsidePolygon(center, polygon)) {
-                // if (triangleInHole || !polygon.contains(center))
+        for (int i = 0; i < inside.length; i++) {
+            if (!inside[i]) {
                 continue;
             }
+            DelaunayTriangle t = result.get(i);
 
             triangles.add(new Triangle2d(new Point2d(t.points[0].getX(), t.points[0].getY()), new Point2d(t.points[1].getX(),
                     t.points[1].getY()), new Point2d(t.points[2].getX(), t.points[2].getY())));
@@ -222,4 +451,102 @@ public class Poly2TriUtil {
         return triangles;
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Marks triangles inside of polygon. Starts from triangles on convex hull,
+     * they are inside only when hull edge is ring edge. Side is switched each
+     * time ring edge is crossed.
+     */
+    private static boolean[] floodFill(CDTSet cdt, List<DelaunayTriangle> result, PolygonList2d polygon,
+            Collection<PolygonList2d> holes) {
+
+        int size = result.size();
+
+        IdentityHashMap<DelaunayTriangle, Integer> indexes = new IdentityHashMap<DelaunayTriangle, Integer>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.put(result.get(i), i);
+        }
+
+        // -1 not visited, 0 outside, 1 inside
+        int[] state = new int[size];
+        Arrays.fill(state, -1);
+
+        int[] queue = new int[size];
+
+        for (int seed = 0; seed < size; seed++) {
+            if (state[seed] != -1) {
+                continue;
+            }
+            DelaunayTriangle t = result.get(seed);
+
+            int hullEdge = -1;
+            for (int e = 0; e < 3; e++) {
+                if (neighborIndex(indexes, t, e) < 0) {
+                    hullEdge = e;
+                    break;
+                }
+            }
+            if (hullEdge < 0) {
+                continue;
+            }
+
+            state[seed] = cdt.isRingEdge(t, hullEdge) ? 1 : 0;
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+
+            while (head < tail) {
+                int current = queue[head++];
+                DelaunayTriangle c = result.get(current);
+
+                for (int e = 0; e < 3; e++) {
+                    int n = neighborIndex(indexes, c, e);
+                    if (n < 0 || state[n] != -1) {
+                        continue;
+                    }
+                    state[n] = cdt.isRingEdge(c, e) ? 1 - state[current] : state[current];
+                    queue[tail++] = n;
+                }
+            }
+        }
+
+        boolean[] inside = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            if (state[i] == -1) {
+                // not connected to convex hull, should not happen
+                inside[i] = isCentroidInside(result.get(i), polygon, holes);
+            } else {
+                inside[i] = state[i] == 1;
+            }
+        }
+        return inside;
+    }
+
+    private static int neighborIndex(IdentityHashMap<DelaunayTriangle, Integer> indexes, DelaunayTriangle t, int edge) {
+        DelaunayTriangle n = t.neighbors[edge];
+        if (n == null) {
+            return -1;
+        }
+        Integer index = indexes.get(n);
+        if (index == null) {
+            return -1;
+        }
+        return index;
+    }
+
+    private static boolean isCentroidInside(DelaunayTriangle t, PolygonList2d polygon, Collection<PolygonList2d> holes) {
+
+        TriangulationPoint tCenter = t.centroid();
+        Point2d center = new Point2d(tCenter.getX(), tCenter.getY());
+
+        for (PolygonList2d hole : holes) {
+            if (PolygonUtil.isPointInsidePolygon(center, hole)) {
+                // if (hole.contains(center)) {
+                return false;
+            }
+        }
+
+        return PolygonUtil.isPointInsidePolygon(center, polygon);
+    }
+}
@@ -0,0 +1,296 @@
+package kendzi.math.geometry.triangulate;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.vecmath.Point2d;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import kendzi.math.geometry.Triangle2d;
+import kendzi.math.geometry.line.LineSegment2d;
+import kendzi.math.geometry.polygon.PolygonList2d;
+import kendzi.math.geometry.triangulate.Poly2TriUtil.InteriorFilter;
+
+/**
+ * Compares time of triangulation with centroid and flood fill interior filter.
+ *
+ * When paths of .osm files are given as arguments, multipolygon relations from
+ * them are triangulated. Only relations with one outer ring and rings made of
+ * single closed ways are used, rings joined from many ways are skipped.
+ *
+ * Without arguments synthetic shapes similar to OSM multipolygons are used:
+ * courtyard building with many inner rings and lake with many islands. Real
+ * OSM data are not bundled with sources.
+ */
+public class Poly2TriUtilBenchmark {
+
+    private static final int WARM_UP = 5;
+    private static final int RUNS = 20;
+
+    /**
+     * Meters per degree of latitude.
+     */
+    private static final double METERS_PER_DEGREE = 111319.49;
+
+    public static void main(String[] args) throws IOException, XMLStreamException {
+
+        if (args.length > 0) {
+            for (String file : args) {
+                benchmarkOsm(file);
+            }
+            return;
+        }
+
+        benchmark("courtyard building", circle(0, 0, 100, 64), courtyards(10, 10, 8));
+        benchmark("lake with islands", circle(0, 0, 1000, 720), islands(30, 24));
+    }
+
+    private static void benchmarkOsm(String file) throws IOException, XMLStreamException {
+        List<Multipolygon> multipolygons;
+        InputStream in = new FileInputStream(file);
+        try {
+            multipolygons = new OsmMultipolygonReader().read(in);
+        } finally {
+            in.close();
+        }
+
+        int holes = 0;
+        for (Multipolygon m : multipolygons) {
+            holes += m.holes.size();
+        }
+
+        for (InteriorFilter filter : InteriorFilter.values()) {
+            int triangles = 0;
+            for (int i = 0; i < WARM_UP; i++) {
+                triangles = 0;
+                for (Multipolygon m : multipolygons) {
+                    triangles += triangulate(m.outer, m.holes, filter).size();
+                }
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                for (Multipolygon m : multipolygons) {
+                    triangulate(m.outer, m.holes, filter);
+                }
+            }
+            long time = (System.nanoTime() - start) / RUNS;
+
+            System.out.println(String.format("%s, %d multipolygons, %d holes, %s: %d triangles, %.2f ms", file,
+                    multipolygons.size(), holes, filter, triangles, time / 1000000d));
+        }
+    }
+
+    private static void benchmark(String name, PolygonList2d outer, List<PolygonList2d> holes) {
+
+        for (InteriorFilter filter : InteriorFilter.values()) {
+            List<Triangle2d> triangles = null;
+            for (int i = 0; i < WARM_UP; i++) {
+                triangles = triangulate(outer, holes, filter);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                triangulate(outer, holes, filter);
+            }
+            long time = (System.nanoTime() - start) / RUNS;
+
+            System.out.println(String.format("%s, %d holes, %s: %d triangles, %.2f ms", name, holes.size(), filter,
+                    triangles.size(), time / 1000000d));
+        }
+    }
+
+    private static List<Triangle2d> triangulate(PolygonList2d outer, List<PolygonList2d> holes, InteriorFilter filter) {
+        return Poly2TriUtil.triangulate(outer, holes, Collections.<LineSegment2d> emptyList(),
+                Collections.<Point2d> emptyList(), filter);
+    }
+
+    private static PolygonList2d circle(double x, double y, double radius, int vertices) {
+        List<Point2d> points = new ArrayList<Point2d>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            // small noise makes outline similar to surveyed data
+            double r = radius * (1 + 0.02 * Math.sin(7 * angle));
+            points.add(new Point2d(x + r * Math.cos(angle), y + r * Math.sin(angle)));
+        }
+        return new PolygonList2d(points);
+    }
+
+    private static List<PolygonList2d> courtyards(int columns, int rows, double size) {
+        List<PolygonList2d> holes = new ArrayList<PolygonList2d>();
+        double step = 120d / columns;
+        for (int i = 0; i < columns; i++) {
+            for (int j = 0; j < rows; j++) {
+                double x = -60 + step * (i + 0.5);
+                double y = -60 + step * (j + 0.5);
+                if (x * x + y * y > 80 * 80) {
+                    continue;
+                }
+                double h = size / 2d;
+                holes.add(new PolygonList2d(new Point2d(x - h, y - h), new Point2d(x - h, y + h),
+                        new Point2d(x + h, y + h), new Point2d(x + h, y - h)));
+            }
+        }
+        return holes;
+    }
+
+    /**
+     * Multipolygon with one outer ring.
+     */
+    private static class Multipolygon {
+        PolygonList2d outer;
+        List<PolygonList2d> holes = new ArrayList<PolygonList2d>();
+    }
+
+    /**
+     * Reads multipolygon relations from .osm file. Coordinates are projected
+     * to meters around first node.
+     */
+    private static class OsmMultipolygonReader {
+
+        private final Map<Long, Point2d> nodes = new HashMap<Long, Point2d>();
+        private final Map<Long, List<Long>> ways = new HashMap<Long, List<Long>>();
+        private final List<Multipolygon> multipolygons = new ArrayList<Multipolygon>();
+
+        private Double originLat;
+        private double originLon;
+
+        private List<Long> way;
+        private List<String[]> members;
+        private boolean multipolygon;
+
+        List<Multipolygon> read(InputStream in) throws XMLStreamException {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        start(reader);
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        end(reader.getLocalName());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            return multipolygons;
+        }
+
+        private void start(XMLStreamReader reader) {
+            String name = reader.getLocalName();
+            if ("node".equals(name)) {
+                double lat = Double.parseDouble(reader.getAttributeValue(null, "lat"));
+                double lon = Double.parseDouble(reader.getAttributeValue(null, "lon"));
+                if (originLat == null) {
+                    originLat = lat;
+                    originLon = lon;
+                }
+                double x = (lon - originLon) * METERS_PER_DEGREE * Math.cos(Math.toRadians(originLat));
+                double y = (lat - originLat) * METERS_PER_DEGREE;
+                nodes.put(id(reader), new Point2d(x, y));
+
+            } else if ("way".equals(name)) {
+                way = new ArrayList<Long>();
+                ways.put(id(reader), way);
+
+            } else if ("nd".equals(name) && way != null) {
+                way.add(Long.parseLong(reader.getAttributeValue(null, "ref")));
+
+            } else if ("relation".equals(name)) {
+                members = new ArrayList<String[]>();
+                multipolygon = false;
+
+            } else if ("member".equals(name) && members != null) {
+                if ("way".equals(reader.getAttributeValue(null, "type"))) {
+                    members.add(new String[] { reader.getAttributeValue(null, "ref"),
+                            reader.getAttributeValue(null, "role") });
+                }
+
+            } else if ("tag".equals(name) && members != null) {
+                if ("type".equals(reader.getAttributeValue(null, "k"))
+                        && "multipolygon".equals(reader.getAttributeValue(null, "v"))) {
+                    multipolygon = true;
+                }
+            }
+        }
+
+        private void end(String name) {
+            if ("way".equals(name)) {
+                way = null;
+            } else if ("relation".equals(name)) {
+                if (multipolygon) {
+                    Multipolygon m = multipolygon(members);
+                    if (m != null) {
+                        multipolygons.add(m);
+                    }
+                }
+                members = null;
+            }
+        }
+
+        private Multipolygon multipolygon(List<String[]> members) {
+            Multipolygon m = new Multipolygon();
+            for (String[] member : members) {
+                PolygonList2d ring = ring(ways.get(Long.parseLong(member[0])));
+                if (ring == null) {
+                    // missing or not closed way
+                    return null;
+                }
+                if ("inner".equals(member[1])) {
+                    m.holes.add(ring);
+                } else if (m.outer == null) {
+                    m.outer = ring;
+                } else {
+                    // more than one outer ring
+                    return null;
+                }
+            }
+            return m.outer != null ? m : null;
+        }
+
+        private PolygonList2d ring(List<Long> nodeIds) {
+            if (nodeIds == null || nodeIds.size() < 4 || !nodeIds.get(0).equals(nodeIds.get(nodeIds.size() - 1))) {
+                return null;
+            }
+            List<Point2d> points = new ArrayList<Point2d>(nodeIds.size() - 1);
+            // rings are not closed, last node is the same as first one
+            for (int i = 0; i < nodeIds.size() - 1; i++) {
+                Point2d point = nodes.get(nodeIds.get(i));
+                if (point == null) {
+                    return null;
+                }
+                points.add(point);
+            }
+            return new PolygonList2d(points);
+        }
+
+        private static long id(XMLStreamReader reader) {
+            return Long.parseLong(reader.getAttributeValue(null, "id"));
+        }
+    }
+
+    private static List<PolygonList2d> islands(int columns, int vertices) {
+        List<PolygonList2d> holes = new ArrayList<PolygonList2d>();
+        double step = 1200d / columns;
+        for (int i = 0; i < columns; i++) {
+            for (int j = 0; j < columns; j++) {
+                double x = -600 + step * (i + 0.5);
+                double y = -600 + step * (j + 0.5);
+                if (x * x + y * y > 850 * 850) {
+                    continue;
+                }
+                holes.add(circle(x, y, step / 4, vertices));
+            }
+        }
+        return holes;
+    }
+}
@@ -0,0 +1,94 @@
+package kendzi.math.geometry.triangulate;
+
+import static kendzi.math.geometry.TestUtil.p;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.vecmath.Point2d;
+
+import kendzi.math.geometry.Triangle2d;
+import kendzi.math.geometry.line.LineSegment2d;
+import kendzi.math.geometry.polygon.PolygonList2d;
+import kendzi.math.geometry.triangulate.Poly2TriUtil.InteriorFilter;
+
+import org.junit.Test;
+
+public class Poly2TriUtilTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @SuppressWarnings("javadoc")
+    @Test
+    public void polygonWithHoles() {
+
+        PolygonList2d outer = new PolygonList2d(p(0, 0), p(10, 0), p(10, 10), p(0, 10));
+        List<PolygonList2d> holes = Arrays.asList( //
+                new PolygonList2d(p(2, 2), p(2, 4), p(4, 4), p(4, 2)), //
+                new PolygonList2d(p(6, 6), p(6, 8), p(8, 8), p(8, 6)));
+
+        assertTriangulation(92, outer, holes, Collections.<LineSegment2d> emptyList());
+    }
+
+    @SuppressWarnings("javadoc")
+    @Test
+    public void concavePolygon() {
+
+        PolygonList2d outer = new PolygonList2d(p(0, 0), p(10, 0), p(10, 4), p(4, 4), p(4, 10), p(0, 10));
+
+        assertTriangulation(64, outer, Collections.<PolygonList2d> emptyList(),
+                Collections.<LineSegment2d> emptyList());
+    }
+
+    @SuppressWarnings("javadoc")
+    @Test
+    public void polygonWithHoleAndRoofLines() {
+
+        PolygonList2d outer = new PolygonList2d(p(0, 0), p(10, 0), p(10, 10), p(0, 10));
+        List<PolygonList2d> holes = Arrays.asList(new PolygonList2d(p(6, 6), p(6, 8), p(8, 8), p(8, 6)));
+        List<LineSegment2d> segments = Arrays.asList( //
+                new LineSegment2d(p(0, 0), p(5, 5)), //
+                new LineSegment2d(p(5, 5), p(10, 0)), //
+                new LineSegment2d(p(5, 5), p(6, 6)));
+
+        assertTriangulation(96, outer, holes, segments);
+    }
+
+    @SuppressWarnings("javadoc")
+    @Test
+    public void holeSharingOuterEdges() {
+
+        // hole touches outer ring with two edges, shared edges are merged
+        PolygonList2d outer = new PolygonList2d(p(0, 0), p(4, 0), p(10, 0), p(10, 10), p(0, 10), p(0, 4));
+        List<PolygonList2d> holes = Arrays.asList(new PolygonList2d(p(0, 0), p(0, 4), p(4, 4), p(4, 0)));
+
+        assertTriangulation(84, outer, holes, Collections.<LineSegment2d> emptyList());
+    }
+
+    private static void assertTriangulation(double expectedArea, PolygonList2d outer, Collection<PolygonList2d> holes,
+            Collection<LineSegment2d> segments) {
+
+        List<Triangle2d> centroid = Poly2TriUtil.triangulate(outer, holes, segments,
+                Collections.<Point2d> emptyList(), InteriorFilter.CENTROID);
+        List<Triangle2d> floodFill = Poly2TriUtil.triangulate(outer, holes, segments,
+                Collections.<Point2d> emptyList(), InteriorFilter.FLOOD_FILL);
+
+        assertEquals(expectedArea, area(centroid), EPSILON);
+        assertEquals(expectedArea, area(floodFill), EPSILON);
+        assertEquals(centroid.size(), floodFill.size());
+    }
+
+    private static double area(List<Triangle2d> triangles) {
+        double area = 0;
+        for (Triangle2d t : triangles) {
+            Point2d p1 = t.getP1();
+            Point2d p2 = t.getP2();
+            Point2d p3 = t.getP3();
+            area += Math.abs((p2.x - p1.x) * (p3.y - p1.y) - (p3.x - p1.x) * (p2.y - p1.y)) / 2d;
+        }
+        return area;
+    }
+}
@@ -17,6 +17,7 @@ import com.google.inject.Inject;
 import kendzi.jogl.texture.TextureCacheService;
 import kendzi.jogl.texture.library.TextureLibraryStorageService;
 import kendzi.josm.kendzi3d.jogl.layer.models.ModelsLibraryLayer;
+import kendzi.josm.kendzi3d.service.BuildingCacheService;
 import kendzi.josm.kendzi3d.service.ModelCacheService;
 import kendzi.kendzi3d.models.library.service.ModelsLibraryService;
 
@@ -53,6 +54,11 @@ public class CleanUpAction extends JosmAction {
      */
     private ModelsLibraryService modelsLibraryService;
 
+    /**
+     * Building geometry cache service.
+     */
+    private BuildingCacheService buildingCacheService;
+
     /**
      * Models library layer.
      */
@@ -69,11 +75,13 @@ public class CleanUpAction extends JosmAction {
      *            model cache service
      * @param modelsLibraryService
      *            Model library service
+     * @param buildingCacheService
+     *            building geometry cache service
      */
     @Inject
     public CleanUpAction(TextureCacheService textureCacheService, TextureLibraryStorageService TextureLibraryStorageService,
             ModelCacheService modelCacheService, ModelsLibraryService modelsLibraryService,
-            ModelsLibraryLayer modelsLibraryLayer) {
+            ModelsLibraryLayer modelsLibraryLayer, BuildingCacheService buildingCacheService) {
 
         super(tr("Clean up"), "1306318208_rebuild__24", tr("Rebuild models, textures and wold offset"), null, false);
 
@@ -82,6 +90,7 @@ public class CleanUpAction extends JosmAction {
         this.modelCacheService = modelCacheService;
         this.modelsLibraryService = modelsLibraryService;
         this.modelsLibraryLayer = modelsLibraryLayer;
+        this.buildingCacheService = buildingCacheService;
     }
 
     @Override
@@ -95,6 +104,8 @@ public class CleanUpAction extends JosmAction {
 
         modelCacheService.clear();
 
+        buildingCacheService.clear();
+
         modelsLibraryLayer.cleanUp();
     }
 }
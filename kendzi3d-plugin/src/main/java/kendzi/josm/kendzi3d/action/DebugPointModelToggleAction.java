@@ -17,6 +17,7 @@ import org.openstreetmap.josm.spi.preferences.Config;
 import com.google.inject.Inject;
 
 import kendzi.josm.kendzi3d.jogl.model.PointModel;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 
 /**
  * Debug model library toggle action.
@@ -42,13 +43,17 @@ public class DebugPointModelToggleAction extends ToggleAction {
      * @param pModelRender
      *            model render
      */
+    private final RedrawScheduler redrawScheduler;
+
     @Inject
-    public DebugPointModelToggleAction() {
+    public DebugPointModelToggleAction(RedrawScheduler redrawScheduler) {
         super(tr("Debug models library"), "1306318261_debugger__24",
                 tr("Enable/disable display debug information for model library"), null, false);
 
         // putValue("help", ht("/Action/FullscreenView"));
         // putValue("toolbar", "fullscreen");
+        this.redrawScheduler = redrawScheduler;
+
         MainApplication.getToolbar().register(this);
 
         boolean selected = Config.getPref().getBoolean(KENDZI_3D_MODEL_LIBRARY_DEBUG_VIEW, false);
@@ -73,6 +78,7 @@ public class DebugPointModelToggleAction extends ToggleAction {
     private void setState(boolean selected) {
         // XXX
         PointModel.debug = selected;
+        redrawScheduler.requestRedraw();
     }
 
 }
@@ -17,6 +17,7 @@ import org.openstreetmap.josm.spi.preferences.Config;
 import com.google.inject.Inject;
 
 import kendzi.jogl.model.render.ModelRender;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 
 /**
  * Debug toggle action.
@@ -41,6 +42,8 @@ public class DebugToggleAction extends ToggleAction {
      */
     private ModelRender modelRender;
 
+    private RedrawScheduler redrawScheduler;
+
     /**
      * Constructor of debug toggle action.
      *
@@ -48,10 +51,11 @@ public class DebugToggleAction extends ToggleAction {
      *            model render
      */
     @Inject
-    public DebugToggleAction(ModelRender pModelRender) {
+    public DebugToggleAction(ModelRender pModelRender, RedrawScheduler pRedrawScheduler) {
         super(tr("Debug View"), "1306318261_debugger__24", tr("Enable/disable display debug information"), null, false);
 
         modelRender = pModelRender;
+        redrawScheduler = pRedrawScheduler;
 
         MainApplication.getToolbar().register(this);
 
@@ -84,6 +88,7 @@ public class DebugToggleAction extends ToggleAction {
         modelRender.setDebugging(pEnable);
         modelRender.setDrawEdges(pEnable);
         modelRender.setDrawNormals(pEnable);
+        redrawScheduler.requestRedraw();
 
     }
 
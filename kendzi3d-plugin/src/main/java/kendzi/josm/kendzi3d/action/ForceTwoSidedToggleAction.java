@@ -19,6 +19,7 @@ import org.openstreetmap.josm.gui.MainApplication;
 import com.google.inject.Inject;
 
 import kendzi.jogl.model.render.ModelRender;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 
 /**
  * Enable/disable display texture on models toggle action.
@@ -32,18 +33,21 @@ public class ForceTwoSidedToggleAction extends ToggleAction implements ExpertMod
 
     private final ModelRender modelRender;
 
+    private final RedrawScheduler redrawScheduler;
+
     /**
      * Constructor of texture toggle action.
      *
      * @param pModelRender ModelRender
      */
     @Inject
-    public ForceTwoSidedToggleAction(ModelRender pModelRender) {
+    public ForceTwoSidedToggleAction(ModelRender pModelRender, RedrawScheduler pRedrawScheduler) {
         super(tr("Force two sided lighting"), "1306318261_debugger__24",
                 tr("Force two sided lighting to be used for each model." +
                         "This is normally enabled on a per-model basis for some models."), null, false);
 
         this.modelRender = pModelRender;
+        this.redrawScheduler = pRedrawScheduler;
 
         MainApplication.getToolbar().register(this);
 
@@ -76,6 +80,7 @@ public class ForceTwoSidedToggleAction extends ToggleAction implements ExpertMod
     private void setState(boolean pEnable) {
 
         modelRender.setDrawTwoSided(pEnable);
+        redrawScheduler.requestRedraw();
 
     }
 
@@ -18,6 +18,7 @@ import com.google.inject.Inject;
 
 import kendzi.josm.kendzi3d.jogl.model.ground.SelectableGround;
 import kendzi.josm.kendzi3d.jogl.model.ground.SelectableGround.GroundType;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 
 /**
  * Enable/disable display texture on ground toggle action.
@@ -36,6 +37,8 @@ public class GroundToggleAction extends ToggleAction {
      */
     private final SelectableGround selectableGround;
 
+    private final RedrawScheduler redrawScheduler;
+
     /**
      * Constructor of ground toggle action.
      *
@@ -43,7 +46,7 @@ public class GroundToggleAction extends ToggleAction {
      *            ground drawer
      */
     @Inject
-    public GroundToggleAction(SelectableGround selectableGround) {
+    public GroundToggleAction(SelectableGround selectableGround, RedrawScheduler redrawScheduler) {
         super(tr("Textured Ground"), "1306318261_debugger__24", tr("Enable/disable display texture on ground"), null, false);
 
         MainApplication.getToolbar().register(this);
@@ -55,6 +58,7 @@ public class GroundToggleAction extends ToggleAction {
         notifySelectedState();
 
         this.selectableGround = selectableGround;
+        this.redrawScheduler = redrawScheduler;
 
         setTexturedGround(selected);
 
@@ -80,5 +84,6 @@ public class GroundToggleAction extends ToggleAction {
         } else {
             selectableGround.selectGroundType(GroundType.SINGLE_TEXTURE);
         }
+        redrawScheduler.requestRedraw();
     }
 }
@@ -20,6 +20,7 @@ import kendzi.jogl.camera.Camera;
 import kendzi.jogl.camera.SimpleMoveAnimator;
 import kendzi.josm.kendzi3d.data.perspective.Perspective3D;
 import kendzi.josm.kendzi3d.data.perspective.Perspective3dProvider;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 
 /**
  * Move camera action.
@@ -40,6 +41,9 @@ public class MoveCameraAction extends JosmAction {
     @Inject
     private SimpleMoveAnimator simpleMoveAnimator;
 
+    @Inject
+    private RedrawScheduler redrawScheduler;
+
     /**
      * Constructor.
      *
@@ -61,6 +65,8 @@ public class MoveCameraAction extends JosmAction {
         simpleMoveAnimator.getPoint().x = x;
         simpleMoveAnimator.getPoint().y = Camera.CAM_HEIGHT;
         simpleMoveAnimator.getPoint().z = -y;
+
+        redrawScheduler.requestRedraw();
     }
 
 }
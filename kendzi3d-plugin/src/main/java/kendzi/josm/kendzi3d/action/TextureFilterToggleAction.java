@@ -17,6 +17,7 @@ import com.google.inject.Inject;
 
 import kendzi.jogl.texture.TextureCacheService;
 import kendzi.jogl.texture.TextureCacheServiceImpl;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 
 /**
  * Texture filter toggle action.
@@ -36,14 +37,17 @@ public class TextureFilterToggleAction extends ToggleAction {
      */
     private TextureCacheService textureCacheService;
 
+    private RedrawScheduler redrawScheduler;
+
     /**
      * Constructor of debug toggle action.
      */
     @Inject
-    public TextureFilterToggleAction(TextureCacheService textureCacheService) {
+    public TextureFilterToggleAction(TextureCacheService textureCacheService, RedrawScheduler redrawScheduler) {
         super(tr("Texture filter"), "1306318261_debugger__24", tr("Enable/disable texture filter"), null, true);
 
         this.textureCacheService = textureCacheService;
+        this.redrawScheduler = redrawScheduler;
 
         MainApplication.getToolbar().register(this);
 
@@ -74,6 +78,7 @@ public class TextureFilterToggleAction extends ToggleAction {
         if (textureCacheService instanceof TextureCacheServiceImpl) {
             ((TextureCacheServiceImpl) textureCacheService).setTextureFilter(pEnable);
             textureCacheService.clear();
+            redrawScheduler.requestRedraw();
         } else {
             throw new RuntimeException("unsupported textureCacheService");
         }
@@ -17,6 +17,7 @@ import org.openstreetmap.josm.spi.preferences.Config;
 import com.google.inject.Inject;
 
 import kendzi.jogl.model.render.ModelRender;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 
 /**
  * Enable/disable display texture on models toggle action.
@@ -29,16 +30,20 @@ public class TextureToggleAction extends ToggleAction {
 
     private final ModelRender modelRender;
 
+    private final RedrawScheduler redrawScheduler;
+
     /**
      * Constructor of texture toggle action.
      *
      * @param pModelRender ModelRender
+     * @param pRedrawScheduler redraw scheduler
      */
     @Inject
-    public TextureToggleAction(ModelRender pModelRender) {
+    public TextureToggleAction(ModelRender pModelRender, RedrawScheduler pRedrawScheduler) {
         super(tr("Textured Models"), "1306318261_debugger__24", tr("Enable/disable display texture on models"), null, false);
 
         this.modelRender = pModelRender;
+        this.redrawScheduler = pRedrawScheduler;
 
         MainApplication.getToolbar().register(this);
 
@@ -70,6 +75,7 @@ public class TextureToggleAction extends ToggleAction {
     private void setState(boolean pEnable) {
 
         modelRender.setDrawTextures(pEnable);
+        redrawScheduler.requestRedraw();
 
     }
 
@@ -1,23 +1,177 @@
 package kendzi.josm.kendzi3d.data;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.apache.log4j.Logger;
+
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
 import org.openstreetmap.josm.data.osm.Relation;
 import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler.Match;
 import org.openstreetmap.josm.tools.SubclassFilteredCollection;
 
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
+import kendzi.kendzi3d.world.quad.layer.KeyIndexedLayerMatcher;
 import kendzi.kendzi3d.world.quad.layer.LayerMatcher;
 
 public class DataSetFilterUtil {
 
+    /** Log. */
+    private static final Logger log = Logger.getLogger(DataSetFilterUtil.class);
+
+    /**
+     * Filters primitives for all layers in single pass over data set. Each
+     * primitive is tested only by layers which can match it: layers indexed by
+     * tag keys are tested only when primitive has one of their required keys,
+     * other layers are tested always.
+     *
+     * @param layerMatchers
+     *            layer matchers
+     * @param dataSet
+     *            data set
+     * @param perspective
+     *            perspective
+     * @return ids of matched primitives for each layer
+     */
+    public static <T extends LayerMatcher> Map<T, Set<OsmId>> filter(List<T> layerMatchers, DataSet dataSet,
+            Perspective perspective) {
+
+        Map<T, Set<OsmId>> ret = new IdentityHashMap<T, Set<OsmId>>();
+        for (T layerMatcher : layerMatchers) {
+            ret.put(layerMatcher, new HashSet<OsmId>(1000));
+        }
+
+        if (dataSet == null) {
+            return ret;
+        }
+
+        int size = layerMatchers.size();
+
+        // matchers are taken once for pass, some layers create them on call
+        Match[] nodeMatchers = new Match[size];
+        Match[] wayMatchers = new Match[size];
+        Match[] relationMatchers = new Match[size];
+        List<Set<OsmId>> results = new ArrayList<Set<OsmId>>(size);
+
+        // layers tested for all primitives
+        List<Integer> unindexed = new ArrayList<Integer>();
+        // layers tested for primitives with given key
+        Map<String, List<Integer>> keyIndex = new HashMap<String, List<Integer>>();
+
+        for (int i = 0; i < size; i++) {
+            T layerMatcher = layerMatchers.get(i);
+            nodeMatchers[i] = layerMatcher.getNodeMatcher();
+            wayMatchers[i] = layerMatcher.getWayMatcher();
+            relationMatchers[i] = layerMatcher.getRelationMatcher();
+            results.add(ret.get(layerMatcher));
+
+            Set<String> keys = layerMatcher instanceof KeyIndexedLayerMatcher
+                    ? ((KeyIndexedLayerMatcher) layerMatcher).getRequiredKeys()
+                    : null;
+
+            if (keys == null) {
+                unindexed.add(i);
+                continue;
+            }
+            for (String key : keys) {
+                List<Integer> layers = keyIndex.get(key);
+                if (layers == null) {
+                    layers = new ArrayList<Integer>();
+                    keyIndex.put(key, layers);
+                }
+                layers.add(i);
+            }
+        }
+
+        // per layer statistics
+        long[] matchTime = new long[size];
+        int[] tested = new int[size];
+
+        // marks layers already tested for current primitive
+        int[] testedFor = new int[size];
+        int primitiveCount = 0;
+
+        for (OsmPrimitive primitive : dataSet.allNonDeletedCompletePrimitives()) {
+
+            if (primitive.isDisabledAndHidden()) {
+                continue;
+            }
+            primitiveCount++;
+
+            Match[] matchers;
+            OsmPrimitiveType type;
+            if (primitive instanceof Node) {
+                matchers = nodeMatchers;
+                type = OsmPrimitiveType.NODE;
+            } else if (primitive instanceof Way) {
+                matchers = wayMatchers;
+                type = OsmPrimitiveType.WAY;
+            } else if (primitive instanceof Relation) {
+                matchers = relationMatchers;
+                type = OsmPrimitiveType.RELATION;
+            } else {
+                continue;
+            }
+
+            for (Integer i : unindexed) {
+                testedFor[i] = primitiveCount;
+                match(primitive, type, matchers[i], results.get(i), matchTime, tested, i);
+            }
+
+            if (!primitive.hasKeys()) {
+                continue;
+            }
+
+            for (Map.Entry<String, List<Integer>> entry : keyIndex.entrySet()) {
+                if (!primitive.hasKey(entry.getKey())) {
+                    continue;
+                }
+                for (Integer i : entry.getValue()) {
+                    if (testedFor[i] == primitiveCount) {
+                        continue;
+                    }
+                    testedFor[i] = primitiveCount;
+                    match(primitive, type, matchers[i], results.get(i), matchTime, tested, i);
+                }
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            for (int i = 0; i < size; i++) {
+                log.debug(String.format("layer %s tested %d of %d primitives, matched %d, match time %.3f ms",
+                        layerMatchers.get(i).getClass().getSimpleName(), tested[i], primitiveCount,
+                        results.get(i).size(), matchTime[i] / 1000000d));
+            }
+        }
+        return ret;
+    }
+
+    private static void match(OsmPrimitive primitive, OsmPrimitiveType type, Match matcher, Set<OsmId> result,
+            long[] matchTime, int[] tested, int layer) {
+        if (matcher == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean match = matcher.match(primitive);
+        matchTime[layer] += System.nanoTime() - start;
+        tested[layer]++;
+
+        if (match) {
+            result.add(new OsmId(primitive.getUniqueId(), type));
+        }
+    }
+
     public static Set<OsmId> filter(LayerMatcher layerMatcher, DataSet dataSet, Perspective perspective) {
 
         if (dataSet == null) {
@@ -72,4 +226,51 @@ public class DataSetFilterUtil {
         return ret;
     }
 
+    /**
+     * Check if primitive from data set is matched by layer. Primitives which
+     * are deleted, incomplete or hidden are never matched.
+     *
+     * @param layerMatcher
+     *            layer matcher
+     * @param primitive
+     *            primitive
+     * @return if primitive match layer
+     */
+    public static boolean match(LayerMatcher layerMatcher, OsmPrimitive primitive) {
+
+        if (primitive.isDeleted() || primitive.isIncomplete() || primitive.isDisabledAndHidden()) {
+            return false;
+        }
+
+        if (layerMatcher instanceof KeyIndexedLayerMatcher
+                && !hasAnyKey(primitive, ((KeyIndexedLayerMatcher) layerMatcher).getRequiredKeys())) {
+            return false;
+        }
+
+        if (primitive instanceof Node) {
+            return layerMatcher.getNodeMatcher() != null && layerMatcher.getNodeMatcher().match((Node) primitive);
+        } else if (primitive instanceof Way) {
+            return layerMatcher.getWayMatcher() != null && layerMatcher.getWayMatcher().match((Way) primitive);
+        } else if (primitive instanceof Relation) {
+            return layerMatcher.getRelationMatcher() != null
+                    && layerMatcher.getRelationMatcher().match((Relation) primitive);
+        }
+        return false;
+    }
+
+    private static boolean hasAnyKey(OsmPrimitive primitive, Set<String> keys) {
+        if (keys == null) {
+            return true;
+        }
+        if (!primitive.hasKeys()) {
+            return false;
+        }
+        for (String key : keys) {
+            if (primitive.hasKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
@@ -2,39 +2,116 @@ package kendzi.josm.kendzi3d.data;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 
 import kendzi.jogl.camera.Camera;
+import kendzi.jogl.camera.Frustum;
 import kendzi.josm.kendzi3d.data.perspective.Perspective3D;
 import kendzi.josm.kendzi3d.data.perspective.Perspective3dProvider;
 import kendzi.kendzi3d.editor.EditableObject;
 import kendzi.kendzi3d.editor.EditorCore;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
+import kendzi.kendzi3d.world.quad.QuadWorld;
+import kendzi.kendzi3d.world.quad.QuadWorldSnapshot;
+import kendzi.kendzi3d.world.quad.WorldObjectBoundsUtil;
 import kendzi.kendzi3d.world.quad.layer.Layer;
+import kendzi.math.geometry.ray.Ray3d;
 
 /**
  * Implementation of editor core.
  *
+ * Objects are changed only by producer thread. Changes are collected in
+ * producer maps and in live spatial index of each layer and they are published
+ * as immutable snapshot by {@link #publish()}. Spatial index of layer is
+ * divided into cells, only changed cells are indexed again during
+ * publication. Render and picking threads query the last published snapshot
+ * without locks. After each publication of changes view is redrawn.
  */
 public class Kendzi3dCore implements EditorCore, Perspective3dProvider {
 
-    private List<EditableObject> objects = new ArrayList<>(1000);
-
+    /**
+     * Objects of each layer, used only by producer thread.
+     */
     private final Map<Layer, Map<OsmId, EditableObject>> layerObjects = new IdentityHashMap<Layer, Map<OsmId, EditableObject>>();
 
+    /**
+     * Live spatial index of each layer, used only by producer thread.
+     */
+    private final Map<Layer, QuadWorld<EditableObject>> layerWorlds = new IdentityHashMap<Layer, QuadWorld<EditableObject>>();
+
+    /**
+     * If any object was changed after last publication, used only by producer
+     * thread.
+     */
+    private boolean changed;
+
+    /**
+     * Last published snapshot of objects.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>(Snapshot.EMPTY);
+
     @Inject
     private List<Layer> layers;
 
-    private volatile boolean objectsHasChanged = true;
+    @Inject
+    private RedrawScheduler redrawScheduler;
 
     private transient Perspective3D perspective3d;
 
+    /**
+     * Immutable snapshot of objects in all layers.
+     */
+    private static class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.<QuadWorldSnapshot<EditableObject>> emptyList());
+
+        /**
+         * Spatial indexes of cells of all layers.
+         */
+        final List<QuadWorldSnapshot<EditableObject>> indexes;
+
+        /**
+         * Number of objects in all layers.
+         */
+        final int size;
+
+        /**
+         * Objects of all layers, created on first use.
+         */
+        private volatile List<EditableObject> objects;
+
+        Snapshot(List<QuadWorldSnapshot<EditableObject>> indexes) {
+            this.indexes = indexes;
+
+            int count = 0;
+            for (QuadWorldSnapshot<EditableObject> index : indexes) {
+                count += index.size();
+            }
+            size = count;
+        }
+
+        List<EditableObject> getObjects() {
+            List<EditableObject> ret = objects;
+            if (ret == null) {
+                // concurrent calls can create list twice, result is the same
+                List<EditableObject> all = new ArrayList<EditableObject>(size);
+                for (QuadWorldSnapshot<EditableObject> index : indexes) {
+                    index.queryAll(all);
+                }
+                ret = Collections.unmodifiableList(all);
+                objects = ret;
+            }
+            return ret;
+        }
+    }
+
     /**
      * Adds new editable object to given layer.
      *
@@ -46,8 +123,29 @@ public class Kendzi3dCore implements EditorCore, Perspective3dProvider {
      *            the editable object
      */
     public void add(Layer layer, OsmId id, EditableObject obj) {
-        getOrAddLayer(layer).put(id, obj);
-        objectsHasChanged = true;
+        EditableObject old = getOrAddLayer(layer).put(id, obj);
+        QuadWorld<EditableObject> world = getOrAddLayerWorld(layer);
+        if (old != null && old != obj) {
+            world.remove(old);
+        }
+        world.insert(obj, WorldObjectBoundsUtil.calculate(obj));
+        changed = true;
+    }
+
+    /**
+     * Updates location of editable object in world, after it was rebuilt.
+     *
+     * @param layer
+     *            the layer
+     * @param id
+     *            the osm object identifier
+     */
+    public void update(Layer layer, OsmId id) {
+        EditableObject obj = load(layer, id);
+        if (obj != null) {
+            getOrAddLayerWorld(layer).update(obj, WorldObjectBoundsUtil.calculate(obj));
+            changed = true;
+        }
     }
 
     /**
@@ -60,8 +158,11 @@ public class Kendzi3dCore implements EditorCore, Perspective3dProvider {
      *
      */
     public void remove(Layer layer, OsmId id) {
-        getOrAddLayer(layer).remove(id);
-        objectsHasChanged = true;
+        EditableObject old = getOrAddLayer(layer).remove(id);
+        if (old != null) {
+            getOrAddLayerWorld(layer).remove(old);
+            changed = true;
+        }
     }
 
     /**
@@ -72,7 +173,31 @@ public class Kendzi3dCore implements EditorCore, Perspective3dProvider {
      */
     public void clean(Layer layer) {
         getOrAddLayer(layer).clear();
-        objectsHasChanged = true;
+        getOrAddLayerWorld(layer).clear();
+        changed = true;
+    }
+
+    /**
+     * Publishes changes made by producer thread and requests redraw of view.
+     * Only changed cells of layers are indexed again, snapshots of other cells
+     * are reused.
+     */
+    public void publish() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+
+        List<QuadWorldSnapshot<EditableObject>> indexes = new ArrayList<QuadWorldSnapshot<EditableObject>>();
+        for (Layer layer : layers) {
+            QuadWorld<EditableObject> world = layerWorlds.get(layer);
+            if (world != null) {
+                indexes.addAll(world.snapshot());
+            }
+        }
+        snapshot.set(new Snapshot(Collections.unmodifiableList(indexes)));
+
+        redrawScheduler.requestRedraw();
     }
 
     /**
@@ -95,6 +220,15 @@ public class Kendzi3dCore implements EditorCore, Perspective3dProvider {
         return objects.get(osmId);
     }
 
+    private QuadWorld<EditableObject> getOrAddLayerWorld(Layer layer) {
+        QuadWorld<EditableObject> world = layerWorlds.get(layer);
+        if (world == null) {
+            world = new QuadWorld<EditableObject>();
+            layerWorlds.put(layer, world);
+        }
+        return world;
+    }
+
     private Map<OsmId, EditableObject> getOrAddLayer(Layer layer) {
         Map<OsmId, EditableObject> layerCache = layerObjects.get(layer);
         if (layerCache == null) {
@@ -104,39 +238,52 @@ public class Kendzi3dCore implements EditorCore, Perspective3dProvider {
         return layerCache;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Returns objects from last published snapshot, list can't be modified.
+     */
     @Override
     public List<EditableObject> getEditableObjects() {
-        if (objectsHasChanged) {
-            // to speed up, render is made on local array not synchronized map.
-            try {
-                List<EditableObject> localCopy = makeCopyOfObjects();
-                objects = localCopy;
-                objectsHasChanged = false;
-            } catch (ConcurrentModificationException e) {
-                /*
-                 * Don't care about concurrent exception, new object will be
-                 * processed in next frame.
-                 */
-            }
-        }
-        return objects;
+        return snapshot.get().getObjects();
     }
 
-    private List<EditableObject> makeCopyOfObjects() {
-        List<EditableObject> objects = new ArrayList<>(1000);
+    /**
+     * {@inheritDoc}
+     *
+     * Returns size of last published snapshot.
+     */
+    @Override
+    public int getEditableObjectsCount() {
+        return snapshot.get().size;
+    }
 
-        for (Layer layer : layers) {
-            Map<OsmId, EditableObject> layerCashe = layerObjects.get(layer);
-            if (layerCashe == null) {
-                continue;
-            }
-            for (OsmId osmId : layerCashe.keySet()) {
-                EditableObject editableObject = layerCashe.get(osmId);
+    /**
+     * {@inheritDoc}
+     *
+     * Queries spatial indexes of last published snapshot.
+     */
+    @Override
+    public List<EditableObject> getEditableObjects(Frustum frustum) {
+        List<EditableObject> ret = new ArrayList<EditableObject>();
+        for (QuadWorldSnapshot<EditableObject> index : snapshot.get().indexes) {
+            index.query(frustum, ret);
+        }
+        return ret;
+    }
 
-                objects.add(editableObject);
-            }
+    /**
+     * {@inheritDoc}
+     *
+     * Queries spatial indexes of last published snapshot.
+     */
+    @Override
+    public List<EditableObject> getEditableObjects(Ray3d ray) {
+        List<EditableObject> ret = new ArrayList<EditableObject>();
+        for (QuadWorldSnapshot<EditableObject> index : snapshot.get().indexes) {
+            index.query(ray, ret);
         }
-        return objects;
+        return ret;
     }
 
     @Override
@@ -1,5 +1,78 @@
 package kendzi.josm.kendzi3d.data.event;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+
+/**
+ * Event about changes of data in current data set. It contains primitives
+ * which were changed, when changed primitives are unknown whole data set need
+ * to be checked.
+ */
 public class UpdateDataEvent implements DataEvent {
 
+    /**
+     * Changed primitives or null if they are unknown.
+     */
+    private final Set<OsmPrimitive> primitives;
+
+    /**
+     * Constructor for update of unknown primitives.
+     */
+    public UpdateDataEvent() {
+        primitives = null;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param primitives
+     *            changed primitives
+     */
+    public UpdateDataEvent(Collection<? extends OsmPrimitive> primitives) {
+        this.primitives = new HashSet<OsmPrimitive>(primitives);
+    }
+
+    /**
+     * @return if changed primitives are unknown and whole data set need to be
+     *         checked
+     */
+    public boolean isFullUpdate() {
+        return primitives == null;
+    }
+
+    /**
+     * @return changed primitives, empty for full update
+     */
+    public Set<OsmPrimitive> getPrimitives() {
+        if (primitives == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(primitives);
+    }
+
+    /**
+     * Merge changes of two events.
+     *
+     * @param event
+     *            other event
+     * @return event with changes of both events
+     */
+    public UpdateDataEvent merge(UpdateDataEvent event) {
+        if (isFullUpdate() || event.isFullUpdate()) {
+            return new UpdateDataEvent();
+        }
+
+        Set<OsmPrimitive> merged = new HashSet<OsmPrimitive>(primitives);
+        merged.addAll(event.primitives);
+        return new UpdateDataEvent(merged);
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateDataEvent [primitives=" + (primitives == null ? "all" : primitives.size()) + "]";
+    }
 }
@@ -1,27 +1,46 @@
 package kendzi.josm.kendzi3d.data.producer;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.LinkedList;
+import java.util.ListIterator;
 
 import kendzi.josm.kendzi3d.data.event.DataEvent;
 import kendzi.josm.kendzi3d.data.event.NewDataEvent;
 import kendzi.josm.kendzi3d.data.event.UpdateDataEvent;
 
+/**
+ * Queue of data events waiting for processing. Events are compacted: new data
+ * event replace all waiting events and update events are merged into one.
+ */
 public class DataEventQueue {
-    // FIXME rewrite it
-    private final LinkedBlockingQueue<DataEvent> eventQueue = new LinkedBlockingQueue<DataEvent>();
+
+    private final LinkedList<DataEvent> eventQueue = new LinkedList<DataEvent>();
 
     public synchronized void add(DataEvent dataEvent) {
-        addDbEvent(dataEvent);
+
+        if (dataEvent instanceof NewDataEvent) {
+            addNewDataEvent((NewDataEvent) dataEvent);
+        } else if (dataEvent instanceof UpdateDataEvent) {
+            addUpdateDataEvent((UpdateDataEvent) dataEvent);
+        } else {
+            throw new IllegalArgumentException("unknown type of argument: " + dataEvent);
+        }
+
+        notifyAll();
     }
 
     private void addUpdateDataEvent(UpdateDataEvent dataEvent) {
-        // XXX
-        if (!eventQueue.isEmpty()) {
-            for (DataEvent event : eventQueue) {
-                if (event instanceof UpdateDataEvent) {
-                    // no need to add second update event, skip
-                    return;
-                }
+
+        ListIterator<DataEvent> i = eventQueue.listIterator();
+        while (i.hasNext()) {
+            DataEvent event = i.next();
+            if (event instanceof NewDataEvent) {
+                // whole data will be rebuild, no need to add update event
+                return;
+            }
+            if (event instanceof UpdateDataEvent) {
+                // only one update event is waiting, merge changes with it
+                i.set(((UpdateDataEvent) event).merge(dataEvent));
+                return;
             }
         }
         eventQueue.add(dataEvent);
@@ -32,23 +51,10 @@ public class DataEventQueue {
         eventQueue.add(dataEvent);
     }
 
-    private synchronized void addEdEvent(UpdateDataEvent updateDataEvent) {
-
-        eventQueue.add(updateDataEvent);
-    }
-
-    private void addDbEvent(DataEvent dataEvent) {
-
-        if (dataEvent instanceof NewDataEvent) {
-            addNewDataEvent((NewDataEvent) dataEvent);
-        } else if (dataEvent instanceof UpdateDataEvent) {
-            addUpdateDataEvent((UpdateDataEvent) dataEvent);
-        } else {
-            throw new IllegalArgumentException("unknown type of argument: " + dataEvent);
+    public synchronized DataEvent take() throws InterruptedException {
+        while (eventQueue.isEmpty()) {
+            wait();
         }
-    }
-
-    public DataEvent take() throws InterruptedException {
-        return eventQueue.take();
+        return eventQueue.removeFirst();
     }
 }
@@ -1,8 +1,23 @@
 package kendzi.josm.kendzi3d.data.producer;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
 
 import javax.inject.Inject;
 
@@ -19,12 +34,14 @@ import org.openstreetmap.josm.data.projection.Projection;
 import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.gui.MainApplication;
 
+import kendzi.jogl.texture.atlas.TextureAtlas;
 import kendzi.josm.kendzi3d.data.DataSetFilterUtil;
 import kendzi.josm.kendzi3d.data.Kendzi3dCore;
 import kendzi.josm.kendzi3d.data.OsmId;
 import kendzi.josm.kendzi3d.data.RebuildableWorldObject;
 import kendzi.josm.kendzi3d.data.event.DataEvent;
 import kendzi.josm.kendzi3d.data.event.NewDataEvent;
+import kendzi.josm.kendzi3d.data.event.UpdateDataEvent;
 import kendzi.josm.kendzi3d.data.perspective.Perspective3D;
 import kendzi.kendzi3d.editor.EditableObject;
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
@@ -40,12 +57,44 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
 
     private static final Logger LOG = Logger.getLogger(EditorObjectsProducer.class);
 
+    /**
+     * Number of world objects build in one task. Built batches are published
+     * to core progressively, so view is filled before whole layer is built.
+     */
+    private static final int BUILD_BATCH_SIZE = 100;
+
+    /**
+     * Minimal time in milliseconds between progressive publications of built
+     * batches. Batches built in meantime are published together.
+     */
+    private static final long PROGRESS_PUBLISH_INTERVAL = 250;
+
+    /**
+     * Lock used when there is no data set.
+     */
+    private static final Lock NO_LOCK = new NoLock();
+
     private final DataEventQueue eventQueue;
 
+    /**
+     * Pool of threads building world objects.
+     */
+    private final ExecutorService buildExecutor;
+
     private final Kendzi3dCore core;
 
+    /**
+     * Atlas of building textures, reloaded once after each pass. Can be null.
+     */
+    private final TextureAtlas textureAtlas;
+
     private LatLon center;
 
+    /**
+     * Time of last progressive publication, used only by producer thread.
+     */
+    private long lastProgressPublish;
+
     /**
      * Constructor.
      *
@@ -53,18 +102,42 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
      *            the core
      * @param dataConsumersMonitor
      *            the data consumer monitor
+     * @param textureAtlas
+     *            atlas of building textures, can be null
      */
     @Inject
-    public EditorObjectsProducer(Kendzi3dCore core, DataConsumersMonitor dataConsumersMonitor) {
+    public EditorObjectsProducer(Kendzi3dCore core, DataConsumersMonitor dataConsumersMonitor,
+            TextureAtlas textureAtlas) {
         this.core = core;
+        this.textureAtlas = textureAtlas;
 
         eventQueue = new DataEventQueue();
 
+        buildExecutor = createBuildExecutor();
+
         center = new LatLon(0, 0);
 
         registerEventSource(eventQueue, dataConsumersMonitor);
     }
 
+    private static ExecutorService createBuildExecutor() {
+        // leave one core for the JOSM and the 3d view
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "kendzi3d-object-builder-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
     private void registerEventSource(DataEventQueue eventQueue, DataConsumersMonitor dataConsumersMonitor) {
 
         JosmDataEventSource listener = new JosmDataEventSource(this, dataConsumersMonitor);
@@ -97,7 +170,7 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
         return MainApplication.getLayerManager().getEditDataSet();
     }
 
-    private void process(DataEvent event) {
+    private void process(DataEvent event) throws InterruptedException {
         DataSet dataSet = getDataSet(event);
 
         Perspective3D perspective = core.getPerspective3d();
@@ -113,6 +186,17 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
             rebuildData = true;
         }
 
+        Set<OsmPrimitive> affected = null;
+        if (!rebuildData && event instanceof UpdateDataEvent && !((UpdateDataEvent) event).isFullUpdate()) {
+            affected = findAffected(dataSet, ((UpdateDataEvent) event).getPrimitives());
+        }
+
+        Map<Layer, Set<OsmId>> filtered = null;
+        if (affected == null) {
+            // all layers are filtered in single pass over data set
+            filtered = DataSetFilterUtil.filter(core.getLayers(), dataSet, perspective);
+        }
+
         for (Layer layer : core.getLayers()) {
 
             if (rebuildData) {
@@ -121,9 +205,21 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
             }
 
             Set<OsmId> currentIds = core.getOsmIds(layer);
-            Set<OsmId> filteredIds = DataSetFilterUtil.filter(layer, dataSet, perspective);
 
-            RebuildStatus status = combine(currentIds, filteredIds);
+            RebuildStatus status;
+            if (affected != null) {
+                Lock readLock = readLock(dataSet);
+                readLock.lock();
+                try {
+                    status = combineAffected(currentIds, affected, dataSet, layer);
+                } finally {
+                    readLock.unlock();
+                }
+            } else {
+                Set<OsmId> filteredIds = filtered.get(layer);
+
+                status = combine(currentIds, filteredIds);
+            }
 
             createNewEditorObjects(dataSet, status.getNewIds(), layer, perspective);
 
@@ -131,6 +227,12 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
 
             removeEditorObjects(status.getRemoveIds(), layer);
 
+            core.publish();
+        }
+
+        if (textureAtlas != null) {
+            // textures added to atlas by objects built in this pass
+            textureAtlas.flush();
         }
     }
 
@@ -210,8 +312,74 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
 
     }
 
-    private void createNewEditorObjects(DataSet dataSet, Set<OsmId> newIds, Layer layer, Perspective perspective) {
+    /**
+     * Builds new world objects in parallel on build executor. Objects are
+     * build in batches, each built batch is added to core on producer thread.
+     */
+    private void createNewEditorObjects(final DataSet dataSet, Set<OsmId> newIds, final Layer layer,
+            final Perspective perspective) throws InterruptedException {
+
+        CompletionService<List<BuiltObject>> completionService = new ExecutorCompletionService<List<BuiltObject>>(
+                buildExecutor);
+
+        int batches = 0;
+        List<OsmId> batch = new ArrayList<OsmId>(BUILD_BATCH_SIZE);
         for (OsmId osmId : newIds) {
+            batch.add(osmId);
+
+            if (batch.size() >= BUILD_BATCH_SIZE) {
+                submitBuild(completionService, dataSet, batch, layer, perspective);
+                batches++;
+                batch = new ArrayList<OsmId>(BUILD_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            submitBuild(completionService, dataSet, batch, layer, perspective);
+            batches++;
+        }
+
+        for (int i = 0; i < batches; i++) {
+            try {
+                for (BuiltObject built : completionService.take().get()) {
+                    core.add(layer, built.getOsmId(), built.getWorldObject());
+                }
+                // view is filled progressively
+                publishProgress();
+            } catch (ExecutionException e) {
+                LOG.error("cannot create batch of new world objects, skipping", e);
+            }
+        }
+    }
+
+    /**
+     * Publishes objects built so far, but not more often than
+     * {@link #PROGRESS_PUBLISH_INTERVAL}. Rest is published after layer is
+     * processed.
+     */
+    private void publishProgress() {
+        long now = System.currentTimeMillis();
+        if (now - lastProgressPublish >= PROGRESS_PUBLISH_INTERVAL) {
+            core.publish();
+            lastProgressPublish = now;
+        }
+    }
+
+    private void submitBuild(CompletionService<List<BuiltObject>> completionService, final DataSet dataSet,
+            final List<OsmId> batch, final Layer layer, final Perspective perspective) {
+
+        completionService.submit(() -> buildEditorObjects(dataSet, batch, layer, perspective));
+    }
+
+    private List<BuiltObject> buildEditorObjects(DataSet dataSet, List<OsmId> osmIds, Layer layer,
+            Perspective perspective) {
+
+        List<BuiltObject> ret = new ArrayList<BuiltObject>(osmIds.size());
+
+        for (OsmId osmId : osmIds) {
+            // data set can be changed by JOSM in meantime, don't block it for
+            // whole batch
+            Lock readLock = readLock(dataSet);
+            readLock.lock();
             try {
                 WorldObject buildModel = prepareEditorObject(dataSet, layer, osmId, perspective);
 
@@ -222,23 +390,31 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
                         ((BuildableWorldObject) buildModel).buildWorldObject();
                     }
 
-                    core.add(layer, osmId, buildModel);
+                    ret.add(new BuiltObject(osmId, buildModel));
                 }
             } catch (Exception e) {
                 LOG.error(String.format("cannot create new world object with id: %s, skipping", osmId), e);
+            } finally {
+                readLock.unlock();
             }
         }
+        return ret;
     }
 
     private void updateEditorObjects(DataSet dataSet, Set<OsmId> updateIds, Layer layer, Perspective perspective) {
         for (OsmId osmId : updateIds) {
 
+            // data set can be changed by JOSM in meantime, lock it only for
+            // single object
+            Lock readLock = readLock(dataSet);
+            readLock.lock();
             try {
                 OsmPrimitive primitive = dataSet.getPrimitiveById(osmId);
 
                 EditableObject editableObject = core.load(layer, osmId);
                 if (editableObject instanceof RebuildableWorldObject) {
                     ((RebuildableWorldObject) editableObject).rebuildWorldObject(primitive, perspective);
+                    core.update(layer, osmId);
                 } else {
                     throw new IllegalStateException(String
                             .format("cannot rebuild osm object: %s for layer %s because it don't support it", osmId, layer));
@@ -246,6 +422,8 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
 
             } catch (Exception e) {
                 LOG.error(String.format("cannot update world object with id: %s, skipping", osmId), e);
+            } finally {
+                readLock.unlock();
             }
         }
     }
@@ -276,6 +454,75 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
         return buildModel;
     }
 
+    /**
+     * Finds all primitives affected by change. Beside changed primitives it
+     * includes all their referrers, ways of moved nodes, relations of changed
+     * ways and parents of changed relations.
+     *
+     * @param dataSet
+     *            data set, referrers are read under its read lock
+     * @param changed
+     *            changed primitives
+     * @return changed primitives with their referrers
+     */
+    private static Set<OsmPrimitive> findAffected(DataSet dataSet, Set<OsmPrimitive> changed) {
+        Set<OsmPrimitive> affected = new HashSet<OsmPrimitive>(changed);
+        Deque<OsmPrimitive> toVisit = new ArrayDeque<OsmPrimitive>(changed);
+
+        Lock readLock = readLock(dataSet);
+        readLock.lock();
+        try {
+            while (!toVisit.isEmpty()) {
+                OsmPrimitive primitive = toVisit.poll();
+                for (OsmPrimitive referrer : primitive.getReferrers()) {
+                    if (affected.add(referrer)) {
+                        toVisit.add(referrer);
+                    }
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return affected;
+    }
+
+    /**
+     * @return read lock of data set or lock which does nothing when there is
+     *         no data set
+     */
+    private static Lock readLock(DataSet dataSet) {
+        if (dataSet == null) {
+            return NO_LOCK;
+        }
+        return dataSet.getReadLock();
+    }
+
+    private RebuildStatus combineAffected(Set<OsmId> currentIds, Set<OsmPrimitive> affected, DataSet dataSet,
+            Layer layer) {
+
+        Set<OsmId> newIds = new HashSet<OsmId>();
+        Set<OsmId> updateIds = new HashSet<OsmId>();
+        Set<OsmId> removeIds = new HashSet<OsmId>();
+
+        for (OsmPrimitive primitive : affected) {
+            OsmId osmId = new OsmId(primitive.getUniqueId(), primitive.getType());
+
+            boolean match = dataSet != null && primitive.getDataSet() == dataSet
+                    && DataSetFilterUtil.match(layer, primitive);
+            boolean current = currentIds.contains(osmId);
+
+            if (match && current) {
+                updateIds.add(osmId);
+            } else if (match) {
+                newIds.add(osmId);
+            } else if (current) {
+                removeIds.add(osmId);
+            }
+        }
+
+        return new RebuildStatus(newIds, updateIds, removeIds);
+    }
+
     private RebuildStatus combine(Set<OsmId> currentIds, Set<OsmId> filteredIds) {
 
         // Set<OsmId> currentIdsSet = new HashSet<OsmId>(currentIds);
@@ -309,6 +556,63 @@ public class EditorObjectsProducer implements Runnable, DataEventListener {
         return new RebuildStatus(newIds, updateIds, removeIds);
     }
 
+    /**
+     * World object built for osm primitive.
+     */
+    /**
+     * Lock which does nothing, there is nothing to guard without data set.
+     */
+    private static class NoLock implements Lock {
+
+        @Override
+        public void lock() {
+            //
+        }
+
+        @Override
+        public void lockInterruptibly() {
+            //
+        }
+
+        @Override
+        public boolean tryLock() {
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            //
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class BuiltObject {
+        private final OsmId osmId;
+        private final WorldObject worldObject;
+
+        public BuiltObject(OsmId osmId, WorldObject worldObject) {
+            this.osmId = osmId;
+            this.worldObject = worldObject;
+        }
+
+        public OsmId getOsmId() {
+            return osmId;
+        }
+
+        public WorldObject getWorldObject() {
+            return worldObject;
+        }
+    }
+
     private static class RebuildStatus {
         private Set<OsmId> newIds;
         private Set<OsmId> updateIds;
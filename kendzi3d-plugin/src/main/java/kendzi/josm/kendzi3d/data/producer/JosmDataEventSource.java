@@ -1,6 +1,11 @@
 package kendzi.josm.kendzi3d.data.producer;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent.DatasetEventType;
 import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataSetListenerAdapter;
 import org.openstreetmap.josm.data.osm.event.DatasetEventManager;
@@ -44,12 +49,33 @@ public class JosmDataEventSource implements DataSetListenerAdapter.Listener {
             return;
         }
 
-        queue.add(new UpdateDataEvent());
+        Set<OsmPrimitive> changed = new HashSet<OsmPrimitive>();
+        if (pEvent instanceof DataChangedEvent) {
+            // consolidated events from one change
+            for (AbstractDatasetChangedEvent event : ((DataChangedEvent) pEvent).getEvents()) {
+                addChangedPrimitives(event, changed);
+            }
+        } else {
+            addChangedPrimitives(pEvent, changed);
+        }
+
+        if (!changed.isEmpty()) {
+            queue.add(new UpdateDataEvent(changed));
+        }
+    }
+
+    private void addChangedPrimitives(AbstractDatasetChangedEvent event, Set<OsmPrimitive> changed) {
+        if (event.getType() == DatasetEventType.CHANGESET_ID_CHANGED) {
+            // don't have influence on 3d objects
+            return;
+        }
+        changed.addAll(event.getPrimitives());
     }
 
     private boolean isDataChangeEvent(AbstractDatasetChangedEvent event) {
-        // XXX
-        return event instanceof DataChangedEvent;
+        // Data changed event without list of consolidated events is send when
+        // whole data set was replaced.
+        return event instanceof DataChangedEvent && ((DataChangedEvent) event).getEvents() == null;
     }
 
 }
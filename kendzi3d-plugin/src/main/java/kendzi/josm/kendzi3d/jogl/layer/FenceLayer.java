@@ -6,6 +6,11 @@
 
 package kendzi.josm.kendzi3d.jogl.layer;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.log4j.Logger;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler.Match;
@@ -23,6 +28,7 @@ import kendzi.josm.kendzi3d.jogl.model.BarrierFenceRelation;
 import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
 import kendzi.kendzi3d.world.WorldObject;
+import kendzi.kendzi3d.world.quad.layer.KeyIndexedLayerMatcher;
 import kendzi.kendzi3d.world.quad.layer.Layer;
 
 /**
@@ -30,11 +36,17 @@ import kendzi.kendzi3d.world.quad.layer.Layer;
  *
  * @author Tomasz Kędziora (Kendzi)
  */
-public class FenceLayer implements Layer {
+public class FenceLayer implements Layer, KeyIndexedLayerMatcher {
 
     /** Log. */
     private static final Logger log = Logger.getLogger(FenceLayer.class);
 
+    /**
+     * Keys of tags required by layer matchers.
+     */
+    private static final Set<String> REQUIRED_KEYS = Collections
+            .unmodifiableSet(new HashSet<String>(Arrays.asList("barrier", "barrier:part")));
+
     /**
      * Model renderer.
      */
@@ -88,6 +100,11 @@ public class FenceLayer implements Layer {
         return fenceRelationMatcher;
     }
 
+    @Override
+    public Set<String> getRequiredKeys() {
+        return REQUIRED_KEYS;
+    }
+
     @Override
     public boolean isVisible() {
         return true;
@@ -6,6 +6,11 @@
 
 package kendzi.josm.kendzi3d.jogl.layer;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.log4j.Logger;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler.Match;
@@ -17,11 +22,16 @@ import org.openstreetmap.josm.data.osm.Way;
 import com.google.inject.Inject;
 
 import kendzi.jogl.model.render.ModelRender;
+import kendzi.jogl.texture.atlas.TextureAtlas;
 import kendzi.jogl.texture.library.TextureLibraryStorageService;
 import kendzi.josm.kendzi3d.jogl.model.building.Building;
+import kendzi.josm.kendzi3d.jogl.model.lod.LodBuilder;
+import kendzi.josm.kendzi3d.jogl.model.lod.LodSelector;
+import kendzi.josm.kendzi3d.service.BuildingCacheService;
 import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
 import kendzi.kendzi3d.world.WorldObject;
+import kendzi.kendzi3d.world.quad.layer.KeyIndexedLayerMatcher;
 import kendzi.kendzi3d.world.quad.layer.Layer;
 
 /**
@@ -29,11 +39,17 @@ import kendzi.kendzi3d.world.quad.layer.Layer;
  *
  * @author Tomasz Kędziora (Kendzi)
  */
-public class NewBuildingLayer implements Layer {
+public class NewBuildingLayer implements Layer, KeyIndexedLayerMatcher {
 
     /** Log. */
     private static final Logger log = Logger.getLogger(NewBuildingLayer.class);
 
+    /**
+     * Keys of tags required by layer matchers.
+     */
+    private static final Set<String> REQUIRED_KEYS = Collections
+            .unmodifiableSet(new HashSet<String>(Arrays.asList("building", "building:part", "type")));
+
     /**
      * Model renderer.
      */
@@ -52,6 +68,30 @@ public class NewBuildingLayer implements Layer {
     @Inject
     private TextureLibraryStorageService textureLibraryStorageService;
 
+    /**
+     * Atlas for building textures.
+     */
+    @Inject
+    private TextureAtlas textureAtlas;
+
+    /**
+     * Selector of level of detail.
+     */
+    @Inject
+    private LodSelector lodSelector;
+
+    /**
+     * Builder of lower levels of detail.
+     */
+    @Inject
+    private LodBuilder lodBuilder;
+
+    /**
+     * Cache of building geometry.
+     */
+    @Inject
+    private BuildingCacheService buildingCacheService;
+
     private Match buildingNodeMatcher;
     private Match buildingMatcher;
     private Match buildingRelationMatcher;
@@ -100,6 +140,11 @@ public class NewBuildingLayer implements Layer {
         return buildingRelationMatcher;
     }
 
+    @Override
+    public Set<String> getRequiredKeys() {
+        return REQUIRED_KEYS;
+    }
+
     @Override
     public boolean isVisible() {
         return true;
@@ -107,17 +152,17 @@ public class NewBuildingLayer implements Layer {
 
     @Override
     public WorldObject buildModel(Node node, Perspective perspective) {
-        return new Building(node, perspective, modelRender, metadataCacheService, textureLibraryStorageService);
+        return building(new Building(node, perspective, modelRender, metadataCacheService, textureLibraryStorageService));
     }
 
     @Override
     public WorldObject buildModel(Way way, Perspective perspective) {
-        return new Building(way, perspective, modelRender, metadataCacheService, textureLibraryStorageService);
+        return building(new Building(way, perspective, modelRender, metadataCacheService, textureLibraryStorageService));
     }
 
     @Override
     public WorldObject buildModel(Relation relation, Perspective perspective) {
-        return new Building(relation, perspective, modelRender, metadataCacheService, textureLibraryStorageService);
+        return building(new Building(relation, perspective, modelRender, metadataCacheService, textureLibraryStorageService));
     }
 
     /**
@@ -135,4 +180,11 @@ public class NewBuildingLayer implements Layer {
         this.modelRender = modelRender;
     }
 
+    private Building building(Building building) {
+        building.setTextureAtlas(textureAtlas);
+        building.setLodSelector(lodSelector);
+        building.setLodBuilder(lodBuilder);
+        building.setBuildingCacheService(buildingCacheService);
+        return building;
+    }
 }
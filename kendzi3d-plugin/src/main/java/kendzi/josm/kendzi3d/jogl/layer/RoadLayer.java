@@ -6,6 +6,9 @@
 
 package kendzi.josm.kendzi3d.jogl.layer;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.apache.log4j.Logger;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler.Match;
@@ -18,9 +21,11 @@ import com.google.inject.Inject;
 
 import kendzi.jogl.model.render.ModelRender;
 import kendzi.josm.kendzi3d.jogl.model.Road;
+import kendzi.josm.kendzi3d.jogl.model.lod.LodSelector;
 import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
 import kendzi.kendzi3d.world.WorldObject;
+import kendzi.kendzi3d.world.quad.layer.KeyIndexedLayerMatcher;
 import kendzi.kendzi3d.world.quad.layer.Layer;
 
 /**
@@ -28,11 +33,16 @@ import kendzi.kendzi3d.world.quad.layer.Layer;
  *
  * @author Tomasz Kędziora (Kendzi)
  */
-public class RoadLayer implements Layer {
+public class RoadLayer implements Layer, KeyIndexedLayerMatcher {
 
     /** Log. */
     private static final Logger log = Logger.getLogger(RoadLayer.class);
 
+    /**
+     * Keys of tags required by layer matchers.
+     */
+    private static final Set<String> REQUIRED_KEYS = Collections.singleton("highway");
+
     /**
      * Model renderer.
      */
@@ -45,6 +55,12 @@ public class RoadLayer implements Layer {
     @Inject
     private MetadataCacheService metadataCacheService;
 
+    /**
+     * Selector of level of detail.
+     */
+    @Inject
+    private LodSelector lodSelector;
+
     private Match roadMatcher;
 
     {
@@ -72,6 +88,11 @@ public class RoadLayer implements Layer {
         return null;
     }
 
+    @Override
+    public Set<String> getRequiredKeys() {
+        return REQUIRED_KEYS;
+    }
+
     @Override
     public boolean isVisible() {
         return true;
@@ -84,7 +105,9 @@ public class RoadLayer implements Layer {
 
     @Override
     public WorldObject buildModel(Way way, Perspective perspective) {
-        return new Road(way, perspective, modelRender, metadataCacheService);
+        Road road = new Road(way, perspective, modelRender, metadataCacheService);
+        road.setLodSelector(lodSelector);
+        return road;
     }
 
     @Override
@@ -6,6 +6,11 @@
 
 package kendzi.josm.kendzi3d.jogl.layer;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.log4j.Logger;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler.Match;
@@ -24,6 +29,7 @@ import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.josm.kendzi3d.service.ModelCacheService;
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
 import kendzi.kendzi3d.world.WorldObject;
+import kendzi.kendzi3d.world.quad.layer.KeyIndexedLayerMatcher;
 import kendzi.kendzi3d.world.quad.layer.Layer;
 
 /**
@@ -31,12 +37,18 @@ import kendzi.kendzi3d.world.quad.layer.Layer;
  *
  * @author Tomasz Kędziora (Kendzi)
  */
-public class TreeLayer implements Layer {
+public class TreeLayer implements Layer, KeyIndexedLayerMatcher {
 
     /** Log. */
     @SuppressWarnings("unused")
     private static final Logger log = Logger.getLogger(TreeLayer.class);
 
+    /**
+     * Keys of tags required by layer matchers.
+     */
+    private static final Set<String> REQUIRED_KEYS = Collections
+            .unmodifiableSet(new HashSet<String>(Arrays.asList("natural", "landuse")));
+
     /**
      * Model renderer.
      */
@@ -89,6 +101,11 @@ public class TreeLayer implements Layer {
         return null;
     }
 
+    @Override
+    public Set<String> getRequiredKeys() {
+        return REQUIRED_KEYS;
+    }
+
     @Override
     public boolean isVisible() {
         return true;
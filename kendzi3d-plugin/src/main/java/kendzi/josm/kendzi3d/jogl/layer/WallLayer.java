@@ -6,6 +6,9 @@
 
 package kendzi.josm.kendzi3d.jogl.layer;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.apache.log4j.Logger;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler;
 import org.openstreetmap.josm.data.osm.search.SearchCompiler.Match;
@@ -22,6 +25,7 @@ import kendzi.josm.kendzi3d.jogl.model.BarrierWall;
 import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
 import kendzi.kendzi3d.world.WorldObject;
+import kendzi.kendzi3d.world.quad.layer.KeyIndexedLayerMatcher;
 import kendzi.kendzi3d.world.quad.layer.Layer;
 
 /**
@@ -29,11 +33,16 @@ import kendzi.kendzi3d.world.quad.layer.Layer;
  *
  * @author Tomasz Kędziora (Kendzi)
  */
-public class WallLayer implements Layer {
+public class WallLayer implements Layer, KeyIndexedLayerMatcher {
 
     /** Log. */
     private static final Logger log = Logger.getLogger(WallLayer.class);
 
+    /**
+     * Keys of tags required by layer matchers.
+     */
+    private static final Set<String> REQUIRED_KEYS = Collections.singleton("barrier");
+
     /**
      * Model renderer.
      */
@@ -78,6 +87,11 @@ public class WallLayer implements Layer {
         return null;
     }
 
+    @Override
+    public Set<String> getRequiredKeys() {
+        return REQUIRED_KEYS;
+    }
+
     @Override
     public boolean isVisible() {
         return true;
@@ -46,6 +46,11 @@ public class ModelsLibraryLayer implements Layer, ModelsLibraryDataChangeEvent {
     /** Log. */
     private static final Logger log = Logger.getLogger(ModelsLibraryLayer.class);
 
+    /**
+     * Matcher for ways.
+     */
+    private static final Match WAY_MATCHER = new SearchCompiler.Always();
+
     /**
      * List of model definitions.
      */
@@ -62,6 +67,12 @@ public class ModelsLibraryLayer implements Layer, ModelsLibraryDataChangeEvent {
 
     private Map<String, List<WayNodeModelConf>> wayNodeModelsMap;
 
+    /**
+     * Matcher for nodes of all model definitions. Created when definitions
+     * are loaded, not on each call.
+     */
+    private Match nodeMatcher = new OrList(new ArrayList<Match>());
+
     /**
      * Constructor.
      *
@@ -108,6 +119,7 @@ public class ModelsLibraryLayer implements Layer, ModelsLibraryDataChangeEvent {
         }
 
         this.nodeModelsList = nodeModelsList;
+        nodeMatcher = createNodeMatcher(nodeModelsList);
 
         List<WayNodeModelConf> wayNodeModelsList = new ArrayList<WayNodeModelConf>();
 
@@ -136,8 +148,7 @@ public class ModelsLibraryLayer implements Layer, ModelsLibraryDataChangeEvent {
         }
     }
 
-    @Override
-    public Match getNodeMatcher() {
+    private static Match createNodeMatcher(List<NodeModelConf> nodeModelsList) {
         List<Match> matchersList = new ArrayList<SearchCompiler.Match>();
         for (NodeModelConf nodeModel : nodeModelsList) {
 
@@ -147,9 +158,14 @@ public class ModelsLibraryLayer implements Layer, ModelsLibraryDataChangeEvent {
         return new OrList(matchersList);
     }
 
+    @Override
+    public Match getNodeMatcher() {
+        return nodeMatcher;
+    }
+
     @Override
     public Match getWayMatcher() {
-        return new SearchCompiler.Always();
+        return WAY_MATCHER;
     }
 
     @Override
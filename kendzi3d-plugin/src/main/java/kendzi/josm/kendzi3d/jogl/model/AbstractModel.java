@@ -13,6 +13,9 @@ import java.util.Set;
 import javax.vecmath.Point2d;
 import javax.vecmath.Point3d;
 
+import kendzi.jogl.model.factory.BoundsFactory;
+import kendzi.jogl.model.geometry.Bounds;
+import kendzi.jogl.model.render.InstanceBuffer;
 import kendzi.josm.kendzi3d.data.RebuildableWorldObject;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportModel;
 import kendzi.josm.kendzi3d.jogl.model.frame.GlobalFrame;
@@ -22,6 +25,7 @@ import kendzi.kendzi3d.editor.selection.Selectable;
 import kendzi.kendzi3d.editor.selection.Selection;
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
 import kendzi.kendzi3d.world.AbstractWorldObject;
+import kendzi.kendzi3d.world.BoundedWorldObject;
 
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
@@ -35,7 +39,7 @@ import org.openstreetmap.josm.data.preferences.BooleanProperty;
  *
  */
 public abstract class AbstractModel extends AbstractWorldObject implements Selectable, DrawableModel, ModelFrame, GlobalFrame,
-OsmPrimitiveRender, ExportModel, RebuildableWorldObject {
+OsmPrimitiveRender, ExportModel, RebuildableWorldObject, BoundedWorldObject {
 
     protected static final BooleanProperty PREFER_TWO_SIDED =
             new BooleanProperty("kendzi3d.models.preferTwoSidedLightingOverFaceCulling", true);
@@ -46,6 +50,11 @@ OsmPrimitiveRender, ExportModel, RebuildableWorldObject {
 
     protected boolean buildModel;
 
+    /**
+     * Bounds of built model in world coordinates, null when model is not built.
+     */
+    protected volatile Bounds modelBounds;
+
     /**
      * If error occurred.
      */
@@ -230,4 +239,99 @@ OsmPrimitiveRender, ExportModel, RebuildableWorldObject {
         return Collections.<Selection> emptyList();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Bounds are calculated from built model, null when model is not built.
+     */
+    @Override
+    public Bounds getBounds() {
+        return modelBounds;
+    }
+
+    /**
+     * Calculates bounds of model drawn moved by translation.
+     *
+     * @param bounds
+     *            bounds of model
+     * @param x
+     *            translation x
+     * @param y
+     *            translation y
+     * @param z
+     *            translation z
+     * @return translated bounds or null if model bounds are unknown
+     */
+    protected static Bounds translateBounds(Bounds bounds, double x, double y, double z) {
+        if (!isBounded(bounds)) {
+            return null;
+        }
+        BoundsFactory bf = new BoundsFactory();
+        bf.addPoint(bounds.min.x + x, bounds.min.y + y, bounds.min.z + z);
+        bf.addPoint(bounds.max.x + x, bounds.max.y + y, bounds.max.z + z);
+        return bf.toBounds();
+    }
+
+    /**
+     * Calculates bounds of all instances of model. Corners of model bounds are
+     * transformed by each instance matrix.
+     *
+     * @param bounds
+     *            bounds of model
+     * @param instances
+     *            instances of model
+     * @return bounds of instances or null if model bounds are unknown or there
+     *         are no instances
+     */
+    protected static Bounds instanceBounds(Bounds bounds, InstanceBuffer instances) {
+        if (!isBounded(bounds) || instances == null || instances.size() == 0) {
+            return null;
+        }
+        double[] m = instances.getMatrices();
+
+        BoundsFactory bf = new BoundsFactory();
+        for (int i = 0; i < instances.size(); i++) {
+            int o = InstanceBuffer.offset(i);
+            for (int corner = 0; corner < 8; corner++) {
+                double x = (corner & 1) == 0 ? bounds.min.x : bounds.max.x;
+                double y = (corner & 2) == 0 ? bounds.min.y : bounds.max.y;
+                double z = (corner & 4) == 0 ? bounds.min.z : bounds.max.z;
+
+                bf.addPoint( //
+                        m[o] * x + m[o + 4] * y + m[o + 8] * z + m[o + 12], //
+                        m[o + 1] * x + m[o + 5] * y + m[o + 9] * z + m[o + 13], //
+                        m[o + 2] * x + m[o + 6] * y + m[o + 10] * z + m[o + 14]);
+            }
+        }
+        return bf.toBounds();
+    }
+
+    /**
+     * Calculates bounds containing both bounds.
+     *
+     * @param a
+     *            bounds, can be null
+     * @param b
+     *            bounds, can be null
+     * @return bounds containing both bounds or null if both are null
+     */
+    protected static Bounds union(Bounds a, Bounds b) {
+        if (!isBounded(a)) {
+            return isBounded(b) ? b : null;
+        }
+        if (!isBounded(b)) {
+            return a;
+        }
+        BoundsFactory bf = new BoundsFactory();
+        bf.addPoint(a.min);
+        bf.addPoint(a.max);
+        bf.addPoint(b.min);
+        bf.addPoint(b.max);
+        return bf.toBounds();
+    }
+
+    private static boolean isBounded(Bounds bounds) {
+        return bounds != null && bounds.min != null && bounds.max != null;
+    }
+
 }
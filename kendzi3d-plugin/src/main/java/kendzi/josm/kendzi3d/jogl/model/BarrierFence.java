@@ -139,6 +139,8 @@ public class BarrierFence extends AbstractWayModel {
         buildModel = true;
 
         heightClone = RelationCloneHeight.buildHeightClone(way);
+
+        modelBounds = BarrierFenceRelation.cloneBounds(model, getGlobalX(), getGlobalY(), heightClone);
     }
 
     @Override
@@ -32,6 +32,7 @@ import kendzi.jogl.model.factory.FaceFactory.FaceType;
 import kendzi.jogl.model.factory.MaterialFactory;
 import kendzi.jogl.model.factory.MeshFactory;
 import kendzi.jogl.model.factory.ModelFactory;
+import kendzi.jogl.model.geometry.Bounds;
 import kendzi.jogl.model.geometry.Model;
 import kendzi.jogl.model.geometry.TextCoord;
 import kendzi.jogl.model.geometry.material.Material;
@@ -45,6 +46,7 @@ import kendzi.josm.kendzi3d.jogl.model.tmp.AbstractRelationModel;
 import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.josm.kendzi3d.util.ModelUtil;
 import kendzi.kendzi3d.josm.model.attribute.OsmAttributeKeys;
+import kendzi.kendzi3d.josm.model.clone.RelationCloneHeight;
 import kendzi.kendzi3d.josm.model.perspective.Perspective;
 import kendzi.util.StringUtil;
 
@@ -197,9 +199,36 @@ public class BarrierFenceRelation extends AbstractRelationModel {
         model.setUseCullFaces(!PREFER_TWO_SIDED.get());
         model.setUseTwoSidedLighting(PREFER_TWO_SIDED.get());
 
+        modelBounds = translateBounds(model.getBounds(), getGlobalX(), 0, -getGlobalY());
+
         buildModel = true;
     }
 
+    /**
+     * Calculates bounds of fence model drawn at its position and moved up for
+     * each height clone.
+     *
+     * @param model
+     *            fence model
+     * @param x
+     *            global x
+     * @param y
+     *            global y
+     * @param heightClone
+     *            height clones
+     * @return bounds of fence with clones
+     */
+    static Bounds cloneBounds(Model model, double x, double y, List<RelationCloneHeight> heightClone) {
+        Bounds bounds = translateBounds(model.getBounds(), x, 0, -y);
+        Bounds ret = bounds;
+        for (RelationCloneHeight cloner : heightClone) {
+            for (Double height : cloner) {
+                ret = union(ret, translateBounds(bounds, 0, height, 0));
+            }
+        }
+        return ret;
+    }
+
     /**
      * @param tex0Key
      * @param textColor
@@ -149,6 +149,8 @@ public class BarrierWall extends AbstractWayModel {
         buildModel = true;
 
         heightClone = RelationCloneHeight.buildHeightClone(way);
+
+        modelBounds = BarrierFenceRelation.cloneBounds(model, getGlobalX(), getGlobalY(), heightClone);
     }
 
     private Color takeWallColor(Way way) {
@@ -28,6 +28,7 @@ import kendzi.jogl.model.geometry.Model;
 import kendzi.jogl.model.geometry.material.AmbientDiffuseComponent;
 import kendzi.jogl.model.geometry.material.Material;
 import kendzi.jogl.model.loader.ModelLoadException;
+import kendzi.jogl.model.render.InstanceBuffer;
 import kendzi.jogl.model.render.ModelRender;
 import kendzi.jogl.util.DrawUtil;
 import kendzi.josm.kendzi3d.jogl.compas.CompassDrawer;
@@ -93,6 +94,11 @@ public class PointModel extends AbstractPointModel implements DLODSuport {
 
     private double rotateY;
 
+    /**
+     * Transformation of model instance.
+     */
+    private final InstanceBuffer instance = new InstanceBuffer(1);
+
     /**
      * Constructor.
      *
@@ -122,6 +128,13 @@ public class PointModel extends AbstractPointModel implements DLODSuport {
 
         buildModel(LOD.LOD1);
 
+        Model model = modelLod.get(LOD.LOD1);
+        if (model != null) {
+            InstanceBuffer instances = new InstanceBuffer(1);
+            addInstance(instances);
+            modelBounds = instanceBounds(model.getBounds(), instances);
+        }
+
         buildModel = true;
     }
 
@@ -222,24 +235,29 @@ public class PointModel extends AbstractPointModel implements DLODSuport {
         //
         Model model2 = modelLod.get(pLod);
         if (model2 != null) {
-            gl.glPushMatrix();
-            gl.glTranslated(getGlobalX(), 0, -getGlobalY());
-            drawDebug(gl, translate, 0);
-
-            gl.glTranslated(translate.x, translate.y, translate.z);
-
-            gl.glEnable(GLLightingFunc.GL_NORMALIZE); // XXX
-            gl.glScaled(scale.x, scale.y, scale.z);
-            gl.glRotated(rotateY, 0d, 1d, 0d);
-
-            modelRenderer.render(gl, model2);
+            if (debug) {
+                gl.glPushMatrix();
+                gl.glTranslated(getGlobalX(), 0, -getGlobalY());
+                drawDebug(gl, translate, 0);
+                gl.glPopMatrix();
+            }
 
-            gl.glDisable(GLLightingFunc.GL_NORMALIZE);
+            /*
+             * Model is drawn as instance so the same library models from all
+             * points can be drawn together.
+             */
+            instance.clear();
+            addInstance(instance);
 
-            gl.glPopMatrix();
+            modelRenderer.renderInstances(gl, model2, instance);
         }
     }
 
+    private void addInstance(InstanceBuffer instances) {
+        instances.add(getGlobalX() + translate.x, translate.y, -getGlobalY() + translate.z, scale.x, scale.y, scale.z,
+                rotateY);
+    }
+
     public static void drawDebug(GL2 gl, Vector3d translate, double direction) {
 
         if (!debug) {
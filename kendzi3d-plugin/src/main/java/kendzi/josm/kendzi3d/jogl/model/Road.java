@@ -27,6 +27,8 @@ import kendzi.jogl.model.geometry.material.Material;
 import kendzi.jogl.model.render.ModelRender;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportItem;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportModelConf;
+import kendzi.josm.kendzi3d.jogl.model.lod.LOD;
+import kendzi.josm.kendzi3d.jogl.model.lod.LodSelector;
 import kendzi.josm.kendzi3d.jogl.model.tmp.AbstractWayModel;
 import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.josm.kendzi3d.util.ModelUtil;
@@ -90,6 +92,32 @@ public class Road extends AbstractWayModel {
      */
     private Model model;
 
+    /**
+     * Simplified model of road, flat ribbon without borders. Created together
+     * with full model when level of detail is used, null otherwise.
+     */
+    private volatile Model ribbonModel;
+
+    /**
+     * Texture of road.
+     */
+    private TextureData texture;
+
+    /**
+     * Center of road bounds.
+     */
+    private Point3d center = new Point3d();
+
+    /**
+     * Radius of road bounds.
+     */
+    private double boundsRadius;
+
+    /**
+     * Selector of level of detail, can be null.
+     */
+    private LodSelector lodSelector;
+
     /**
      * Represent road.
      *
@@ -128,7 +156,10 @@ public class Road extends AbstractWayModel {
 
         roadWidth = getRoadWidth();
 
+        calculateBounds(list, roadWidth);
+
         TextureData texture = getTexture();
+        this.texture = texture;
 
         Material m = MaterialFactory.createTextureMaterial(texture.getFile());
 
@@ -248,9 +279,119 @@ public class Road extends AbstractWayModel {
         model.setUseLight(true);
         model.setUseTexture(true);
 
+        // built here, not while drawing
+        ribbonModel = lodSelector != null ? buildRibbonModel() : null;
+
+        // road is built in world coordinates
+        modelBounds = model.getBounds();
+
         buildModel = true;
     }
 
+    /**
+     * Builds simplified model of road. Road is a single flat quad strip with
+     * the same texture as full model, without border and middle line
+     * geometry.
+     *
+     * @return simplified model
+     */
+    private Model buildRibbonModel() {
+
+        Material m = MaterialFactory.createTextureMaterial(texture.getFile());
+
+        ModelFactory modelBuilder = ModelFactory.modelBuilder();
+
+        int mi = modelBuilder.addMaterial(m);
+
+        MeshFactory meshRoad = modelBuilder.addMesh("road_ribbon");
+
+        meshRoad.materialID = mi;
+        meshRoad.hasTexture = true;
+
+        List<Point2d> list = this.list;
+        if (list.size() > 1) {
+
+            FaceFactory ribbon = meshRoad.addFace(FaceType.QUAD_STRIP);
+
+            int flatNormalI = meshRoad.addNormal(new Vector3d(0, 1, 0));
+
+            double u = 0;
+            Point2d beginPoint = list.get(0);
+            for (int i = 1; i < list.size(); i++) {
+                Point2d endPoint = list.get(i);
+
+                double x = endPoint.x - beginPoint.x;
+                double y = endPoint.y - beginPoint.y;
+                double mod = Math.sqrt(x * x + y * y);
+                if (mod == 0) {
+                    continue;
+                }
+
+                // vector for half of road width, orthogonal to road segment
+                double normX = roadWidth / 2 * y / mod;
+                double normY = roadWidth / 2 * -x / mod;
+
+                double uEnd = u + mod / texture.getLenght();
+
+                int tcb1 = meshRoad.addTextCoord(new TextCoord(u, 0.5d));
+                int tcb2 = meshRoad.addTextCoord(new TextCoord(u, 0.5d));
+                int tce1 = meshRoad.addTextCoord(new TextCoord(uEnd, 0.5d));
+                int tce2 = meshRoad.addTextCoord(new TextCoord(uEnd, 0.5d));
+
+                int wbi1 = meshRoad.addVertex(new Point3d(beginPoint.x + normX, 0.1d, -(beginPoint.y + normY)));
+                int wbi2 = meshRoad.addVertex(new Point3d(beginPoint.x - normX, 0.1d, -(beginPoint.y - normY)));
+                int wei1 = meshRoad.addVertex(new Point3d(endPoint.x + normX, 0.1d, -(endPoint.y + normY)));
+                int wei2 = meshRoad.addVertex(new Point3d(endPoint.x - normX, 0.1d, -(endPoint.y - normY)));
+
+                ribbon.addVert(wbi1, tcb1, flatNormalI);
+                ribbon.addVert(wbi2, tcb2, flatNormalI);
+                ribbon.addVert(wei1, tce1, flatNormalI);
+                ribbon.addVert(wei2, tce2, flatNormalI);
+
+                u = uEnd;
+                beginPoint = endPoint;
+            }
+        }
+
+        Model model = modelBuilder.toModel();
+        model.setUseLight(true);
+        model.setUseTexture(true);
+        return model;
+    }
+
+    /**
+     * Calculates bounding sphere of road.
+     *
+     * @param points
+     *            road points
+     * @param width
+     *            road width
+     */
+    private void calculateBounds(List<Point2d> points, double width) {
+        if (points.isEmpty()) {
+            center = new Point3d();
+            boundsRadius = 0;
+            return;
+        }
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Point2d p : points) {
+            minX = Math.min(minX, p.x);
+            minY = Math.min(minY, p.y);
+            maxX = Math.max(maxX, p.x);
+            maxY = Math.max(maxY, p.y);
+        }
+
+        double dx = maxX - minX;
+        double dy = maxY - minY;
+
+        center = new Point3d((minX + maxX) / 2d, 0, -(minY + maxY) / 2d);
+        boundsRadius = Math.sqrt(dx * dx + dy * dy) / 2d + width / 2d;
+    }
+
     /**
      * Finds texture data.
      *
@@ -384,11 +525,29 @@ public class Road extends AbstractWayModel {
 
     @Override
     public void draw(GL2 pGl, Camera pCamera) {
+        // volatile ribbon model is read first, it is written after full model
+        Model ribbonModel = this.ribbonModel;
+        Model model = this.model;
+        if (model != null && ribbonModel != null && lodSelector != null) {
+            LOD lod = lodSelector.select(center, boundsRadius, pCamera.getPoint());
+            if (lod.compareTo(LOD.LOD3) >= 0) {
+                model = ribbonModel;
+            }
+        }
+
         // FIXME object is not in local coordinates!
-        modelRender.render(pGl, model);
+        modelRender.render(pGl, model, null);
 
     }
 
+    /**
+     * @param lodSelector
+     *            selector of level of detail
+     */
+    public void setLodSelector(LodSelector lodSelector) {
+        this.lodSelector = lodSelector;
+    }
+
     @Override
     public List<ExportItem> export(ExportModelConf conf) {
         if (model == null) {
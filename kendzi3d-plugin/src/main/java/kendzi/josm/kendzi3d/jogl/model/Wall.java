@@ -10,9 +10,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
-import com.jogamp.opengl.GL2ES1;
 import javax.vecmath.Point2d;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector2d;
@@ -210,6 +208,11 @@ public class Wall extends AbstractWayModel {
         model = modelBuilder.toModel();
         model.setUseLight(true);
         model.setUseTexture(true);
+        // do not draw the transparent parts of the texture
+        model.setUseTextureAlpha(true);
+        model.setUseCullFaces(true);
+
+        modelBounds = translateBounds(model.getBounds(), getGlobalX(), 0, -getGlobalY());
 
         buildModel = true;
     }
@@ -641,53 +644,7 @@ public class Wall extends AbstractWayModel {
 
     @Override
     public void draw(GL2 pGl, Camera pCamera) {
-        // if (true) {
-        // return;
-        // }
-
-        // do not draw the transparent parts of the texture
-        pGl.glEnable(GL.GL_BLEND);
-        pGl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
-        // don't show source alpha parts in the destination
-
-        // determine which areas of the polygon are to be rendered
-        pGl.glEnable(GL2ES1.GL_ALPHA_TEST);
-        pGl.glAlphaFunc(GL.GL_GREATER, 0); // only render if alpha > 0
-
-        // replace the quad colors with the texture
-        // gl.glTexEnvi(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE,
-        // GL2.GL_REPLACE);
-        pGl.glTexEnvi(GL2ES1.GL_TEXTURE_ENV, GL2ES1.GL_TEXTURE_ENV_MODE, GL2ES1.GL_MODULATE);
-
-        pGl.glEnable(GL.GL_CULL_FACE);
-
-        pGl.glPushMatrix();
-        pGl.glTranslated(getGlobalX(), 0, -getGlobalY());
-
-        // pGl.glColor3f((float) 188 / 255, (float) 169 / 255, (float) 169 /
-        // 255);
-
-        try {
-            modelRender.render(pGl, model);
-
-            // for (RelationCloneHeight cloner : this.heightClone) {
-            // for (Double height : cloner) {
-            //
-            // pGl.glPushMatrix();
-            // pGl.glTranslated(0, height, 0);
-            //
-            // this.modelRender.render(pGl, this.model);
-            // pGl.glPopMatrix();
-            //
-            // }
-            // }
-
-        } finally {
-
-            pGl.glPopMatrix();
-
-            pGl.glDisable(GL.GL_CULL_FACE);
-        }
+        modelRender.render(pGl, model, new Point3d(getGlobalX(), 0, -getGlobalY()));
     }
 
     @Override
@@ -7,6 +7,7 @@
 package kendzi.josm.kendzi3d.jogl.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -33,9 +34,11 @@ import kendzi.kendzi3d.josm.model.perspective.Perspective;
 import kendzi.kendzi3d.josm.model.polygon.PolygonWithHolesUtil;
 import kendzi.math.geometry.Plane3d;
 import kendzi.math.geometry.Triangle2d;
+import kendzi.math.geometry.line.LineSegment2d;
 import kendzi.math.geometry.polygon.PolygonList2d;
 import kendzi.math.geometry.polygon.PolygonWithHolesList2d;
-import kendzi.math.geometry.triangulate.Poly2TriSimpleUtil;
+import kendzi.math.geometry.triangulate.Poly2TriUtil;
+import kendzi.math.geometry.triangulate.Poly2TriUtil.InteriorFilter;
 
 import org.apache.log4j.Logger;
 import org.openstreetmap.josm.data.osm.Node;
@@ -157,7 +160,13 @@ public class Water extends AbstractModel {
 
         for (PolygonWithHolesList2d poly : polyList) {
 
-            List<Triangle2d> triangles = Poly2TriSimpleUtil.triangulate(poly);
+            Collection<PolygonList2d> holes = poly.getInner() != null ? poly.getInner()
+                    : Collections.<PolygonList2d> emptyList();
+
+            // lakes can have many islands, flood fill don't test each
+            // triangle against every island
+            List<Triangle2d> triangles = Poly2TriUtil.triangulate(poly.getOuter(), holes,
+                    Collections.<LineSegment2d> emptyList(), Collections.<Point2d> emptyList(), InteriorFilter.FLOOD_FILL);
 
             Plane3d planeTop = new Plane3d(planeRightTopPoint, nt);
 
@@ -170,6 +179,8 @@ public class Water extends AbstractModel {
         this.model.setUseLight(true);
         this.model.setUseTexture(true);
 
+        modelBounds = translateBounds(this.model.getBounds(), getGlobalX(), 0, -getGlobalY());
+
         buildModel = true;
     }
 
@@ -181,15 +192,7 @@ public class Water extends AbstractModel {
     @Override
     public void draw(GL2 pGl, Camera camera) {
 
-        pGl.glPushMatrix();
-        pGl.glTranslated(getGlobalX(), 0, -getGlobalY());
-
-        try {
-            modelRender.render(pGl, model);
-
-        } finally {
-            pGl.glPopMatrix();
-        }
+        modelRender.render(pGl, model, new Point3d(getGlobalX(), 0, -getGlobalY()));
     }
 
     @Override
@@ -11,6 +11,7 @@ import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 
+import javax.vecmath.Matrix4d;
 import javax.vecmath.Point2d;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector2d;
@@ -21,13 +22,13 @@ import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.Way;
 
 import com.jogamp.opengl.GL2;
-import com.jogamp.opengl.fixedfunc.GLLightingFunc;
 
 import kendzi.jogl.camera.Camera;
 import kendzi.jogl.model.geometry.Model;
 import kendzi.jogl.model.geometry.material.AmbientDiffuseComponent;
 import kendzi.jogl.model.geometry.material.Material;
 import kendzi.jogl.model.loader.ModelLoadException;
+import kendzi.jogl.model.render.InstanceBuffer;
 import kendzi.jogl.model.render.ModelRender;
 import kendzi.josm.kendzi3d.jogl.layer.models.WayNodeModelConf;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportItem;
@@ -90,6 +91,18 @@ public class WayNodeModel extends AbstractWayModel implements DLODSuport {
 
     private List<ModelPoint> modelPoints;
 
+    /**
+     * Instances of model for model points.
+     */
+    private InstanceBuffer instances;
+
+    /**
+     * Values used to calculate instances.
+     */
+    private List<ModelPoint> instancesPoints;
+    private Vector3d instancesScale;
+    private Vector3d instancesTranslate;
+
     private final List<Integer> nodeFilter;
 
     /**
@@ -129,6 +142,11 @@ public class WayNodeModel extends AbstractWayModel implements DLODSuport {
 
         buildModel(LOD.LOD1);
 
+        Model model = modelLod.get(LOD.LOD1);
+        if (model != null) {
+            modelBounds = instanceBounds(model.getBounds(), createInstances(modelPoints));
+        }
+
         buildModel = true;
     }
 
@@ -377,42 +395,92 @@ public class WayNodeModel extends AbstractWayModel implements DLODSuport {
     public void draw(GL2 gl, Camera camera, LOD pLod) {
         Model model2 = modelLod.get(pLod);
         if (model2 != null) {
-            gl.glPushMatrix();
-            // gl.glTranslated(this.getGlobalX(), 0, -this.getGlobalY());
-            gl.glEnable(GLLightingFunc.GL_NORMALIZE); // XXX
 
-            for (ModelPoint modelPoint : modelPoints) {
+            if (PointModel.debug) {
+                for (ModelPoint modelPoint : modelPoints) {
+                    gl.glPushMatrix();
+                    gl.glTranslated(modelPoint.getPoint().x, modelPoint.getPoint().y, modelPoint.getPoint().z);
+                    gl.glMultMatrixd(offsetRotation(modelPoint), 0);
 
-                gl.glPushMatrix();
+                    PointModel.drawDebug(gl, translate, modelPoint.getDirection());
 
-                gl.glTranslated(modelPoint.getPoint().x, modelPoint.getPoint().y, modelPoint.getPoint().z);
-                // double cos = modelPoint.getOffsetVector().x;
-                // double sin = -modelPoint.getOffsetVector().y;
+                    gl.glPopMatrix();
+                }
+            }
 
-                double cos = -modelPoint.getOffsetVector().y;
-                double sin = -modelPoint.getOffsetVector().x;
+            modelRenderer.renderInstances(gl, model2, getInstances());
+        }
+    }
 
-                gl.glMultMatrixd( //
-                        new double[] { cos, 0, sin, 0, //
-                                0, 1, 0, 0, //
-                                -sin, 0, cos, 0, //
-                                0, 0, 0, 1 }, 0);
+    private static double[] offsetRotation(ModelPoint modelPoint) {
+        // double cos = modelPoint.getOffsetVector().x;
+        // double sin = -modelPoint.getOffsetVector().y;
 
-                PointModel.drawDebug(gl, translate, modelPoint.getDirection());
+        double cos = -modelPoint.getOffsetVector().y;
+        double sin = -modelPoint.getOffsetVector().x;
 
-                gl.glTranslated(translate.x, translate.y, translate.z);
+        return new double[] { cos, 0, sin, 0, //
+                0, 1, 0, 0, //
+                -sin, 0, cos, 0, //
+                0, 0, 0, 1 };
+    }
 
-                gl.glScaled(scale.x, scale.y, scale.z);
-                gl.glRotated(modelPoint.getDirection(), 0d, 1d, 0d);
+    /**
+     * Instances of model for each model point. Instances are calculated again
+     * when points, scale or translation are rebuild.
+     *
+     * @return instances
+     */
+    private InstanceBuffer getInstances() {
+        List<ModelPoint> points = modelPoints;
 
-                modelRenderer.render(gl, model2);
-                gl.glPopMatrix();
-            }
+        if (instances == null || instancesPoints != points || instancesScale != scale
+                || instancesTranslate != translate) {
 
-            gl.glDisable(GLLightingFunc.GL_NORMALIZE);
+            instances = createInstances(points);
+            instancesPoints = points;
+            instancesScale = scale;
+            instancesTranslate = translate;
+        }
+        return instances;
+    }
 
-            gl.glPopMatrix();
+    private InstanceBuffer createInstances(List<ModelPoint> points) {
+        InstanceBuffer buffer = new InstanceBuffer(points.size());
+        for (ModelPoint modelPoint : points) {
+            buffer.add(instanceMatrix(modelPoint));
         }
+        return buffer;
+    }
+
+    private Matrix4d instanceMatrix(ModelPoint modelPoint) {
+        Point3d point = modelPoint.getPoint();
+        double[] r = offsetRotation(modelPoint);
+
+        // translation to point and rotation by offset vector
+        Matrix4d m = new Matrix4d( //
+                r[0], r[4], r[8], point.x, //
+                r[1], r[5], r[9], point.y, //
+                r[2], r[6], r[10], point.z, //
+                0, 0, 0, 1);
+
+        Matrix4d t = new Matrix4d();
+        t.setIdentity();
+        t.setTranslation(translate);
+        m.mul(t);
+
+        Matrix4d s = new Matrix4d();
+        s.setIdentity();
+        s.m00 = scale.x;
+        s.m11 = scale.y;
+        s.m22 = scale.z;
+        m.mul(s);
+
+        Matrix4d rotation = new Matrix4d();
+        rotation.rotY(Math.toRadians(modelPoint.getDirection()));
+        m.mul(rotation);
+
+        return m;
     }
 
     @Override
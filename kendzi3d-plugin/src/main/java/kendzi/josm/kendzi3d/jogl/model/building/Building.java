@@ -11,13 +11,17 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 import javax.vecmath.Point2d;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector3d;
 
 import org.apache.log4j.Logger;
+import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.PrimitiveId;
@@ -31,6 +35,8 @@ import kendzi.jogl.model.factory.BoundsFactory;
 import kendzi.jogl.model.geometry.Bounds;
 import kendzi.jogl.model.geometry.Model;
 import kendzi.jogl.model.render.ModelRender;
+import kendzi.jogl.model.util.TextureAtlasUtil;
+import kendzi.jogl.texture.atlas.TextureAtlas;
 import kendzi.jogl.texture.library.BuildingElementsTextureManager;
 import kendzi.jogl.texture.library.TextureLibraryStorageService;
 import kendzi.jogl.util.ColorUtil;
@@ -42,8 +48,14 @@ import kendzi.josm.kendzi3d.jogl.model.building.editor.PartValueEditor;
 import kendzi.josm.kendzi3d.jogl.model.building.parser.BuildingParser;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportItem;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportModelConf;
+import kendzi.josm.kendzi3d.jogl.model.lod.DLODSuport;
+import kendzi.josm.kendzi3d.jogl.model.lod.LOD;
+import kendzi.josm.kendzi3d.jogl.model.lod.LodBuilder;
+import kendzi.josm.kendzi3d.jogl.model.lod.LodSelector;
+import kendzi.josm.kendzi3d.service.BuildingCacheService;
 import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.kendzi3d.buildings.builder.BuildingBuilder;
+import kendzi.kendzi3d.buildings.builder.BuildingDetail;
 import kendzi.kendzi3d.buildings.model.BuildingModel;
 import kendzi.kendzi3d.buildings.model.BuildingPart;
 import kendzi.kendzi3d.buildings.model.WallNode;
@@ -67,7 +79,8 @@ import kendzi.math.geometry.line.LineSegment3d;
  *
  * @author Tomasz Kedziora (Kendzi)
  */
-public class Building extends AbstractModel implements RebuildableWorldObject, WorldObjectDebugDrawable, OsmPrimitiveWorldObject {
+public class Building extends AbstractModel implements RebuildableWorldObject, WorldObjectDebugDrawable, OsmPrimitiveWorldObject,
+        DLODSuport {
 
     /** Log. */
     private static final Logger log = Logger.getLogger(Building.class);
@@ -82,11 +95,56 @@ public class Building extends AbstractModel implements RebuildableWorldObject, W
      */
     private final TextureLibraryStorageService textureLibraryStorageService;
 
+    /**
+     * Atlas for small not repeated textures, can be null.
+     */
+    private TextureAtlas textureAtlas;
+
+    /**
+     * Selector of level of detail, can be null.
+     */
+    private LodSelector lodSelector;
+
+    /**
+     * Builder of lower levels of detail, can be null.
+     */
+    private LodBuilder lodBuilder;
+
+    /**
+     * Cache of building geometry, can be null.
+     */
+    private BuildingCacheService buildingCacheService;
+
+    /**
+     * Key of building geometry in cache, null when geometry can't be cached.
+     */
+    private String geometryKey;
+
+    /**
+     * Origin of building geometry in cache, geometry on disk is relative to
+     * it.
+     */
+    private Point3d geometryOrigin;
+
     /**
      * Model of building.
      */
     private Model model;
 
+    /**
+     * Models for each level of detail, map can't be modified. Full model is
+     * created on thread building world objects, lower levels are created on
+     * first request by {@link LodBuilder}. Map is published by replacing it
+     * under lock of building, so drawing thread never builds models.
+     */
+    private volatile Map<LOD, Model> modelLod = Collections.emptyMap();
+
+    /**
+     * If lower levels of detail can be requested, preview is always drawn with
+     * full details.
+     */
+    private volatile boolean lodEnabled;
+
     private OsmPrimitive primitive;
 
     private List<Selection> selection = Collections.<Selection> emptyList();
@@ -95,6 +153,10 @@ public class Building extends AbstractModel implements RebuildableWorldObject, W
 
     protected boolean preview;
 
+    /**
+     * Parsed building, null until building is parsed after change of
+     * primitive. It is parsed under lock of building.
+     */
     private BuildingModel bm;
 
     private BuildingDebugData debug;
@@ -139,35 +201,242 @@ public class Building extends AbstractModel implements RebuildableWorldObject, W
     @Override
     public void buildWorldObject() {
 
-        BuildingModel bm = this.bm;
+        boolean isPreview = preview && bm != null;
+        preview = false;
 
-        if (!preview || bm == null) {
+        if (!isPreview) {
+            BuildingCacheService cache = buildingCacheService;
+            geometryOrigin = cache != null ? cache.origin(primitive, perspective) : null;
+            geometryKey = geometryOrigin != null ? cache.key(primitive, perspective) : null;
 
-            bm = BuildingParser.parseBuilding(primitive, perspective);
+            synchronized (this) {
+                // primitive was changed, building is parsed again when needed
+                bm = null;
+            }
+        } else {
+            // preview model is changed by editor, it don't match any key
+            geometryKey = null;
+            geometryOrigin = null;
+        }
 
-            if (primitive instanceof Node || primitive instanceof Way) {
+        BuildingOutput buildModel = buildModel(BuildingDetail.FULL);
+        if (buildModel == null) {
+            return;
+        }
+        Model model = buildModel.getModel();
 
-                selection = parseSelection(primitive.getUniqueId(), bm);
+        if (primitive instanceof Node || primitive instanceof Way) {
+            BuildingModel bm = this.bm;
+            // without parsed building bounds of cached geometry are used
+            selection = createSelection(bm != null ? calcModelBounds(bm) : model.getBounds());
+        }
+
+        Map<LOD, Model> modelLod = new EnumMap<LOD, Model>(LOD.class);
+        modelLod.put(LOD.LOD1, model);
+
+        synchronized (this) {
+            // lower levels are built again on request
+            this.model = model;
+            this.modelLod = Collections.unmodifiableMap(modelLod);
+            this.lodEnabled = !isPreview;
+        }
+        this.buildModel = true;
+
+        debug = prepareDebugInformation(buildModel);
+    }
+
+    /**
+     * Builds model with given detail. Geometry is taken from cache when it is
+     * possible, building is parsed only when its geometry isn't cached.
+     *
+     * @param detail
+     *            detail of model
+     * @return model or null when building can't be parsed
+     */
+    private BuildingOutput buildModel(BuildingDetail detail) {
+
+        BuildingCacheService cache = buildingCacheService;
+        String key = geometryKey;
+        Point3d origin = geometryOrigin;
+
+        if (cache == null || key == null) {
+            BuildingModel bm = parseBuilding();
+            return bm == null ? null : prepareModel(buildModel(bm, detail, null, null, null));
+        }
+
+        BuildingOutput buildModel = cache.get(key, origin, detail);
+        if (buildModel != null) {
+            return buildModel;
+        }
+
+        Model model = cache.load(key, origin, detail);
+        if (model != null) {
+            buildModel = new BuildingOutput();
+            buildModel.setModel(model);
+        } else {
+            BuildingModel bm = parseBuilding();
+            if (bm == null) {
+                return null;
             }
+            buildModel = buildModel(bm, detail, cache, key, origin);
+        }
 
-            this.bm = bm;
+        prepareModel(buildModel);
+        cache.put(key, origin, detail, buildModel);
+        return buildModel;
+    }
+
+    /**
+     * Parses building if it wasn't parsed after last change of primitive.
+     * Building is parsed only when its geometry isn't cached or when editors
+     * of selection are needed. Data set lock is taken before lock of building,
+     * in the same order as by producer thread.
+     *
+     * @return model of building or null when it can't be parsed
+     */
+    private BuildingModel parseBuilding() {
+        DataSet dataSet = primitive.getDataSet();
+        if (dataSet == null) {
+            return parseBuildingLocked();
         }
-        preview = false;
 
-        if (bm != null) {
+        Lock readLock = dataSet.getReadLock();
+        readLock.lock();
+        try {
+            return parseBuildingLocked();
+        } finally {
+            readLock.unlock();
+        }
+    }
 
-            BuildingElementsTextureManager tm = new CacheOsmBuildingElementsTextureMenager(textureLibraryStorageService);
+    private synchronized BuildingModel parseBuildingLocked() {
+        if (bm == null) {
+            bm = BuildingParser.parseBuilding(primitive, perspective);
+
+            if (bm != null && (primitive instanceof Node || primitive instanceof Way)) {
+                editors = createEditors(bm);
+            }
+        }
+        return bm;
+    }
 
-            BuildingOutput buildModel = BuildingBuilder.buildModel(bm, tm);
-            Model model = buildModel.getModel();
-            model.useLight = true;
-            model.useTexture = true;
+    private BuildingOutput buildModel(BuildingModel bm, BuildingDetail detail, BuildingCacheService cache, String key,
+            Point3d origin) {
 
-            this.model = model;
-            this.buildModel = true;
+        BuildingElementsTextureManager tm = new CacheOsmBuildingElementsTextureMenager(textureLibraryStorageService);
+
+        BuildingOutput buildModel = BuildingBuilder.buildModel(bm, tm, detail);
+
+        if (cache != null) {
+            // stored before texture atlas is applied, atlas is different in each session
+            cache.store(key, origin, detail, buildModel.getModel());
+        }
+        return buildModel;
+    }
+
+    private BuildingOutput prepareModel(BuildingOutput buildModel) {
+        Model model = buildModel.getModel();
+        model.useLight = true;
+        model.useTexture = true;
+
+        if (textureAtlas != null) {
+            TextureAtlasUtil.applyAtlas(model, textureAtlas);
+        }
+        return buildModel;
+    }
+
+    @Override
+    public boolean isModelBuild(LOD lod) {
+        return modelLod.get(lod) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Called by {@link LodBuilder}, never by drawing thread. Level is dropped
+     * when building was rebuilt in meantime. When level can't be built full
+     * model is used for it, so it is not requested again.
+     */
+    @Override
+    public void buildModel(LOD lod) {
+        Map<LOD, Model> modelLod = this.modelLod;
+        Model full = modelLod.get(LOD.LOD1);
 
-            debug = prepareDebugInformation(buildModel);
+        if (full == null || modelLod.get(lod) != null) {
+            return;
+        }
+
+        BuildingDetail detail = detail(lod);
+        // the same detail can be used by many levels
+        Model lodModel = findModel(modelLod, detail);
+        if (lodModel == null) {
+            try {
+                BuildingOutput output = buildModel(detail);
+                lodModel = output != null ? output.getModel() : full;
+            } catch (Exception e) {
+                log.error("can't build level of detail " + lod + " for building: " + primitive, e);
+                lodModel = full;
+            }
+            if (textureAtlas != null) {
+                // building producer flushes atlas only after its pass
+                textureAtlas.flush();
+            }
+        }
+
+        synchronized (this) {
+            if (this.modelLod.get(LOD.LOD1) != full) {
+                // rebuilt in meantime
+                return;
+            }
+            Map<LOD, Model> newModelLod = new EnumMap<LOD, Model>(LOD.class);
+            newModelLod.putAll(this.modelLod);
+            newModelLod.put(lod, lodModel);
+            this.modelLod = Collections.unmodifiableMap(newModelLod);
+        }
+    }
+
+    private static Model findModel(Map<LOD, Model> modelLod, BuildingDetail detail) {
+        for (Map.Entry<LOD, Model> entry : modelLod.entrySet()) {
+            if (detail(entry.getKey()) == detail) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static BuildingDetail detail(LOD lod) {
+        switch (lod) {
+        case LOD1:
+            return BuildingDetail.FULL;
+        case LOD2:
+            return BuildingDetail.SIMPLE;
+        case LOD3:
+            return BuildingDetail.EXTRUDED;
+        default:
+            return BuildingDetail.BOX;
+        }
+    }
+
+    /**
+     * Selects level of detail using distance from camera and size of building
+     * on screen.
+     *
+     * @param camera
+     *            camera
+     * @return level of detail
+     */
+    private LOD selectLod(Camera camera) {
+        Model model = this.model;
+        if (lodSelector == null || model == null || model.getBounds() == null) {
+            return LOD.LOD1;
         }
+
+        Bounds modelBounds = model.getBounds();
+
+        Point3d center = new Point3d(modelBounds.getCenter());
+        center.add(getPosition());
+
+        return lodSelector.select(center, modelBounds.getRadius(), camera.getPoint());
     }
 
     private BuildingDebugData prepareDebugInformation(BuildingOutput buildModel) {
@@ -195,130 +464,136 @@ public class Building extends AbstractModel implements RebuildableWorldObject, W
         buildModel = false;
 
         buildWorldObject();
-    }
-
-    private List<Selection> parseSelection(long wayId, final BuildingModel bm) {
-
-        {
-            List<Editor> updatedEditors = new ArrayList<Editor>();
-            List<BuildingPart> parts = bm.getParts();
-            if (parts != null) {
-                for (final BuildingPart bp : parts) {
-
-                    PrimitiveId primitive = (PrimitiveId) bp.getContext();
-                    {
-                        /*
-                         * Check if given editor don't exist already, if so we
-                         * need to update it.
-                         */
-                        PartValueEditor editorHeight = findEditor(primitive, editors, "height");
-                        if (editorHeight == null) {
-                            // don't exist we create fresh one
-                            editorHeight = new PartValueEditor(primitive, "height") {
-                                @Override
-                                public void preview(double value) {
-                                    // sets height to current building part
-                                    getBuildingPart().setMaxHeight(value);
-
-                                    generatePreview();
-                                };
 
-                            };
-                            editorHeight.setOffset(0.1);
-                        }
-                        /*
-                         * We need to re-setup building part. It can change when
-                         * building is change after change made in JOSM dataset.
-                         * It is not important when preview is generated.
-                         */
-                        editorHeight.setBuildingPart(bp);
-
-                        Bbox2d bounds = calcBounds(bp);
-
-                        double minHeight = bp.getDefaultMinHeight();
-                        double maxHeight = bp.getDefaultMaxHeight();
-                        Point3d partCenter = new Point3d( //
-                                (bounds.getxMax() + bounds.getxMin()) / 2d, //
-                                minHeight, //
-                                -(bounds.getyMax() + bounds.getyMin()) / 2d);
-
-                        editorHeight.setEditorOrigin(partCenter);
+        if (textureAtlas != null) {
+            // preview is not built by producer, which flushes atlas
+            textureAtlas.flush();
+        }
+    }
 
-                        editorHeight.setLength(maxHeight);
+    private List<Editor> createEditors(final BuildingModel bm) {
 
-                        updatedEditors.add(editorHeight);
-                    }
+        List<Editor> updatedEditors = new ArrayList<Editor>();
+        List<BuildingPart> parts = bm.getParts();
+        if (parts != null) {
+            for (final BuildingPart bp : parts) {
 
+                PrimitiveId primitive = (PrimitiveId) bp.getContext();
+                {
                     /*
-                     * Check if given editor don't exist already, if so we need
-                     * to update it.
+                     * Check if given editor don't exist already, if so we
+                     * need to update it.
                      */
-                    PartValueEditor editorRoofHeight = findEditor(primitive, editors, "roof:height");
-                    if (editorRoofHeight == null) {
+                    PartValueEditor editorHeight = findEditor(primitive, editors, "height");
+                    if (editorHeight == null) {
                         // don't exist we create fresh one
-                        editorRoofHeight = new PartValueEditor(primitive, "roof:height") {
-                            boolean changeRoofShape = false;
-
+                        editorHeight = new PartValueEditor(primitive, "height") {
                             @Override
                             public void preview(double value) {
                                 // sets height to current building part
-                                getBuildingPart().getRoof().setRoofHeight(value);
-
-                                if (getBuildingPart().getRoof() instanceof DormerRoofModel) {
-                                    DormerRoofModel model = (DormerRoofModel) getBuildingPart().getRoof();
-                                    if (model.getRoofType() == null || RoofTypeAliasEnum.FLAT.equals(model.getRoofType())) {
-
-                                        changeRoofShape = true;
-                                        model.setRoofType(RoofTypeAliasEnum.GABLED);
-                                    }
-                                }
+                                getBuildingPart().setMaxHeight(value);
 
                                 generatePreview();
                             };
 
-                            @Override
-                            protected void updateTags(AbstractMap<String, String> tags) {
-                                if (changeRoofShape) {
-                                    tags.put("roof:shape", "gabled");
-                                }
-                            }
-
                         };
-                        editorRoofHeight.setEditorType(EditorType.BOX_SMALL);
-                        editorRoofHeight.setVector(new Vector3d(0, -1, 0));
+                        editorHeight.setOffset(0.1);
                     }
                     /*
-                     * We need to re-setupeditorRoofHeight building part. It can
-                     * change when building is change after change made in JOSM
-                     * dataset. It is not important when preview is generated.
+                     * We need to re-setup building part. It can change when
+                     * building is change after change made in JOSM dataset.
+                     * It is not important when preview is generated.
                      */
-                    editorRoofHeight.setBuildingPart(bp);
+                    editorHeight.setBuildingPart(bp);
+
+                    Bbox2d bounds = calcBounds(bp);
 
-                    final Bbox2d bounds = calcBounds(bp);
+                    double minHeight = bp.getDefaultMinHeight();
+                    double maxHeight = bp.getDefaultMaxHeight();
+                    Point3d partCenter = new Point3d( //
+                            (bounds.getxMax() + bounds.getxMin()) / 2d, //
+                            minHeight, //
+                            -(bounds.getyMax() + bounds.getyMin()) / 2d);
 
-                    double roofHeight = bp.getRoof().getRoofHeight();
+                    editorHeight.setEditorOrigin(partCenter);
 
-                    final CachePoint3dProvider roofHeightCenter = new CachePoint3dProvider() {
+                    editorHeight.setLength(maxHeight);
+
+                    updatedEditors.add(editorHeight);
+                }
+
+                /*
+                 * Check if given editor don't exist already, if so we need
+                 * to update it.
+                 */
+                PartValueEditor editorRoofHeight = findEditor(primitive, editors, "roof:height");
+                if (editorRoofHeight == null) {
+                    // don't exist we create fresh one
+                    editorRoofHeight = new PartValueEditor(primitive, "roof:height") {
+                        boolean changeRoofShape = false;
 
                         @Override
-                        public void beforeProvide(Point3d point) {
-                            point.x = (bounds.getxMax() + bounds.getxMin()) / 2d;
-                            point.y = bp.getDefaultMaxHeight();
-                            point.z = -(bounds.getyMax() + bounds.getyMin()) / 2d;
+                        public void preview(double value) {
+                            // sets height to current building part
+                            getBuildingPart().getRoof().setRoofHeight(value);
+
+                            if (getBuildingPart().getRoof() instanceof DormerRoofModel) {
+                                DormerRoofModel model = (DormerRoofModel) getBuildingPart().getRoof();
+                                if (model.getRoofType() == null || RoofTypeAliasEnum.FLAT.equals(model.getRoofType())) {
+
+                                    changeRoofShape = true;
+                                    model.setRoofType(RoofTypeAliasEnum.GABLED);
+                                }
+                            }
 
+                            generatePreview();
+                        };
+
+                        @Override
+                        protected void updateTags(AbstractMap<String, String> tags) {
+                            if (changeRoofShape) {
+                                tags.put("roof:shape", "gabled");
+                            }
                         }
+
                     };
+                    editorRoofHeight.setEditorType(EditorType.BOX_SMALL);
+                    editorRoofHeight.setVector(new Vector3d(0, -1, 0));
+                }
+                /*
+                 * We need to re-setupeditorRoofHeight building part. It can
+                 * change when building is change after change made in JOSM
+                 * dataset. It is not important when preview is generated.
+                 */
+                editorRoofHeight.setBuildingPart(bp);
 
-                    editorRoofHeight.setEditorOrigin(roofHeightCenter);
+                final Bbox2d bounds = calcBounds(bp);
 
-                    editorRoofHeight.setLength(roofHeight);
+                double roofHeight = bp.getRoof().getRoofHeight();
 
-                    updatedEditors.add(editorRoofHeight);
+                final CachePoint3dProvider roofHeightCenter = new CachePoint3dProvider() {
+
+                    @Override
+                    public void beforeProvide(Point3d point) {
+                        point.x = (bounds.getxMax() + bounds.getxMin()) / 2d;
+                        point.y = bp.getDefaultMaxHeight();
+                        point.z = -(bounds.getyMax() + bounds.getyMin()) / 2d;
+
+                    }
+                };
+
+                editorRoofHeight.setEditorOrigin(roofHeightCenter);
+
+                editorRoofHeight.setLength(roofHeight);
+
+                updatedEditors.add(editorRoofHeight);
 
-                }
             }
-            editors = updatedEditors;
         }
+        return updatedEditors;
+    }
+
+    private Bounds calcModelBounds(BuildingModel bm) {
 
         BoundsFactory bf = new BoundsFactory();
 
@@ -338,13 +613,18 @@ public class Building extends AbstractModel implements RebuildableWorldObject, W
             }
         }
 
-        final Bounds bounds = bf.toBounds();
+        return bf.toBounds();
+    }
+
+    private List<Selection> createSelection(final Bounds bounds) {
         this.bounds = bounds;
 
         return Arrays.asList((Selection) new ModelSelection(bounds.getCenter(), bounds.getRadius()) {
 
             @Override
             public List<Editor> getEditors() {
+                // building with cached geometry is parsed when it is edited
+                parseBuilding();
                 return editors;
             }
 
@@ -407,20 +687,63 @@ public class Building extends AbstractModel implements RebuildableWorldObject, W
 
     @Override
     public void draw(GL2 gl, Camera pCamera, boolean selected) {
-        // XXX move draw debug do new method
-        gl.glPushMatrix();
-
         Point3d position = getPosition();
 
-        gl.glTranslated(position.x, position.y, position.z);
-
-        modelRender.render(gl, model);
+        // selected building is always drawn with full details
+        draw(gl, pCamera, selected ? LOD.LOD1 : selectLod(pCamera));
 
+        // XXX move draw debug do new method
         if (debug != null && debug.getEdges() != null) {
+            gl.glPushMatrix();
+            gl.glTranslated(position.x, position.y, position.z);
+
             drawEdges(gl, debug.getEdges());
+
+            gl.glPopMatrix();
         }
+    }
 
-        gl.glPopMatrix();
+    /**
+     * {@inheritDoc}
+     *
+     * Models are never built while drawing. When model for given level is not
+     * ready it is requested from {@link LodBuilder} and the nearest available
+     * level is drawn until it is built, finer level is preferred.
+     */
+    @Override
+    public void draw(GL2 gl, Camera camera, LOD lod) {
+        Map<LOD, Model> modelLod = this.modelLod;
+
+        Model lodModel = modelLod.get(lod);
+        if (lodModel == null) {
+            if (lodBuilder != null && lodEnabled && !modelLod.isEmpty()) {
+                lodBuilder.request(this, lod);
+            }
+            lodModel = nearestModel(modelLod, lod);
+        }
+        if (lodModel == null) {
+            lodModel = model;
+        }
+        if (lodModel == null) {
+            return;
+        }
+
+        modelRender.render(gl, lodModel, getPosition());
+    }
+
+    private static Model nearestModel(Map<LOD, Model> modelLod, LOD lod) {
+        LOD[] lods = LOD.values();
+        for (int d = 1; d < lods.length; d++) {
+            int finer = lod.ordinal() - d;
+            if (finer >= 0 && modelLod.get(lods[finer]) != null) {
+                return modelLod.get(lods[finer]);
+            }
+            int coarser = lod.ordinal() + d;
+            if (coarser < lods.length && modelLod.get(lods[coarser]) != null) {
+                return modelLod.get(lods[coarser]);
+            }
+        }
+        return null;
     }
 
     private void drawEdges(GL2 gl, List<LineSegment3d> edges) {
@@ -460,6 +783,38 @@ public class Building extends AbstractModel implements RebuildableWorldObject, W
         return model;
     }
 
+    /**
+     * @param textureAtlas
+     *            atlas for small not repeated textures
+     */
+    public void setTextureAtlas(TextureAtlas textureAtlas) {
+        this.textureAtlas = textureAtlas;
+    }
+
+    /**
+     * @param lodSelector
+     *            selector of level of detail
+     */
+    public void setLodSelector(LodSelector lodSelector) {
+        this.lodSelector = lodSelector;
+    }
+
+    /**
+     * @param lodBuilder
+     *            builder of lower levels of detail
+     */
+    public void setLodBuilder(LodBuilder lodBuilder) {
+        this.lodBuilder = lodBuilder;
+    }
+
+    /**
+     * @param buildingCacheService
+     *            cache of building geometry
+     */
+    public void setBuildingCacheService(BuildingCacheService buildingCacheService) {
+        this.buildingCacheService = buildingCacheService;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -470,6 +825,16 @@ public class Building extends AbstractModel implements RebuildableWorldObject, W
         return selection;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Bounds are calculated together with selection.
+     */
+    @Override
+    public Bounds getBounds() {
+        return bounds;
+    }
+
     @Override
     public Point3d getPosition() {
         return getPoint();
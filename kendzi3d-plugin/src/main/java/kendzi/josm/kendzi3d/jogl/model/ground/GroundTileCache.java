@@ -0,0 +1,817 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.josm.kendzi3d.jogl.model.ground;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.log4j.Logger;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent.DatasetEventType;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListenerAdapter;
+import org.openstreetmap.josm.data.osm.event.DatasetEventManager;
+import org.openstreetmap.josm.data.osm.event.DatasetEventManager.FireMode;
+import org.openstreetmap.josm.data.osm.visitor.paint.PaintColors;
+import org.openstreetmap.josm.data.osm.visitor.paint.StyledMapRenderer;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.NavigatableComponent;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.awt.AWTTextureIO;
+
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
+
+/**
+ * Cache of ground tiles with map rendered by JOSM styles. Tiles form quadtree
+ * pyramid, tile on level 0 has {@link #TILE_LENGTH} meters, each next level
+ * has tiles two times bigger. All tiles have the same image size.
+ *
+ * Tiles are rendered by worker threads from copy of tile area, data set read
+ * lock is held only while primitives are copied. Only upload of rendered tile
+ * is done on opengl thread. Tiles are invalidated by
+ * bounds of changed primitives, until invalidated tile is rendered again old
+ * texture is used. Number of tiles in memory is limited, least recently used
+ * tiles are evicted.
+ *
+ * Methods without other comment have to be called from opengl thread.
+ */
+public class GroundTileCache implements DataSetListenerAdapter.Listener {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(GroundTileCache.class);
+
+    /**
+     * Tile size in meters on level 0.
+     */
+    public static final double TILE_LENGTH = 500;
+
+    /**
+     * Tile image size in pixels.
+     */
+    public static final int TILE_IMAGE_SIZE = 512;
+
+    /**
+     * Default maximal number of tiles kept in memory.
+     */
+    public static final int DEFAULT_MAX_TILES = 96;
+
+    /**
+     * Maximal number of tiles rendered or waiting for render at once.
+     */
+    private static final int MAX_PENDING = 4;
+
+    /**
+     * Maximal number of tiles uploaded in one frame.
+     */
+    private static final int MAX_UPLOADS_PER_FRAME = 2;
+
+    /**
+     * Styles are drawn outside of primitive bounds (line width, icons,
+     * labels), invalidated bounds are extended by this number of pixels.
+     */
+    private static final int STYLE_MARGIN = 48;
+
+    /**
+     * When there are more waiting invalidations all tiles are invalidated.
+     */
+    private static final int MAX_INVALIDATIONS = 256;
+
+    /**
+     * Tiles in least recently used order, used only by opengl thread.
+     */
+    private final Map<TileKey, Tile> tiles = new LinkedHashMap<TileKey, Tile>(64, 0.75f, true);
+
+    /**
+     * Tiles rendered by workers waiting for upload.
+     */
+    private final Queue<RenderedTile> rendered = new ConcurrentLinkedQueue<RenderedTile>();
+
+    /**
+     * Changed bounds (min east, min north, max east, max north) waiting for
+     * invalidation of tiles.
+     */
+    private final List<double[]> invalidations = new ArrayList<double[]>();
+
+    /**
+     * If all tiles should be invalidated, guarded by invalidations.
+     */
+    private boolean invalidateAll;
+
+    private final RedrawScheduler redrawScheduler;
+
+    private ExecutorService renderer;
+
+    private volatile GLProfile profile;
+
+    /**
+     * Incremented when cache is cleared, tiles rendered before are dropped.
+     */
+    private int generation;
+
+    private long frame;
+
+    private int pending;
+
+    private int maxTiles = DEFAULT_MAX_TILES;
+
+    private final AtomicInteger renderCount = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param redrawScheduler
+     *            scheduler used to redraw view when tile is rendered
+     */
+    public GroundTileCache(RedrawScheduler redrawScheduler) {
+        this.redrawScheduler = redrawScheduler;
+    }
+
+    /**
+     * Registers listener of JOSM data changes.
+     */
+    public void register() {
+        DatasetEventManager.getInstance().addDatasetListener(new DataSetListenerAdapter(this), FireMode.IMMEDIATELY);
+    }
+
+    /**
+     * Length of tile side in meters.
+     *
+     * @param level
+     *            level of tile
+     * @return length of tile side
+     */
+    public static double getTileLength(int level) {
+        return TILE_LENGTH * (1 << level);
+    }
+
+    /**
+     * Prepares cache for next frame. Invalidates tiles and uploads rendered
+     * tiles.
+     *
+     * @param gl
+     *            gl
+     */
+    public void beginFrame(GL2 gl) {
+        frame++;
+        profile = gl.getGLProfile();
+
+        processInvalidations();
+
+        int uploads = 0;
+        RenderedTile renderedTile;
+        while (uploads < MAX_UPLOADS_PER_FRAME && (renderedTile = rendered.poll()) != null) {
+            if (renderedTile.generation != generation) {
+                // cache was cleared after tile was requested
+                renderedTile.flush();
+                continue;
+            }
+            pending--;
+
+            Tile tile = tiles.get(renderedTile.key);
+            if (tile == null) {
+                renderedTile.flush();
+                continue;
+            }
+            tile.pending = false;
+
+            if (renderedTile.data != null) {
+                upload(gl, tile, renderedTile);
+                uploads++;
+            } else {
+                // don't render it again until data are changed
+                tile.failed = true;
+            }
+            tile.stale = renderedTile.version != tile.version;
+        }
+    }
+
+    private static void upload(GL2 gl, Tile tile, RenderedTile renderedTile) {
+        Texture texture = null;
+        try {
+            texture = new Texture(gl, renderedTile.data);
+            texture.setTexParameteri(gl, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR_MIPMAP_LINEAR);
+            texture.setTexParameteri(gl, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+            texture.setTexParameteri(gl, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+            texture.setTexParameteri(gl, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
+        } catch (GLException e) {
+            log.error("can't upload ground tile: " + renderedTile.key, e);
+        }
+        renderedTile.flush();
+
+        if (texture != null) {
+            if (tile.texture != null) {
+                tile.texture.destroy(gl);
+            }
+            tile.texture = texture;
+        }
+    }
+
+    /**
+     * Finishes frame. Evicts least recently used tiles which were not used in
+     * this frame.
+     *
+     * @param gl
+     *            gl
+     */
+    public void endFrame(GL2 gl) {
+        Iterator<Tile> it = tiles.values().iterator();
+        while (tiles.size() > maxTiles && it.hasNext()) {
+            Tile tile = it.next();
+            if (tile.lastFrame == frame) {
+                // all remaining tiles are used in this frame
+                break;
+            }
+            if (tile.pending) {
+                continue;
+            }
+            it.remove();
+            if (tile.texture != null) {
+                tile.texture.destroy(gl);
+            }
+        }
+
+        if (!rendered.isEmpty()) {
+            // rest of rendered tiles are uploaded in next frames
+            redrawScheduler.requestRedraw();
+        }
+    }
+
+    /**
+     * Gets texture of tile if it exists, don't request rendering of tile.
+     *
+     * @param key
+     *            tile key
+     * @return texture or null
+     */
+    public Texture peek(TileKey key) {
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            return null;
+        }
+        tile.lastFrame = frame;
+        return tile.texture;
+    }
+
+    /**
+     * Gets texture of tile. When tile don't exist or is invalidated, it is
+     * rendered in background. Until it is rendered old texture is returned.
+     *
+     * @param key
+     *            tile key
+     * @return texture or null if tile is not rendered yet
+     */
+    public Texture get(TileKey key) {
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            tile = new Tile();
+            tiles.put(key, tile);
+        }
+        tile.lastFrame = frame;
+
+        if ((tile.texture == null || tile.stale) && !tile.pending && !tile.failed && pending < MAX_PENDING) {
+            render(key, tile);
+        }
+        return tile.texture;
+    }
+
+    private void render(final TileKey key, Tile tile) {
+        tile.pending = true;
+        pending++;
+
+        final int version = tile.version;
+        final int renderGeneration = generation;
+        final GLProfile renderProfile = profile;
+
+        getRenderer().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                TextureData data = null;
+                try {
+                    long t1 = System.currentTimeMillis();
+
+                    BufferedImage image = renderTile(key);
+                    data = AWTTextureIO.newTextureData(renderProfile, image, true);
+
+                    if (log.isDebugEnabled()) {
+                        log.debug("gen ground tile: " + key + " tiles generated: " + renderCount.incrementAndGet()
+                                + " gen time: " + (System.currentTimeMillis() - t1) + " [ms]");
+                    }
+                } catch (Exception e) {
+                    log.error("can't render ground tile: " + key, e);
+                }
+
+                rendered.add(new RenderedTile(key, version, renderGeneration, data));
+                redrawScheduler.requestRedraw();
+            }
+        });
+    }
+
+    /**
+     * Renders map image of tile. Can be called from any thread.
+     *
+     * @param key
+     *            tile key
+     * @return tile image
+     */
+    private static BufferedImage renderTile(TileKey key) {
+
+        int size = TILE_IMAGE_SIZE;
+        double length = getTileLength(key.level);
+        double scale = length / size;
+
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setClip(0, 0, size, size);
+            g.setColor(PaintColors.getBackgroundColor());
+            g.fillRect(0, 0, size, size);
+
+            DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+            if (ds == null) {
+                return image;
+            }
+
+            NavigatableComponent nc = new NavigatableComponent();
+            nc.setSize(size, size);
+            nc.zoomTo(new EastNorth(key.getMinEast() + length / 2d, key.getMinNorth() + length / 2d), scale);
+
+            LatLon min = nc.getLatLon(0, 0);
+            LatLon max = nc.getLatLon(size, size);
+
+            // JOSM is blocked only while primitives are copied, not while
+            // tile is rendered
+            DataSet tileData = copyArea(ds, new BBox(min.lon(), min.lat(), max.lon(), max.lat()));
+
+            StyledMapRenderer sr = new StyledMapRenderer(g, nc, false);
+            sr.render(tileData, true, new Bounds(min, max));
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Copies primitives of area into new data set under data set read lock.
+     * Ways and relations are copied with all their members, so they are
+     * rendered the same as in source data set.
+     *
+     * @param ds
+     *            source data set
+     * @param bbox
+     *            area
+     * @return data set with copied primitives
+     */
+    private static DataSet copyArea(DataSet ds, BBox bbox) {
+        AreaCopy copy = new AreaCopy();
+
+        Lock readLock = ds.getReadLock();
+        readLock.lock();
+        try {
+            for (Node node : ds.searchNodes(bbox)) {
+                copy.node(node);
+            }
+            for (Way way : ds.searchWays(bbox)) {
+                copy.way(way);
+            }
+            for (Relation relation : ds.searchRelations(bbox)) {
+                copy.relation(relation);
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return copy.dataSet;
+    }
+
+    /**
+     * Copy of part of data set. Copies are new primitives, source primitives
+     * are only read.
+     */
+    private static class AreaCopy {
+
+        private final DataSet dataSet = new DataSet();
+
+        private final Map<OsmPrimitive, OsmPrimitive> copies = new HashMap<OsmPrimitive, OsmPrimitive>();
+
+        /**
+         * Relations which members are being copied, used to break relation
+         * loops.
+         */
+        private final Set<Relation> copying = new HashSet<Relation>();
+
+        Node node(Node node) {
+            Node copy = (Node) copies.get(node);
+            if (copy == null && node.isLatLonKnown()) {
+                copy = new Node(node.getCoor());
+                copy.setKeys(node.getKeys());
+                copies.put(node, copy);
+                dataSet.addPrimitive(copy);
+            }
+            return copy;
+        }
+
+        Way way(Way way) {
+            Way copy = (Way) copies.get(way);
+            if (copy == null && !way.isIncomplete()) {
+                List<Node> nodes = new ArrayList<Node>(way.getNodesCount());
+                for (Node node : way.getNodes()) {
+                    Node nodeCopy = node(node);
+                    if (nodeCopy != null) {
+                        nodes.add(nodeCopy);
+                    }
+                }
+                copy = new Way();
+                copy.setKeys(way.getKeys());
+                copy.setNodes(nodes);
+                copies.put(way, copy);
+                dataSet.addPrimitive(copy);
+            }
+            return copy;
+        }
+
+        Relation relation(Relation relation) {
+            Relation copy = (Relation) copies.get(relation);
+            if (copy != null || relation.isIncomplete() || !copying.add(relation)) {
+                return copy;
+            }
+            try {
+                List<RelationMember> members = new ArrayList<RelationMember>(relation.getMembersCount());
+                for (RelationMember member : relation.getMembers()) {
+                    OsmPrimitive memberCopy = member(member.getMember());
+                    if (memberCopy != null) {
+                        members.add(new RelationMember(member.getRole(), memberCopy));
+                    }
+                }
+                copy = new Relation();
+                copy.setKeys(relation.getKeys());
+                copy.setMembers(members);
+                copies.put(relation, copy);
+                dataSet.addPrimitive(copy);
+                return copy;
+            } finally {
+                copying.remove(relation);
+            }
+        }
+
+        private OsmPrimitive member(OsmPrimitive member) {
+            if (member instanceof Node) {
+                return node((Node) member);
+            } else if (member instanceof Way) {
+                return way((Way) member);
+            } else if (member instanceof Relation) {
+                return relation((Relation) member);
+            }
+            return null;
+        }
+    }
+
+    private synchronized ExecutorService getRenderer() {
+        if (renderer == null) {
+            // leave cores for the JOSM, the 3d view and the objects builder
+            int threads = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+
+            renderer = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "kendzi3d-ground-tile-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return renderer;
+    }
+
+    private void processInvalidations() {
+        List<double[]> bounds;
+        boolean all;
+        synchronized (invalidations) {
+            if (!invalidateAll && invalidations.isEmpty()) {
+                return;
+            }
+            all = invalidateAll;
+            bounds = new ArrayList<double[]>(invalidations);
+            invalidateAll = false;
+            invalidations.clear();
+        }
+
+        for (Map.Entry<TileKey, Tile> entry : tiles.entrySet()) {
+            if (all || intersects(entry.getKey(), bounds)) {
+                Tile tile = entry.getValue();
+                tile.version++;
+                tile.stale = true;
+                tile.failed = false;
+            }
+        }
+    }
+
+    private static boolean intersects(TileKey key, Collection<double[]> bounds) {
+        double margin = STYLE_MARGIN * getTileLength(key.level) / TILE_IMAGE_SIZE;
+        double length = getTileLength(key.level);
+
+        double minEast = key.getMinEast() - margin;
+        double minNorth = key.getMinNorth() - margin;
+        double maxEast = key.getMinEast() + length + margin;
+        double maxNorth = key.getMinNorth() + length + margin;
+
+        for (double[] b : bounds) {
+            if (b[0] <= maxEast && b[2] >= minEast && b[1] <= maxNorth && b[3] >= minNorth) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Invalidates tiles with changed primitives. Called from JOSM on event
+     * dispatch thread.
+     */
+    @Override
+    public void processDatasetEvent(AbstractDatasetChangedEvent event) {
+
+        if (event instanceof DataChangedEvent && ((DataChangedEvent) event).getEvents() == null) {
+            // whole data set was replaced
+            invalidateAll();
+            return;
+        }
+
+        BBox bbox = new BBox();
+        if (event instanceof DataChangedEvent) {
+            // consolidated events from one change
+            for (AbstractDatasetChangedEvent e : ((DataChangedEvent) event).getEvents()) {
+                addChangedPrimitives(e, bbox);
+            }
+        } else {
+            addChangedPrimitives(event, bbox);
+        }
+
+        if (bbox.isValid()) {
+            invalidate(bbox);
+        }
+    }
+
+    private static void addChangedPrimitives(AbstractDatasetChangedEvent event, BBox bbox) {
+        if (event.getType() == DatasetEventType.CHANGESET_ID_CHANGED) {
+            // don't have influence on map style
+            return;
+        }
+
+        for (OsmPrimitive primitive : event.getPrimitives()) {
+            bbox.addPrimitive(primitive, 0);
+
+            if (primitive instanceof Node) {
+                // ways are drawn between nodes
+                for (OsmPrimitive referrer : primitive.getReferrers()) {
+                    if (referrer instanceof Way) {
+                        bbox.addPrimitive(referrer, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    private void invalidate(BBox bbox) {
+        Projection projection = ProjectionRegistry.getProjection();
+        EastNorth topLeft = projection.latlon2eastNorth(bbox.getTopLeft());
+        EastNorth bottomRight = projection.latlon2eastNorth(bbox.getBottomRight());
+
+        double[] bounds = new double[] { //
+                Math.min(topLeft.east(), bottomRight.east()), //
+                Math.min(topLeft.north(), bottomRight.north()), //
+                Math.max(topLeft.east(), bottomRight.east()), //
+                Math.max(topLeft.north(), bottomRight.north()) };
+
+        synchronized (invalidations) {
+            if (invalidateAll) {
+                return;
+            }
+            if (invalidations.size() >= MAX_INVALIDATIONS) {
+                invalidateAll = true;
+                invalidations.clear();
+            } else {
+                invalidations.add(bounds);
+            }
+        }
+        redrawScheduler.requestRedraw();
+    }
+
+    /**
+     * Invalidates all tiles. Can be called from any thread.
+     */
+    public void invalidateAll() {
+        synchronized (invalidations) {
+            invalidateAll = true;
+            invalidations.clear();
+        }
+        redrawScheduler.requestRedraw();
+    }
+
+    /**
+     * Removes all tiles without releasing textures, should be called when
+     * opengl context was recreated.
+     */
+    public void clear() {
+        tiles.clear();
+        generation++;
+        pending = 0;
+    }
+
+    /**
+     * @param maxTiles
+     *            maximal number of tiles kept in memory
+     */
+    public void setMaxTiles(int maxTiles) {
+        this.maxTiles = maxTiles;
+    }
+
+    /**
+     * @return number of tiles in memory
+     */
+    public int size() {
+        return tiles.size();
+    }
+
+    /**
+     * Key of tile in pyramid. Tile covers east from x * length to (x + 1) *
+     * length and north from y * length to (y + 1) * length, where length is
+     * tile length on its level.
+     */
+    public static final class TileKey {
+
+        final int level;
+
+        final int x;
+
+        final int y;
+
+        /**
+         * Constructor.
+         *
+         * @param level
+         *            level of tile, 0 is the most detailed
+         * @param x
+         *            east index of tile
+         * @param y
+         *            north index of tile
+         */
+        public TileKey(int level, int x, int y) {
+            this.level = level;
+            this.x = x;
+            this.y = y;
+        }
+
+        /**
+         * @return level of tile
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * @return minimal east of tile
+         */
+        public double getMinEast() {
+            return x * getTileLength(level);
+        }
+
+        /**
+         * @return minimal north of tile
+         */
+        public double getMinNorth() {
+            return y * getTileLength(level);
+        }
+
+        /**
+         * @param i
+         *            east index of child, 0 or 1
+         * @param j
+         *            north index of child, 0 or 1
+         * @return child tile on lower level
+         */
+        public TileKey child(int i, int j) {
+            return new TileKey(level - 1, 2 * x + i, 2 * y + j);
+        }
+
+        @Override
+        public int hashCode() {
+            return (level * 31 + x) * 31 + y;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TileKey)) {
+                return false;
+            }
+            TileKey other = (TileKey) obj;
+            return level == other.level && x == other.x && y == other.y;
+        }
+
+        @Override
+        public String toString() {
+            return "g_" + level + "_" + x + "_" + y;
+        }
+    }
+
+    /**
+     * Tile in cache.
+     */
+    private static class Tile {
+
+        Texture texture;
+
+        /**
+         * Incremented when tile is invalidated.
+         */
+        int version;
+
+        /**
+         * If texture don't show current data.
+         */
+        boolean stale;
+
+        /**
+         * If tile is rendered by worker.
+         */
+        boolean pending;
+
+        /**
+         * If rendering of tile failed.
+         */
+        boolean failed;
+
+        long lastFrame;
+    }
+
+    /**
+     * Tile rendered by worker.
+     */
+    private static class RenderedTile {
+
+        final TileKey key;
+
+        final int version;
+
+        final int generation;
+
+        final TextureData data;
+
+        RenderedTile(TileKey key, int version, int generation, TextureData data) {
+            this.key = key;
+            this.version = version;
+            this.generation = generation;
+            this.data = data;
+        }
+
+        void flush() {
+            if (data != null) {
+                data.flush();
+            }
+        }
+    }
+}
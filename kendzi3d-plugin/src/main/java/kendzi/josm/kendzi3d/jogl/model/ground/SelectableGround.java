@@ -23,12 +23,8 @@ public class SelectableGround {
     }
 
     public void init(GL2 gl) {
-        for (GroundType key : grounds.keySet()) {
-            GroundDrawer ground = grounds.get(selectedGroundType);
-
-            if (ground != null) {
-                grounds.get(key).init();
-            }
+        for (GroundDrawer ground : grounds.values()) {
+            ground.init();
         }
     }
 
@@ -6,72 +6,55 @@
 
 package kendzi.josm.kendzi3d.jogl.model.ground;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-
 import javax.vecmath.Point3d;
 
-import org.apache.log4j.Logger;
-import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.coor.EastNorth;
-import org.openstreetmap.josm.data.coor.LatLon;
-import org.openstreetmap.josm.data.osm.DataSet;
-import org.openstreetmap.josm.data.osm.visitor.paint.PaintColors;
-import org.openstreetmap.josm.data.osm.visitor.paint.StyledMapRenderer;
-import org.openstreetmap.josm.gui.MainApplication;
-import org.openstreetmap.josm.gui.NavigatableComponent;
 
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GL2ES3;
 import com.jogamp.opengl.fixedfunc.GLLightingFunc;
-import com.jogamp.opengl.util.awt.TextureRenderer;
 import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureCoords;
 
 import kendzi.jogl.texture.TextureCacheService;
-import kendzi.jogl.texture.TextureCacheServiceImpl;
 import kendzi.josm.kendzi3d.data.perspective.Perspective3D;
 import kendzi.josm.kendzi3d.data.perspective.Perspective3dProvider;
+import kendzi.josm.kendzi3d.jogl.model.ground.GroundTileCache.TileKey;
 
+/**
+ * Draws ground with map rendered by JOSM styles. Tiles are taken from
+ * quadtree pyramid, near camera the most detailed tiles are used and coarser
+ * tiles toward the horizon. Until tile is rendered, part of coarser tile is
+ * drawn in its place.
+ */
 public class StyledTitleGroundDrawer extends GroundDrawer {
 
-    /** Log. */
-    private static final Logger log = Logger.getLogger(StyledTitleGroundDrawer.class);
-
-    /**
-     * Title size in meters.
-     */
-    private static final double TITLE_LENGTH = 500;
-
     /**
-     * Half size of title.
+     * Level of the biggest tiles.
      */
-    private static final double TITLE_HALF_LENGTH = TITLE_LENGTH / 2d;
+    private static final int MAX_LEVEL = 4;
 
     /**
-     * Title image size in pixels.
+     * Number of the biggest tiles drawn from camera in each direction.
      */
-    private static final int TITLE_IMAGE_SIZE = 512;
+    private static final int ROOT_TITLES_ROWS = 1;
 
     /**
-     * Total title generation time.
+     * Tile is split into smaller tiles when its distance from camera is less
+     * than its length multiplied by this factor.
      */
-    private long totalTitleGenerateTime;
+    private static final double SPLIT_FACTOR = 1;
 
     /**
-     * Total count of frames.
-     */
-    private int totalTitleCount = 0;
-
-    /**
-     * How many titles was created per frame.
+     * Provider for perspective.
      */
-    private int titleFrameCount;
+    private final Perspective3dProvider perspective3dProvider;
 
     /**
-     * Provider for perspective.
+     * Cache of rendered tiles.
      */
-    private final Perspective3dProvider perspective3dProvider;
+    private final GroundTileCache tileCache;
 
     /**
      * Constructor.
@@ -80,10 +63,20 @@ public class StyledTitleGroundDrawer extends GroundDrawer {
      *            texture cache service
      * @param perspective3dProvider
      *            provider for current perspective
+     * @param tileCache
+     *            cache of rendered tiles
      */
-    public StyledTitleGroundDrawer(TextureCacheService textureCacheService, Perspective3dProvider perspective3dProvider) {
+    public StyledTitleGroundDrawer(TextureCacheService textureCacheService, Perspective3dProvider perspective3dProvider,
+            GroundTileCache tileCache) {
         super(textureCacheService, null);
         this.perspective3dProvider = perspective3dProvider;
+        this.tileCache = tileCache;
+    }
+
+    @Override
+    public void init() {
+        // textures of tiles belong to old opengl context
+        tileCache.clear();
     }
 
     @Override
@@ -96,92 +89,131 @@ public class StyledTitleGroundDrawer extends GroundDrawer {
 
         EastNorth en = perspective.toEastNorth(cameraPosition.x, -cameraPosition.z);
 
-        double east = en.east();
-        double north = en.north();
+        tileCache.beginFrame(gl);
 
-        int e = (int) Math.round(east / TITLE_LENGTH);
-        int n = (int) Math.round(north / TITLE_LENGTH);
+        gl.glEnable(GLLightingFunc.GL_LIGHTING);
+        gl.glEnable(GL.GL_TEXTURE_2D);
 
-        titleFrameCount = 0;
+        double rootLength = GroundTileCache.getTileLength(MAX_LEVEL);
+        int x = (int) Math.floor(en.east() / rootLength);
+        int y = (int) Math.floor(en.north() / rootLength);
 
-        int titlesRows = 2;
-        for (int ie = -titlesRows; ie <= titlesRows; ie++) {
-            for (int in = -titlesRows; in <= titlesRows; in++) {
-                drawTitle(gl, e + ie, n + in, perspective);
+        for (int ix = -ROOT_TITLES_ROWS; ix <= ROOT_TITLES_ROWS; ix++) {
+            for (int iy = -ROOT_TITLES_ROWS; iy <= ROOT_TITLES_ROWS; iy++) {
+                drawTitle(gl, new TileKey(MAX_LEVEL, x + ix, y + iy), null, null, en, perspective);
             }
         }
+
+        gl.glDisable(GL.GL_TEXTURE_2D);
+
+        tileCache.endFrame(gl);
     }
 
     /**
-     * Draws title.
+     * Draws title or its children when it is near camera.
      *
      * @param gl
      *            gl
-     * @param e
-     *            east title key
-     * @param n
-     *            north title key
+     * @param key
+     *            title key
+     * @param parentKey
+     *            key of the nearest parent title with texture, can be null
+     * @param parentTexture
+     *            texture of parent title, can be null
+     * @param camera
+     *            camera location
      * @param perspective3d
      *            perspective
      */
-    private void drawTitle(GL2 gl, int e, int n, Perspective3D perspective3d) {
-
-        double xCenter = e * TITLE_LENGTH;
-        double yCenter = n * TITLE_LENGTH;
-
-        double x1 = perspective3d.calcX(xCenter - TITLE_HALF_LENGTH);
-        double z1 = -perspective3d.calcY(yCenter - TITLE_HALF_LENGTH);
-
-        double x2 = perspective3d.calcX(xCenter + TITLE_HALF_LENGTH);
-        double z2 = -perspective3d.calcY(yCenter - TITLE_HALF_LENGTH);
-
-        double x3 = perspective3d.calcX(xCenter + TITLE_HALF_LENGTH);
-        double z3 = -perspective3d.calcY(yCenter + TITLE_HALF_LENGTH);
+    private void drawTitle(GL2 gl, TileKey key, TileKey parentKey, Texture parentTexture, EastNorth camera,
+            Perspective3D perspective3d) {
 
-        double x4 = perspective3d.calcX(xCenter - TITLE_HALF_LENGTH);
-        double z4 = -perspective3d.calcY(yCenter + TITLE_HALF_LENGTH);
+        if (key.getLevel() > 0 && isNear(key, camera)) {
 
-        String textName = "g_" + e + "_" + n;
-
-        Texture texture = null;
-
-        if (!textureCacheService.isTexture(textName)) {
-            if (titleFrameCount == 0) {
-                // if title don't exist we create it
-                // but only one tile per frame
+            Texture texture = tileCache.peek(key);
+            if (texture != null) {
+                parentKey = key;
+                parentTexture = texture;
+            }
 
-                titleFrameCount++;
+            for (int i = 0; i <= 1; i++) {
+                for (int j = 0; j <= 1; j++) {
+                    drawTitle(gl, key.child(i, j), parentKey, parentTexture, camera, perspective3d);
+                }
+            }
+            return;
+        }
 
-                long t1 = System.currentTimeMillis();
+        Texture texture = tileCache.get(key);
+        if (texture != null) {
+            drawQuad(gl, key, texture, key, perspective3d);
+        } else if (parentTexture != null) {
+            drawQuad(gl, key, parentTexture, parentKey, perspective3d);
+        } else {
+            Texture undefined = textureCacheService.getTexture(gl, TextureCacheService.TEXTURES_UNDEFINED_PNG);
+            drawQuad(gl, key, undefined, key, perspective3d);
+        }
+    }
 
-                TextureRenderer bi = generateTitle(e * TITLE_LENGTH - TITLE_HALF_LENGTH, n * TITLE_LENGTH - TITLE_HALF_LENGTH);
+    private static boolean isNear(TileKey key, EastNorth camera) {
+        double length = GroundTileCache.getTileLength(key.getLevel());
 
-                totalTitleCount++;
+        double dx = distance(camera.east(), key.getMinEast(), key.getMinEast() + length);
+        double dy = distance(camera.north(), key.getMinNorth(), key.getMinNorth() + length);
 
-                texture = bi.getTexture();
+        return Math.sqrt(dx * dx + dy * dy) < SPLIT_FACTOR * length;
+    }
 
-                // FIXME
-                ((TextureCacheServiceImpl) textureCacheService).setTexture(textName, texture);
+    private static double distance(double value, double min, double max) {
+        if (value < min) {
+            return min - value;
+        }
+        if (value > max) {
+            return value - max;
+        }
+        return 0;
+    }
 
-                long t = System.currentTimeMillis() - t1;
+    /**
+     * Draws quad of title.
+     *
+     * @param gl
+     *            gl
+     * @param key
+     *            title key
+     * @param texture
+     *            texture of title or of its parent
+     * @param textureKey
+     *            key of title which texture is used
+     * @param perspective3d
+     *            perspective
+     */
+    private static void drawQuad(GL2 gl, TileKey key, Texture texture, TileKey textureKey, Perspective3D perspective3d) {
 
-                totalTitleGenerateTime += t;
+        double length = GroundTileCache.getTileLength(key.getLevel());
+        double textureLength = GroundTileCache.getTileLength(textureKey.getLevel());
 
-                if (log.isInfoEnabled()) {
-                    log.info("gen title: " + textName + " title generated: " + totalTitleCount + " gen time: " + t
-                            + " [ms] total title generate time: " + totalTitleGenerateTime / 1000d);
-                }
+        double west = key.getMinEast();
+        double south = key.getMinNorth();
+        double east = west + length;
+        double north = south + length;
 
-            } else {
-                texture = textureCacheService.getTexture(gl, TextureCacheService.TEXTURES_UNDEFINED_PNG);
-            }
+        // part of texture covered by title
+        double u1 = (west - textureKey.getMinEast()) / textureLength;
+        double u2 = (east - textureKey.getMinEast()) / textureLength;
+        double v1 = (south - textureKey.getMinNorth()) / textureLength;
+        double v2 = (north - textureKey.getMinNorth()) / textureLength;
 
-        } else {
-            texture = textureCacheService.getTexture(gl, textName);
-        }
+        TextureCoords tc = texture.getImageTexCoords();
+        double left = tc.left() + (tc.right() - tc.left()) * u1;
+        double right = tc.left() + (tc.right() - tc.left()) * u2;
+        double bottom = tc.bottom() + (tc.top() - tc.bottom()) * v1;
+        double top = tc.bottom() + (tc.top() - tc.bottom()) * v2;
 
-        gl.glEnable(GLLightingFunc.GL_LIGHTING);
-        gl.glEnable(GL.GL_TEXTURE_2D);
+        double x1 = perspective3d.calcX(west);
+        double x2 = perspective3d.calcX(east);
+        double z1 = -perspective3d.calcY(south);
+        double z2 = -perspective3d.calcY(north);
 
         texture.enable(gl);
         texture.bind(gl);
@@ -191,68 +223,16 @@ public class StyledTitleGroundDrawer extends GroundDrawer {
 
         double h = -0.1d;
 
-        gl.glTexCoord2d(0, 1);
+        gl.glTexCoord2d(left, bottom);
         gl.glVertex3d(x1, h, z1);
-        gl.glTexCoord2d(1, 1);
+        gl.glTexCoord2d(right, bottom);
+        gl.glVertex3d(x2, h, z1);
+        gl.glTexCoord2d(right, top);
         gl.glVertex3d(x2, h, z2);
-        gl.glTexCoord2d(1, 0);
-        gl.glVertex3d(x3, h, z3);
-        gl.glTexCoord2d(0, 0);
-        gl.glVertex3d(x4, h, z4);
+        gl.glTexCoord2d(left, top);
+        gl.glVertex3d(x1, h, z2);
         gl.glEnd();
 
         texture.disable(gl);
     }
-
-    /**
-     * Generate title.
-     *
-     * @param e
-     *            east title center
-     * @param n
-     *            north title center
-     * @return title texture/image
-     */
-    private TextureRenderer generateTitle(double e, double n) {
-
-        int size = TITLE_IMAGE_SIZE;
-
-        double scale = TITLE_LENGTH / size;
-
-        TextureRenderer img = new TextureRenderer(size, size, true, true);
-
-        Graphics2D g = img.createGraphics();
-
-        g.setClip(0, 0, size, size);
-
-        Color backgroundColor = PaintColors.getBackgroundColor();
-
-        g.setColor(backgroundColor);
-
-        g.fillRect(0, 0, size, size);
-        NavigatableComponent nc = new NavigatableComponent();
-
-        nc.setSize(size, size);
-
-        EastNorth newCenter = new EastNorth(e + TITLE_HALF_LENGTH, n + TITLE_HALF_LENGTH);
-
-        nc.zoomTo(newCenter, scale);
-        StyledMapRenderer sr = new StyledMapRenderer(g, nc, false);
-
-        DataSet ds = MainApplication.getLayerManager().getEditDataSet();
-
-        LatLon min = nc.getLatLon(0, 0);
-        LatLon max = nc.getLatLon(size, size);
-
-        Bounds bounds = new Bounds(min, max);
-        if (ds == null) {
-            System.err.println("no data !!!");
-        } else {
-            sr.render(ds, true, bounds);
-        }
-
-        g.dispose();
-
-        return img;
-    }
 }
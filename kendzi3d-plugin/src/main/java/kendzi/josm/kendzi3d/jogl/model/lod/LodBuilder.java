@@ -0,0 +1,104 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.josm.kendzi3d.jogl.model.lod;
+
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.Logger;
+
+import com.google.inject.Inject;
+
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
+
+/**
+ * Builds levels of detail on request of drawing thread. Models are built on
+ * background thread, view is redrawn after level is ready. Each level of model
+ * is requested only once until it is built.
+ */
+public class LodBuilder {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(LodBuilder.class);
+
+    private final RedrawScheduler redrawScheduler;
+
+    /**
+     * Requested levels of each model, guarded by itself.
+     */
+    private final Map<DLODSuport, Set<LOD>> requests = new IdentityHashMap<DLODSuport, Set<LOD>>();
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.
+     *
+     * @param redrawScheduler
+     *            scheduler used to redraw view when level is built
+     */
+    @Inject
+    public LodBuilder(RedrawScheduler redrawScheduler) {
+        this.redrawScheduler = redrawScheduler;
+
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "kendzi3d-lod-builder");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Requests building of level of detail. Request is ignored when the same
+     * level of model is already waiting.
+     *
+     * @param model
+     *            model
+     * @param lod
+     *            level of detail
+     */
+    public void request(final DLODSuport model, final LOD lod) {
+        synchronized (requests) {
+            Set<LOD> lods = requests.get(model);
+            if (lods == null) {
+                lods = EnumSet.noneOf(LOD.class);
+                requests.put(model, lods);
+            }
+            if (!lods.add(lod)) {
+                return;
+            }
+        }
+
+        executor.execute(() -> build(model, lod));
+    }
+
+    private void build(DLODSuport model, LOD lod) {
+        try {
+            model.buildModel(lod);
+        } catch (Exception e) {
+            log.error("can't build level of detail " + lod + " for model: " + model, e);
+        } finally {
+            synchronized (requests) {
+                Set<LOD> lods = requests.get(model);
+                lods.remove(lod);
+                if (lods.isEmpty()) {
+                    requests.remove(model);
+                }
+            }
+        }
+        redrawScheduler.requestRedraw();
+    }
+}
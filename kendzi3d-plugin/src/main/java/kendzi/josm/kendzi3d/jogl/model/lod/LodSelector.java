@@ -0,0 +1,125 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.josm.kendzi3d.jogl.model.lod;
+
+import javax.vecmath.Point3d;
+
+import com.google.inject.Inject;
+
+import kendzi.jogl.camera.Viewport;
+
+/**
+ * Selects level of detail for model using its distance from camera and its
+ * size on screen. Models closer than full detail distance are always drawn
+ * with LOD1, other models get lower level of detail when their projected
+ * diameter is smaller than minimal screen size for level.
+ */
+public class LodSelector {
+
+    /**
+     * Default distance in meters below which models are always drawn with
+     * full details.
+     */
+    public static final double DEFAULT_FULL_DETAIL_DISTANCE = 60;
+
+    /**
+     * Default minimal size on screen in pixels for LOD1, LOD2 and LOD3.
+     */
+    private static final double[] DEFAULT_MIN_SCREEN_SIZES = { 250, 80, 20 };
+
+    private static final LOD[] LEVELS = { LOD.LOD1, LOD.LOD2, LOD.LOD3 };
+
+    private final Viewport viewport;
+
+    private double fullDetailDistance = DEFAULT_FULL_DETAIL_DISTANCE;
+
+    private double[] minScreenSizes = DEFAULT_MIN_SCREEN_SIZES.clone();
+
+    /**
+     * Constructor.
+     *
+     * @param viewport
+     *            viewport used to calculate size of model on screen
+     */
+    @Inject
+    public LodSelector(Viewport viewport) {
+        this.viewport = viewport;
+    }
+
+    /**
+     * Selects level of detail for model.
+     *
+     * @param center
+     *            center of model in world coordinates
+     * @param radius
+     *            radius of model
+     * @param cameraPosition
+     *            camera position
+     * @return level of detail, one of LOD1 - LOD4
+     */
+    public LOD select(Point3d center, double radius, Point3d cameraPosition) {
+
+        double distance = center.distance(cameraPosition);
+        if (distance - radius < fullDetailDistance) {
+            return LOD.LOD1;
+        }
+
+        double screenSize = screenSize(radius, distance);
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (screenSize >= minScreenSizes[i]) {
+                return LEVELS[i];
+            }
+        }
+        return LOD.LOD4;
+    }
+
+    /**
+     * Calculates approximate diameter of sphere on screen.
+     *
+     * @param radius
+     *            radius of sphere
+     * @param distance
+     *            distance from camera to center of sphere
+     * @return diameter in pixels
+     */
+    public double screenSize(double radius, double distance) {
+        double tan = Math.tan(Math.toRadians(viewport.getFovy()) / 2d);
+        double pixelsPerMeter = viewport.getHeight() / (2d * tan * Math.max(distance, viewport.getZNear()));
+        return 2d * radius * pixelsPerMeter;
+    }
+
+    /**
+     * @return distance in meters below which models are always drawn with
+     *         full details
+     */
+    public double getFullDetailDistance() {
+        return fullDetailDistance;
+    }
+
+    /**
+     * @param fullDetailDistance
+     *            distance in meters below which models are always drawn with
+     *            full details
+     */
+    public void setFullDetailDistance(double fullDetailDistance) {
+        this.fullDetailDistance = fullDetailDistance;
+    }
+
+    /**
+     * Sets minimal size on screen in pixels for LOD1, LOD2 and LOD3.
+     *
+     * @param lod1
+     *            minimal size for LOD1
+     * @param lod2
+     *            minimal size for LOD2
+     * @param lod3
+     *            minimal size for LOD3
+     */
+    public void setMinScreenSizes(double lod1, double lod2, double lod3) {
+        minScreenSizes = new double[] { lod1, lod2, lod3 };
+    }
+}
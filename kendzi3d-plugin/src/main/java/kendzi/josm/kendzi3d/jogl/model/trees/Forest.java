@@ -22,11 +22,11 @@ import org.apache.log4j.Logger;
 import org.openstreetmap.josm.data.osm.Way;
 
 import com.jogamp.opengl.GL2;
-import com.jogamp.opengl.fixedfunc.GLLightingFunc;
 
 import kendzi.jogl.camera.Camera;
 import kendzi.jogl.model.geometry.Bounds;
 import kendzi.jogl.model.geometry.Model;
+import kendzi.jogl.model.render.InstanceBuffer;
 import kendzi.jogl.model.render.ModelRender;
 import kendzi.jogl.util.DrawUtil;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportItem;
@@ -82,6 +82,26 @@ public class Forest extends AbstractWayModel implements MultiPointWorldObject {
 
     private List<HeightCluster> clusterHook;
 
+    /**
+     * Instances of trees in clusters.
+     */
+    private final Map<HeightCluster, InstanceBuffer> clusterInstances = new HashMap<HeightCluster, InstanceBuffer>();
+
+    /**
+     * Instances of trees for all hook points.
+     */
+    private InstanceBuffer hookInstances;
+
+    /**
+     * Scale used to calculate instances.
+     */
+    private Vector3d instancesScale;
+
+    /**
+     * Global position used to calculate instances.
+     */
+    private Point2d instancesOrigin;
+
     /**
      * @param pWay
      *            way
@@ -110,6 +130,14 @@ public class Forest extends AbstractWayModel implements MultiPointWorldObject {
         buildModel(LOD.LOD4);
         buildModel(LOD.LOD5);
 
+        // trees are drawn for all hook points or in clusters scaled by height
+        Bounds treeBounds = modelLod.get(LOD.LOD1).getBounds();
+        Bounds bounds = instanceBounds(treeBounds, createHookInstances());
+        for (HeightCluster cluster : clusterHook) {
+            bounds = union(bounds, instanceBounds(treeBounds, createClusterInstances(cluster)));
+        }
+        modelBounds = bounds;
+
         buildModel = true;
     }
 
@@ -428,58 +456,77 @@ public class Forest extends AbstractWayModel implements MultiPointWorldObject {
         Model model2 = modelLod.get(pLod);
 
         if (model2 != null) {
-
-            Integer dl = getDisplayList(model2);
-
-            if (dl == null) {
-                dl = createDisplayList(gl, model2);
-            }
-
-            gl.glEnable(GLLightingFunc.GL_NORMALIZE);
-
-            for (Point2d hook : hookPoints) {
-
-                gl.glPushMatrix();
-
-                gl.glTranslated(getGlobalX() + hook.x, 0, -(getGlobalY() + hook.y));
-
-                gl.glScaled(scale.x, scale.y, scale.z);
-
-                gl.glCallList(dl);
-
-                gl.glPopMatrix();
-            }
-
-            gl.glDisable(GLLightingFunc.GL_NORMALIZE);
+            modelRender.renderInstances(gl, model2, getHookInstances());
         }
     }
 
-    private int createDisplayList(GL2 gl, Model model2) {
+    /**
+     * Instances of trees for all hook points.
+     *
+     * @return instances
+     */
+    private InstanceBuffer getHookInstances() {
+        validateInstances();
 
-        // create one display list
-        int index = gl.glGenLists(1);
+        if (hookInstances == null) {
+            hookInstances = createHookInstances();
+        }
+        return hookInstances;
+    }
 
-        // XXX for texture download
-        modelRender.render(gl, model2);
+    private InstanceBuffer createHookInstances() {
+        InstanceBuffer instances = new InstanceBuffer(hookPoints.size());
+        for (Point2d hook : hookPoints) {
+            instances.add(getGlobalX() + hook.x, 0, -(getGlobalY() + hook.y), scale.x, scale.y, scale.z);
+        }
+        return instances;
+    }
 
-        // compile the display list, store a triangle in it
-        gl.glNewList(index, GL2.GL_COMPILE);
+    /**
+     * Instances of trees in cluster. Each tree is scaled by its height.
+     *
+     * @param cluster
+     *            cluster
+     * @return instances
+     */
+    private InstanceBuffer getClusterInstances(HeightCluster cluster) {
+        validateInstances();
 
-        modelRender.resetFaceCount();
-        modelRender.render(gl, model2);
-        log.info("***> face count: " + modelRender.getFaceCount());
+        InstanceBuffer instances = clusterInstances.get(cluster);
+        if (instances == null) {
+            instances = createClusterInstances(cluster);
+            clusterInstances.put(cluster, instances);
+        }
+        return instances;
+    }
 
-        gl.glEndList();
+    private InstanceBuffer createClusterInstances(HeightCluster cluster) {
+        List<Point2d> hookPoints = cluster.getHook();
+        double[] heights = cluster.getHeight();
 
-        displayList.put(model2, index == 0 ? null : index);
+        InstanceBuffer instances = new InstanceBuffer(hookPoints.size());
+        for (int i = 0; i < hookPoints.size(); i++) {
+            Point2d hook = hookPoints.get(i);
+            double height = heights[i];
 
-        return index;
+            instances.add(getGlobalX() + hook.x, 0, -(getGlobalY() + hook.y), scale.x * height, scale.y * height,
+                    scale.z * height);
+        }
+        return instances;
     }
 
-    Map<Model, Integer> displayList = new HashMap<Model, Integer>();
-
-    private Integer getDisplayList(Model model2) {
-        return displayList.get(model2);
+    /**
+     * Instances depend on scale and global position which can change when
+     * models are rebuild.
+     */
+    private void validateInstances() {
+        Point2d origin = new Point2d(getGlobalX(), getGlobalY());
+        if (instancesScale == null || !instancesScale.equals(scale) || !instancesOrigin.equals(origin)) {
+            clusterInstances.clear();
+            hookInstances = null;
+            instancesScale = new Vector3d(scale);
+            instancesOrigin = origin;
+        }
     }
 
     @Override
@@ -506,43 +553,13 @@ public class Forest extends AbstractWayModel implements MultiPointWorldObject {
             }
 
             LOD lod = getLods(c.getCenter(), localCamera);
-            List<Point2d> hookPoints = c.getHook();
-            double[] heights = c.getHeight();
 
             Model model2 = modelLod.get(lod);
 
             if (model2 != null) {
-
-                Integer dl = getDisplayList(model2);
-
-                if (dl == null) {
-                    dl = createDisplayList(gl, model2);
-                }
-
-                gl.glEnable(GLLightingFunc.GL_NORMALIZE);
-
-                int i = 0;
-                for (Point2d hook : hookPoints) {
-
-                    double height = heights[i];
-
-                    gl.glPushMatrix();
-
-                    gl.glTranslated(getGlobalX() + hook.x, 0, -(getGlobalY() + hook.y));
-
-                    gl.glScaled(scale.x * height, scale.y * height, scale.z * height);
-
-                    gl.glCallList(dl);
-
-                    gl.glPopMatrix();
-                    i++;
-                }
-
-                gl.glDisable(GLLightingFunc.GL_NORMALIZE);
+                modelRender.renderInstances(gl, model2, getClusterInstances(c));
             }
-
         }
-
     }
 
     public static LOD getLods(Point3d point, Point3d camera) {
@@ -11,7 +11,6 @@ import java.util.EnumMap;
 import java.util.List;
 
 import com.jogamp.opengl.GL2;
-import com.jogamp.opengl.fixedfunc.GLLightingFunc;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector3d;
 
@@ -21,6 +20,7 @@ import kendzi.jogl.model.geometry.Model;
 import kendzi.jogl.model.geometry.material.AmbientDiffuseComponent;
 import kendzi.jogl.model.geometry.material.Material;
 import kendzi.jogl.model.loader.ModelLoadException;
+import kendzi.jogl.model.render.InstanceBuffer;
 import kendzi.jogl.model.render.ModelRender;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportItem;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportModelConf;
@@ -72,6 +72,11 @@ public class Tree extends AbstractPointModel implements DLODSuport {
 
     private double minHeight;
 
+    /**
+     * Transformation of tree instance.
+     */
+    private final InstanceBuffer instance = new InstanceBuffer(1);
+
     /**
      * @param node
      *            node
@@ -104,6 +109,10 @@ public class Tree extends AbstractPointModel implements DLODSuport {
 
         buildModel(LOD.LOD1);
 
+        InstanceBuffer instances = new InstanceBuffer(1);
+        addInstance(instances);
+        modelBounds = instanceBounds(modelLod.get(LOD.LOD1).getBounds(), instances);
+
         buildModel = true;
     }
 
@@ -287,24 +296,21 @@ public class Tree extends AbstractPointModel implements DLODSuport {
     public void draw(GL2 gl, Camera camera, LOD pLod) {
         Model model2 = modelLod.get(pLod);
         if (model2 != null) {
-
-            gl.glPushMatrix();
-            gl.glTranslated(getGlobalX(), minHeight, -getGlobalY());
-
-            gl.glEnable(GLLightingFunc.GL_NORMALIZE);
-            gl.glScaled(scale.x, scale.y, scale.z);
-
-            modelRender.render(gl, model2);
-
-            gl.glDisable(GLLightingFunc.GL_NORMALIZE);
-
-            // rotate in the opposite direction to the camera
-
-            gl.glPopMatrix();
-
+            /*
+             * Tree is drawn as instance so the same tree models from all nodes
+             * can be drawn together.
+             */
+            instance.clear();
+            addInstance(instance);
+
+            modelRender.renderInstances(gl, model2, instance);
         }
     }
 
+    private void addInstance(InstanceBuffer instances) {
+        instances.add(getGlobalX(), minHeight, -getGlobalY(), scale.x, scale.y, scale.z);
+    }
+
     @Override
     public void draw(GL2 gl, Camera camera, boolean selected) {
         draw(gl, camera);
@@ -11,7 +11,6 @@ import java.util.EnumMap;
 import java.util.List;
 
 import com.jogamp.opengl.GL2;
-import com.jogamp.opengl.fixedfunc.GLLightingFunc;
 import javax.vecmath.Point2d;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector2d;
@@ -20,6 +19,7 @@ import javax.vecmath.Vector3d;
 import kendzi.jogl.camera.Camera;
 import kendzi.jogl.model.geometry.Bounds;
 import kendzi.jogl.model.geometry.Model;
+import kendzi.jogl.model.render.InstanceBuffer;
 import kendzi.jogl.model.render.ModelRender;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportItem;
 import kendzi.josm.kendzi3d.jogl.model.export.ExportModelConf;
@@ -70,6 +70,21 @@ public class TreeRow extends AbstractWayModel implements DLODSuport, MultiPointW
 
     private Integer numOfTrees;
 
+    /**
+     * Instances of trees for all hook points.
+     */
+    private InstanceBuffer hookInstances;
+
+    /**
+     * Scale used to calculate instances.
+     */
+    private Vector3d instancesScale;
+
+    /**
+     * Global position used to calculate instances.
+     */
+    private Point2d instancesOrigin;
+
     /**
      * @param pWay
      *            way
@@ -94,6 +109,8 @@ public class TreeRow extends AbstractWayModel implements DLODSuport, MultiPointW
 
         buildModel(LOD.LOD1);
 
+        modelBounds = instanceBounds(modelLod.get(LOD.LOD1).getBounds(), createHookInstances());
+
         buildModel = true;
     }
 
@@ -231,24 +248,33 @@ public class TreeRow extends AbstractWayModel implements DLODSuport, MultiPointW
     public void draw(GL2 gl, Camera camera, LOD pLod) {
         Model model2 = modelLod.get(pLod);
         if (model2 != null) {
+            modelRender.renderInstances(gl, model2, getHookInstances());
+        }
+    }
 
-            gl.glEnable(GLLightingFunc.GL_NORMALIZE);
-
-            for (Point2d hook : hookPoints) {
-
-                gl.glPushMatrix();
-
-                gl.glTranslated(getGlobalX() + hook.x, 0, -(getGlobalY() + hook.y));
-
-                gl.glScaled(scale.x, scale.y, scale.z);
-
-                modelRender.render(gl, model2);
+    /**
+     * Instances of trees for all hook points. Instances depend on scale and
+     * global position which can change when model is rebuild.
+     *
+     * @return instances
+     */
+    private InstanceBuffer getHookInstances() {
+        Point2d origin = new Point2d(getGlobalX(), getGlobalY());
 
-                gl.glPopMatrix();
-            }
+        if (hookInstances == null || !instancesScale.equals(scale) || !instancesOrigin.equals(origin)) {
+            hookInstances = createHookInstances();
+            instancesScale = new Vector3d(scale);
+            instancesOrigin = origin;
+        }
+        return hookInstances;
+    }
 
-            gl.glDisable(GLLightingFunc.GL_NORMALIZE);
+    private InstanceBuffer createHookInstances() {
+        InstanceBuffer instances = new InstanceBuffer(hookPoints.size());
+        for (Point2d hook : hookPoints) {
+            instances.add(getGlobalX() + hook.x, 0, -(getGlobalY() + hook.y), scale.x, scale.y, scale.z);
         }
+        return instances;
     }
 
     @Override
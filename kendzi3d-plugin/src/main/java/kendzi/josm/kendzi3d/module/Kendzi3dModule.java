@@ -1,5 +1,6 @@
 package kendzi.josm.kendzi3d.module;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +16,8 @@ import kendzi.jogl.camera.ViewportPicker;
 import kendzi.jogl.model.render.ModelRender;
 import kendzi.jogl.texture.TextureCacheService;
 import kendzi.jogl.texture.TextureCacheServiceImpl;
+import kendzi.jogl.texture.TextureDiskCache;
+import kendzi.jogl.texture.atlas.TextureAtlas;
 import kendzi.jogl.texture.builder.BwFileTextureBuilder;
 import kendzi.jogl.texture.builder.ColorTextureBuilder;
 import kendzi.jogl.texture.library.TextureLibraryService;
@@ -34,12 +37,16 @@ import kendzi.josm.kendzi3d.jogl.layer.WallLayer;
 import kendzi.josm.kendzi3d.jogl.layer.WaterLayer;
 import kendzi.josm.kendzi3d.jogl.layer.models.ModelsLibraryLayer;
 import kendzi.josm.kendzi3d.jogl.model.ground.GroundDrawer;
+import kendzi.josm.kendzi3d.jogl.model.ground.GroundTileCache;
 import kendzi.josm.kendzi3d.jogl.model.ground.SelectableGround;
 import kendzi.josm.kendzi3d.jogl.model.ground.SelectableGround.GroundType;
 import kendzi.josm.kendzi3d.jogl.model.ground.StyledTitleGroundDrawer;
+import kendzi.josm.kendzi3d.jogl.model.lod.LodBuilder;
+import kendzi.josm.kendzi3d.jogl.model.lod.LodSelector;
 import kendzi.josm.kendzi3d.jogl.skybox.SkyBox1Configuration;
 import kendzi.josm.kendzi3d.jogl.skybox.SkyBoxDrawer;
 import kendzi.josm.kendzi3d.module.binding.Kendzi3dPluginDirectory;
+import kendzi.josm.kendzi3d.service.BuildingCacheService;
 import kendzi.josm.kendzi3d.service.MetadataCacheService;
 import kendzi.josm.kendzi3d.service.ModelCacheService;
 import kendzi.josm.kendzi3d.service.WikiTextureLoaderService;
@@ -49,6 +56,7 @@ import kendzi.kendzi3d.editor.EditableObjectProvider;
 import kendzi.kendzi3d.editor.EditorCore;
 import kendzi.kendzi3d.editor.selection.ObjectSelectionManager;
 import kendzi.kendzi3d.editor.selection.ViewportProvider;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
 import kendzi.kendzi3d.models.library.dao.LibraryResourcesDao;
 import kendzi.kendzi3d.models.library.dao.LibraryResourcesJosmDao;
 import kendzi.kendzi3d.models.library.service.ModelsLibraryService;
@@ -62,7 +70,41 @@ import kendzi3d.light.service.LightRenderService;
 import kendzi3d.light.service.LightStorageService;
 import kendzi3d.light.service.impl.LightService;
 
+import org.openstreetmap.josm.spi.preferences.Config;
+
 public class Kendzi3dModule extends AbstractModule {
+
+    /**
+     * Preference with size of texture cache in megabytes.
+     */
+    public static final String TEXTURE_CACHE_SIZE = "kendzi3d.texture.cache.size";
+
+    /**
+     * Preference with size of decoded texture disk cache in megabytes.
+     */
+    public static final String TEXTURE_CACHE_DISK_SIZE = "kendzi3d.texture.cache.disk.size";
+
+    /**
+     * Preference if built building geometry is stored on disk.
+     */
+    public static final String BUILDING_CACHE_DISK = "kendzi3d.building.cache.disk";
+
+    /**
+     * Preference with size of building geometry disk cache in megabytes.
+     */
+    public static final String BUILDING_CACHE_DISK_SIZE = "kendzi3d.building.cache.disk.size";
+
+    /**
+     * Preference of maximal number of frames per second, 0 when frame rate is
+     * not limited.
+     */
+    public static final String MAX_FPS = "kendzi3d.max.fps";
+
+    /**
+     * Preference of maximal number of styled ground tiles kept in memory.
+     */
+    public static final String GROUND_TILES_MAX = "kendzi3d.ground.tiles.max";
+
     private final String pluginDirectory;
     private List<Layer> layers;
 
@@ -116,6 +158,8 @@ public class Kendzi3dModule extends AbstractModule {
         bind(EditableObjectProvider.class).to(Kendzi3dCore.class).in(Singleton.class);
         bind(Viewport.class).in(Singleton.class);
         bind(ViewportPicker.class).to(Viewport.class).in(Singleton.class);
+        bind(LodSelector.class).in(Singleton.class);
+        bind(LodBuilder.class).in(Singleton.class);
 
         bind(ViewportProvider.class).to(Kendzi3dGLEventListener.class);
 
@@ -130,21 +174,28 @@ public class Kendzi3dModule extends AbstractModule {
     @Provides
     @Singleton
     SelectableGround provideSelectableGround(TextureCacheService textureCacheService,
-            TextureLibraryStorageService TextureLibraryStorageService, final Kendzi3dCore kendzi3dCore) {
+            TextureLibraryStorageService TextureLibraryStorageService, final Kendzi3dCore kendzi3dCore,
+            RedrawScheduler redrawScheduler) {
 
         SelectableGround ground = new SelectableGround();
 
+        GroundTileCache groundTileCache = new GroundTileCache(redrawScheduler);
+        groundTileCache.setMaxTiles(Config.getPref().getInt(GROUND_TILES_MAX, GroundTileCache.DEFAULT_MAX_TILES));
+        groundTileCache.register();
+
         ground.addGroundDrawer(GroundType.SINGLE_TEXTURE, new GroundDrawer(textureCacheService, TextureLibraryStorageService));
-        ground.addGroundDrawer(GroundType.STYLED_TITLE, new StyledTitleGroundDrawer(textureCacheService, kendzi3dCore));
+        ground.addGroundDrawer(GroundType.STYLED_TITLE,
+                new StyledTitleGroundDrawer(textureCacheService, kendzi3dCore, groundTileCache));
 
         return ground;
     }
 
     @Provides
     @Singleton
-    EditorObjectsProducer provideEditorObjectsProducer(Kendzi3dCore core, DataConsumersMonitor dataConsumersMonitor) {
+    EditorObjectsProducer provideEditorObjectsProducer(Kendzi3dCore core, DataConsumersMonitor dataConsumersMonitor,
+            TextureAtlas textureAtlas) {
 
-        EditorObjectsProducer producer = new EditorObjectsProducer(core, dataConsumersMonitor);
+        EditorObjectsProducer producer = new EditorObjectsProducer(core, dataConsumersMonitor, textureAtlas);
 
         // All objects should be produced in separate thread .
         Thread editorObjectsProducerThread = new Thread(producer, "Editor objects producer thread");
@@ -153,6 +204,14 @@ public class Kendzi3dModule extends AbstractModule {
         return producer;
     }
 
+    @Provides
+    @Singleton
+    RedrawScheduler provideRedrawScheduler() {
+        RedrawScheduler redrawScheduler = new RedrawScheduler();
+        redrawScheduler.setMaxFps(Config.getPref().getInt(MAX_FPS, 60));
+        return redrawScheduler;
+    }
+
     @Provides
     @Singleton
     TextureLibraryStorageService provideTextureLibraryStorageService(ResourceService pUrlReciverService) {
@@ -160,6 +219,17 @@ public class Kendzi3dModule extends AbstractModule {
         return textureLibraryService;
     }
 
+    @Provides
+    @Singleton
+    BuildingCacheService provideBuildingCacheService(TextureLibraryStorageService textureLibraryStorageService) {
+        File directory = Config.getPref().getBoolean(BUILDING_CACHE_DISK, true) ? new File(pluginDirectory, "cache/buildings")
+                : null;
+        BuildingCacheService buildingCacheService = new BuildingCacheService(textureLibraryStorageService, directory);
+        buildingCacheService.setMaxDiskSize(1024L * 1024 * Config.getPref().getInt(BUILDING_CACHE_DISK_SIZE,
+                (int) (BuildingCacheService.DEFAULT_MAX_DISK_SIZE / (1024 * 1024))));
+        return buildingCacheService;
+    }
+
     @Provides
     @Singleton
     TextureCacheService provideTextureCacheService(ResourceService pUrlReciverService) {
@@ -167,9 +237,24 @@ public class Kendzi3dModule extends AbstractModule {
         textureCacheService.setFileUrlReciverService(pUrlReciverService);
         textureCacheService.addTextureBuilder(new ColorTextureBuilder());
         textureCacheService.addTextureBuilder(new BwFileTextureBuilder(pUrlReciverService));
+        textureCacheService.setMaxMemorySize(1024L * 1024 * Config.getPref().getInt(TEXTURE_CACHE_SIZE,
+                (int) (TextureCacheServiceImpl.DEFAULT_MAX_MEMORY_SIZE / (1024 * 1024))));
+        textureCacheService.setAsyncLoading(true);
+        TextureDiskCache textureDiskCache = new TextureDiskCache(new File(pluginDirectory, "cache/textures"));
+        textureDiskCache.setMaxDiskSize(1024L * 1024 * Config.getPref().getInt(TEXTURE_CACHE_DISK_SIZE,
+                (int) (TextureDiskCache.DEFAULT_MAX_DISK_SIZE / (1024 * 1024))));
+        textureCacheService.setDiskCache(textureDiskCache);
         return textureCacheService;
     }
 
+    @Provides
+    @Singleton
+    TextureAtlas provideTextureAtlas(TextureCacheService textureCacheService) {
+        TextureAtlas textureAtlas = new TextureAtlas("buildings", 2048, 256, textureCacheService);
+        ((TextureCacheServiceImpl) textureCacheService).addTextureBuilder(textureAtlas);
+        return textureAtlas;
+    }
+
     @Provides
     @Singleton
     ModelRender provideModelRender(TextureCacheService pTextureCacheService) {
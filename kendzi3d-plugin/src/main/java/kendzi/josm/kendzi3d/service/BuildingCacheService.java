@@ -0,0 +1,539 @@
+/*
+ * This software is provided "AS IS" without a warranty of any kind. You use it
+ * on your own risk and responsibility!!! This file is shared under BSD v3
+ * license. See readme.txt and BSD3 file for details.
+ */
+
+package kendzi.josm.kendzi3d.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.vecmath.Point2d;
+import javax.vecmath.Point3d;
+
+import org.apache.log4j.Logger;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+
+import kendzi.jogl.model.geometry.Model;
+import kendzi.jogl.model.loader.BinaryModelFormat;
+import kendzi.jogl.texture.library.TextureLibraryStorageService;
+import kendzi.kendzi3d.buildings.builder.BuildingDetail;
+import kendzi.kendzi3d.buildings.output.BuildingOutput;
+import kendzi.kendzi3d.josm.model.perspective.Perspective;
+
+/**
+ * Cache of built building geometry. Geometry is addressed by digest of
+ * everything used to build it: tags and coordinates of building primitives,
+ * nodes and roof lines connected to them and version of texture library.
+ * Coordinates are taken relative to origin of building, its first node, so
+ * key don't depend on center of perspective. Geometry is kept in memory and
+ * optionally stored on disk relative to origin, so the same area loaded again
+ * don't need to be built. Disk cache is limited by size, least recently used
+ * files are removed first.
+ *
+ * Cache can be used from any thread.
+ */
+public class BuildingCacheService {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(BuildingCacheService.class);
+
+    /**
+     * Version of building geometry. Should be changed when building builder
+     * generates different geometry for the same input.
+     */
+    private static final int GEOMETRY_VERSION = 2;
+
+    /**
+     * Precision of coordinates used in key, in meters.
+     */
+    private static final double KEY_PRECISION = 0.001d;
+
+    /**
+     * Default maximal size of disk cache in bytes.
+     */
+    public static final long DEFAULT_MAX_DISK_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * Number of files stored after which disk cache size is checked.
+     */
+    private static final int DISK_CHECK_INTERVAL = 500;
+
+    /**
+     * Default maximal number of geometries kept in memory.
+     */
+    public static final int DEFAULT_MAX_MEMORY_ENTRIES = 4000;
+
+    private final TextureLibraryStorageService textureLibraryStorageService;
+
+    /**
+     * Directory of disk cache, null when disk cache is not used.
+     */
+    private final File directory;
+
+    private int maxMemoryEntries = DEFAULT_MAX_MEMORY_ENTRIES;
+
+    private volatile long maxDiskSize = DEFAULT_MAX_DISK_SIZE;
+
+    /**
+     * Number of files stored since last check of disk cache size.
+     */
+    private final AtomicInteger storedSinceCheck = new AtomicInteger(DISK_CHECK_INTERVAL);
+
+    private final AtomicBoolean cleaningDisk = new AtomicBoolean();
+
+    /**
+     * Geometry in least recently used order.
+     */
+    private final Map<String, BuildingOutput> memory = new LinkedHashMap<String, BuildingOutput>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BuildingOutput> eldest) {
+            return size() > maxMemoryEntries;
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param textureLibraryStorageService
+     *            texture library service
+     * @param directory
+     *            directory of disk cache, null to keep geometry only in
+     *            memory
+     */
+    public BuildingCacheService(TextureLibraryStorageService textureLibraryStorageService, File directory) {
+        this.textureLibraryStorageService = textureLibraryStorageService;
+        this.directory = directory;
+    }
+
+    /**
+     * Creates key of building geometry. Coordinates are relative to
+     * {@link #origin(OsmPrimitive, Perspective)}, so the same building gives
+     * the same key for any center of perspective.
+     *
+     * @param primitive
+     *            primitive of building
+     * @param perspective
+     *            perspective
+     * @return key of building geometry
+     */
+    public String key(OsmPrimitive primitive, Perspective perspective) {
+        MessageDigest digest = createDigest();
+
+        update(digest, GEOMETRY_VERSION);
+        update(digest, textureLibraryStorageService.getVersion());
+
+        Point2d origin = origin2d(primitive, perspective, new HashSet<OsmPrimitive>());
+        if (origin == null) {
+            origin = new Point2d();
+        }
+
+        updatePrimitive(digest, primitive, new KeyPerspective(perspective, origin), new HashSet<OsmPrimitive>());
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Finds origin of building, point of its first node with known location.
+     * Geometry on disk is stored relative to it.
+     *
+     * @param primitive
+     *            primitive of building
+     * @param perspective
+     *            perspective
+     * @return origin in world coordinates or null if building don't have any
+     *         node with known location
+     */
+    public Point3d origin(OsmPrimitive primitive, Perspective perspective) {
+        Point2d origin = origin2d(primitive, perspective, new HashSet<OsmPrimitive>());
+        if (origin == null) {
+            return null;
+        }
+        return new Point3d(origin.x, 0, -origin.y);
+    }
+
+    private static Point2d origin2d(OsmPrimitive primitive, Perspective perspective, Set<OsmPrimitive> visited) {
+        if (!visited.add(primitive)) {
+            return null;
+        }
+        if (primitive instanceof Node) {
+            Node node = (Node) primitive;
+            return node.isLatLonKnown() ? perspective.calcPoint(node) : null;
+        }
+        if (primitive instanceof Way) {
+            for (Node node : ((Way) primitive).getNodes()) {
+                if (node.isLatLonKnown()) {
+                    return perspective.calcPoint(node);
+                }
+            }
+        } else if (primitive instanceof Relation) {
+            for (RelationMember member : ((Relation) primitive).getMembers()) {
+                Point2d origin = origin2d(member.getMember(), perspective, visited);
+                if (origin != null) {
+                    return origin;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Perspective which calculates points relative to origin and rounds them,
+     * rounding hides floating point differences between perspectives.
+     */
+    private static class KeyPerspective implements Perspective {
+
+        private final Perspective perspective;
+        private final Point2d origin;
+
+        KeyPerspective(Perspective perspective, Point2d origin) {
+            this.perspective = perspective;
+            this.origin = origin;
+        }
+
+        @Override
+        public Point2d calcPoint(Node node) {
+            Point2d point = perspective.calcPoint(node);
+            return new Point2d(round(point.x - origin.x), round(point.y - origin.y));
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value / KEY_PRECISION) * KEY_PRECISION;
+    }
+
+    private static void updatePrimitive(MessageDigest digest, OsmPrimitive primitive, Perspective perspective,
+            Set<OsmPrimitive> visited) {
+
+        if (!visited.add(primitive)) {
+            // relation loops
+            update(digest, "loop");
+            return;
+        }
+
+        if (primitive instanceof Node) {
+            update(digest, "n");
+            updateTags(digest, primitive);
+            updateNode(digest, (Node) primitive, perspective);
+
+        } else if (primitive instanceof Way) {
+            Way way = (Way) primitive;
+            update(digest, "w");
+            updateTags(digest, way);
+            updateWay(digest, way, perspective);
+
+            // roof lines are taken from ways connected to building nodes
+            Map<Long, Way> connected = new TreeMap<Long, Way>();
+            for (Node node : way.getNodes()) {
+                for (OsmPrimitive referrer : node.getReferrers()) {
+                    if (referrer instanceof Way && !referrer.equals(way)) {
+                        connected.put(referrer.getUniqueId(), (Way) referrer);
+                    }
+                }
+            }
+            for (Way connectedWay : connected.values()) {
+                update(digest, "c");
+                updateTags(digest, connectedWay);
+                updateWay(digest, connectedWay, perspective);
+            }
+
+        } else if (primitive instanceof Relation) {
+            Relation relation = (Relation) primitive;
+            update(digest, "r");
+            updateTags(digest, relation);
+            update(digest, relation.getMembersCount());
+            for (RelationMember member : relation.getMembers()) {
+                update(digest, member.getRole());
+                updatePrimitive(digest, member.getMember(), perspective, visited);
+            }
+        }
+    }
+
+    private static void updateWay(MessageDigest digest, Way way, Perspective perspective) {
+        update(digest, way.getNodesCount());
+        for (Node node : way.getNodes()) {
+            updateTags(digest, node);
+            updateNode(digest, node, perspective);
+        }
+    }
+
+    private static void updateNode(MessageDigest digest, Node node, Perspective perspective) {
+        if (!node.isLatLonKnown()) {
+            update(digest, "unknown");
+            return;
+        }
+        Point2d point = perspective.calcPoint(node);
+        update(digest, point.x);
+        update(digest, point.y);
+    }
+
+    private static void updateTags(MessageDigest digest, OsmPrimitive primitive) {
+        Map<String, String> tags = new TreeMap<String, String>(primitive.getKeys());
+        update(digest, tags.size());
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            update(digest, tag.getKey());
+            update(digest, tag.getValue());
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, int value) {
+        digest.update(ByteBuffer.allocate(4).putInt(value).array());
+    }
+
+    private static void update(MessageDigest digest, double value) {
+        digest.update(ByteBuffer.allocate(8).putDouble(value).array());
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit(b >> 4 & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets building geometry from memory. Geometry in memory is in world
+     * coordinates, so it is found only for building at the same origin.
+     *
+     * @param key
+     *            key of building geometry
+     * @param origin
+     *            origin of building
+     * @param detail
+     *            level of detail
+     * @return building geometry or null if it is not in memory
+     */
+    public synchronized BuildingOutput get(String key, Point3d origin, BuildingDetail detail) {
+        return memory.get(memoryKey(key, origin, detail));
+    }
+
+    /**
+     * Puts building geometry into memory.
+     *
+     * @param key
+     *            key of building geometry
+     * @param origin
+     *            origin of building
+     * @param detail
+     *            level of detail
+     * @param output
+     *            building geometry
+     */
+    public synchronized void put(String key, Point3d origin, BuildingDetail detail, BuildingOutput output) {
+        memory.put(memoryKey(key, origin, detail), output);
+    }
+
+    private static String memoryKey(String key, Point3d origin, BuildingDetail detail) {
+        return key + "|" + round(origin.x) + "|" + round(origin.z) + "|" + detail;
+    }
+
+    /**
+     * Loads building model from disk and moves it to origin.
+     *
+     * @param key
+     *            key of building geometry
+     * @param origin
+     *            origin of building
+     * @param detail
+     *            level of detail
+     * @return model or null if it is not stored on disk
+     */
+    public Model load(String key, Point3d origin, BuildingDetail detail) {
+        File file = file(key, detail);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                Model model = BinaryModelFormat.read(in, origin);
+                // modification time is used as last access time by clean up
+                file.setLastModified(System.currentTimeMillis());
+                return model;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            log.warn("can't read building cache file: " + file, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Stores building model on disk relative to origin. Model should be stored
+     * before it is changed to use texture atlas.
+     *
+     * @param key
+     *            key of building geometry
+     * @param origin
+     *            origin of building
+     * @param detail
+     *            level of detail
+     * @param model
+     *            model
+     */
+    public void store(String key, Point3d origin, BuildingDetail detail, Model model) {
+        File file = file(key, detail);
+        if (file == null) {
+            return;
+        }
+        File tmp = new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+
+        try {
+            File dir = file.getParentFile();
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                log.warn("can't create building cache directory: " + dir);
+                return;
+            }
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                BinaryModelFormat.write(model, origin, out);
+            } finally {
+                out.close();
+            }
+
+            if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+                log.warn("can't store building cache file: " + file);
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            log.warn("can't write building cache file: " + file, e);
+            tmp.delete();
+        }
+
+        if (storedSinceCheck.incrementAndGet() > DISK_CHECK_INTERVAL) {
+            storedSinceCheck.set(0);
+            cleanDisk();
+        }
+    }
+
+    /**
+     * Removes least recently used files from disk cache when it is bigger
+     * than maximal size. Only one thread cleans cache at time, other threads
+     * don't wait for it.
+     */
+    public void cleanDisk() {
+        if (directory == null || !cleaningDisk.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<File> files = new ArrayList<File>();
+            long size = 0;
+
+            File[] dirs = directory.listFiles();
+            if (dirs == null) {
+                return;
+            }
+            for (File dir : dirs) {
+                File[] dirFiles = dir.listFiles();
+                if (dirFiles == null) {
+                    continue;
+                }
+                for (File file : dirFiles) {
+                    files.add(file);
+                    size += file.length();
+                }
+            }
+
+            if (size <= maxDiskSize) {
+                return;
+            }
+
+            // remove to 3/4 of limit, so clean up is not run after each store
+            long target = maxDiskSize / 4 * 3;
+
+            Collections.sort(files, (f1, f2) -> Long.compare(f1.lastModified(), f2.lastModified()));
+            for (File file : files) {
+                if (size <= target) {
+                    break;
+                }
+                long length = file.length();
+                if (file.delete()) {
+                    size -= length;
+                }
+            }
+            log.info("building cache cleaned up, size: " + size);
+        } finally {
+            cleaningDisk.set(false);
+        }
+    }
+
+    private File file(String key, BuildingDetail detail) {
+        if (directory == null) {
+            return null;
+        }
+        // files are split into sub directories to keep directories small
+        return new File(new File(directory, key.substring(0, 2)),
+                key.substring(2) + "." + detail.name().toLowerCase() + ".mesh");
+    }
+
+    /**
+     * Removes all geometry from memory. Geometry stored on disk is not
+     * removed, keys of changed buildings will not match it.
+     */
+    public synchronized void clear() {
+        memory.clear();
+    }
+
+    /**
+     * @param maxDiskSize
+     *            maximal size of disk cache in bytes
+     */
+    public void setMaxDiskSize(long maxDiskSize) {
+        this.maxDiskSize = maxDiskSize;
+    }
+
+    /**
+     * @param maxMemoryEntries
+     *            maximal number of geometries kept in memory
+     */
+    public synchronized void setMaxMemoryEntries(int maxMemoryEntries) {
+        this.maxMemoryEntries = maxMemoryEntries;
+    }
+}
@@ -98,7 +98,7 @@ public class MetadataCacheService {
     /**
      * Clean up all textures from cache.
      */
-    public void clear() {
+    public synchronized void clear() {
         this.cacheModel.clear();
         this.cacheTexture.clear();
         loadMetadataProperties();
@@ -113,7 +113,7 @@ public class MetadataCacheService {
      *            name of texture, "textures." prefix is added.
      * @return metadata of texture
      */
-    public TextureMetadata getTexture(String pId) {
+    public synchronized TextureMetadata getTexture(String pId) {
         String key = "textures." + pId;
         TextureMetadata textureMetadata = this.cacheTexture.get(key);
         if (textureMetadata == null) {
@@ -132,7 +132,7 @@ public class MetadataCacheService {
      *            of model
      * @return metadata of model
      */
-    public ModelMetadata getModel(String pId) {
+    public synchronized ModelMetadata getModel(String pId) {
         String key = "models." + pId;
         ModelMetadata modelMetadata = this.cacheModel.get(key);
         if (modelMetadata == null) {
@@ -9,8 +9,10 @@
 
 package kendzi.josm.kendzi3d.service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,29 +30,77 @@ public class ModelCacheService {
     @Inject
     ResourceService urlReciverService;
 
-    private Map<String, Model> modelCache = new HashMap<String, Model>();
+    /**
+     * Models are loaded once per key. Threads asking for the same key wait for
+     * the same load, loads of different keys don't block each other.
+     */
+    private final ConcurrentMap<String, FutureTask<Model>> modelCache = new ConcurrentHashMap<String, FutureTask<Model>>();
 
     public Model getModel(String pId) {
-        return this.modelCache.get(pId);
+        FutureTask<Model> future = this.modelCache.get(pId);
+        if (future == null || !future.isDone()) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
     }
 
     public Model generateModel(String key, String parameter) throws ModelLoadException {
         String cacheKey = genaratedName(key, parameter);
 
-        Model model = this.modelCache.get(cacheKey);
-        if (model == null) {
-//            model = ModelLoader.load(key, urlReciverService);
+        return load(cacheKey, () -> generateParameters(key, parameter));
+    }
 
-            model = generateParameters(key, parameter);
+    private Model load(String cacheKey, ModelSource source) throws ModelLoadException {
+        FutureTask<Model> future = this.modelCache.get(cacheKey);
+        if (future == null) {
+            FutureTask<Model> newFuture = new FutureTask<Model>(source::load);
+            future = this.modelCache.putIfAbsent(cacheKey, newFuture);
+            if (future == null) {
+                future = newFuture;
+                future.run();
+            }
+        }
 
-            this.modelCache.put(cacheKey, model);
+        Model model;
+        try {
+            model = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModelLoadException("interrupted while loading model key: " + cacheKey);
+        } catch (ExecutionException e) {
+            // failed loads are not cached, next call will try again
+            this.modelCache.remove(cacheKey, future);
+            Throwable cause = e.getCause();
+            if (cause instanceof ModelLoadException) {
+                throw (ModelLoadException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ModelLoadException("can't load model key: " + cacheKey + ", " + cause);
         }
+
         if (model == null) {
+            this.modelCache.remove(cacheKey, future);
             throw new ModelLoadException("can't find model key: " + cacheKey);
         }
         return model;
     }
 
+    /**
+     * Loads model for cache.
+     */
+    private interface ModelSource {
+        Model load() throws ModelLoadException;
+    }
+
     /**
      * @param key
      * @param parameter
@@ -104,15 +154,7 @@ public class ModelCacheService {
 //    }
 
     public Model loadModel(String key) throws ModelLoadException {
-        Model model = this.modelCache.get(key);
-        if (model == null) {
-            model = ModelLoader.load(key, urlReciverService);
-            this.modelCache.put(key, model);
-        }
-        if (model == null) {
-            throw new ModelLoadException("can't find model key: " + key);
-        }
-        return model;
+        return load(key, () -> ModelLoader.load(key, urlReciverService));
     }
 
     public void clear() {
@@ -12,6 +12,7 @@ import kendzi.jogl.camera.Viewport;
 import kendzi.jogl.drawer.AxisLabels;
 import kendzi.jogl.drawer.TilesSurface;
 import kendzi.jogl.model.render.ModelRender;
+import kendzi.jogl.texture.TextureCacheService;
 import kendzi.josm.kendzi3d.jogl.compas.CompassDrawer;
 import kendzi.josm.kendzi3d.jogl.model.DrawableModel;
 import kendzi.josm.kendzi3d.jogl.model.WorldObjectDebugDrawable;
@@ -44,6 +45,12 @@ public class Kendzi3dGLEventListener extends BaseEditorGLEventListener {
     @Inject
     private ModelRender modelRender;
 
+    /**
+     * Texture cache.
+     */
+    @Inject
+    private TextureCacheService textureCacheService;
+
     /**
      * XXX Viewprot should be used. Need to be refactored.
      */
@@ -85,6 +92,15 @@ public class Kendzi3dGLEventListener extends BaseEditorGLEventListener {
         axisLabels.init();
         compass.init(gl);
         lightRender.init(gl);
+        modelRender.init(gl);
+        ground.init(gl);
+    }
+
+    @Override
+    public void dispose(GLAutoDrawable drawable) {
+        super.dispose(drawable);
+
+        modelRender.dispose(drawable.getGL().getGL2());
     }
 
     @Override
@@ -95,6 +111,8 @@ public class Kendzi3dGLEventListener extends BaseEditorGLEventListener {
     @Override
     protected void drawBeforeEditorObjects(GL2 gl, Viewport viewport2) {
 
+        textureCacheService.uploadLoaded(gl);
+
         modelRender.resetMaterials();
         modelRender.setupDefaultMaterial(gl);
 
@@ -146,6 +164,20 @@ public class Kendzi3dGLEventListener extends BaseEditorGLEventListener {
         return true;
     }
 
+    @Override
+    protected void drawEditorObjects(GL2 gl, Viewport viewport) {
+        /*
+         * Models of editor objects are collected in render queue and drawn
+         * together sorted by render state.
+         */
+        modelRender.beginQueue();
+        try {
+            super.drawEditorObjects(gl, viewport);
+        } finally {
+            modelRender.flushQueue(gl, viewport.getPosition());
+        }
+    }
+
     @Override
     protected void drawEditorObject(GL2 gl, EditableObject editableObject, Viewport viewport) {
 
@@ -1,5 +1,9 @@
 package kendzi.josm.kendzi3d.ui;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 import com.jogamp.opengl.GLEventListener;
 
@@ -8,7 +12,11 @@ import kendzi.josm.kendzi3d.data.event.NewDataEvent;
 import kendzi.josm.kendzi3d.data.producer.DataConsumersMonitor;
 import kendzi.josm.kendzi3d.data.producer.DataEventListener;
 import kendzi.josm.kendzi3d.data.selection.SelectionSynchronizeManager;
+import kendzi.josm.kendzi3d.ui.fps.FpsChangeEvent;
+import kendzi.josm.kendzi3d.ui.fps.FpsListener;
 import kendzi.kendzi3d.editor.ui.BaseEditorFrame;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler;
+import kendzi.kendzi3d.editor.ui.RedrawScheduler.StatisticsListener;
 
 public class Kendzi3dGlFrame extends BaseEditorFrame {
 
@@ -26,6 +34,30 @@ public class Kendzi3dGlFrame extends BaseEditorFrame {
     @Inject
     private SelectionSynchronizeManager selectionSynchronizeManager;
 
+    @Inject
+    private RedrawScheduler redrawScheduler;
+
+    private final List<FpsListener> fpsListeners = new CopyOnWriteArrayList<FpsListener>();
+
+    private final long startTime = System.currentTimeMillis();
+
+    /**
+     * Converts frame statistics into fps events.
+     */
+    private final StatisticsListener statisticsListener = new StatisticsListener() {
+
+        @Override
+        public void onFrameStatistics(int activeFrames, int idleFrames, long period) {
+            int fps = (int) Math.round(activeFrames * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, period));
+
+            FpsChangeEvent event = new FpsChangeEvent(fps, System.currentTimeMillis() - startTime, activeFrames,
+                    idleFrames);
+            for (FpsListener fpsListener : fpsListeners) {
+                fpsListener.dispatchFpsChange(event);
+            }
+        }
+    };
+
     @Override
     public GLEventListener getGlEventListener() {
         return listener;
@@ -35,6 +67,8 @@ public class Kendzi3dGlFrame extends BaseEditorFrame {
     protected void onOpenWindow() {
         dataConsumersMonitor.addDataConsumer();
 
+        redrawScheduler.addStatisticsListener(statisticsListener);
+
         /*
          * OpenGl context is stored per window, if we open new one we need to
          * clean up old textures.
@@ -51,6 +85,27 @@ public class Kendzi3dGlFrame extends BaseEditorFrame {
     @Override
     protected void onCloseWindow() {
         dataConsumersMonitor.removeDataConsumer();
+
+        redrawScheduler.removeStatisticsListener(statisticsListener);
+    }
+
+    /**
+     * Adds listener of frame rate. Besides fps it receives number of drawn
+     * and idle frames, frames are drawn only when view is changed.
+     *
+     * @param fpsListener
+     *            fps listener
+     */
+    public void addFpsListener(FpsListener fpsListener) {
+        fpsListeners.add(fpsListener);
+    }
+
+    /**
+     * @param fpsListener
+     *            fps listener to remove
+     */
+    public void removeFpsListener(FpsListener fpsListener) {
+        fpsListeners.remove(fpsListener);
     }
 
 }
@@ -17,6 +17,8 @@ package kendzi.josm.kendzi3d.ui.fps;
 public class FpsChangeEvent {
     int fps;
     long time;
+    int activeFrames;
+    int idleFrames;
 
     /** Constructor.
      * @param fps fps
@@ -28,6 +30,18 @@ public class FpsChangeEvent {
         this.time = time;
     }
 
+    /** Constructor.
+     * @param fps fps
+     * @param time time when application is run
+     * @param activeFrames number of drawn frames in measured period
+     * @param idleFrames number of frames skipped in measured period because view was not changed
+     */
+    public FpsChangeEvent(int fps, long time, int activeFrames, int idleFrames) {
+        this(fps, time);
+        this.activeFrames = activeFrames;
+        this.idleFrames = idleFrames;
+    }
+
     /**
      * @return the fps
      */
@@ -53,11 +67,44 @@ public class FpsChangeEvent {
         this.time = time;
     }
 
+    /**
+     * @return the number of drawn frames
+     */
+    public int getActiveFrames() {
+        return this.activeFrames;
+    }
+    /**
+     * @param activeFrames the number of drawn frames to set
+     */
+    public void setActiveFrames(int activeFrames) {
+        this.activeFrames = activeFrames;
+    }
+    /**
+     * @return the number of frames skipped because view was not changed
+     */
+    public int getIdleFrames() {
+        return this.idleFrames;
+    }
+    /**
+     * @param idleFrames the number of skipped frames to set
+     */
+    public void setIdleFrames(int idleFrames) {
+        this.idleFrames = idleFrames;
+    }
+    /**
+     * @return ratio of idle frames to all frames, from 0 to 1
+     */
+    public double getIdleRatio() {
+        int frames = this.activeFrames + this.idleFrames;
+        return frames == 0 ? 0 : (double) this.idleFrames / frames;
+    }
+
     /* (non-Javadoc)
      * @see java.lang.Object#toString()
      */
     @Override
     public String toString() {
-        return "FpsChangeEvent [fps=" + this.fps + ", time=" + this.time + "]";
+        return "FpsChangeEvent [fps=" + this.fps + ", time=" + this.time + ", activeFrames=" + this.activeFrames
+                + ", idleFrames=" + this.idleFrames + "]";
     }
 }
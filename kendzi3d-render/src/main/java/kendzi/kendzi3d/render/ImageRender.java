@@ -6,6 +6,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.imageio.ImageIO;
 import javax.media.opengl.GLCapabilities;
@@ -20,6 +22,7 @@ import kendzi.josm.kendzi3d.jogl.model.Perspective3D;
 import kendzi.kendzi3d.render.conf.RenderEngineConf;
 import kendzi.kendzi3d.render.dataset.DataSetProvider;
 import kendzi.kendzi3d.render.listener.Kendzi3dTitleGLEventListener;
+import kendzi.kendzi3d.render.tile.MetaTile;
 import kendzi.kendzi3d.render.tile.Tile;
 import kendzi.kendzi3d.render.tile.TitleToLatLon;
 import kendzi.kendzi3d.render.tile.TitleToLatLon.BoundingBox;
@@ -68,8 +71,9 @@ public class ImageRender {
 
 
 
-        int width = 256;
-        int height = 256;
+        // buffer need to fit whole meta tile
+        int width = this.conf.getWidth() * this.conf.getMetaTileSize();
+        int height = this.conf.getHeight() * this.conf.getMetaTileSize();
 
 
         log.info("is set debug for GraphicsConfiguration: " + Debug.debug("GraphicsConfiguration"));
@@ -127,6 +131,61 @@ public class ImageRender {
         }
     }
 
+    /**
+     * Renders all tiles of meta tile in one pass. Data are loaded and models
+     * are build once for whole meta tile, rendered image is cut into tiles.
+     *
+     * @param mt meta tile
+     * @return images of tiles
+     */
+    public MetaTileRenderResult render(MetaTile mt) {
+        try {
+            int size = mt.getSize();
+            if (size > this.conf.getMetaTileSize()) {
+                throw new IllegalArgumentException("meta tile is bigger then render buffer: " + mt);
+            }
+
+            BoundingBox leftTopBox = TitleToLatLon.tile2boundingBox(mt.getX(), mt.getY(), mt.getZ());
+            BoundingBox rightBottomBox = TitleToLatLon.tile2boundingBox(mt.getX() + size - 1, mt.getY() + size - 1,
+                    mt.getZ());
+
+            LatLon leftTop = new LatLon(leftTopBox.north, leftTopBox.west);
+            LatLon rightBottom = new LatLon(rightBottomBox.south, rightBottomBox.east);
+
+            DataSet dataSet = this.dataSetProvider.findData(leftTop, rightBottom);
+
+            this.ff.getRenderJosm().processDatasetEvent(new DataChangedEvent(dataSet));
+
+            int width = this.conf.getWidth();
+            int height = this.conf.getHeight();
+
+            BufferedImage image = generateImage(
+                    leftTop,
+                    rightBottom,
+                    this.buf,
+                    this.ff,
+                    width * size,
+                    height * size,
+                    this.conf.getCameraAngleX(),
+                    this.conf.getCameraAngleY());
+
+            Map<Tile, byte[]> tileImages = new LinkedHashMap<Tile, byte[]>();
+            for (Tile t : mt.getTiles()) {
+                int i = t.getX() - mt.getX();
+                int j = t.getY() - mt.getY();
+
+                BufferedImage tileImage = image.getSubimage(i * width, j * height, width, height);
+
+                tileImages.put(t, toPng(tileImage));
+            }
+
+            return new MetaTileRenderResult(mt, tileImages);
+
+        } catch (Exception e) {
+            throw new RuntimeException("error rendering MetaTile: " + mt, e);
+        }
+    }
+
     public RenderResult render(LatLon leftTop, LatLon rightBottom) {
         try {
 
@@ -206,6 +265,16 @@ public class ImageRender {
             Kendzi3dTitleGLEventListener ff, int width, int height,
             double cameraAngleX, double cameraAngleY/*, String fileName*/ ) {
 
+        BufferedImage bufferedImage = generateImage(leftTop, rightBottom, buf, ff, width, height, cameraAngleX,
+                cameraAngleY);
+
+        return toPng(bufferedImage);
+    }
+
+    private static BufferedImage generateImage(LatLon leftTop, LatLon rightBottom, GLPbuffer buf,
+            Kendzi3dTitleGLEventListener ff, int width, int height,
+            double cameraAngleX, double cameraAngleY) {
+
         Perspective3D perspective = ff.getRenderJosm().getPerspective();
 
         Point2d leftTopPoint = perspective.calcPoint(Main.getProjection().latlon2eastNorth(leftTop));
@@ -233,8 +302,10 @@ public class ImageRender {
                 cameraAngleY);
         ff.dispose(buf);
 
-        BufferedImage bufferedImage = Screenshot.readToBufferedImage(width, height, true);
+        return Screenshot.readToBufferedImage(width, height, true);
+    }
 
+    private static byte[] toPng(BufferedImage bufferedImage) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try {
             ImageIO.write(bufferedImage, "png", baos);
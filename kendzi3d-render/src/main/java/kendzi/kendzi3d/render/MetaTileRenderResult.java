@@ -0,0 +1,44 @@
+package kendzi.kendzi3d.render;
+
+import java.util.Map;
+
+import kendzi.kendzi3d.render.tile.MetaTile;
+import kendzi.kendzi3d.render.tile.Tile;
+
+/**
+ * Result of meta tile render, image of each tile of meta tile.
+ */
+public class MetaTileRenderResult extends RenderResult {
+
+    private MetaTile metaTile;
+
+    private Map<Tile, byte[]> tileImages;
+
+    public MetaTileRenderResult(MetaTile metaTile, Map<Tile, byte[]> tileImages) {
+        super(null);
+        this.metaTile = metaTile;
+        this.tileImages = tileImages;
+    }
+
+    /**
+     * @param tile tile
+     * @return image of tile or null if tile is not part of meta tile
+     */
+    public byte[] getImage(Tile tile) {
+        return this.tileImages.get(new Tile(tile.getX(), tile.getY(), tile.getZ()));
+    }
+
+    /**
+     * @return the metaTile
+     */
+    public MetaTile getMetaTile() {
+        return this.metaTile;
+    }
+
+    /**
+     * @return the tileImages
+     */
+    public Map<Tile, byte[]> getTileImages() {
+        return this.tileImages;
+    }
+}
@@ -10,6 +10,11 @@ public class RenderEngineConf {
 
     private int height;
 
+    /**
+     * Number of tiles in row and column of meta tile.
+     */
+    private int metaTileSize = 1;
+
     private String outDir;
     //
     //    private String dbUrl;
@@ -146,7 +151,17 @@ public class RenderEngineConf {
         this.resDir = resDir;
     }
 
+    /**
+     * @return the metaTileSize
+     */
+    public int getMetaTileSize() {
+        return this.metaTileSize;
+    }
 
-
+    /**
+     * @param metaTileSize the metaTileSize to set
+     */
+    public void setMetaTileSize(int metaTileSize) {
+        this.metaTileSize = metaTileSize;
+    }
 }
-
@@ -12,6 +12,8 @@ public class RenderEngineConfLoader {
 
     private final static int HEIGHT = 256;
 
+    private final static int META_TILE_SIZE = 1;
+
     private final static String RESOURCE_DIR = "./";
 
     private final static String PREFIX = "k3dr.";
@@ -27,6 +29,7 @@ public class RenderEngineConfLoader {
 
         c.setWidth(getInt(prop, prefix + "width", WIDTH));
         c.setHeight(getInt(prop, prefix + "height", HEIGHT));
+        c.setMetaTileSize(Math.max(1, getInt(prop, prefix + "metatile.size", META_TILE_SIZE)));
         c.setResDir(prop.getProperty(prefix + "resource.dir", RESOURCE_DIR));
 
         return c;
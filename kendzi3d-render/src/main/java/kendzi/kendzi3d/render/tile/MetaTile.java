@@ -0,0 +1,109 @@
+package kendzi.kendzi3d.render.tile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Block of size x size tiles rendered in one pass. Meta tiles are aligned to
+ * multiple of size, so each tile belongs to exactly one meta tile.
+ */
+public class MetaTile {
+
+    private int x;
+    private int y;
+    private int z;
+    private int size;
+
+    /**
+     * @param x x of left top tile
+     * @param y y of left top tile
+     * @param z zoom
+     * @param size number of tiles in row and column
+     */
+    public MetaTile(int x, int y, int z, int size) {
+        super();
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.size = size;
+    }
+
+    /**
+     * Finds meta tile containing tile. On low zoom levels meta tile is
+     * limited to number of tiles in zoom.
+     *
+     * @param tile tile
+     * @param size maximal number of tiles in row and column
+     * @return meta tile
+     */
+    public static MetaTile forTile(Tile tile, int size) {
+        int s = Math.max(1, Math.min(size, 1 << tile.getZ()));
+
+        return new MetaTile(
+                (tile.getX() / s) * s,
+                (tile.getY() / s) * s,
+                tile.getZ(),
+                s);
+    }
+
+    /**
+     * @return tiles of meta tile, in rows from left top
+     */
+    public List<Tile> getTiles() {
+        List<Tile> ret = new ArrayList<Tile>(this.size * this.size);
+        for (int j = 0; j < this.size; j++) {
+            for (int i = 0; i < this.size; i++) {
+                ret.add(new Tile(this.x + i, this.y + j, this.z));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @param tile tile
+     * @return if tile is part of meta tile
+     */
+    public boolean contains(Tile tile) {
+        return tile.getZ() == this.z
+                && tile.getX() >= this.x && tile.getX() < this.x + this.size
+                && tile.getY() >= this.y && tile.getY() < this.y + this.size;
+    }
+
+    /**
+     * @return the x
+     */
+    public int getX() {
+        return this.x;
+    }
+
+    /**
+     * @return the y
+     */
+    public int getY() {
+        return this.y;
+    }
+
+    /**
+     * @return the z
+     */
+    public int getZ() {
+        return this.z;
+    }
+
+    /**
+     * @return the size
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "MetaTile [z=" + this.z + ", x=" + this.x + ", y=" + this.y + ", size=" + this.size + "]";
+    }
+}
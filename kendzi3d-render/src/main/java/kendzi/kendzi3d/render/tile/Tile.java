@@ -54,4 +54,47 @@ public  class Tile {
     public void setZ(int z) {
         this.z = z;
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + this.x;
+        result = prime * result + this.y;
+        result = prime * result + this.z;
+        return result;
+    }
+
+    /**
+     * Tiles are equal when they have the same coordinates, subclasses are
+     * compared only by coordinates.
+     *
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Tile)) {
+            return false;
+        }
+        Tile other = (Tile) obj;
+        return this.x == other.x && this.y == other.y && this.z == other.z;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "Tile [z=" + this.z + ", x=" + this.x + ", y=" + this.y + "]";
+    }
+}
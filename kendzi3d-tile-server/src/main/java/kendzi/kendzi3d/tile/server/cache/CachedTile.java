@@ -0,0 +1,98 @@
+package kendzi.kendzi3d.tile.server.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Rendered tile with its entity tag. Data array is shared between cache and
+ * response, it must not be modified.
+ */
+public class CachedTile {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final byte[] data;
+
+    private volatile String etag;
+
+    public CachedTile(byte[] data) {
+        this(data, null);
+    }
+
+    public CachedTile(byte[] data, String etag) {
+        if (data == null) {
+            throw new IllegalArgumentException("tile data can't be null");
+        }
+        this.data = data;
+        this.etag = etag;
+    }
+
+    /**
+     * @return the data
+     */
+    public byte[] getData() {
+        return this.data;
+    }
+
+    /**
+     * @return size of data in bytes
+     */
+    public int getSize() {
+        return this.data.length;
+    }
+
+    /**
+     * Entity tag of tile, it is computed from tile data on first use.
+     *
+     * @return quoted entity tag
+     */
+    public String getEtag() {
+        String e = this.etag;
+        if (e == null) {
+            e = computeEtag(this.data);
+            this.etag = e;
+        }
+        return e;
+    }
+
+    /**
+     * Checks if value of If-None-Match header matches tile.
+     *
+     * @param ifNoneMatch value of If-None-Match header, can be null
+     * @return if client have the same version of tile
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = getEtag();
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String computeEtag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(data);
+
+            StringBuilder sb = new StringBuilder(digest.length * 2 + 2);
+            sb.append('"');
+            for (byte b : digest) {
+                sb.append(HEX[(b >> 4) & 0xF]);
+                sb.append(HEX[b & 0xF]);
+            }
+            sb.append('"');
+            return sb.toString();
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported", e);
+        }
+    }
+}
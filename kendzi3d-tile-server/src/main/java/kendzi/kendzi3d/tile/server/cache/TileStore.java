@@ -0,0 +1,41 @@
+package kendzi.kendzi3d.tile.server.cache;
+
+import java.io.Closeable;
+import java.util.Map;
+
+import kendzi.kendzi3d.render.tile.Tile;
+
+/**
+ * Store of rendered tiles.
+ */
+public interface TileStore extends Closeable {
+
+    /**
+     * Finds tile in store.
+     *
+     * @param tile tile
+     * @return stored tile or null if tile is not in store
+     */
+    CachedTile get(Tile tile);
+
+    /**
+     * Saves tile in store. Tile already in store is replaced.
+     *
+     * @param tile tile
+     * @param cachedTile tile data
+     */
+    void put(Tile tile, CachedTile cachedTile);
+
+    /**
+     * Saves group of tiles in store, like all tiles of meta tile.
+     *
+     * @param tiles tiles data by tile
+     */
+    void putAll(Map<Tile, CachedTile> tiles);
+
+    /**
+     * Releases resources of store.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,44 @@
+package kendzi.kendzi3d.tile.server.cache;
+
+import java.io.File;
+import java.sql.SQLException;
+
+import kendzi.kendzi3d.tile.server.cache.impl.FileTileStore;
+import kendzi.kendzi3d.tile.server.cache.impl.MBTilesTileStore;
+
+public class TileStoreFactory {
+
+    /**
+     * Type of disk tile store.
+     */
+    public enum StoreType {
+        /**
+         * Single sqlite file in mbtiles format.
+         */
+        MBTILES,
+        /**
+         * Directory tree {z}/{x}/{y}.png.
+         */
+        FILE
+    }
+
+    /**
+     * Creates disk tile store.
+     *
+     * @param type type of store
+     * @param file mbtiles file, used by MBTILES type
+     * @param dir tiles directory, used by FILE type
+     * @return tile store
+     * @throws SQLException when mbtiles file can't be opened
+     */
+    public static TileStore createDiskStore(StoreType type, String file, String dir) throws SQLException {
+
+        if (StoreType.MBTILES.equals(type)) {
+            return new MBTilesTileStore(new File(file), "kendzi3d");
+
+        } else if (StoreType.FILE.equals(type)) {
+            return new FileTileStore(new File(dir));
+        }
+        throw new IllegalArgumentException("bad tile cache type: " + type);
+    }
+}
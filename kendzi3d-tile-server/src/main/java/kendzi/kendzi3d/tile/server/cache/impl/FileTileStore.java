@@ -0,0 +1,91 @@
+package kendzi.kendzi3d.tile.server.cache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.CachedTile;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Stores tiles as png files in directory tree {z}/{x}/{y}.png. File is first
+ * written to temporary file and then renamed, so readers never see partially
+ * written tile.
+ */
+public class FileTileStore implements TileStore {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(FileTileStore.class);
+
+    private final File dir;
+
+    public FileTileStore(File dir) {
+        this.dir = dir;
+    }
+
+    @Override
+    public CachedTile get(Tile tile) {
+        try {
+            return new CachedTile(Files.readAllBytes(file(tile).toPath()));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.error("Error loading file from cache", e);
+        }
+        return null;
+    }
+
+    @Override
+    public void put(Tile tile, CachedTile cachedTile) {
+        Path target = file(tile).toPath();
+        Path tmp = null;
+        try {
+            Files.createDirectories(target.getParent());
+
+            tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            Files.write(tmp, cachedTile.getData());
+
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+
+        } catch (IOException e) {
+            log.error("Error saving file to cache", e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    log.error("Error removing temporary file: " + tmp, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void putAll(Map<Tile, CachedTile> tiles) {
+        for (Map.Entry<Tile, CachedTile> entry : tiles.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void close() {
+        //
+    }
+
+    private File file(Tile t) {
+        return new File(this.dir, t.getZ() + File.separator + t.getX() + File.separator + t.getY() + ".png");
+    }
+}
@@ -0,0 +1,160 @@
+package kendzi.kendzi3d.tile.server.cache.impl;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.CachedTile;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Stores tiles in single SQLite file using MBTiles schema. Rows in MBTiles are
+ * counted from south (TMS), so y of tile is flipped.
+ *
+ * @see <a href="https://github.com/mapbox/mbtiles-spec">MBTiles
+ *      specification</a>
+ */
+public class MBTilesTileStore implements TileStore {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(MBTilesTileStore.class);
+
+    private static final String SELECT_TILE = "SELECT tile_data FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?";
+
+    private static final String INSERT_TILE = "INSERT OR REPLACE INTO tiles (zoom_level, tile_column, tile_row, tile_data) VALUES (?, ?, ?, ?)";
+
+    private final Connection connection;
+
+    private final PreparedStatement selectTile;
+
+    private final PreparedStatement insertTile;
+
+    public MBTilesTileStore(File file, String name) throws SQLException {
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+
+        Statement st = this.connection.createStatement();
+        try {
+            // readers don't block writer
+            st.execute("PRAGMA journal_mode=WAL");
+            st.execute("PRAGMA synchronous=NORMAL");
+
+            st.execute("CREATE TABLE IF NOT EXISTS metadata (name TEXT, value TEXT)");
+            st.execute("CREATE UNIQUE INDEX IF NOT EXISTS metadata_index ON metadata (name)");
+            st.execute("CREATE TABLE IF NOT EXISTS tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB)");
+            st.execute("CREATE UNIQUE INDEX IF NOT EXISTS tile_index ON tiles (zoom_level, tile_column, tile_row)");
+        } finally {
+            st.close();
+        }
+
+        saveMetadata("name", name);
+        saveMetadata("format", "png");
+        saveMetadata("type", "baselayer");
+        saveMetadata("version", "1.0");
+
+        this.selectTile = this.connection.prepareStatement(SELECT_TILE);
+        this.insertTile = this.connection.prepareStatement(INSERT_TILE);
+    }
+
+    private void saveMetadata(String name, String value) throws SQLException {
+        PreparedStatement ps = this.connection.prepareStatement("INSERT OR IGNORE INTO metadata (name, value) VALUES (?, ?)");
+        try {
+            ps.setString(1, name);
+            ps.setString(2, value);
+            ps.executeUpdate();
+        } finally {
+            ps.close();
+        }
+    }
+
+    @Override
+    public synchronized CachedTile get(Tile tile) {
+        try {
+            this.selectTile.setInt(1, tile.getZ());
+            this.selectTile.setInt(2, tile.getX());
+            this.selectTile.setInt(3, tmsRow(tile));
+
+            ResultSet rs = this.selectTile.executeQuery();
+            try {
+                if (rs.next()) {
+                    return new CachedTile(rs.getBytes(1));
+                }
+            } finally {
+                rs.close();
+            }
+        } catch (SQLException e) {
+            log.error("Error loading tile from mbtiles", e);
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void put(Tile tile, CachedTile cachedTile) {
+        try {
+            this.insertTile.setInt(1, tile.getZ());
+            this.insertTile.setInt(2, tile.getX());
+            this.insertTile.setInt(3, tmsRow(tile));
+            this.insertTile.setBytes(4, cachedTile.getData());
+            this.insertTile.executeUpdate();
+
+        } catch (SQLException e) {
+            log.error("Error saving tile to mbtiles", e);
+        }
+    }
+
+    @Override
+    public synchronized void putAll(Map<Tile, CachedTile> tiles) {
+        try {
+            // one transaction for all tiles
+            this.connection.setAutoCommit(false);
+            try {
+                for (Map.Entry<Tile, CachedTile> entry : tiles.entrySet()) {
+                    Tile tile = entry.getKey();
+                    this.insertTile.setInt(1, tile.getZ());
+                    this.insertTile.setInt(2, tile.getX());
+                    this.insertTile.setInt(3, tmsRow(tile));
+                    this.insertTile.setBytes(4, entry.getValue().getData());
+                    this.insertTile.addBatch();
+                }
+                this.insertTile.executeBatch();
+                this.connection.commit();
+
+            } catch (SQLException e) {
+                this.connection.rollback();
+                throw e;
+            } finally {
+                this.connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.error("Error saving tiles to mbtiles", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            this.selectTile.close();
+            this.insertTile.close();
+            this.connection.close();
+        } catch (SQLException e) {
+            log.error("Error closing mbtiles", e);
+        }
+    }
+
+    private static int tmsRow(Tile tile) {
+        return (1 << tile.getZ()) - 1 - tile.getY();
+    }
+}
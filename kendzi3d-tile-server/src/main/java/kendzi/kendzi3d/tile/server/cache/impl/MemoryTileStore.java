@@ -0,0 +1,88 @@
+package kendzi.kendzi3d.tile.server.cache.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.CachedTile;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
+
+/**
+ * In memory store of the most recently used tiles. Size of store is limited by
+ * number of bytes of tiles data.
+ */
+public class MemoryTileStore implements TileStore {
+
+    private final long maxBytes;
+
+    private long bytes;
+
+    /**
+     * Map in access order, first entry is the least recently used.
+     */
+    private final LinkedHashMap<String, CachedTile> cache = new LinkedHashMap<String, CachedTile>(256, 0.75f, true);
+
+    public MemoryTileStore(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized CachedTile get(Tile tile) {
+        return this.cache.get(key(tile));
+    }
+
+    @Override
+    public synchronized void put(Tile tile, CachedTile cachedTile) {
+        if (cachedTile.getSize() > this.maxBytes) {
+            return;
+        }
+
+        CachedTile old = this.cache.put(key(tile), cachedTile);
+        if (old != null) {
+            this.bytes -= old.getSize();
+        }
+        this.bytes += cachedTile.getSize();
+
+        evict();
+    }
+
+    @Override
+    public synchronized void putAll(Map<Tile, CachedTile> tiles) {
+        for (Map.Entry<Tile, CachedTile> entry : tiles.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, CachedTile>> it = this.cache.entrySet().iterator();
+        while (this.bytes > this.maxBytes && it.hasNext()) {
+            this.bytes -= it.next().getValue().getSize();
+            it.remove();
+        }
+    }
+
+    /**
+     * @return number of bytes used by stored tiles
+     */
+    public synchronized long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * @return number of stored tiles
+     */
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        this.cache.clear();
+        this.bytes = 0;
+    }
+
+    private static String key(Tile tile) {
+        return tile.getZ() + "/" + tile.getX() + "/" + tile.getY();
+    }
+}
@@ -0,0 +1,58 @@
+package kendzi.kendzi3d.tile.server.cache.impl;
+
+import java.util.Map;
+
+import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.CachedTile;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
+
+/**
+ * Two level tile store. Fast store (like memory) is checked first, tiles found
+ * in slow store (like disk) are copied to fast store.
+ */
+public class TieredTileStore implements TileStore {
+
+    private final TileStore fast;
+
+    private final TileStore slow;
+
+    public TieredTileStore(TileStore fast, TileStore slow) {
+        this.fast = fast;
+        this.slow = slow;
+    }
+
+    @Override
+    public CachedTile get(Tile tile) {
+        CachedTile cachedTile = this.fast.get(tile);
+        if (cachedTile != null) {
+            return cachedTile;
+        }
+
+        cachedTile = this.slow.get(tile);
+        if (cachedTile != null) {
+            this.fast.put(tile, cachedTile);
+        }
+        return cachedTile;
+    }
+
+    @Override
+    public void put(Tile tile, CachedTile cachedTile) {
+        this.slow.put(tile, cachedTile);
+        this.fast.put(tile, cachedTile);
+    }
+
+    @Override
+    public void putAll(Map<Tile, CachedTile> tiles) {
+        this.slow.putAll(tiles);
+        this.fast.putAll(tiles);
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.fast.close();
+        } finally {
+            this.slow.close();
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package kendzi.kendzi3d.tile.server.config;
 
+import java.sql.SQLException;
 import java.util.Properties;
 
 import kendzi.kendzi3d.render.conf.RenderDataSourceConf;
 import kendzi.kendzi3d.render.conf.RenderDataSourceConfLoader;
 import kendzi.kendzi3d.render.conf.RenderEngineConf;
 import kendzi.kendzi3d.render.conf.RenderEngineConfLoader;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
+import kendzi.kendzi3d.tile.server.cache.TileStoreFactory;
+import kendzi.kendzi3d.tile.server.cache.TileStoreFactory.StoreType;
+import kendzi.kendzi3d.tile.server.cache.impl.MemoryTileStore;
+import kendzi.kendzi3d.tile.server.cache.impl.TieredTileStore;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -73,4 +79,23 @@ public class ServiceConfiguration {
 
         return RenderDataSourceConfLoader.load(p);
     }
+
+    /**
+     * Tile cache. Most recently used tiles are kept in memory, all tiles are
+     * stored on disk in mbtiles file or in directory tree.
+     */
+    @Bean(destroyMethod = "close")
+    TileStore tileStore() throws SQLException {
+
+        StoreType type = StoreType.valueOf(this.environment.getProperty("k3dts.cache.type", "MBTILES").toUpperCase());
+
+        TileStore diskStore = TileStoreFactory.createDiskStore(
+                type,
+                this.environment.getProperty("k3dts.cache.file", "/osm_dev/tiles_cache/kendzi3d.mbtiles"),
+                this.environment.getProperty("k3dts.cache.dir", "/osm_dev/tiles_cache"));
+
+        long memoryBytes = this.environment.getProperty("k3dts.cache.memory.bytes", Long.class, 64L * 1024 * 1024);
+
+        return new TieredTileStore(new MemoryTileStore(memoryBytes), diskStore);
+    }
 }
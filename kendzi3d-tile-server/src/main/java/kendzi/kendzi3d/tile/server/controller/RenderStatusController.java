@@ -5,6 +5,7 @@ import java.util.List;
 import javax.servlet.http.HttpServletResponse;
 
 import kendzi.kendzi3d.tile.server.dto.RenderStatus;
+import kendzi.kendzi3d.tile.server.dto.RenderWorkerStatus;
 import kendzi.kendzi3d.tile.server.service.RenderService;
 import kendzi.kendzi3d.tile.server.service.RenderStatusService;
 
@@ -31,6 +32,9 @@ public class RenderStatusController {
         ModelAndView modelAndView = new ModelAndView("renderStatus");
         modelAndView.addObject("renderStatusList", list);
 
+        List<RenderWorkerStatus> workers = this.renderStatusService.findAllWorkers();
+        modelAndView.addObject("renderWorkerStatusList", workers);
+
         return modelAndView;
     }
 }
@@ -1,13 +1,7 @@
 package kendzi.kendzi3d.tile.server.controller;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.text.DateFormat;
-import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
@@ -19,17 +13,20 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.CachedTile;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
 import kendzi.kendzi3d.tile.server.service.RenderService;
 
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Controller;
-import org.springframework.util.FileCopyUtils;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.servlet.ModelAndView;
@@ -41,8 +38,6 @@ public class TileController {
     /** Log. */
     private static final Logger log = Logger.getLogger(TileController.class);
 
-    private static final String cacheDir = "/osm_dev/tiles_cache/{2}/{0}/{1}.png";
-
     private static final int EXPIRES_DATE = 20660;
 
     private int sleep = 0;
@@ -50,6 +45,9 @@ public class TileController {
     @Autowired
     RenderService renderService;
 
+    @Autowired
+    TileStore tileStore;
+
     @RequestMapping(value="/home" )
     public ModelAndView test(HttpServletResponse response) throws IOException{
 
@@ -64,10 +62,11 @@ public class TileController {
             @PathVariable Integer z,
             @PathVariable Integer x,
             @PathVariable Integer y,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
 
             HttpServletResponse response) throws IOException{
 
-        tiles(z, x, y, null, response);
+        tiles(z, x, y, null, ifNoneMatch, response);
     }
 
     @RequestMapping(value="/tilesAsync/{z}/{x}/{y}.png/{parm}", method = RequestMethod.GET )
@@ -76,6 +75,7 @@ public class TileController {
             @PathVariable Integer x,
             @PathVariable Integer y,
             @PathVariable String parm,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
 
             HttpServletResponse response) {
 
@@ -95,25 +95,22 @@ public class TileController {
 
         Tile tile = new Tile(x, y, z);
 
-        byte [] tileBytes = null;
+        CachedTile cachedTile = findTile(tile, dirty);
 
-        if (dirty || !isInCache(tile)) {
-            tileBytes = this.renderService.render(tile);
-            saveToCache(tile, tileBytes);
-        } else {
-            tileBytes = loadFromCache(tile);
-        }
+        response.setHeader("ETag", cachedTile.getEtag());
+        response.setHeader("Cache-Control","max-age=" + EXPIRES_DATE);
+        response.setHeader("Expires", htmlExpiresDate(EXPIRES_DATE));
 
-        ByteArrayInputStream fileIn = new ByteArrayInputStream(tileBytes);
+        if (cachedTile.matches(ifNoneMatch)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
 
         response.setContentType("image/png");
-        response.setContentLength(new Long(tileBytes.length).intValue());
-
-        response.setHeader("Cache-Control","max-age=" + EXPIRES_DATE);
-        response.setHeader("Expires", htmlExpiresDate(EXPIRES_DATE));
+        response.setContentLength(cachedTile.getSize());
 
         try {
-            FileCopyUtils.copy(fileIn, response.getOutputStream());
+            response.getOutputStream().write(cachedTile.getData());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -178,23 +175,25 @@ public class TileController {
 
 
     @RequestMapping(value="/tiles/{z}/{x}/{y}.png", method = RequestMethod.GET )
-    public Callable<HttpEntity<byte[]>> tiles2(
+    public Callable<ResponseEntity<byte[]>> tiles2(
             @PathVariable Integer z,
             @PathVariable Integer x,
             @PathVariable Integer y,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
 
             HttpServletResponse response) {
 
-        return tiles2(z, x, y, null, response);
+        return tiles2(z, x, y, null, ifNoneMatch, response);
     }
 
 
     @RequestMapping(value="/tiles/{z}/{x}/{y}.png/{parm}", method = RequestMethod.GET )
-    public Callable<HttpEntity<byte[]>> tiles2(
+    public Callable<ResponseEntity<byte[]>> tiles2(
             @PathVariable Integer z,
             @PathVariable Integer x,
             @PathVariable final Integer y,
             @PathVariable String parm,
+            @RequestHeader(value = "If-None-Match", required = false) final String ifNoneMatch,
 
             HttpServletResponse response) {
 
@@ -216,88 +215,55 @@ public class TileController {
 
         final Tile tile = new Tile(x, y, z);
 
-        return new Callable<HttpEntity<byte[]>>() {
+        return new Callable<ResponseEntity<byte[]>>() {
 
             @Override
-            public HttpEntity<byte[]> call() throws Exception {
-
-                byte [] tileBytes = null;
+            public ResponseEntity<byte[]> call() throws Exception {
 
-                if (isDirty || !isInCache(tile)) {
-                    tileBytes = TileController.this.renderService.render(tile);
-                    saveToCache(tile, tileBytes);
-                } else {
-                    tileBytes = loadFromCache(tile);
-                }
-
-                final byte [] documentBody = tileBytes;
+                CachedTile cachedTile = findTile(tile, isDirty);
 
                 HttpHeaders header = new HttpHeaders();
-                header.setContentType(new MediaType("image", "png"));
-
-                header.setContentLength(documentBody.length);
-
-
-
-
-
+                header.setETag(cachedTile.getEtag());
                 header.set("Cache-Control","max-age=" + EXPIRES_DATE);
                 header.set("Expires", htmlExpiresDate(EXPIRES_DATE));
 
-                return new HttpEntity<byte[]>(documentBody, header);
+                if (cachedTile.matches(ifNoneMatch)) {
+                    // client have the same tile, skip payload
+                    return new ResponseEntity<byte[]>(header, HttpStatus.NOT_MODIFIED);
+                }
+
+                header.setContentType(new MediaType("image", "png"));
+                header.setContentLength(cachedTile.getSize());
+
+                // cached array is send without copy
+                return new ResponseEntity<byte[]>(cachedTile.getData(), header, HttpStatus.OK);
             }
         };
     }
 
-    private void saveToCache(Tile tile, byte[] tileBytes) {
-
-        if (tileBytes == null) {
-            throw new RuntimeException("tileBytes cant be null!");
-        }
-
-        ByteArrayInputStream in = new ByteArrayInputStream(tileBytes);
-
-        File f = new File(getFileName(tile));
-
-        try {
-            File parent = f.getParentFile();
-            parent.mkdirs();
-
-            FileOutputStream out = new FileOutputStream(f);
-            FileCopyUtils.copy(in, out);
-
-        } catch (IOException e) {
-            log.error("Error saving file to cache", e);
+    /**
+     * Finds tile in cache, when tile is missing or dirty it is rendered.
+     * Rendered tiles are saved in cache by render worker.
+     *
+     * @param tile tile
+     * @param dirty if tile should be rendered again
+     * @return tile
+     */
+    private CachedTile findTile(Tile tile, boolean dirty) {
+
+        if (!dirty) {
+            CachedTile cachedTile = this.tileStore.get(tile);
+            if (cachedTile != null) {
+                return cachedTile;
+            }
         }
-    }
-
-    private byte[] loadFromCache(Tile tile) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        File f = new File(getFileName(tile));
 
-
-        try {
-            FileInputStream in = new FileInputStream(f);
-            FileCopyUtils.copy(in, out);
-            return out.toByteArray();
-        } catch (IOException e) {
-            log.error("Error loading file from cache", e);
+        CachedTile cachedTile = this.renderService.render(tile);
+        if (cachedTile == null) {
+            throw new RuntimeException("error rendering tile: z: " + tile.getZ() + " x: " + tile.getX() + " y: "
+                    + tile.getY());
         }
-        return null;
-    }
-
-
-    private boolean isInCache(Tile tile) {
-        File f = new File(getFileName(tile));
-
-        return f.exists();
-    }
 
-    private String getFileName(Tile t) {
-        return MessageFormat.format(
-                this.cacheDir,
-                Long.toString(t.getX()),
-                Long.toString(t.getY()),
-                Long.toString(t.getZ()));
+        return cachedTile;
     }
 }
@@ -0,0 +1,134 @@
+package kendzi.kendzi3d.tile.server.dto;
+
+import java.util.Date;
+
+/**
+ * Throughput statistics of single render worker.
+ */
+public class RenderWorkerStatus {
+
+    private String name;
+
+    private Date startDate;
+
+    private boolean busy;
+
+    private long jobCount;
+
+    private long errorCount;
+
+    private long tileCount;
+
+    private double totalTime;
+
+    public RenderWorkerStatus(String name) {
+        super();
+        this.name = name;
+        this.startDate = new Date();
+    }
+
+    /**
+     * Marks worker as busy.
+     */
+    public synchronized void jobStarted() {
+        this.busy = true;
+    }
+
+    /**
+     * Saves result of finished job.
+     *
+     * @param time render time in seconds
+     * @param succes if job was rendered without error
+     * @param tiles number of rendered tiles
+     */
+    public synchronized void jobFinished(double time, boolean succes, int tiles) {
+        this.busy = false;
+        this.jobCount++;
+        this.tileCount += tiles;
+        this.totalTime += time;
+        if (!succes) {
+            this.errorCount++;
+        }
+    }
+
+    /**
+     * @return average render time of job in seconds
+     */
+    public synchronized double getAverageTime() {
+        if (this.jobCount == 0) {
+            return 0;
+        }
+        return this.totalTime / this.jobCount;
+    }
+
+    /**
+     * @return number of tiles rendered per second since worker start
+     */
+    public synchronized double getThroughput() {
+        double uptime = (System.currentTimeMillis() - this.startDate.getTime()) / 1000d;
+        if (uptime <= 0) {
+            return 0;
+        }
+        return this.tileCount / uptime;
+    }
+
+    /**
+     * @return part of time since worker start spent on rendering
+     */
+    public synchronized double getUtilization() {
+        double uptime = (System.currentTimeMillis() - this.startDate.getTime()) / 1000d;
+        if (uptime <= 0) {
+            return 0;
+        }
+        return Math.min(1d, this.totalTime / uptime);
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the startDate
+     */
+    public Date getStartDate() {
+        return this.startDate;
+    }
+
+    /**
+     * @return the busy
+     */
+    public synchronized boolean isBusy() {
+        return this.busy;
+    }
+
+    /**
+     * @return the jobCount
+     */
+    public synchronized long getJobCount() {
+        return this.jobCount;
+    }
+
+    /**
+     * @return the errorCount
+     */
+    public synchronized long getErrorCount() {
+        return this.errorCount;
+    }
+
+    /**
+     * @return the tileCount
+     */
+    public synchronized long getTileCount() {
+        return this.tileCount;
+    }
+
+    /**
+     * @return the totalTime
+     */
+    public synchronized double getTotalTime() {
+        return this.totalTime;
+    }
+}
@@ -1,42 +1,74 @@
 package kendzi.kendzi3d.tile.server.render;
 
+import java.util.concurrent.CompletableFuture;
+
 import kendzi.kendzi3d.render.RenderResult;
 import kendzi.kendzi3d.tile.server.render.job.RenderJob;
+import kendzi.kendzi3d.tile.server.render.job.RenderJobPriority;
 
 
 public class RenderJobStatus {
 
-    private boolean ready;
-
-    private RenderJob renderJob;
+    private final RenderJob renderJob;
 
-    private RenderResult jobResult;
+    private final CompletableFuture<RenderResult> future;
 
+    /**
+     * Order of adding to poll, jobs with the same priority are taken in FIFO
+     * order.
+     */
+    private final long sequence;
 
+    private RenderJobPriority priority;
 
-    public RenderJobStatus(RenderJob renderJob) {
+    public RenderJobStatus(RenderJob renderJob, long sequence) {
         this.renderJob = renderJob;
-        this.ready = false;
+        this.sequence = sequence;
+        this.priority = renderJob.getPriority();
+        this.future = new CompletableFuture<RenderResult>();
     }
 
     public RenderJob getRenderJob() {
         return renderJob;
     }
 
-    public synchronized boolean isReady() {
-        return this.ready;
+    public boolean isReady() {
+        return this.future.isDone();
     }
 
-    public synchronized void execute(RenderResult jobResult) {
+    public void execute(RenderResult jobResult) {
+        this.future.complete(jobResult);
+    }
 
-        this.jobResult= jobResult;
-        this.ready = true;
+    public void fail(Throwable error) {
+        this.future.completeExceptionally(error);
+    }
+
+    /**
+     * @return the future of job result
+     */
+    public CompletableFuture<RenderResult> getFuture() {
+        return this.future;
+    }
+
+    /**
+     * @return the sequence
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @return the priority
+     */
+    public RenderJobPriority getPriority() {
+        return this.priority;
     }
 
     /**
-     * @return the jobResult
+     * @param priority the priority to set
      */
-    public synchronized RenderResult getJobResult() {
-        return jobResult;
+    void setPriority(RenderJobPriority priority) {
+        this.priority = priority;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package kendzi.kendzi3d.tile.server.render;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import kendzi.kendzi3d.render.conf.RenderDataSourceConf;
+import kendzi.kendzi3d.render.conf.RenderEngineConf;
+import kendzi.kendzi3d.render.dataset.DataSetProvider;
+import kendzi.kendzi3d.render.dataset.DataSetProviderFactory;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
+import kendzi.kendzi3d.tile.server.dto.RenderWorkerStatus;
+import kendzi.kendzi3d.tile.server.render.job.ExitJob;
+import kendzi.kendzi3d.tile.server.render.module.RenderModule;
+import kendzi.kendzi3d.tile.server.render.module.RenderWorkerModule;
+import kendzi.kendzi3d.tile.server.render.worker.TitleJobRender;
+
+import org.apache.log4j.Logger;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Pool of render worker threads taking jobs from one work poll. Used by tile
+ * server and by tile seeding.
+ */
+public class RenderWorkerPool {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(RenderWorkerPool.class);
+
+    private final WorkPoll workPoll;
+
+    private final List<RenderWorkerThread> renderThreads = new ArrayList<RenderWorkerThread>();
+
+    public RenderWorkerPool(WorkPoll workPoll) {
+        this.workPoll = workPoll;
+    }
+
+    /**
+     * Starts render workers.
+     *
+     * @param renderEngineConf render configuration
+     * @param renderDataSourceConf data source configuration
+     * @param workers number of workers
+     * @param tileStore store for rendered tiles
+     */
+    public void start(RenderEngineConf renderEngineConf, RenderDataSourceConf renderDataSourceConf, int workers,
+            TileStore tileStore) {
+
+        Injector injector = Guice.createInjector(new RenderModule(renderEngineConf));
+
+        log.info("starting render threads begin, workers: " + workers);
+
+        for (int i = 0; i < workers; i++) {
+            // each worker have own GL context, models and data source connection
+            DataSetProvider dsp = DataSetProviderFactory.loadConf(renderDataSourceConf);
+
+            Injector workerInjector = injector.createChildInjector(new RenderWorkerModule(dsp));
+
+            TitleJobRender k3dTileRenderer = workerInjector.getInstance(TitleJobRender.class);
+
+            RenderWorkerThread renderThread = new RenderWorkerThread("render-worker-" + i, this.workPoll,
+                    k3dTileRenderer, tileStore);
+
+            this.renderThreads.add(renderThread);
+
+            renderThread.start();
+        }
+        log.info("starting render threads end");
+    }
+
+    /**
+     * Stops all workers, jobs already waiting in poll are rendered first.
+     */
+    public void stop() {
+        // each worker takes exactly one exit job and releases its GL context
+        for (int i = 0; i < this.renderThreads.size(); i++) {
+            this.workPoll.putJobAndWaitForResult(new ExitJob());
+        }
+        this.renderThreads.clear();
+    }
+
+    /**
+     * @return statistics of workers
+     */
+    public List<RenderWorkerStatus> getWorkerStatuses() {
+        List<RenderWorkerStatus> ret = new ArrayList<RenderWorkerStatus>();
+        for (RenderWorkerThread renderThread : this.renderThreads) {
+            ret.add(renderThread.getWorkerStatus());
+        }
+        return ret;
+    }
+
+    /**
+     * @return the workPoll
+     */
+    public WorkPoll getWorkPoll() {
+        return this.workPoll;
+    }
+}
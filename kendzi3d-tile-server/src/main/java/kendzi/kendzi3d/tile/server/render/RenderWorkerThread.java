@@ -1,7 +1,16 @@
 package kendzi.kendzi3d.tile.server.render;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import kendzi.kendzi3d.render.MetaTileRenderResult;
 import kendzi.kendzi3d.render.RenderResult;
+import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.CachedTile;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
+import kendzi.kendzi3d.tile.server.dto.RenderWorkerStatus;
 import kendzi.kendzi3d.tile.server.render.job.ExitJob;
+import kendzi.kendzi3d.tile.server.render.job.MetaTileJob;
 import kendzi.kendzi3d.tile.server.render.job.RenderJob;
 import kendzi.kendzi3d.tile.server.render.job.TileJob;
 import kendzi.kendzi3d.tile.server.render.worker.TitleJobRender;
@@ -17,12 +26,25 @@ public class RenderWorkerThread extends Thread {
 
     TitleJobRender titleJobRender;
 
+    /**
+     * Store for rendered tiles, can be null.
+     */
+    TileStore tileStore;
+
+    private RenderWorkerStatus workerStatus;
+
     private boolean run = true;
 
     public RenderWorkerThread(WorkPoll workPoll, TitleJobRender titleRender) {
-        super();
+        this("render-worker", workPoll, titleRender, null);
+    }
+
+    public RenderWorkerThread(String name, WorkPoll workPoll, TitleJobRender titleRender, TileStore tileStore) {
+        super(name);
         this.workPoll = workPoll;
         this.titleJobRender = titleRender;
+        this.tileStore = tileStore;
+        this.workerStatus = new RenderWorkerStatus(name);
     }
 
     /**
@@ -40,23 +62,38 @@ public class RenderWorkerThread extends Thread {
                 RenderJob renderJob = sj.getRenderJob();
 
                 RenderResult jobResult = null;
+                Exception error = null;
+                int tiles = 0;
+                long s1 = System.currentTimeMillis();
                 try {
 
                     if (renderJob instanceof ExitJob) {
                         break;
                     }
 
+                    this.workerStatus.jobStarted();
+
                     jobResult = renderJob(renderJob);
 
+                    // stored before job is finished, so next request find tiles in cache
+                    tiles = storeTiles(renderJob, jobResult);
+
                 } catch (Exception e) {
                     log.error("Error rendering job: " + renderJob, e);
+                    error = e;
                 } finally {
-                    // mark as executed, not important if it is error
-                    sj.execute(jobResult);
-                    synchronized (this.workPoll) {
-                        this.workPoll.notifyAll();
+                    if (!(renderJob instanceof ExitJob)) {
+                        this.workerStatus.jobFinished(
+                                (System.currentTimeMillis() - s1) / 1000d,
+                                jobResult != null,
+                                tiles);
+                    }
+                    // wake up only threads waiting for this job
+                    if (error != null) {
+                        sj.fail(error);
+                    } else {
+                        sj.execute(jobResult);
                     }
-                    //                this.notifyAll();
                 }
             } catch (Exception e) {
                 log.error("error taking job", e);
@@ -65,23 +102,51 @@ public class RenderWorkerThread extends Thread {
         this.titleJobRender.release();
     }
 
-    //    @Override
-    //    synchronized void notifyAll() {
-    //        notifyAll()
-    //    }
-
     private RenderResult renderJob(RenderJob renderJob) {
 
         if (renderJob instanceof TileJob) {
             return this.titleJobRender.render((TileJob)renderJob);
+        } else if (renderJob instanceof MetaTileJob) {
+            return this.titleJobRender.render((MetaTileJob)renderJob);
         } else {
             log.error("unknown render job: " + renderJob);
         }
         return null;
     }
 
+    private int storeTiles(RenderJob renderJob, RenderResult jobResult) {
+        if (jobResult == null) {
+            return 0;
+        }
+
+        Map<Tile, CachedTile> tiles = new LinkedHashMap<Tile, CachedTile>();
+
+        if (jobResult instanceof MetaTileRenderResult) {
+            for (Map.Entry<Tile, byte[]> entry : ((MetaTileRenderResult) jobResult).getTileImages().entrySet()) {
+                if (entry.getValue() != null) {
+                    tiles.put(entry.getKey(), new CachedTile(entry.getValue()));
+                }
+            }
+        } else if (renderJob instanceof TileJob && jobResult.getImage() != null) {
+            TileJob tj = (TileJob) renderJob;
+            tiles.put(new Tile(tj.getX(), tj.getY(), tj.getZ()), new CachedTile(jobResult.getImage()));
+        }
+
+        if (this.tileStore != null && !tiles.isEmpty()) {
+            this.tileStore.putAll(tiles);
+        }
+        return tiles.size();
+    }
+
     private RenderJobStatus takeJob() {
         return this.workPoll.takeOrWait();
     }
 
+    /**
+     * @return the workerStatus
+     */
+    public RenderWorkerStatus getWorkerStatus() {
+        return this.workerStatus;
+    }
+
 }
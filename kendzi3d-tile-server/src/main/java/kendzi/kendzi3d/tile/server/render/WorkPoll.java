@@ -1,67 +1,193 @@
 package kendzi.kendzi3d.tile.server.render;
 
-import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import kendzi.kendzi3d.render.RenderResult;
 import kendzi.kendzi3d.tile.server.render.job.RenderJob;
-
+import kendzi.kendzi3d.tile.server.render.job.RenderJobPriority;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Poll of render jobs shared by all render workers. Job is taken by first free
+ * worker.
+ *
+ * Poll is bounded. Thread adding job to full poll is blocked until some worker
+ * take job. Background jobs can fill only half of poll so there is always room
+ * for interactive jobs. Jobs with equal key are rendered once, all callers get
+ * the same future.
+ */
 public class WorkPoll {
-    // http://docs.oracle.com/javase/tutorial/essential/concurrency/guardmeth.html
 
+    /** Log. */
+    private static final Logger log = Logger.getLogger(WorkPoll.class);
+
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static final Comparator<RenderJobStatus> PRIORITY_COMPARATOR = new Comparator<RenderJobStatus>() {
+        @Override
+        public int compare(RenderJobStatus o1, RenderJobStatus o2) {
+            int c = o1.getPriority().compareTo(o2.getPriority());
+            if (c != 0) {
+                return c;
+            }
+            return Long.compare(o1.getSequence(), o2.getSequence());
+        }
+    };
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = this.lock.newCondition();
 
-    ArrayList<RenderJobStatus> poll = new ArrayList<RenderJobStatus>();
+    private final Condition notFull = this.lock.newCondition();
 
-    //    SynchronousQueue<TitleJob> queue = new SynchronousQueue<TitleJob>();
-    //    //    BlockingQueue<TitleJob> queue = new BlockingQueue<TitleJob>();
-    //    ArrayList<TitleJob> queue = new ArrayList<TitleJob>();
-    //
-    //    int MAX_QUEUE_SIZE = 5;
+    private final PriorityQueue<RenderJobStatus> poll = new PriorityQueue<RenderJobStatus>(11, PRIORITY_COMPARATOR);
 
+    /**
+     * Jobs waiting in poll or currently rendered, by job key.
+     */
+    private final Map<Object, RenderJobStatus> pending = new HashMap<Object, RenderJobStatus>();
 
-    public synchronized RenderResult putJobAndWaitForResult(RenderJob tj) {
-        RenderJobStatus sj = new RenderJobStatus(tj);
+    private final int capacity;
 
-        addJob(sj);
+    private long sequence;
+
+    public WorkPoll() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public WorkPoll(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity need to be at least 2");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds job to poll. If job with the same key is already waiting or
+     * rendered its future is returned. Blocks while poll is full.
+     *
+     * @param tj job
+     * @return future of job result
+     * @throws InterruptedException when interrupted while waiting for free
+     *             space in poll
+     */
+    public CompletableFuture<RenderResult> putJob(RenderJob tj) throws InterruptedException {
+        final Object key = tj.getJobKey();
+
+        this.lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (key != null) {
+                    RenderJobStatus same = this.pending.get(key);
+                    if (same != null) {
+                        raisePriority(same, tj.getPriority());
+                        return same.getFuture();
+                    }
+                }
+                if (this.poll.size() < limit(tj.getPriority())) {
+                    break;
+                }
+                this.notFull.await();
+            }
 
-        // wait for result (generated in different thread!
-        while (!sj.isReady()) {
-            try {
-                this.wait();
-            } catch (InterruptedException e) {
-                //
+            final RenderJobStatus sj = new RenderJobStatus(tj, this.sequence++);
+            if (key != null) {
+                this.pending.put(key, sj);
+                sj.getFuture().whenComplete((result, error) -> removePending(key, sj));
             }
+            this.poll.add(sj);
+            this.notEmpty.signal();
+
+            return sj.getFuture();
+        } finally {
+            this.lock.unlock();
         }
-        return sj.getJobResult();
     }
 
-    private void addJob(RenderJobStatus sj) {
+    /**
+     * Adds job to poll and waits for result.
+     *
+     * @param tj job
+     * @return result or null if job failed
+     */
+    public RenderResult putJobAndWaitForResult(RenderJob tj) {
+        try {
+            return putJob(tj).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("interrupted while waiting for job: " + tj, e);
+        } catch (ExecutionException e) {
+            log.error("error executing job: " + tj, e.getCause());
+        }
+        return null;
+    }
 
-        this.poll.add(sj);
+    /**
+     * Takes job with the highest priority, waits if poll is empty.
+     *
+     * @return job status
+     */
+    public RenderJobStatus takeOrWait() {
+        this.lock.lock();
+        try {
+            while (this.poll.isEmpty()) {
+                this.notEmpty.awaitUninterruptibly();
+            }
 
-        notifyAll();
+            RenderJobStatus remove = this.poll.poll();
+            this.notFull.signalAll();
+            return remove;
+        } finally {
+            this.lock.unlock();
+        }
     }
 
-    //    private StatusJob takeJob() {
-    //        if (this.poll.isEmpty()) {
-    //            return null;
-    //        }
-    //        return this.poll.remove(0);
-    //    }
-
-    public synchronized RenderJobStatus takeOrWait() {
-
-        // Wait until message is
-        // available.
-        while (this.poll.isEmpty()) {
-            try {
-                wait();
-            } catch (InterruptedException e) {}
+    /**
+     * @return number of jobs waiting in poll
+     */
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.poll.size();
+        } finally {
+            this.lock.unlock();
         }
+    }
 
-        RenderJobStatus remove = this.poll.remove(0);
-        notifyAll();
-        return remove;
+    private int limit(RenderJobPriority priority) {
+        if (RenderJobPriority.INTERACTIVE.equals(priority)) {
+            return this.capacity;
+        }
+        return this.capacity / 2;
     }
 
+    private void raisePriority(RenderJobStatus sj, RenderJobPriority priority) {
+        if (priority.compareTo(sj.getPriority()) >= 0) {
+            return;
+        }
+        // re-insert to keep queue order, job can be already taken by worker
+        if (this.poll.remove(sj)) {
+            sj.setPriority(priority);
+            this.poll.add(sj);
+        }
+    }
 
+    private void removePending(Object key, RenderJobStatus sj) {
+        this.lock.lock();
+        try {
+            if (this.pending.get(key) == sj) {
+                this.pending.remove(key);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
 }
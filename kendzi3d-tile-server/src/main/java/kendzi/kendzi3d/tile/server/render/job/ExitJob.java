@@ -2,4 +2,15 @@ package kendzi.kendzi3d.tile.server.render.job;
 
 public class ExitJob implements RenderJob {
 
+    @Override
+    public RenderJobPriority getPriority() {
+        // finish waiting jobs first
+        return RenderJobPriority.BACKGROUND;
+    }
+
+    @Override
+    public Object getJobKey() {
+        // each worker need own exit job
+        return null;
+    }
 }
@@ -0,0 +1,47 @@
+package kendzi.kendzi3d.tile.server.render.job;
+
+import kendzi.kendzi3d.render.tile.MetaTile;
+
+/**
+ * Job rendering all tiles of meta tile in one pass.
+ */
+public class MetaTileJob extends MetaTile implements RenderJob {
+
+    String profile;
+
+    RenderJobPriority priority;
+
+    public MetaTileJob(MetaTile metaTile, String profile, RenderJobPriority priority) {
+        super(metaTile.getX(), metaTile.getY(), metaTile.getZ(), metaTile.getSize());
+
+        this.profile = profile;
+        this.priority = priority;
+    }
+
+    /**
+     * @return the profile
+     */
+    public String getProfile() {
+        return this.profile;
+    }
+
+    @Override
+    public RenderJobPriority getPriority() {
+        return this.priority;
+    }
+
+    @Override
+    public Object getJobKey() {
+        return "meta/" + this.profile + "/" + getZ() + "/" + getX() + "/" + getY() + "/" + getSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "MetaTileJob [" + getJobKey() + ", " + this.priority + "]";
+    }
+}
@@ -2,4 +2,18 @@ package kendzi.kendzi3d.tile.server.render.job;
 
 public interface RenderJob {
 
+    /**
+     * Priority of job.
+     *
+     * @return priority
+     */
+    RenderJobPriority getPriority();
+
+    /**
+     * Key of rendered content. Jobs with equal keys waiting in poll at the
+     * same time are rendered only once.
+     *
+     * @return key or null if job can't be coalesced
+     */
+    Object getJobKey();
 }
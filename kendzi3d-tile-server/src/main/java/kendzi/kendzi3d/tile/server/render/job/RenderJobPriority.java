@@ -0,0 +1,17 @@
+package kendzi.kendzi3d.tile.server.render.job;
+
+/**
+ * Priority of render job. Jobs with lower ordinal are taken first.
+ */
+public enum RenderJobPriority {
+
+    /**
+     * Job requested by client which is waiting for result.
+     */
+    INTERACTIVE,
+
+    /**
+     * Job which no one is waiting for, like pre-seeding of tile cache.
+     */
+    BACKGROUND
+}
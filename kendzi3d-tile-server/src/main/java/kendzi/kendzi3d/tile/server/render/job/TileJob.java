@@ -7,6 +7,8 @@ public class TileJob extends Tile implements RenderJob {
 
     String profile;
 
+    RenderJobPriority priority;
+
     /**
      * @return the profile
      */
@@ -21,9 +23,44 @@ public class TileJob extends Tile implements RenderJob {
         this.profile = profile;
     }
 
+    /**
+     * @return the priority
+     */
+    @Override
+    public RenderJobPriority getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * @param priority the priority to set
+     */
+    public void setPriority(RenderJobPriority priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public Object getJobKey() {
+        return this.profile + "/" + getZ() + "/" + getX() + "/" + getY();
+    }
+
     public TileJob(int x, int y, int z, String profile) {
+        this(x, y, z, profile, RenderJobPriority.INTERACTIVE);
+    }
+
+    public TileJob(int x, int y, int z, String profile, RenderJobPriority priority) {
         super(x, y, z);
 
         this.profile = profile;
+        this.priority = priority;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "TileJob [" + getJobKey() + ", " + this.priority + "]";
     }
 }
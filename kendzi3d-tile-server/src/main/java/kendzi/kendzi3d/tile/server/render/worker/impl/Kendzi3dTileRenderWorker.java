@@ -1,9 +1,11 @@
 package kendzi.kendzi3d.tile.server.render.worker.impl;
 
 import kendzi.kendzi3d.render.ImageRender;
+import kendzi.kendzi3d.render.MetaTileRenderResult;
 import kendzi.kendzi3d.render.RenderResult;
 import kendzi.kendzi3d.render.conf.RenderEngineConf;
 import kendzi.kendzi3d.render.dataset.DataSetProvider;
+import kendzi.kendzi3d.tile.server.render.job.MetaTileJob;
 import kendzi.kendzi3d.tile.server.render.job.TileJob;
 import kendzi.kendzi3d.tile.server.render.worker.TitleJobRender;
 
@@ -38,6 +40,12 @@ public class Kendzi3dTileRenderWorker implements TitleJobRender {
         return this.imageRender.render(t);
     }
 
+    @Override
+    public MetaTileRenderResult render(MetaTileJob mt) {
+
+        return this.imageRender.render(mt);
+    }
+
     @Override
     public void release() {
         this.imageRender.release();
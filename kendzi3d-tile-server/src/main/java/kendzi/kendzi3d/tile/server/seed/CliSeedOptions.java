@@ -0,0 +1,88 @@
+package kendzi.kendzi3d.tile.server.seed;
+
+import kendzi.kendzi3d.render.command.CliRenderOptions;
+import kendzi.kendzi3d.render.conf.RenderDataSourceConf.InputSource;
+import kendzi.kendzi3d.tile.server.cache.TileStoreFactory.StoreType;
+
+import com.lexicalscope.jewel.cli.Option;
+
+public interface CliSeedOptions {
+
+    @Option(longName="input.source", defaultValue="FILE")
+    InputSource getInputSource();
+
+    @Option(longName="file.url")
+    String getFileUrl();
+    boolean isFileUrl();
+
+    @Option(longName="db.username")
+    String getDbUsername();
+    boolean isDbUsername();
+
+    @Option(longName="db.password")
+    String getDbPassword();
+    boolean isDbPassword();
+
+    @Option(longName="db.url")
+    String getDbUrl();
+    boolean isDbUrl();
+
+    @Option(longName="camera.angle.x", defaultValue="0")
+    Double getCameraAngleX();
+
+    @Option(longName="camera.angle.y", defaultValue="-30")
+    Double getCameraAngleY();
+
+    @Option(longName="resource.dir", defaultValue=".")
+    String getResourceDir();
+
+    @Option(description="lat1,lon1,lat2,lon2",
+            longName="bbox", pattern=CliRenderOptions.BBOX_PATTERN)
+    String getBbox();
+    boolean isBbox();
+
+    @Option(description="polygon file in osmosis format (*.poly)",
+            longName="polygon")
+    String getPolygon();
+    boolean isPolygon();
+
+    @Option(longName="zoom.min")
+    Integer getZoomMin();
+
+    @Option(longName="zoom.max")
+    Integer getZoomMax();
+
+    @Option(description="number of tiles in row and column of meta tile",
+            longName="metatile.size", defaultValue="8")
+    Integer getMetaTileSize();
+
+    @Option(description="number of render workers",
+            longName="workers", defaultValue="1")
+    Integer getWorkers();
+
+    @Option(longName="cache.type", defaultValue="MBTILES")
+    StoreType getCacheType();
+
+    @Option(description="mbtiles file for MBTILES cache type",
+            longName="cache.file", defaultValue="kendzi3d.mbtiles")
+    String getCacheFile();
+
+    @Option(description="tiles directory for FILE cache type",
+            longName="cache.dir", defaultValue="tiles")
+    String getCacheDir();
+
+    @Option(description="file with seeding progress, used to resume seeding",
+            longName="progress.file", defaultValue="seed.progress")
+    String getProgressFile();
+
+    @Option(description="skip meta tiles which are already in cache",
+            longName="skip.existing")
+    boolean getSkipExisting();
+
+    @Option(description="progress report interval in seconds",
+            longName="report.interval", defaultValue="10")
+    Integer getReportInterval();
+
+    @Option(helpRequest = true)
+    boolean getHelp();
+}
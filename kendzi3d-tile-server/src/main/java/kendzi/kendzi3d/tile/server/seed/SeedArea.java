@@ -0,0 +1,196 @@
+package kendzi.kendzi3d.tile.server.seed;
+
+import java.awt.geom.Path2D;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import kendzi.kendzi3d.render.tile.MetaTile;
+import kendzi.kendzi3d.render.tile.TitleToLatLon;
+import kendzi.kendzi3d.render.tile.TitleToLatLon.BoundingBox;
+
+/**
+ * Area of tile seeding. It is bounding box, optionally limited by polygon.
+ * Coordinates of polygon are stored as x - longitude, y - latitude.
+ */
+public class SeedArea {
+
+    private final double north;
+    private final double south;
+    private final double east;
+    private final double west;
+
+    private final Path2D polygon;
+
+    public SeedArea(double north, double south, double east, double west) {
+        this(north, south, east, west, null);
+    }
+
+    private SeedArea(double north, double south, double east, double west, Path2D polygon) {
+        this.north = north;
+        this.south = south;
+        this.east = east;
+        this.west = west;
+        this.polygon = polygon;
+    }
+
+    /**
+     * Creates area from bbox in format lat1,lon1,lat2,lon2.
+     *
+     * @param bbox bbox
+     * @return area
+     */
+    public static SeedArea parseBbox(String bbox) {
+        try {
+            String[] s = bbox.split(",");
+            double lat1 = Double.parseDouble(s[0]);
+            double lon1 = Double.parseDouble(s[1]);
+            double lat2 = Double.parseDouble(s[2]);
+            double lon2 = Double.parseDouble(s[3]);
+
+            return new SeedArea(Math.max(lat1, lat2), Math.min(lat1, lat2), Math.max(lon1, lon2), Math.min(lon1, lon2));
+
+        } catch (Exception e) {
+            throw new IllegalArgumentException("bad bbox format: " + bbox, e);
+        }
+    }
+
+    /**
+     * Creates area from polygon file in osmosis format (*.poly). Rings
+     * starting with '!' are holes.
+     *
+     * @see <a href="http://wiki.openstreetmap.org/wiki/Osmosis/Polygon_Filter_File_Format">Polygon Filter File Format</a>
+     * @param file polygon file
+     * @return area
+     * @throws IOException when file can't be read
+     */
+    public static SeedArea loadPolygon(File file) throws IOException {
+
+        Path2D polygon = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+
+        double north = -Double.MAX_VALUE;
+        double south = Double.MAX_VALUE;
+        double east = -Double.MAX_VALUE;
+        double west = Double.MAX_VALUE;
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            // first line is polygon name
+            String line = in.readLine();
+
+            boolean inRing = false;
+            boolean firstPoint = false;
+
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                if ("END".equals(line)) {
+                    if (inRing) {
+                        polygon.closePath();
+                        inRing = false;
+                    }
+                    continue;
+                }
+
+                if (!inRing) {
+                    // ring name
+                    inRing = true;
+                    firstPoint = true;
+                    continue;
+                }
+
+                String[] s = line.split("\\s+");
+                double lon = Double.parseDouble(s[0]);
+                double lat = Double.parseDouble(s[1]);
+
+                if (firstPoint) {
+                    polygon.moveTo(lon, lat);
+                    firstPoint = false;
+                } else {
+                    polygon.lineTo(lon, lat);
+                }
+
+                north = Math.max(north, lat);
+                south = Math.min(south, lat);
+                east = Math.max(east, lon);
+                west = Math.min(west, lon);
+            }
+        } finally {
+            in.close();
+        }
+
+        if (north < south) {
+            throw new IllegalArgumentException("empty polygon file: " + file);
+        }
+
+        return new SeedArea(north, south, east, west, polygon);
+    }
+
+    /**
+     * Finds meta tiles covering area.
+     *
+     * @param zoom zoom
+     * @param metaTileSize number of tiles in row and column of meta tile
+     * @return meta tiles in rows from north west
+     */
+    public List<MetaTile> metaTiles(int zoom, int metaTileSize) {
+
+        int max = (1 << zoom) - 1;
+        int size = Math.max(1, Math.min(metaTileSize, 1 << zoom));
+
+        int xMin = clamp(TitleToLatLon.lonToTile(this.west, zoom), max);
+        int xMax = clamp(TitleToLatLon.lonToTile(this.east, zoom), max);
+        int yMin = clamp(TitleToLatLon.latToTile(this.north, zoom), max);
+        int yMax = clamp(TitleToLatLon.latToTile(this.south, zoom), max);
+
+        List<MetaTile> ret = new ArrayList<MetaTile>();
+
+        for (int y = (yMin / size) * size; y <= yMax; y += size) {
+            for (int x = (xMin / size) * size; x <= xMax; x += size) {
+                MetaTile mt = new MetaTile(x, y, zoom, size);
+                if (intersects(mt)) {
+                    ret.add(mt);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private boolean intersects(MetaTile mt) {
+        if (this.polygon == null) {
+            return true;
+        }
+
+        BoundingBox leftTop = TitleToLatLon.tile2boundingBox(mt.getX(), mt.getY(), mt.getZ());
+        BoundingBox rightBottom = TitleToLatLon.tile2boundingBox(mt.getX() + mt.getSize() - 1,
+                mt.getY() + mt.getSize() - 1, mt.getZ());
+
+        return this.polygon.intersects(
+                leftTop.west,
+                rightBottom.south,
+                rightBottom.east - leftTop.west,
+                leftTop.north - rightBottom.south);
+    }
+
+    private static int clamp(int tile, int max) {
+        return Math.max(0, Math.min(max, tile));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "SeedArea [north=" + this.north + ", south=" + this.south + ", east=" + this.east + ", west="
+                + this.west + ", polygon=" + (this.polygon != null) + "]";
+    }
+}
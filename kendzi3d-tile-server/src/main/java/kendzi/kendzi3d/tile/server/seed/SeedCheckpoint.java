@@ -0,0 +1,234 @@
+package kendzi.kendzi3d.tile.server.seed;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Progress of seeding saved to disk. Jobs are finished out of order, so saved
+ * index is the first meta tile of zoom which is not finished yet. All meta
+ * tiles before it are processed. Indexes of meta tiles which failed to render
+ * are saved for each zoom, so they are rendered again when seeding is resumed.
+ */
+public class SeedCheckpoint {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(SeedCheckpoint.class);
+
+    private static final String FAILED_PREFIX = "failed.";
+
+    private final File file;
+
+    /**
+     * Description of seeding, checkpoint of different seeding is ignored.
+     */
+    private final String key;
+
+    private int zoom = -1;
+
+    private boolean[] done;
+
+    private int index;
+
+    /**
+     * Indexes of failed meta tiles for each zoom.
+     */
+    private final Map<Integer, SortedSet<Integer>> failed = new TreeMap<Integer, SortedSet<Integer>>();
+
+    public SeedCheckpoint(File file, String key) {
+        this.file = file;
+        this.key = key;
+    }
+
+    /**
+     * Loads saved progress.
+     *
+     * @return zoom and index of first not finished meta tile or null if
+     *         there is no saved progress of the same seeding
+     */
+    public int[] load() {
+        if (!this.file.exists()) {
+            return null;
+        }
+
+        Properties p = new Properties();
+        try {
+            InputStream in = new FileInputStream(this.file);
+            try {
+                p.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            log.error("Error loading seed progress: " + this.file, e);
+            return null;
+        }
+
+        if (!this.key.equals(p.getProperty("key"))) {
+            log.warn("Seed progress file is for different seeding, ignoring it: " + this.file);
+            return null;
+        }
+
+        synchronized (this) {
+            this.failed.clear();
+            for (String name : p.stringPropertyNames()) {
+                if (!name.startsWith(FAILED_PREFIX)) {
+                    continue;
+                }
+                int zoom = Integer.parseInt(name.substring(FAILED_PREFIX.length()));
+                for (String i : p.getProperty(name).split(",")) {
+                    if (!i.trim().isEmpty()) {
+                        failedSet(zoom).add(Integer.parseInt(i.trim()));
+                    }
+                }
+            }
+        }
+
+        return new int[] { Integer.parseInt(p.getProperty("zoom")), Integer.parseInt(p.getProperty("index")) };
+    }
+
+    /**
+     * Starts tracking of zoom.
+     *
+     * @param zoom zoom
+     * @param count number of meta tiles in zoom
+     * @param startIndex index of first meta tile to render
+     */
+    public synchronized void startZoom(int zoom, int count, int startIndex) {
+        this.zoom = zoom;
+        this.done = new boolean[count];
+        this.index = Math.min(startIndex, count);
+        for (int i = 0; i < this.index; i++) {
+            this.done[i] = true;
+        }
+    }
+
+    /**
+     * Marks meta tile as rendered.
+     *
+     * @param zoom zoom
+     * @param i index of meta tile
+     */
+    public synchronized void done(int zoom, int i) {
+        SortedSet<Integer> zoomFailed = this.failed.get(zoom);
+        if (zoomFailed != null) {
+            zoomFailed.remove(i);
+            if (zoomFailed.isEmpty()) {
+                this.failed.remove(zoom);
+            }
+        }
+        processed(zoom, i);
+    }
+
+    /**
+     * Marks meta tile as failed. It is not rendered again in this run, but it
+     * is rendered again when seeding is resumed.
+     *
+     * @param zoom zoom
+     * @param i index of meta tile
+     */
+    public synchronized void failed(int zoom, int i) {
+        failedSet(zoom).add(i);
+        processed(zoom, i);
+    }
+
+    /**
+     * @param zoom zoom
+     * @return indexes of meta tiles of zoom which failed to render, in
+     *         ascending order
+     */
+    public synchronized List<Integer> getFailed(int zoom) {
+        SortedSet<Integer> zoomFailed = this.failed.get(zoom);
+        if (zoomFailed == null) {
+            return new ArrayList<Integer>();
+        }
+        return new ArrayList<Integer>(zoomFailed);
+    }
+
+    private void processed(int zoom, int i) {
+        if (zoom != this.zoom) {
+            return;
+        }
+        this.done[i] = true;
+        while (this.index < this.done.length && this.done[this.index]) {
+            this.index++;
+        }
+    }
+
+    private SortedSet<Integer> failedSet(int zoom) {
+        SortedSet<Integer> zoomFailed = this.failed.get(zoom);
+        if (zoomFailed == null) {
+            zoomFailed = new TreeSet<Integer>();
+            this.failed.put(zoom, zoomFailed);
+        }
+        return zoomFailed;
+    }
+
+    /**
+     * Saves progress. File is replaced atomically.
+     */
+    public void save() {
+        int z;
+        int i;
+        synchronized (this) {
+            if (this.zoom < 0) {
+                return;
+            }
+            z = this.zoom;
+            i = this.index;
+        }
+        save(z, i);
+    }
+
+    /**
+     * Saves progress. File is replaced atomically.
+     *
+     * @param zoom zoom
+     * @param index index of first not finished meta tile
+     */
+    public synchronized void save(int zoom, int index) {
+        Properties p = new Properties();
+        p.setProperty("key", this.key);
+        p.setProperty("zoom", Integer.toString(zoom));
+        p.setProperty("index", Integer.toString(index));
+        for (Map.Entry<Integer, SortedSet<Integer>> entry : this.failed.entrySet()) {
+            StringBuilder sb = new StringBuilder();
+            for (Integer i : entry.getValue()) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(i);
+            }
+            p.setProperty(FAILED_PREFIX + entry.getKey(), sb.toString());
+        }
+
+        File tmp = new File(this.file.getPath() + ".tmp");
+        try {
+            OutputStream out = new FileOutputStream(tmp);
+            try {
+                p.store(out, "kendzi3d tile seeding progress");
+            } finally {
+                out.close();
+            }
+            Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            log.error("Error saving seed progress: " + this.file, e);
+        }
+    }
+}
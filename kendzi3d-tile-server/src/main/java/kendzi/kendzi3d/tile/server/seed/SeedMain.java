@@ -0,0 +1,274 @@
+package kendzi.kendzi3d.tile.server.seed;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+
+import kendzi.kendzi3d.render.RenderResult;
+import kendzi.kendzi3d.render.conf.RenderDataSourceConf;
+import kendzi.kendzi3d.render.conf.RenderEngineConf;
+import kendzi.kendzi3d.render.tile.MetaTile;
+import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
+import kendzi.kendzi3d.tile.server.cache.TileStoreFactory;
+import kendzi.kendzi3d.tile.server.render.RenderWorkerPool;
+import kendzi.kendzi3d.tile.server.render.WorkPoll;
+import kendzi.kendzi3d.tile.server.render.job.MetaTileJob;
+import kendzi.kendzi3d.tile.server.render.job.RenderJobPriority;
+
+import org.apache.log4j.Logger;
+
+import com.lexicalscope.jewel.cli.ArgumentValidationException;
+import com.lexicalscope.jewel.cli.CliFactory;
+
+/**
+ * Pre-renders all tiles of area in range of zooms and saves them in tile
+ * cache. Progress is saved to file, killed seeding started again with the
+ * same arguments continues from saved place. Meta tiles which failed to render
+ * are rendered again when seeding is resumed.
+ */
+public class SeedMain {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(SeedMain.class);
+
+    public static void main(String[] args) {
+        try {
+            CliSeedOptions options = CliFactory.parseArguments(CliSeedOptions.class, args);
+
+            if (options.getHelp()) {
+                System.out.println(CliFactory.createCli(CliSeedOptions.class).getHelpMessage());
+                System.exit(0);
+            }
+
+            validate(options);
+
+            new SeedMain().seed(options);
+
+        } catch (ArgumentValidationException e) {
+            log.error("Error parsing input arguments", e);
+        } catch (Exception e) {
+            log.error("Error seeding tiles", e);
+            System.exit(1);
+        }
+    }
+
+    private void seed(CliSeedOptions options) throws Exception {
+
+        SeedArea area = options.isPolygon()
+                ? SeedArea.loadPolygon(new File(options.getPolygon()))
+                : SeedArea.parseBbox(options.getBbox());
+
+        int zoomMin = options.getZoomMin();
+        int zoomMax = options.getZoomMax();
+        int metaTileSize = Math.max(1, options.getMetaTileSize());
+        int workers = Math.max(1, options.getWorkers());
+
+        log.info("seeding area: " + area + " zoom: " + zoomMin + "-" + zoomMax + " meta tile size: " + metaTileSize);
+
+        SeedProgress progress = new SeedProgress();
+
+        List<List<MetaTile>> metaTiles = new ArrayList<List<MetaTile>>();
+        for (int z = zoomMin; z <= zoomMax; z++) {
+            List<MetaTile> zoomMetaTiles = area.metaTiles(z, metaTileSize);
+            metaTiles.add(zoomMetaTiles);
+            progress.setTotal(z, countTiles(zoomMetaTiles));
+        }
+
+        SeedCheckpoint checkpoint = new SeedCheckpoint(new File(options.getProgressFile()),
+                area + " zoom: " + zoomMin + "-" + zoomMax + " meta tile size: " + metaTileSize);
+
+        int startZoom = zoomMin;
+        int startIndex = 0;
+        int[] saved = checkpoint.load();
+        if (saved != null) {
+            startZoom = saved[0];
+            startIndex = saved[1];
+            log.info("resuming seeding from zoom: " + startZoom + " meta tile: " + startIndex);
+        }
+
+        TileStore tileStore = TileStoreFactory.createDiskStore(options.getCacheType(), options.getCacheFile(),
+                options.getCacheDir());
+
+        // enough jobs to keep all workers busy
+        WorkPoll workPoll = new WorkPoll(Math.max(4, workers * 4));
+
+        RenderWorkerPool pool = new RenderWorkerPool(workPoll);
+        pool.start(convertRenderEngineConf(options, metaTileSize), convertRenderDataSourceConf(options), workers,
+                tileStore);
+
+        Timer reportTimer = startReport(progress, checkpoint, options.getReportInterval());
+        try {
+            progress.start();
+
+            for (int z = zoomMin; z <= zoomMax; z++) {
+                List<MetaTile> zoomMetaTiles = metaTiles.get(z - zoomMin);
+
+                int first = 0;
+                if (z < startZoom) {
+                    first = zoomMetaTiles.size();
+                } else if (z == startZoom) {
+                    first = startIndex;
+                }
+
+                first = Math.min(first, zoomMetaTiles.size());
+                checkpoint.startZoom(z, zoomMetaTiles.size(), first);
+
+                seedZoom(z, zoomMetaTiles, first, workPoll, tileStore, options.getSkipExisting(), progress,
+                        checkpoint);
+
+                checkpoint.save(z + 1, 0);
+            }
+        } finally {
+            reportTimer.cancel();
+            pool.stop();
+            tileStore.close();
+        }
+
+        progress.report();
+        log.info("seeding finished");
+    }
+
+    private void seedZoom(final int z, List<MetaTile> zoomMetaTiles, int first, WorkPoll workPoll,
+            TileStore tileStore, boolean skipExisting, final SeedProgress progress, final SeedCheckpoint checkpoint)
+                    throws InterruptedException {
+
+        List<CompletableFuture<RenderResult>> futures = new ArrayList<CompletableFuture<RenderResult>>();
+
+        // meta tiles which failed in previous run are rendered again
+        List<Integer> indexes = new ArrayList<Integer>();
+        for (Integer i : checkpoint.getFailed(z)) {
+            if (i < first) {
+                indexes.add(i);
+            }
+        }
+        if (!indexes.isEmpty()) {
+            log.info("retrying " + indexes.size() + " failed meta tiles of zoom: " + z);
+        }
+
+        long skippedTiles = countTiles(zoomMetaTiles.subList(0, first));
+        for (Integer i : indexes) {
+            MetaTile mt = zoomMetaTiles.get(i);
+            skippedTiles -= mt.getSize() * mt.getSize();
+        }
+        progress.skipped(z, skippedTiles);
+
+        for (int i = first; i < zoomMetaTiles.size(); i++) {
+            indexes.add(i);
+        }
+
+        for (final int index : indexes) {
+            final MetaTile mt = zoomMetaTiles.get(index);
+            final int tiles = mt.getSize() * mt.getSize();
+
+            if (skipExisting && isInStore(mt, tileStore)) {
+                progress.skipped(z, tiles);
+                checkpoint.done(z, index);
+                continue;
+            }
+
+            // blocks when poll is full
+            CompletableFuture<RenderResult> future = workPoll.putJob(
+                    new MetaTileJob(mt, "", RenderJobPriority.BACKGROUND));
+
+            futures.add(future.whenComplete((result, error) -> {
+                if (error != null || result == null) {
+                    progress.failed(z, tiles);
+                    checkpoint.failed(z, index);
+                } else {
+                    progress.rendered(z, tiles);
+                    checkpoint.done(z, index);
+                }
+            }));
+        }
+
+        for (CompletableFuture<RenderResult> future : futures) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                // error is counted in progress
+            }
+        }
+    }
+
+    private static boolean isInStore(MetaTile mt, TileStore tileStore) {
+        for (Tile tile : mt.getTiles()) {
+            if (tileStore.get(tile) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long countTiles(List<MetaTile> metaTiles) {
+        long count = 0;
+        for (MetaTile mt : metaTiles) {
+            count += mt.getSize() * mt.getSize();
+        }
+        return count;
+    }
+
+    private static Timer startReport(final SeedProgress progress, final SeedCheckpoint checkpoint, int interval) {
+        long period = Math.max(1, interval) * 1000L;
+
+        Timer timer = new Timer("seed-report", true);
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                progress.report();
+                checkpoint.save();
+            }
+        }, period, period);
+        return timer;
+    }
+
+    private static RenderDataSourceConf convertRenderDataSourceConf(CliSeedOptions o) {
+
+        RenderDataSourceConf c = new RenderDataSourceConf();
+
+        c.setInputSource(o.getInputSource());
+        c.setFileUrl(o.getFileUrl());
+        c.setJdbcUrl(o.getDbUrl());
+        c.setJdbcUsername(o.getDbUsername());
+        c.setJdbcPassword(o.getDbPassword());
+
+        return c;
+    }
+
+    private static RenderEngineConf convertRenderEngineConf(CliSeedOptions o, int metaTileSize) {
+        RenderEngineConf c = new RenderEngineConf();
+        c.setCameraAngleX(Math.toRadians(o.getCameraAngleX()));
+        c.setCameraAngleY(Math.toRadians(o.getCameraAngleY()));
+
+        c.setWidth(256);
+        c.setHeight(256);
+        c.setMetaTileSize(metaTileSize);
+        c.setResDir(o.getResourceDir());
+
+        return c;
+    }
+
+    private static void validate(CliSeedOptions o) {
+        List<String> msgs = new ArrayList<String>();
+
+        if (!o.isBbox() && !o.isPolygon()) {
+            msgs.add("chose area for seeding by option --bbox or --polygon");
+        }
+        if (o.getZoomMin() < 0 || o.getZoomMin() > o.getZoomMax()) {
+            msgs.add("bad zoom range: " + o.getZoomMin() + "-" + o.getZoomMax());
+        }
+
+        if (msgs.isEmpty()) {
+            return;
+        }
+
+        String msg = "Error parsing arguments:";
+        for (String m : msgs) {
+            msg += "\n" + m;
+        }
+        throw new ArgumentValidationException(msg);
+    }
+}
@@ -0,0 +1,111 @@
+package kendzi.kendzi3d.tile.server.seed;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Statistics of seeding, number of tiles per second and estimated time of
+ * finishing each zoom.
+ */
+public class SeedProgress {
+
+    /** Log. */
+    private static final Logger log = Logger.getLogger(SeedProgress.class);
+
+    private final Map<Integer, Long> total = new TreeMap<Integer, Long>();
+
+    private final Map<Integer, Long> done = new TreeMap<Integer, Long>();
+
+    private long rendered;
+
+    private long skipped;
+
+    private long errors;
+
+    private long start = System.currentTimeMillis();
+
+    /**
+     * @param zoom zoom
+     * @param tiles number of tiles in zoom
+     */
+    public synchronized void setTotal(int zoom, long tiles) {
+        this.total.put(zoom, tiles);
+        this.done.put(zoom, 0L);
+    }
+
+    /**
+     * Starts measuring of speed.
+     */
+    public synchronized void start() {
+        this.start = System.currentTimeMillis();
+    }
+
+    /**
+     * @param zoom zoom
+     * @param tiles number of rendered tiles
+     */
+    public synchronized void rendered(int zoom, long tiles) {
+        this.rendered += tiles;
+        this.done.put(zoom, this.done.get(zoom) + tiles);
+    }
+
+    /**
+     * @param zoom zoom
+     * @param tiles number of tiles skipped because they are already rendered
+     */
+    public synchronized void skipped(int zoom, long tiles) {
+        this.skipped += tiles;
+        this.done.put(zoom, this.done.get(zoom) + tiles);
+    }
+
+    /**
+     * @param zoom zoom
+     * @param tiles number of tiles which failed to render
+     */
+    public synchronized void failed(int zoom, long tiles) {
+        this.errors += tiles;
+        this.done.put(zoom, this.done.get(zoom) + tiles);
+    }
+
+    /**
+     * @return number of rendered tiles per second
+     */
+    public synchronized double getTilesPerSecond() {
+        double time = (System.currentTimeMillis() - this.start) / 1000d;
+        if (time <= 0) {
+            return 0;
+        }
+        return this.rendered / time;
+    }
+
+    /**
+     * Logs progress. Zooms are rendered in order, so zoom is finished after
+     * all tiles of lower zooms.
+     */
+    public synchronized void report() {
+        double speed = getTilesPerSecond();
+
+        log.info(String.format("rendered: %d, skipped: %d, errors: %d, speed: %.2f tiles/s",
+                this.rendered, this.skipped, this.errors, speed));
+
+        long remaining = 0;
+        for (Map.Entry<Integer, Long> entry : this.total.entrySet()) {
+            int zoom = entry.getKey();
+            long zoomTotal = entry.getValue();
+            long zoomDone = this.done.get(zoom);
+
+            remaining += zoomTotal - zoomDone;
+
+            String eta = speed > 0 ? formatTime((long) (remaining / speed)) : "unknown";
+
+            log.info(String.format("  z%d: %d/%d tiles (%.1f%%), ETA: %s",
+                    zoom, zoomDone, zoomTotal, zoomTotal > 0 ? 100d * zoomDone / zoomTotal : 100d, eta));
+        }
+    }
+
+    private static String formatTime(long seconds) {
+        return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+}
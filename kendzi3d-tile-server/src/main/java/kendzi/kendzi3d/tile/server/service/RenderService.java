@@ -3,28 +3,30 @@ package kendzi.kendzi3d.tile.server.service;
 import java.util.Date;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
+import kendzi.kendzi3d.render.MetaTileRenderResult;
 import kendzi.kendzi3d.render.RenderResult;
 import kendzi.kendzi3d.render.conf.RenderDataSourceConf;
 import kendzi.kendzi3d.render.conf.RenderEngineConf;
-import kendzi.kendzi3d.render.dataset.DataSetProvider;
-import kendzi.kendzi3d.render.dataset.DataSetProviderFactory;
+import kendzi.kendzi3d.render.tile.MetaTile;
 import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.CachedTile;
+import kendzi.kendzi3d.tile.server.cache.TileStore;
 import kendzi.kendzi3d.tile.server.dto.RenderStatus;
-import kendzi.kendzi3d.tile.server.render.RenderWorkerThread;
+import kendzi.kendzi3d.tile.server.dto.RenderWorkerStatus;
+import kendzi.kendzi3d.tile.server.render.RenderWorkerPool;
 import kendzi.kendzi3d.tile.server.render.WorkPoll;
+import kendzi.kendzi3d.tile.server.render.job.MetaTileJob;
+import kendzi.kendzi3d.tile.server.render.job.RenderJob;
+import kendzi.kendzi3d.tile.server.render.job.RenderJobPriority;
 import kendzi.kendzi3d.tile.server.render.job.TileJob;
-import kendzi.kendzi3d.tile.server.render.module.RenderModule;
-import kendzi.kendzi3d.tile.server.render.worker.impl.Kendzi3dTileRenderWorker;
 
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
-import com.google.inject.Guice;
-import com.google.inject.Injector;
-
 @Service
 public class RenderService {
 
@@ -43,48 +45,81 @@ public class RenderService {
     @Autowired
     RenderStatusService renderStatusService;
 
+    @Autowired
+    TileStore tileStore;
+
 
 
     /** Log. */
     private static final Logger log = Logger.getLogger(RenderService.class);
 
-    private Injector injector;
+    /**
+     * Property with number of render workers.
+     */
+    private static final String WORKERS_PROPERTY = "k3dts.render.workers";
+
+    private static final int DEFAULT_WORKERS = 1;
+
+    /**
+     * Property with maximal number of jobs waiting for render.
+     */
+    private static final String QUEUE_CAPACITY_PROPERTY = "k3dts.render.queue.capacity";
 
     private WorkPoll workPoll;
 
-    private RenderWorkerThread renderThread;
+    private RenderWorkerPool renderWorkerPool;
 
 
 
     @PostConstruct
     public void init() {
         try {
-            DataSetProvider dsp = DataSetProviderFactory.loadConf(renderDataSourceConf);
-
-            this.injector = Guice.createInjector(new RenderModule(this.renderEngineConf, dsp));
+            this.workPoll = new WorkPoll(
+                    this.environment.getProperty(QUEUE_CAPACITY_PROPERTY, Integer.class, WorkPoll.DEFAULT_CAPACITY));
 
-            this.workPoll = new WorkPoll();
+            int workers = Math.max(1,
+                    this.environment.getProperty(WORKERS_PROPERTY, Integer.class, DEFAULT_WORKERS));
 
-            Kendzi3dTileRenderWorker k3dTileRenderer = this.injector.getInstance(Kendzi3dTileRenderWorker.class);
+            this.renderWorkerPool = new RenderWorkerPool(this.workPoll);
+            this.renderWorkerPool.start(this.renderEngineConf, this.renderDataSourceConf, workers, this.tileStore);
 
-            this.renderThread = new RenderWorkerThread(this.workPoll, k3dTileRenderer);
-
-            log.info("starting render thread begin");
-            this.renderThread.start();
-            log.info("starting render thread end");
+            for (RenderWorkerStatus workerStatus : this.renderWorkerPool.getWorkerStatuses()) {
+                this.renderStatusService.saveWorker(workerStatus);
+            }
 
         } catch (Exception e) {
             throw new RuntimeException("error initing renderer service", e);
         }
     }
 
-    public byte[] render(Tile tile) {
+    @PreDestroy
+    public void destroy() {
+        this.renderWorkerPool.stop();
+    }
+
+    /**
+     * Renders tile. When meta tiles are enabled whole meta tile containing tile
+     * is rendered. Worker saves all rendered tiles in tile store.
+     *
+     * @param tile tile
+     * @return rendered tile or null if render failed
+     */
+    public CachedTile render(Tile tile) {
         Date date = new Date();
         long s1 = System.currentTimeMillis();
 
         log.info("adding job");
 
-        RenderResult jobResult =  this.workPoll.putJobAndWaitForResult(new TileJob(tile.getX(), tile.getY(), tile.getZ(), ""));
+        RenderJob job = createJob(tile, RenderJobPriority.INTERACTIVE);
+
+        RenderResult jobResult = this.workPoll.putJobAndWaitForResult(job);
+
+        byte [] image = null;
+        if (jobResult instanceof MetaTileRenderResult) {
+            image = ((MetaTileRenderResult) jobResult).getImage(tile);
+        } else if (jobResult != null) {
+            image = jobResult.getImage();
+        }
 
         log.info("job executed");
 
@@ -95,11 +130,19 @@ public class RenderService {
         this.renderStatusService.save(
                 new RenderStatus(
                         date,
-                        jobResult.getImage() != null,
+                        image != null,
                         false,
                         time,
                         tile));
 
-        return jobResult != null ? jobResult.getImage() : null;
+        return image != null ? new CachedTile(image) : null;
+    }
+
+    private RenderJob createJob(Tile tile, RenderJobPriority priority) {
+        int metaTileSize = this.renderEngineConf.getMetaTileSize();
+        if (metaTileSize > 1) {
+            return new MetaTileJob(MetaTile.forTile(tile, metaTileSize), "", priority);
+        }
+        return new TileJob(tile.getX(), tile.getY(), tile.getZ(), "", priority);
     }
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Vector;
 
 import kendzi.kendzi3d.tile.server.dto.RenderStatus;
+import kendzi.kendzi3d.tile.server.dto.RenderWorkerStatus;
 
 import org.springframework.stereotype.Service;
 
@@ -13,6 +14,8 @@ public class RenderStatusService {
 
     Vector<RenderStatus> renderStatusList = new Vector<RenderStatus>();
 
+    Vector<RenderWorkerStatus> renderWorkerStatusList = new Vector<RenderWorkerStatus>();
+
     public synchronized void save(RenderStatus renderStatus) {
         renderStatusList.add(renderStatus);
     }
@@ -24,4 +27,12 @@ public class RenderStatusService {
         }
         return ret;
     }
+
+    public synchronized void saveWorker(RenderWorkerStatus renderWorkerStatus) {
+        renderWorkerStatusList.add(renderWorkerStatus);
+    }
+
+    public synchronized List<RenderWorkerStatus> findAllWorkers() {
+        return new ArrayList<RenderWorkerStatus>(renderWorkerStatusList);
+    }
 }
@@ -11,6 +11,34 @@
     </head>
     <body>
         <h1>Render status</h1> 
+       	<h2>Workers</h2>
+       	<table>
+       	  <thead>
+       	   	<tr>
+       	   	 <th>Name</th>
+       	   	 <th>Busy</th>
+       	   	 <th>Jobs</th>
+       	   	 <th>Tiles</th>
+       	   	 <th>Errors</th>
+       	   	 <th>Average render time</th>
+       	   	 <th>Tiles per second</th>
+       	   	 <th>Utilization</th>
+       	   	</tr>
+       	  </thead>
+	      <c:forEach var="ws" items="${renderWorkerStatusList}">
+	        <tr>
+	          <td>${ws.name}</td>
+	          <td>${ws.busy}</td>
+	          <td>${ws.jobCount}</td>
+	          <td>${ws.tileCount}</td>
+	          <td>${ws.errorCount}</td>
+	          <td>${ws.averageTime}</td>
+	          <td>${ws.throughput}</td>
+	          <td>${ws.utilization}</td>
+	        </tr>
+	      </c:forEach>
+    	</table>
+       	<h2>Tiles</h2>
        	<table>
        	  <thead>
        	   	<tr>
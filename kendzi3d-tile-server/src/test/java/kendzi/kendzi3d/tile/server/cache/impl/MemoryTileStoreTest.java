@@ -0,0 +1,55 @@
+package kendzi.kendzi3d.tile.server.cache.impl;
+
+import kendzi.kendzi3d.render.tile.Tile;
+import kendzi.kendzi3d.tile.server.cache.CachedTile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemoryTileStoreTest {
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+
+        MemoryTileStore store = new MemoryTileStore(30);
+
+        store.put(new Tile(1, 1, 18), new CachedTile(new byte[10]));
+        store.put(new Tile(2, 1, 18), new CachedTile(new byte[10]));
+        store.put(new Tile(3, 1, 18), new CachedTile(new byte[10]));
+
+        // tile 1 is used, tile 2 is the least recently used
+        Assert.assertNotNull(store.get(new Tile(1, 1, 18)));
+
+        store.put(new Tile(4, 1, 18), new CachedTile(new byte[10]));
+
+        Assert.assertEquals(3, store.size());
+        Assert.assertEquals(30, store.getBytes());
+        Assert.assertNull(store.get(new Tile(2, 1, 18)));
+        Assert.assertNotNull(store.get(new Tile(1, 1, 18)));
+        Assert.assertNotNull(store.get(new Tile(3, 1, 18)));
+        Assert.assertNotNull(store.get(new Tile(4, 1, 18)));
+    }
+
+    @Test
+    public void replaceTile() {
+
+        MemoryTileStore store = new MemoryTileStore(100);
+
+        store.put(new Tile(1, 1, 18), new CachedTile(new byte[10]));
+        store.put(new Tile(1, 1, 18), new CachedTile(new byte[20]));
+
+        Assert.assertEquals(1, store.size());
+        Assert.assertEquals(20, store.getBytes());
+    }
+
+    @Test
+    public void etagMatches() {
+
+        CachedTile tile = new CachedTile(new byte[] { 1, 2, 3 });
+
+        Assert.assertTrue(tile.matches(tile.getEtag()));
+        Assert.assertTrue(tile.matches("\"other\", W/" + tile.getEtag()));
+        Assert.assertFalse(tile.matches("\"other\""));
+        Assert.assertFalse(tile.matches(null));
+    }
+}
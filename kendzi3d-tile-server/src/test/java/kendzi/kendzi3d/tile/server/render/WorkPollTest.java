@@ -0,0 +1,100 @@
+package kendzi.kendzi3d.tile.server.render;
+
+import java.util.concurrent.CompletableFuture;
+
+import kendzi.kendzi3d.render.RenderResult;
+import kendzi.kendzi3d.tile.server.render.job.ExitJob;
+import kendzi.kendzi3d.tile.server.render.job.RenderJobPriority;
+import kendzi.kendzi3d.tile.server.render.job.TileJob;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkPollTest {
+
+    @Test
+    public void coalesceSameTile() throws InterruptedException {
+
+        WorkPoll workPoll = new WorkPoll();
+
+        CompletableFuture<RenderResult> f1 = workPoll.putJob(new TileJob(1, 2, 18, ""));
+        CompletableFuture<RenderResult> f2 = workPoll.putJob(new TileJob(1, 2, 18, ""));
+
+        Assert.assertSame(f1, f2);
+        Assert.assertEquals(1, workPoll.size());
+
+        RenderJobStatus sj = workPoll.takeOrWait();
+        // tile is rendered, still no new job
+        Assert.assertSame(f1, workPoll.putJob(new TileJob(1, 2, 18, "")));
+
+        RenderResult result = new RenderResult(new byte[0]);
+        sj.execute(result);
+
+        Assert.assertSame(result, f2.getNow(null));
+
+        // rendered, new job is created
+        Assert.assertNotSame(f1, workPoll.putJob(new TileJob(1, 2, 18, "")));
+    }
+
+    @Test
+    public void interactiveBeforeBackground() throws InterruptedException {
+
+        WorkPoll workPoll = new WorkPoll();
+
+        workPoll.putJob(new TileJob(1, 1, 18, "", RenderJobPriority.BACKGROUND));
+        workPoll.putJob(new TileJob(2, 1, 18, "", RenderJobPriority.BACKGROUND));
+        workPoll.putJob(new TileJob(3, 1, 18, "", RenderJobPriority.INTERACTIVE));
+        // raise priority of already waiting job
+        workPoll.putJob(new TileJob(2, 1, 18, "", RenderJobPriority.INTERACTIVE));
+
+        Assert.assertEquals(2, ((TileJob) workPoll.takeOrWait().getRenderJob()).getX());
+        Assert.assertEquals(3, ((TileJob) workPoll.takeOrWait().getRenderJob()).getX());
+        Assert.assertEquals(1, ((TileJob) workPoll.takeOrWait().getRenderJob()).getX());
+    }
+
+    @Test
+    public void exitJobsNotCoalesced() throws InterruptedException {
+
+        WorkPoll workPoll = new WorkPoll();
+
+        workPoll.putJob(new ExitJob());
+        workPoll.putJob(new ExitJob());
+
+        Assert.assertEquals(2, workPoll.size());
+    }
+
+    @Test
+    public void backgroundJobsLimit() throws InterruptedException {
+
+        final WorkPoll workPoll = new WorkPoll(4);
+
+        workPoll.putJob(new TileJob(1, 1, 18, "", RenderJobPriority.BACKGROUND));
+        workPoll.putJob(new TileJob(2, 1, 18, "", RenderJobPriority.BACKGROUND));
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    workPoll.putJob(new TileJob(3, 1, 18, "", RenderJobPriority.BACKGROUND));
+                } catch (InterruptedException e) {
+                    //
+                }
+            }
+        };
+        producer.start();
+
+        // room left for interactive jobs
+        workPoll.putJob(new TileJob(4, 1, 18, "", RenderJobPriority.INTERACTIVE));
+        workPoll.putJob(new TileJob(5, 1, 18, "", RenderJobPriority.INTERACTIVE));
+
+        producer.join(200);
+        Assert.assertTrue(producer.isAlive());
+
+        workPoll.takeOrWait();
+        workPoll.takeOrWait();
+        workPoll.takeOrWait();
+
+        producer.join(5000);
+        Assert.assertFalse(producer.isAlive());
+    }
+}
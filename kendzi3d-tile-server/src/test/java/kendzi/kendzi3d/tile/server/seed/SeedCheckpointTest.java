@@ -0,0 +1,69 @@
+package kendzi.kendzi3d.tile.server.seed;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SeedCheckpointTest {
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("seed", ".properties");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void failedAreNotDone() throws IOException {
+        File file = tempFile();
+
+        SeedCheckpoint checkpoint = new SeedCheckpoint(file, "key");
+        checkpoint.startZoom(5, 4, 0);
+        checkpoint.done(5, 0);
+        checkpoint.failed(5, 1);
+        checkpoint.done(5, 2);
+        checkpoint.save();
+
+        SeedCheckpoint resumed = new SeedCheckpoint(file, "key");
+        int[] saved = resumed.load();
+
+        // failed meta tile don't block progress
+        Assert.assertArrayEquals(new int[] { 5, 3 }, saved);
+        Assert.assertEquals(Arrays.asList(1), resumed.getFailed(5));
+        Assert.assertTrue(resumed.getFailed(4).isEmpty());
+    }
+
+    @Test
+    public void retriedAreRemoved() throws IOException {
+        File file = tempFile();
+
+        SeedCheckpoint checkpoint = new SeedCheckpoint(file, "key");
+        checkpoint.startZoom(5, 4, 0);
+        checkpoint.failed(5, 1);
+        checkpoint.failed(5, 3);
+        checkpoint.save(6, 0);
+
+        SeedCheckpoint resumed = new SeedCheckpoint(file, "key");
+        resumed.load();
+        resumed.startZoom(5, 4, 4);
+        resumed.done(5, 1);
+        resumed.save(6, 0);
+
+        SeedCheckpoint resumedAgain = new SeedCheckpoint(file, "key");
+        Assert.assertArrayEquals(new int[] { 6, 0 }, resumedAgain.load());
+        Assert.assertEquals(Arrays.asList(3), resumedAgain.getFailed(5));
+    }
+
+    @Test
+    public void differentSeeding() throws IOException {
+        File file = tempFile();
+
+        SeedCheckpoint checkpoint = new SeedCheckpoint(file, "key");
+        checkpoint.save(5, 3);
+
+        Assert.assertNull(new SeedCheckpoint(file, "other").load());
+    }
+}
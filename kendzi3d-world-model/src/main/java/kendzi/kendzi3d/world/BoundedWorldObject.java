@@ -0,0 +1,17 @@
+package kendzi.kendzi3d.world;
+
+import kendzi.jogl.model.geometry.Bounds;
+
+/**
+ * World object which knows its bounds in world coordinates.
+ */
+public interface BoundedWorldObject extends WorldObject {
+
+    /**
+     * Gets bounds of object in world coordinates. Bounds should contain
+     * everything which is drawn for object.
+     *
+     * @return bounds or null if they are unknown
+     */
+    Bounds getBounds();
+}
@@ -1,5 +1,215 @@
 package kendzi.kendzi3d.world.quad;
 
-public class QuadWorld {
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
+import kendzi.jogl.model.geometry.Bounds;
+
+/**
+ * Live spatial index of world objects. World is divided into square cells on
+ * ground plane (x and z axis), object belongs to cell which contains center of
+ * its bounds. Each cell is published as immutable {@link QuadWorldSnapshot},
+ * after changes only cells with changed objects are indexed again and
+ * snapshots of other cells are reused.
+ *
+ * Objects without bounds are kept in separate cell, its snapshot returns them
+ * for every query.
+ *
+ * World is not thread safe, it should be changed only by one thread. Published
+ * snapshots are immutable and can be queried from any thread.
+ *
+ * @param <T>
+ *            type of stored objects
+ */
+public class QuadWorld<T> {
+
+    /**
+     * Default size of cell in meters.
+     */
+    public static final double DEFAULT_CELL_SIZE = 256d;
+
+    private final double cellSize;
+
+    private final Map<T, Cell<T>> objectCells = new IdentityHashMap<T, Cell<T>>();
+
+    private final Map<Long, Cell<T>> cells = new HashMap<Long, Cell<T>>();
+
+    private final Cell<T> unbounded = new Cell<T>();
+
+    private List<QuadWorldSnapshot<T>> published = Collections.emptyList();
+
+    private boolean changed;
+
+    /**
+     * Constructor.
+     */
+    public QuadWorld() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cellSize
+     *            size of cell in meters
+     */
+    public QuadWorld(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Inserts object into world. If object already exists it is moved to new
+     * bounds.
+     *
+     * @param object
+     *            object
+     * @param bounds
+     *            object bounds in world coordinates, null if unknown
+     */
+    public void insert(T object, Bounds bounds) {
+        Cell<T> cell = cell(bounds);
+        Cell<T> old = objectCells.put(object, cell);
+        if (old != null && old != cell) {
+            old.remove(object);
+        }
+        cell.put(object, bounds);
+        changed = true;
+    }
+
+    /**
+     * Updates bounds of object, e.g. after object was rebuilt.
+     *
+     * @param object
+     *            object
+     * @param bounds
+     *            new object bounds in world coordinates, null if unknown
+     */
+    public void update(T object, Bounds bounds) {
+        insert(object, bounds);
+    }
+
+    /**
+     * Removes object from world.
+     *
+     * @param object
+     *            object
+     * @return if object was in world
+     */
+    public boolean remove(T object) {
+        Cell<T> old = objectCells.remove(object);
+        if (old == null) {
+            return false;
+        }
+        old.remove(object);
+        changed = true;
+        return true;
+    }
+
+    /**
+     * Removes all objects.
+     */
+    public void clear() {
+        objectCells.clear();
+        cells.clear();
+        unbounded.clear();
+        published = Collections.emptyList();
+        changed = false;
+    }
+
+    /**
+     * @return number of objects in world
+     */
+    public int size() {
+        return objectCells.size();
+    }
+
+    /**
+     * Publishes current state of world. Only cells changed after last call
+     * are indexed again, if nothing was changed last published list is
+     * returned.
+     *
+     * @return immutable list of immutable indexes of not empty cells
+     */
+    public List<QuadWorldSnapshot<T>> snapshot() {
+        if (!changed) {
+            return published;
+        }
+
+        List<QuadWorldSnapshot<T>> indexes = new ArrayList<QuadWorldSnapshot<T>>(cells.size() + 1);
+        Iterator<Cell<T>> it = cells.values().iterator();
+        while (it.hasNext()) {
+            Cell<T> cell = it.next();
+            if (cell.isEmpty()) {
+                it.remove();
+                continue;
+            }
+            indexes.add(cell.snapshot());
+        }
+        if (!unbounded.isEmpty()) {
+            indexes.add(unbounded.snapshot());
+        }
+
+        published = Collections.unmodifiableList(indexes);
+        changed = false;
+        return published;
+    }
+
+    private Cell<T> cell(Bounds bounds) {
+        if (!QuadWorldSnapshot.isBounded(bounds)) {
+            return unbounded;
+        }
+
+        long x = (long) Math.floor((bounds.min.x + bounds.max.x) / 2d / cellSize);
+        long z = (long) Math.floor((bounds.min.z + bounds.max.z) / 2d / cellSize);
+        Long key = (x << 32) | (z & 0xffffffffL);
+
+        Cell<T> cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell<T>();
+            cells.put(key, cell);
+        }
+        return cell;
+    }
+
+    /**
+     * Objects of one cell and index of them, index is build again only after
+     * change.
+     */
+    private static class Cell<T> {
+
+        private final Map<T, Bounds> objects = new IdentityHashMap<T, Bounds>();
+
+        private QuadWorldSnapshot<T> snapshot;
+
+        void put(T object, Bounds bounds) {
+            objects.put(object, bounds);
+            snapshot = null;
+        }
+
+        void remove(T object) {
+            objects.remove(object);
+            snapshot = null;
+        }
+
+        void clear() {
+            objects.clear();
+            snapshot = null;
+        }
+
+        boolean isEmpty() {
+            return objects.isEmpty();
+        }
+
+        QuadWorldSnapshot<T> snapshot() {
+            if (snapshot == null) {
+                snapshot = QuadWorldSnapshot.build(objects);
+            }
+            return snapshot;
+        }
+    }
 }
@@ -0,0 +1,425 @@
+package kendzi.kendzi3d.world.quad;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import kendzi.jogl.camera.Frustum;
+import kendzi.jogl.model.geometry.Bounds;
+import kendzi.math.geometry.ray.Ray3d;
+
+/**
+ * Immutable spatial index of world objects. Index is build once from objects
+ * and their bounds and after that it can be queried from any thread without
+ * locks. Objects are stored in quad tree build on ground plane (x and z axis),
+ * objects and their bounds are kept in arrays ordered by tree nodes.
+ * {@link QuadWorld} publishes one index for each of its cells.
+ *
+ * Objects without bounds are returned by every query.
+ *
+ * @param <T>
+ *            type of stored objects
+ */
+public final class QuadWorldSnapshot<T> {
+
+    /**
+     * Number of objects in node after which node is split.
+     */
+    private static final int MAX_NODE_OBJECTS = 16;
+
+    /**
+     * Minimal size of node, smaller nodes are not split.
+     */
+    private static final double MIN_NODE_SIZE = 8d;
+
+    @SuppressWarnings("rawtypes")
+    private static final QuadWorldSnapshot EMPTY = new QuadWorldSnapshot<Object>(new Object[0], new double[0],
+            Collections.emptyList(), null);
+
+    /**
+     * Bounded objects ordered by nodes.
+     */
+    private final Object[] objects;
+
+    /**
+     * Bounds of objects, six values for each object: min x, y, z and max x, y,
+     * z.
+     */
+    private final double[] bounds;
+
+    private final List<T> unbounded;
+
+    private final Node root;
+
+    private QuadWorldSnapshot(Object[] objects, double[] bounds, List<T> unbounded, Node root) {
+        this.objects = objects;
+        this.bounds = bounds;
+        this.unbounded = unbounded;
+        this.root = root;
+    }
+
+    /**
+     * @return empty index
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> QuadWorldSnapshot<T> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds index.
+     *
+     * @param objectBounds
+     *            objects with their bounds in world coordinates, bounds can be
+     *            null if unknown
+     * @return index
+     */
+    public static <T> QuadWorldSnapshot<T> build(Map<T, Bounds> objectBounds) {
+        if (objectBounds.isEmpty()) {
+            return empty();
+        }
+
+        int size = objectBounds.size();
+        Object[] input = new Object[size];
+        double[] inputBounds = new double[size * 6];
+        List<T> unbounded = new ArrayList<T>();
+
+        int count = 0;
+        for (Map.Entry<T, Bounds> entry : objectBounds.entrySet()) {
+            Bounds b = entry.getValue();
+            if (!isBounded(b)) {
+                unbounded.add(entry.getKey());
+                continue;
+            }
+            input[count] = entry.getKey();
+            int o = count * 6;
+            inputBounds[o] = b.min.x;
+            inputBounds[o + 1] = b.min.y;
+            inputBounds[o + 2] = b.min.z;
+            inputBounds[o + 3] = b.max.x;
+            inputBounds[o + 4] = b.max.y;
+            inputBounds[o + 5] = b.max.z;
+            count++;
+        }
+
+        Builder builder = new Builder(input, inputBounds, count);
+        Node root = builder.buildRoot();
+
+        return new QuadWorldSnapshot<T>(builder.objects, builder.bounds,
+                Collections.unmodifiableList(unbounded), root);
+    }
+
+    static boolean isBounded(Bounds b) {
+        if (b == null || b.min == null || b.max == null) {
+            return false;
+        }
+        return isFinite(b.min.x) && isFinite(b.min.y) && isFinite(b.min.z) && isFinite(b.max.x)
+                && isFinite(b.max.y) && isFinite(b.max.z) && b.min.x <= b.max.x && b.min.y <= b.max.y
+                && b.min.z <= b.max.z;
+    }
+
+    private static boolean isFinite(double d) {
+        return !Double.isNaN(d) && !Double.isInfinite(d);
+    }
+
+    /**
+     * @return number of objects in index
+     */
+    public int size() {
+        return objects.length + unbounded.size();
+    }
+
+    /**
+     * Adds all objects of index to collection.
+     *
+     * @param result
+     *            collection for objects
+     */
+    @SuppressWarnings("unchecked")
+    public void queryAll(Collection<? super T> result) {
+        result.addAll(unbounded);
+        for (Object object : objects) {
+            result.add((T) object);
+        }
+    }
+
+    /**
+     * Finds objects which are intersecting with given range. Objects without
+     * bounds are always added.
+     *
+     * @param range
+     *            range of world
+     * @param result
+     *            collection for found objects
+     */
+    public void query(Bounds range, Collection<? super T> result) {
+        result.addAll(unbounded);
+        if (root != null) {
+            query(root, range.min.x, range.min.y, range.min.z, range.max.x, range.max.y, range.max.z, result);
+        }
+    }
+
+    /**
+     * Finds objects which are at least partly inside of frustum. Objects
+     * without bounds are always added.
+     *
+     * @param frustum
+     *            view frustum
+     * @param result
+     *            collection for found objects
+     */
+    public void query(Frustum frustum, Collection<? super T> result) {
+        result.addAll(unbounded);
+        if (root != null) {
+            query(root, frustum, result);
+        }
+    }
+
+    /**
+     * Finds objects which bounds are crossed by ray. Objects without bounds
+     * are always added.
+     *
+     * @param ray
+     *            ray
+     * @param result
+     *            collection for found objects
+     */
+    public void query(Ray3d ray, Collection<? super T> result) {
+        result.addAll(unbounded);
+        if (root != null) {
+            query(root, new RayBox(ray), result);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void query(Node node, double qMinX, double qMinY, double qMinZ, double qMaxX, double qMaxY,
+            double qMaxZ, Collection<? super T> result) {
+        if (node.minX > qMaxX || node.minX + node.size < qMinX || node.minZ > qMaxZ
+                || node.minZ + node.size < qMinZ || node.minY > qMaxY || node.maxY < qMinY) {
+            return;
+        }
+
+        for (int i = node.start; i < node.end; i++) {
+            int o = i * 6;
+            if (bounds[o] <= qMaxX && bounds[o + 3] >= qMinX && bounds[o + 1] <= qMaxY && bounds[o + 4] >= qMinY
+                    && bounds[o + 2] <= qMaxZ && bounds[o + 5] >= qMinZ) {
+                result.add((T) objects[i]);
+            }
+        }
+
+        if (node.children != null) {
+            for (Node child : node.children) {
+                query(child, qMinX, qMinY, qMinZ, qMaxX, qMaxY, qMaxZ, result);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void query(Node node, Frustum frustum, Collection<? super T> result) {
+        if (!frustum.intersectsBox(node.minX, node.minY, node.minZ, node.minX + node.size, node.maxY,
+                node.minZ + node.size)) {
+            return;
+        }
+
+        for (int i = node.start; i < node.end; i++) {
+            int o = i * 6;
+            if (frustum.intersectsBox(bounds[o], bounds[o + 1], bounds[o + 2], bounds[o + 3], bounds[o + 4],
+                    bounds[o + 5])) {
+                result.add((T) objects[i]);
+            }
+        }
+
+        if (node.children != null) {
+            for (Node child : node.children) {
+                query(child, frustum, result);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void query(Node node, RayBox ray, Collection<? super T> result) {
+        if (!ray.intersects(node.minX, node.minY, node.minZ, node.minX + node.size, node.maxY,
+                node.minZ + node.size)) {
+            return;
+        }
+
+        for (int i = node.start; i < node.end; i++) {
+            int o = i * 6;
+            if (ray.intersects(bounds[o], bounds[o + 1], bounds[o + 2], bounds[o + 3], bounds[o + 4],
+                    bounds[o + 5])) {
+                result.add((T) objects[i]);
+            }
+        }
+
+        if (node.children != null) {
+            for (Node child : node.children) {
+                query(child, ray, result);
+            }
+        }
+    }
+
+    /**
+     * Node of quad tree. Node keeps range of objects which don't fit in any
+     * of its quarters. Only not empty children are kept.
+     */
+    private static class Node {
+        double minX;
+        double minZ;
+        double size;
+
+        /**
+         * Height range of all objects in node and its children.
+         */
+        double minY;
+        double maxY;
+
+        /**
+         * Range of node objects in object arrays.
+         */
+        int start;
+        int end;
+
+        Node[] children;
+    }
+
+    /**
+     * Builds tree and orders objects by nodes.
+     */
+    private static class Builder {
+
+        private final Object[] input;
+        private final double[] inputBounds;
+
+        final Object[] objects;
+        final double[] bounds;
+
+        private int written;
+
+        Builder(Object[] input, double[] inputBounds, int count) {
+            this.input = input;
+            this.inputBounds = inputBounds;
+            objects = new Object[count];
+            bounds = new double[count * 6];
+        }
+
+        Node buildRoot() {
+            int count = objects.length;
+            if (count == 0) {
+                return null;
+            }
+
+            double minX = Double.MAX_VALUE;
+            double minZ = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxZ = -Double.MAX_VALUE;
+
+            int[] indexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                indexes[i] = i;
+                int o = i * 6;
+                minX = Math.min(minX, inputBounds[o]);
+                minZ = Math.min(minZ, inputBounds[o + 2]);
+                maxX = Math.max(maxX, inputBounds[o + 3]);
+                maxZ = Math.max(maxZ, inputBounds[o + 5]);
+            }
+
+            double size = Math.max(MIN_NODE_SIZE, Math.max(maxX - minX, maxZ - minZ));
+
+            return build(indexes, count, minX, minZ, size);
+        }
+
+        private Node build(int[] indexes, int count, double minX, double minZ, double size) {
+            Node node = new Node();
+            node.minX = minX;
+            node.minZ = minZ;
+            node.size = size;
+            node.minY = Double.MAX_VALUE;
+            node.maxY = -Double.MAX_VALUE;
+
+            for (int i = 0; i < count; i++) {
+                int o = indexes[i] * 6;
+                node.minY = Math.min(node.minY, inputBounds[o + 1]);
+                node.maxY = Math.max(node.maxY, inputBounds[o + 4]);
+            }
+
+            double half = size / 2d;
+            boolean split = count > MAX_NODE_OBJECTS && half >= MIN_NODE_SIZE;
+
+            int[][] quarters = new int[4][];
+            int[] quarterCounts = new int[4];
+            int own = 0;
+
+            if (split) {
+                for (int i = 0; i < count; i++) {
+                    int index = indexes[i];
+                    int q = quarter(index, minX + half, minZ + half);
+                    if (q < 0) {
+                        // objects kept in node are moved to front
+                        indexes[own++] = index;
+                        continue;
+                    }
+                    if (quarters[q] == null) {
+                        quarters[q] = new int[count - i];
+                    }
+                    quarters[q][quarterCounts[q]++] = index;
+                }
+            } else {
+                own = count;
+            }
+
+            node.start = written;
+            for (int i = 0; i < own; i++) {
+                write(indexes[i]);
+            }
+            node.end = written;
+
+            if (own < count) {
+                List<Node> children = new ArrayList<Node>(4);
+                for (int q = 0; q < 4; q++) {
+                    if (quarterCounts[q] > 0) {
+                        children.add(build(quarters[q], quarterCounts[q], minX + q % 2 * half, minZ + q / 2 * half,
+                                half));
+                    }
+                }
+                node.children = children.toArray(new Node[children.size()]);
+            }
+            return node;
+        }
+
+        /**
+         * Finds quarter of node which fully contains object.
+         *
+         * @return quarter index or -1 if object don't fit in any quarter
+         */
+        private int quarter(int index, double midX, double midZ) {
+            int o = index * 6;
+
+            int ix;
+            if (inputBounds[o + 3] <= midX) {
+                ix = 0;
+            } else if (inputBounds[o] >= midX) {
+                ix = 1;
+            } else {
+                return -1;
+            }
+
+            int iz;
+            if (inputBounds[o + 5] <= midZ) {
+                iz = 0;
+            } else if (inputBounds[o + 2] >= midZ) {
+                iz = 1;
+            } else {
+                return -1;
+            }
+            return ix + 2 * iz;
+        }
+
+        private void write(int index) {
+            objects[written] = input[index];
+            System.arraycopy(inputBounds, index * 6, bounds, written * 6, 6);
+            written++;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package kendzi.kendzi3d.world.quad;
+
+import kendzi.math.geometry.ray.Ray3d;
+
+/**
+ * Ray prepared for tests with axis aligned boxes.
+ */
+class RayBox {
+    private final double px;
+    private final double py;
+    private final double pz;
+
+    private final double invX;
+    private final double invY;
+    private final double invZ;
+
+    RayBox(Ray3d ray) {
+        px = ray.getPoint().x;
+        py = ray.getPoint().y;
+        pz = ray.getPoint().z;
+
+        invX = 1d / ray.getVector().x;
+        invY = 1d / ray.getVector().y;
+        invZ = 1d / ray.getVector().z;
+    }
+
+    /**
+     * Tests if ray crosses box using slab method.
+     */
+    boolean intersects(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        double[] t = { 0, Double.MAX_VALUE };
+
+        return slab(px, invX, minX, maxX, t) && slab(py, invY, minY, maxY, t) && slab(pz, invZ, minZ, maxZ, t);
+    }
+
+    /**
+     * Clips ray range t to slab of one axis.
+     *
+     * @return if ray range is not empty
+     */
+    private static boolean slab(double p, double inv, double min, double max, double[] t) {
+        if (Double.isInfinite(inv)) {
+            // ray is parallel to slab
+            return p >= min && p <= max;
+        }
+
+        double t1 = (min - p) * inv;
+        double t2 = (max - p) * inv;
+
+        t[0] = Math.max(t[0], Math.min(t1, t2));
+        t[1] = Math.min(t[1], Math.max(t1, t2));
+
+        return t[0] <= t[1];
+    }
+}
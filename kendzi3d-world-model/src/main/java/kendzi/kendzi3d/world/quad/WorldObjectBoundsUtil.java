@@ -0,0 +1,70 @@
+package kendzi.kendzi3d.world.quad;
+
+import java.util.List;
+
+import javax.vecmath.Point3d;
+
+import kendzi.jogl.model.factory.BoundsFactory;
+import kendzi.jogl.model.geometry.Bounds;
+import kendzi.kendzi3d.editor.EditableObject;
+import kendzi.kendzi3d.editor.selection.Selection;
+import kendzi.kendzi3d.editor.selection.SphereSelection;
+import kendzi.kendzi3d.world.BoundedWorldObject;
+
+/**
+ * Calculates bounds of world objects in world coordinates.
+ */
+public class WorldObjectBoundsUtil {
+
+    /**
+     * Calculates bounds of object in world coordinates. Bounds contain bounds
+     * reported by object and spheres of object selection, so they can be used
+     * both to test visibility and to find selection candidates.
+     *
+     * Model bounds are not used directly because models are usually
+     * translated and scaled while they are drawn.
+     *
+     * @param object
+     *            world object
+     * @return bounds or null if they can't be calculated
+     */
+    public static Bounds calculate(EditableObject object) {
+
+        BoundsFactory bf = new BoundsFactory();
+        boolean empty = true;
+
+        if (object instanceof BoundedWorldObject) {
+            Bounds bounds = ((BoundedWorldObject) object).getBounds();
+            if (bounds != null && bounds.min != null && bounds.max != null) {
+                bf.addPoint(bounds.min);
+                bf.addPoint(bounds.max);
+                empty = false;
+            }
+        }
+
+        List<Selection> selections = object.getSelection();
+        if (selections == null) {
+            return empty ? null : bf.toBounds();
+        }
+
+        for (Selection selection : selections) {
+            if (selection instanceof SphereSelection) {
+                SphereSelection sphere = (SphereSelection) selection;
+                Point3d c = sphere.getCenter();
+                double r = sphere.getRadius();
+                if (c == null) {
+                    continue;
+                }
+
+                bf.addPoint(c.x - r, c.y - r, c.z - r);
+                bf.addPoint(c.x + r, c.y + r, c.z + r);
+                empty = false;
+            }
+        }
+
+        if (empty) {
+            return null;
+        }
+        return bf.toBounds();
+    }
+}
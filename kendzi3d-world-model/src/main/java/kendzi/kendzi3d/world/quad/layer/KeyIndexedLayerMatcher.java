@@ -0,0 +1,22 @@
+package kendzi.kendzi3d.world.quad.layer;
+
+import java.util.Set;
+
+/**
+ * Layer matcher which can be indexed by tag keys. Primitive can be matched by
+ * layer only when it has at least one of the keys, so primitives without them
+ * don't need to be tested by layer matchers.
+ *
+ * @author Tomasz Kędziora (Kendzi)
+ */
+public interface KeyIndexedLayerMatcher extends LayerMatcher {
+
+    /**
+     * Keys of tags required by node, way and relation matchers. Primitive
+     * without any of these keys is never matched by layer.
+     *
+     * @return required keys
+     */
+    Set<String> getRequiredKeys();
+
+}
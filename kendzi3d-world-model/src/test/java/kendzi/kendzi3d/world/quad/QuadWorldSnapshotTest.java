@@ -0,0 +1,182 @@
+package kendzi.kendzi3d.world.quad;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import kendzi.jogl.camera.Frustum;
+import kendzi.jogl.model.geometry.Bounds;
+import kendzi.math.geometry.ray.Ray3d;
+
+import org.junit.Test;
+
+public class QuadWorldSnapshotTest {
+
+    private static Bounds bounds(double minX, double minZ, double maxX, double maxZ) {
+        Bounds b = new Bounds();
+        b.min = new Point3d(minX, 0, minZ);
+        b.max = new Point3d(maxX, 10, maxZ);
+        return b;
+    }
+
+    /**
+     * Frustum in shape of box.
+     */
+    private static Frustum box(double minX, double minZ, double maxX, double maxZ) {
+        return new Frustum(new double[][] { //
+                { 1, 0, 0, -minX }, { -1, 0, 0, maxX }, //
+                { 0, 1, 0, 100 }, { 0, -1, 0, 100 }, //
+                { 0, 0, 1, -minZ }, { 0, 0, -1, maxZ } });
+    }
+
+    /**
+     * Grid of 100 x 100 small objects, name of object is x:z.
+     */
+    private static Map<String, Bounds> grid() {
+        Map<String, Bounds> objects = new LinkedHashMap<String, Bounds>();
+        for (int x = 0; x < 100; x++) {
+            for (int z = 0; z < 100; z++) {
+                objects.put(x + ":" + z, bounds(x * 10, z * 10, x * 10 + 1, z * 10 + 1));
+            }
+        }
+        return objects;
+    }
+
+    @Test
+    public void empty() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(new LinkedHashMap<String, Bounds>());
+
+        List<String> result = new ArrayList<String>();
+        index.query(box(-10, -10, 10, 10), result);
+
+        assertEquals(0, index.size());
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void frustum() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(grid());
+
+        Set<String> result = new HashSet<String>();
+        index.query(box(-5, -5, 25, 15), result);
+
+        assertEquals(10000, index.size());
+        assertEquals(6, result.size());
+        assertTrue(result.contains("0:0"));
+        assertTrue(result.contains("2:1"));
+    }
+
+    @Test
+    public void range() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(grid());
+
+        Set<String> result = new HashSet<String>();
+        index.query(bounds(495, 495, 515, 505), result);
+
+        assertEquals(2, result.size());
+        assertTrue(result.contains("50:50"));
+        assertTrue(result.contains("51:50"));
+    }
+
+    @Test
+    public void ray() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(grid());
+
+        Set<String> result = new HashSet<String>();
+        index.query(new Ray3d(new Point3d(-5, 5, 300.5), new Vector3d(1, 0, 0)), result);
+
+        assertEquals(100, result.size());
+        assertTrue(result.contains("0:30"));
+        assertTrue(result.contains("99:30"));
+    }
+
+    @Test
+    public void rayBackward() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(grid());
+
+        Set<String> result = new HashSet<String>();
+        index.query(new Ray3d(new Point3d(2000, 5, 300.5), new Vector3d(-1, 0, 0)), result);
+        assertEquals(100, result.size());
+
+        // objects behind start of ray are not crossed
+        result.clear();
+        index.query(new Ray3d(new Point3d(-5, 5, 300.5), new Vector3d(-1, 0, 0)), result);
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void rayFromAbove() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(grid());
+
+        Set<String> result = new HashSet<String>();
+        index.query(new Ray3d(new Point3d(500.5, 100, 500.5), new Vector3d(0, -1, 0)), result);
+
+        assertEquals(1, result.size());
+        assertTrue(result.contains("50:50"));
+    }
+
+    @Test
+    public void rayDiagonal() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(grid());
+
+        Set<String> result = new HashSet<String>();
+        index.query(new Ray3d(new Point3d(-5, 5, -5), new Vector3d(1, 0, 1)), result);
+
+        assertEquals(100, result.size());
+        assertTrue(result.contains("0:0"));
+        assertTrue(result.contains("99:99"));
+        assertFalse(result.contains("0:1"));
+    }
+
+    @Test
+    public void rayInsideObject() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(grid());
+
+        Set<String> result = new HashSet<String>();
+        index.query(new Ray3d(new Point3d(0.5, 5, 0.5), new Vector3d(0, 0, 1)), result);
+
+        assertEquals(100, result.size());
+        assertTrue(result.contains("0:0"));
+        assertTrue(result.contains("0:99"));
+    }
+
+    @Test
+    public void rayMiss() {
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(grid());
+
+        Set<String> result = new HashSet<String>();
+        // above all objects
+        index.query(new Ray3d(new Point3d(-5, 50, 300.5), new Vector3d(1, 0, 0)), result);
+        // between rows of objects
+        index.query(new Ray3d(new Point3d(-5, 5, 305), new Vector3d(1, 0, 0)), result);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void spanningAndUnbounded() {
+        Map<String, Bounds> objects = grid();
+        objects.put("big", bounds(-100, -100, 2000, 2000));
+        objects.put("unbounded", null);
+
+        QuadWorldSnapshot<String> index = QuadWorldSnapshot.build(objects);
+
+        Set<String> result = new HashSet<String>();
+        index.query(box(1500, 1500, 1600, 1600), result);
+
+        assertEquals(10002, index.size());
+        assertEquals(2, result.size());
+        assertTrue(result.contains("big"));
+        assertTrue(result.contains("unbounded"));
+    }
+}
@@ -0,0 +1,309 @@
+package kendzi.kendzi3d.world.quad;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import kendzi.jogl.camera.Frustum;
+import kendzi.jogl.model.geometry.Bounds;
+import kendzi.math.geometry.ray.Ray3d;
+
+import org.junit.Test;
+
+public class QuadWorldTest {
+
+    private static Bounds bounds(double minX, double minZ, double maxX, double maxZ) {
+        Bounds b = new Bounds();
+        b.min = new Point3d(minX, 0, minZ);
+        b.max = new Point3d(maxX, 10, maxZ);
+        return b;
+    }
+
+    /**
+     * Frustum in shape of box.
+     */
+    private static Frustum box(double minX, double minZ, double maxX, double maxZ) {
+        return new Frustum(new double[][] { //
+                { 1, 0, 0, -minX }, { -1, 0, 0, maxX }, //
+                { 0, 1, 0, 100 }, { 0, -1, 0, 100 }, //
+                { 0, 0, 1, -minZ }, { 0, 0, -1, maxZ } });
+    }
+
+    /**
+     * Grid of 100 x 100 small objects, name of object is x:z. Grid covers many
+     * cells.
+     */
+    private static QuadWorld<String> grid() {
+        QuadWorld<String> world = new QuadWorld<String>();
+        for (int x = 0; x < 100; x++) {
+            for (int z = 0; z < 100; z++) {
+                world.insert(name(x, z), bounds(x * 10, z * 10, x * 10 + 1, z * 10 + 1));
+            }
+        }
+        return world;
+    }
+
+    /**
+     * World compares objects by identity, names are interned so they are the
+     * same as string literals.
+     */
+    private static String name(int x, int z) {
+        return (x + ":" + z).intern();
+    }
+
+    private static Set<String> query(QuadWorld<String> world, Bounds range) {
+        Set<String> result = new HashSet<String>();
+        for (QuadWorldSnapshot<String> index : world.snapshot()) {
+            index.query(range, result);
+        }
+        return result;
+    }
+
+    private static Set<String> query(QuadWorld<String> world, Frustum frustum) {
+        Set<String> result = new HashSet<String>();
+        for (QuadWorldSnapshot<String> index : world.snapshot()) {
+            index.query(frustum, result);
+        }
+        return result;
+    }
+
+    private static Set<String> query(QuadWorld<String> world, Ray3d ray) {
+        Set<String> result = new HashSet<String>();
+        for (QuadWorldSnapshot<String> index : world.snapshot()) {
+            index.query(ray, result);
+        }
+        return result;
+    }
+
+    @Test
+    public void empty() {
+        QuadWorld<String> world = new QuadWorld<String>();
+
+        assertEquals(0, world.size());
+        assertTrue(world.snapshot().isEmpty());
+        assertTrue(query(world, box(-10, -10, 10, 10)).isEmpty());
+        assertTrue(query(world, bounds(-10, -10, 10, 10)).isEmpty());
+    }
+
+    @Test
+    public void range() {
+        QuadWorld<String> world = grid();
+
+        Set<String> result = query(world, bounds(495, 495, 515, 505));
+
+        assertEquals(10000, world.size());
+        assertEquals(16, world.snapshot().size());
+        assertEquals(2, result.size());
+        assertTrue(result.contains("50:50"));
+        assertTrue(result.contains("51:50"));
+    }
+
+    @Test
+    public void frustum() {
+        QuadWorld<String> world = grid();
+
+        Set<String> result = query(world, box(-5, -5, 25, 15));
+
+        assertEquals(6, result.size());
+        assertTrue(result.contains("0:0"));
+        assertTrue(result.contains("2:1"));
+    }
+
+    @Test
+    public void ray() {
+        QuadWorld<String> world = grid();
+
+        Set<String> result = query(world, new Ray3d(new Point3d(-5, 5, 300.5), new Vector3d(1, 0, 0)));
+
+        assertEquals(100, result.size());
+        assertTrue(result.contains("0:30"));
+        assertTrue(result.contains("99:30"));
+    }
+
+    @Test
+    public void all() {
+        QuadWorld<String> world = grid();
+        world.insert("null", null);
+
+        Set<String> result = new HashSet<String>();
+        for (QuadWorldSnapshot<String> index : world.snapshot()) {
+            index.queryAll(result);
+        }
+
+        assertEquals(10001, result.size());
+        assertTrue(result.contains("0:0"));
+        assertTrue(result.contains("null"));
+    }
+
+    @Test
+    public void update() {
+        QuadWorld<String> world = grid();
+
+        world.update("0:0", bounds(5000, 5000, 5001, 5001));
+
+        assertEquals(10000, world.size());
+        assertTrue(query(world, bounds(-1, -1, 2, 2)).isEmpty());
+
+        Set<String> result = query(world, bounds(4990, 4990, 5010, 5010));
+        assertEquals(1, result.size());
+        assertTrue(result.contains("0:0"));
+    }
+
+    @Test
+    public void insertExisting() {
+        QuadWorld<String> world = new QuadWorld<String>();
+
+        world.insert("a", bounds(0, 0, 1, 1));
+        world.insert("a", bounds(1000, 1000, 1001, 1001));
+
+        assertEquals(1, world.size());
+        assertEquals(1, world.snapshot().size());
+        assertTrue(query(world, bounds(-1, -1, 2, 2)).isEmpty());
+        assertTrue(query(world, bounds(999, 999, 1002, 1002)).contains("a"));
+    }
+
+    @Test
+    public void remove() {
+        QuadWorld<String> world = grid();
+
+        assertTrue(world.remove("50:50"));
+        assertFalse(world.remove("50:50"));
+
+        Set<String> result = query(world, bounds(495, 495, 515, 505));
+
+        assertEquals(9999, world.size());
+        assertEquals(1, result.size());
+        assertTrue(result.contains("51:50"));
+    }
+
+    @Test
+    public void removeAll() {
+        QuadWorld<String> world = grid();
+
+        for (int x = 0; x < 100; x++) {
+            for (int z = 0; z < 100; z++) {
+                assertTrue(world.remove(name(x, z)));
+            }
+        }
+
+        assertEquals(0, world.size());
+        assertTrue(world.snapshot().isEmpty());
+
+        // emptied cells can be used again
+        world.insert("a", bounds(500, 500, 501, 501));
+        assertTrue(query(world, bounds(499, 499, 502, 502)).contains("a"));
+    }
+
+    @Test
+    public void clear() {
+        QuadWorld<String> world = grid();
+
+        world.clear();
+
+        assertEquals(0, world.size());
+        assertTrue(world.snapshot().isEmpty());
+    }
+
+    @Test
+    public void unchangedCellsReused() {
+        QuadWorld<String> world = grid();
+
+        List<QuadWorldSnapshot<String>> first = world.snapshot();
+        assertSame(first, world.snapshot());
+
+        world.update("0:0", bounds(0, 0, 2, 2));
+        List<QuadWorldSnapshot<String>> second = world.snapshot();
+
+        // only cell with changed object is indexed again
+        Set<QuadWorldSnapshot<String>> reused = new HashSet<QuadWorldSnapshot<String>>(first);
+        reused.retainAll(second);
+        assertEquals(16, second.size());
+        assertEquals(15, reused.size());
+    }
+
+    @Test
+    public void spanningCells() {
+        QuadWorld<String> world = grid();
+
+        // crosses boundaries of many cells
+        world.insert("big", bounds(-100, -100, 2000, 2000));
+        world.insert("cross", bounds(250, 250, 760, 760));
+
+        Set<String> result = query(world, bounds(1500, 1500, 1600, 1600));
+        assertEquals(1, result.size());
+        assertTrue(result.contains("big"));
+
+        result = query(world, bounds(755, 255, 756, 256));
+        assertEquals(2, result.size());
+        assertTrue(result.contains("cross"));
+
+        result = query(world, new Ray3d(new Point3d(-500, 5, 1500), new Vector3d(1, 0, 0)));
+        assertEquals(1, result.size());
+        assertTrue(result.contains("big"));
+    }
+
+    @Test
+    public void farObjects() {
+        QuadWorld<String> world = new QuadWorld<String>();
+
+        world.insert("center", bounds(0, 0, 1, 1));
+        world.insert("far", bounds(100000, 100000, 100001, 100001));
+        world.insert("farNegative", bounds(-100001, -100001, -100000, -100000));
+
+        assertEquals(3, world.size());
+        assertEquals(3, world.snapshot().size());
+
+        Set<String> result = query(world, bounds(99999, 99999, 100002, 100002));
+        assertEquals(1, result.size());
+        assertTrue(result.contains("far"));
+
+        result = query(world, box(-100010, -100010, -99990, -99990));
+        assertEquals(1, result.size());
+        assertTrue(result.contains("farNegative"));
+
+        result = query(world, bounds(-1, -1, 2, 2));
+        assertEquals(1, result.size());
+        assertTrue(result.contains("center"));
+    }
+
+    @Test
+    public void unbounded() {
+        QuadWorld<String> world = grid();
+
+        world.insert("null", null);
+
+        Bounds nan = bounds(0, 0, 1, 1);
+        nan.max.x = Double.NaN;
+        world.insert("nan", nan);
+
+        assertEquals(10002, world.size());
+
+        Set<String> result = query(world, bounds(-1000, -1000, -900, -900));
+        assertEquals(2, result.size());
+        assertTrue(result.contains("null"));
+        assertTrue(result.contains("nan"));
+
+        result = query(world, box(-1000, -1000, -900, -900));
+        assertEquals(2, result.size());
+
+        result = query(world, new Ray3d(new Point3d(-5, 500, -5), new Vector3d(0, 1, 0)));
+        assertEquals(2, result.size());
+
+        // unbounded object gets bounds
+        world.update("null", bounds(-1000, -1000, -999, -999));
+        result = query(world, bounds(-1000, -1000, -900, -900));
+        assertEquals(2, result.size());
+        assertTrue(world.remove("nan"));
+        result = query(world, bounds(-1000, -1000, -900, -900));
+        assertEquals(1, result.size());
+        assertTrue(result.contains("null"));
+    }
+}